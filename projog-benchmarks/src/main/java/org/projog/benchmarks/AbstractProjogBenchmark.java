@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.projog.api.Projog;
+
+/**
+ * Default settings shared by all the benchmarks.
+ * <p>
+ * Each benchmark is run against its own {@link Projog} instance, which has consulted the Prolog program being
+ * benchmarked before any measurements are taken.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public abstract class AbstractProjogBenchmark {
+   /**
+    * Returns a new {@link Projog} that has consulted the specified resources from the {@code benchmarks} directory.
+    */
+   static Projog createProjog(String... resourceNames) {
+      Projog projog = new Projog();
+      for (String resourceName : resourceNames) {
+         projog.consultResource("benchmarks/" + resourceName);
+      }
+      return projog;
+   }
+}
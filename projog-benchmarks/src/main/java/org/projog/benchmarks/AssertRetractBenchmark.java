@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.projog.api.QueryPlan;
+import org.projog.api.QueryStatement;
+
+/** Asserts, and then retracts, the specified number of clauses of a dynamic predicate. */
+public class AssertRetractBenchmark extends AbstractProjogBenchmark {
+   @Param({"10000"})
+   private int numberOfClauses;
+
+   private QueryPlan plan;
+
+   @Setup
+   public void setup() {
+      plan = createProjog("churn.pl").createPlan("churn(N).");
+   }
+
+   @Benchmark
+   public void churn() {
+      QueryStatement statement = plan.createStatement();
+      statement.setLong("N", numberOfClauses);
+      statement.executeOnce();
+   }
+}
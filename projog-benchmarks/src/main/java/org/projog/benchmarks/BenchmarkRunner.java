@@ -0,0 +1,49 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the JMH GC profiler enabled and the results written to {@code target/jmh-result.json}.
+ * <p>
+ * Accepts the same command line arguments as {@code org.openjdk.jmh.Main}. Any options specified on the command line
+ * take precedence over the defaults set by this class.
+ */
+public final class BenchmarkRunner {
+   private static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+   private BenchmarkRunner() {
+   }
+
+   public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+      CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+      Options options = new OptionsBuilder() //
+                  .parent(commandLineOptions) //
+                  .addProfiler(GCProfiler.class) //
+                  .resultFormat(commandLineOptions.getResultFormat().orElse(ResultFormatType.JSON)) //
+                  .result(commandLineOptions.getResult().orElse(DEFAULT_RESULT_FILE)) //
+                  .build();
+      new Runner(options).run();
+   }
+}
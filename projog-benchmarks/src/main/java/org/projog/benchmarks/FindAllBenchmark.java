@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+import org.projog.api.QueryPlan;
+import org.projog.api.QueryResult;
+import org.projog.core.term.Term;
+
+/** Uses {@code findall/3} to collect 1,000,000 solutions. */
+public class FindAllBenchmark extends AbstractProjogBenchmark {
+   private QueryPlan plan;
+
+   @Setup
+   public void setup() {
+      plan = createProjog().createPlan("findall(X, between(1, 1000000, X), L).");
+   }
+
+   @Benchmark
+   public Term findAll() {
+      QueryResult result = plan.executeQuery();
+      if (!result.next()) {
+         throw new IllegalStateException("No solution found");
+      }
+      return result.getTerm("L");
+   }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.projog.api.QueryPlan;
+import org.projog.api.QueryStatement;
+import org.projog.core.term.IntegerNumberCache;
+import org.projog.core.term.ListFactory;
+import org.projog.core.term.Term;
+
+/** Naive reverse of a list of integers. */
+public class NaiveReverseBenchmark extends AbstractProjogBenchmark {
+   @Param({"30", "1000"})
+   private int listLength;
+
+   private QueryPlan plan;
+   private Term list;
+
+   @Setup
+   public void setup() {
+      plan = createProjog("nrev.pl").createPlan("nrev(L, R).");
+
+      Term[] elements = new Term[listLength];
+      for (int i = 0; i < listLength; i++) {
+         elements[i] = IntegerNumberCache.valueOf(i);
+      }
+      list = ListFactory.createList(elements);
+   }
+
+   @Benchmark
+   public Term nrev() {
+      QueryStatement statement = plan.createStatement();
+      statement.setTerm("L", list);
+      return statement.findFirstAsTerm();
+   }
+}
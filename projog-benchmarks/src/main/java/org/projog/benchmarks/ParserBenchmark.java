@@ -0,0 +1,56 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.projog.core.parser.Operands;
+import org.projog.core.parser.SentenceParser;
+import org.projog.core.term.Term;
+
+/** Parses a large amount of Prolog syntax. */
+public class ParserBenchmark extends AbstractProjogBenchmark {
+   @Param({"10000"})
+   private int numberOfClauses;
+
+   private Operands operands;
+   private String source;
+
+   @Setup
+   public void setup() {
+      operands = createProjog().getKnowledgeBase().getOperands();
+
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < numberOfClauses; i++) {
+         sb.append("p(").append(i).append(", [a, b, c|T], f(X, 'quoted atom'), ").append(i).append(".5) :- ");
+         sb.append("q(X, Y), Y > ").append(i).append(" * 2 + 1, \\+ r(T), (s(X) -> t ; u(Y, Z, [Z|T])).\n");
+         sb.append("fact").append(i % 100).append("(abc, ").append(i).append(", -").append(i).append(".25).\n");
+      }
+      source = sb.toString();
+   }
+
+   @Benchmark
+   public int parse() {
+      SentenceParser parser = SentenceParser.getInstance(source, operands);
+      int count = 0;
+      Term t;
+      while ((t = parser.parseSentence()) != null) {
+         count += t.getNumberOfArguments();
+      }
+      return count;
+   }
+}
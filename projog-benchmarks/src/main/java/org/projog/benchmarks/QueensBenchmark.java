@@ -0,0 +1,38 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmarks;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+import org.projog.api.QueryPlan;
+import org.projog.core.term.Term;
+
+/** Finds all solutions of the eight queens problem. */
+public class QueensBenchmark extends AbstractProjogBenchmark {
+   private QueryPlan plan;
+
+   @Setup
+   public void setup() {
+      plan = createProjog("queens.pl").createPlan("queens(8, Qs).");
+   }
+
+   @Benchmark
+   public List<Term> queens() {
+      return plan.findAllAsTerm();
+   }
+}
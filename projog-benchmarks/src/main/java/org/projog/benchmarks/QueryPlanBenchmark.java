@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.projog.api.Projog;
+import org.projog.api.QueryPlan;
+import org.projog.api.QueryStatement;
+
+/**
+ * Compares reusing a {@link QueryPlan} to parsing a query every time it is evaluated.
+ * <p>
+ * The query is deliberately cheap to evaluate, so the cost of parsing it is significant.
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryPlanBenchmark extends AbstractProjogBenchmark {
+   private static final String QUERY = "X = f(a, b, [c, d]), Y is N * 2 + 1.";
+
+   private Projog projog;
+   private QueryPlan plan;
+
+   @Setup
+   public void setup() {
+      projog = createProjog();
+      plan = projog.createPlan(QUERY);
+   }
+
+   @Benchmark
+   public long reusePlan() {
+      return evaluate(plan.createStatement());
+   }
+
+   @Benchmark
+   public long parseEveryTime() {
+      return evaluate(projog.createStatement(QUERY));
+   }
+
+   private static long evaluate(QueryStatement statement) {
+      statement.setLong("N", 7);
+      return statement.executeQuery().next() ? 1 : 0;
+   }
+}
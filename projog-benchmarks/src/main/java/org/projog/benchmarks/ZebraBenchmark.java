@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+import org.projog.api.QueryPlan;
+import org.projog.api.QueryResult;
+
+/** Solves the zebra puzzle using CLP. */
+public class ZebraBenchmark extends AbstractProjogBenchmark {
+   private QueryPlan plan;
+
+   @Setup
+   public void setup() {
+      plan = createProjog("zebra.pl").createPlan("solve(People, Doors, Pets, Cigarettes, Drink).");
+   }
+
+   @Benchmark
+   public QueryResult zebra() {
+      QueryResult result = plan.executeQuery();
+      if (!result.next()) {
+         throw new IllegalStateException("No solution found");
+      }
+      return result;
+   }
+}
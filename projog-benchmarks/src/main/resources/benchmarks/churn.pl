@@ -0,0 +1,7 @@
+% Repeatedly asserts and then retracts the clauses of a dynamic predicate.
+
+?- dynamic(fact/2).
+
+churn(N) :- between(1, N, X), assertz(fact(X, X)), fail.
+churn(N) :- between(1, N, X), retract(fact(X, _)), fail.
+churn(_).
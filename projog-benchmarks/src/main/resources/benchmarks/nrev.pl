@@ -0,0 +1,7 @@
+% Naive reverse - the classic benchmark of the speed of unification and calling user defined predicates.
+
+app([], L, L).
+app([H|T], L, [H|R]) :- app(T, L, R).
+
+nrev([], []).
+nrev([H|T], R) :- nrev(T, RT), app(RT, [H], R).
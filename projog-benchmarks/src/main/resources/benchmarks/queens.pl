@@ -0,0 +1,21 @@
+% The N queens problem, solved using generate and test - a benchmark of the speed of backtracking.
+
+queens(N, Qs) :- range(1, N, Ns), queens(Ns, [], Qs).
+
+queens([], Qs, Qs).
+queens(UnplacedQs, SafeQs, Qs) :-
+   sel(Q, UnplacedQs, UnplacedQs1),
+   \+ attacks(Q, SafeQs),
+   queens(UnplacedQs1, [Q|SafeQs], Qs).
+
+attacks(Q, Qs) :- attacks(Q, 1, Qs).
+
+attacks(X, N, [Y|_]) :- X is Y + N.
+attacks(X, N, [Y|_]) :- X is Y - N.
+attacks(X, N, [_|Ys]) :- N1 is N + 1, attacks(X, N1, Ys).
+
+sel(X, [X|Xs], Xs).
+sel(X, [Y|Ys], [Y|Zs]) :- sel(X, Ys, Zs).
+
+range(N, N, [N]) :- !.
+range(M, N, [M|Ns]) :- M < N, M1 is M + 1, range(M1, N, Ns).
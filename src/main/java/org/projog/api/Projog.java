@@ -19,12 +19,16 @@ import java.io.File;
 import java.io.InputStream;
 import java.io.PrintStream;
 import java.io.Reader;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.projog.core.ProjogException;
 import org.projog.core.event.ProjogListener;
+import org.projog.core.event.RuntimeStatistics;
 import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.kb.KnowledgeBaseImage;
+import org.projog.core.kb.KnowledgeBaseServiceLocator;
 import org.projog.core.kb.KnowledgeBaseUtils;
 import org.projog.core.kb.ProjogDefaultProperties;
 import org.projog.core.kb.ProjogProperties;
@@ -64,6 +68,80 @@ public final class Projog {
       KnowledgeBaseUtils.bootstrap(kb);
    }
 
+   /** @see #fork() */
+   private Projog(KnowledgeBase kb) {
+      this.kb = kb;
+   }
+
+   /**
+    * Returns a new {@code Projog} object populated from an image created by {@link #saveImage(Path)}.
+    * <p>
+    * Loading an image is much quicker than consulting the equivalent Prolog source, as no parsing is required.
+    *
+    * @param image the file containing the image
+    * @throws ProjogException if there is any problem reading the image
+    * @see KnowledgeBaseImage
+    */
+   public static Projog loadImage(Path image, ProjogListener... listeners) {
+      return loadImage(new ProjogDefaultProperties(), image, listeners);
+   }
+
+   /**
+    * Returns a new {@code Projog} object, with the specified {@code ProjogProperties}, populated from an image created
+    * by {@link #saveImage(Path)}.
+    *
+    * @param image the file containing the image
+    * @throws ProjogException if there is any problem reading the image
+    * @see KnowledgeBaseImage
+    */
+   public static Projog loadImage(ProjogProperties projogProperties, Path image, ProjogListener... listeners) {
+      Projog projog = new Projog(KnowledgeBaseUtils.createKnowledgeBase(projogProperties));
+      for (ProjogListener listener : listeners) {
+         projog.addListener(listener);
+      }
+      try {
+         KnowledgeBaseImage.load(projog.kb, image);
+      } catch (ProjogException e) {
+         throw e;
+      } catch (Exception e) {
+         throw new ProjogException("Could not load knowledge base image from: " + image, e);
+      }
+      return projog;
+   }
+
+   /**
+    * Saves the contents of the {@code KnowledgeBase} of this object to an image.
+    * <p>
+    * The image contains the operators, plugged-in Java predicates and arithmetic operators, and the clauses of all user
+    * defined predicates. The state of flags and the recorded database is not included.
+    *
+    * @param image the file to write the image to
+    * @throws ProjogException if there is any problem writing the image
+    * @see #loadImage(Path, ProjogListener...)
+    */
+   public void saveImage(Path image) {
+      try {
+         KnowledgeBaseImage.save(kb, image);
+      } catch (ProjogException e) {
+         throw e;
+      } catch (Exception e) {
+         throw new ProjogException("Could not save knowledge base image to: " + image, e);
+      }
+   }
+
+   /**
+    * Returns a new {@code Projog} object with a copy of the {@code KnowledgeBase} of this object.
+    * <p>
+    * Forking is a much quicker way to create a new {@code Projog} than constructing and consulting a new instance. The
+    * new {@code Projog} has its own dynamic predicates, flags and recorded database - so changes made to them by either
+    * {@code Projog} will not affect the other.
+    *
+    * @see KnowledgeBaseUtils#fork(KnowledgeBase)
+    */
+   public Projog fork() {
+      return new Projog(KnowledgeBaseUtils.fork(kb));
+   }
+
    /**
     * Populates this objects {@code KnowledgeBase} with clauses read from the specified file.
     *
@@ -241,6 +319,20 @@ public final class Projog {
       return kb.getTermFormatter().formatTerm(t);
    }
 
+   /**
+    * Returns the value associated with the specified key, as used by the {@code statistics/2} built-in predicate.
+    * <p>
+    * e.g. {@code getStatistic("inferences")} returns the number of inferences performed by the current thread.
+    *
+    * @param key one of the values returned by {@link RuntimeStatistics#getKeys()}
+    * @return the value associated with {@code key}
+    * @throws ProjogException if {@code key} is not recognised
+    * @see RuntimeStatistics
+    */
+   public Term getStatistic(String key) {
+      return KnowledgeBaseServiceLocator.getServiceLocator(kb).<RuntimeStatistics> getInstance(RuntimeStatistics.class).getValue(key);
+   }
+
    /**
     * Returns the {@link KnowledgeBase} associated with this object.
     * <p>
@@ -17,8 +17,10 @@ package org.projog.api;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import org.projog.core.ProjogException;
+import org.projog.core.event.QueryLimits;
 import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.parser.ParserException;
 import org.projog.core.parser.SentenceParser;
@@ -32,12 +34,20 @@ import org.projog.core.term.Term;
  * execute the same query multiple times then, for performance reasons, it is recommended to use a {@code QueryPlan}
  * rather than create multiple {@link QueryStatement} directly. When using a {@code QueryPlan} the Prolog syntax will
  * only be parsed once and the plan for executing the query will be optimised for performance.
+ * <p>
+ * A {@code QueryPlan} is thread-safe. Multiple threads can concurrently call {@link #executeQuery()}, against the same
+ * {@link Projog} instance, with each thread iterating over its own {@link QueryResult}.
  */
 public class QueryPlan {
+   private final KnowledgeBase kb;
    private final PredicateFactory predicateFactory;
    private final Term parsedInput;
+   private volatile long timeout = QueryLimits.UNLIMITED;
+   private volatile long maxInferences = QueryLimits.UNLIMITED;
+   private volatile long maxAllocatedBytes = QueryLimits.UNLIMITED;
 
    QueryPlan(KnowledgeBase kb, String prologQuery) {
+      this.kb = kb;
       try {
          SentenceParser sp = SentenceParser.getInstance(prologQuery, kb.getOperands());
 
@@ -54,12 +64,39 @@ public class QueryPlan {
       }
    }
 
+   /**
+    * Sets the maximum time each query created from this plan can be evaluated for.
+    *
+    * @see QueryStatement#setTimeout(long, TimeUnit)
+    */
+   public void setTimeout(long timeout, TimeUnit unit) {
+      this.timeout = unit.toNanos(timeout);
+   }
+
+   /**
+    * Sets the maximum number of inferences each query created from this plan can perform.
+    *
+    * @see QueryStatement#setMaxInferences(long)
+    */
+   public void setMaxInferences(long maxInferences) {
+      this.maxInferences = maxInferences;
+   }
+
+   /**
+    * Sets the maximum number of bytes that can be allocated while evaluating each query created from this plan.
+    *
+    * @see QueryStatement#setMaxAllocatedBytes(long)
+    */
+   public void setMaxAllocatedBytes(long maxAllocatedBytes) {
+      this.maxAllocatedBytes = maxAllocatedBytes;
+   }
+
    /**
     * Return a newly created {@link QueryStatement} for the query represented by this plan.
     * <p>
     * Before the query is executed, values can be assigned to variables in the query by using
     * {@link QueryStatement#setTerm(String, Term)}. The query can be executed by calling
-    * {@link QueryStatement#executeQuery()}.
+    * {@link QueryStatement#executeQuery()}. The statement is created with the limits specified for this plan.
     * </p>
     * <p>
     * Note: If you do not intend to assign terms to variables then {@link #executeQuery()} can be called instead.
@@ -69,7 +106,11 @@ public class QueryPlan {
     * @see #executeOnce()
     */
    public QueryStatement createStatement() {
-      return new QueryStatement(predicateFactory, parsedInput);
+      QueryStatement statement = new QueryStatement(kb, predicateFactory, parsedInput);
+      statement.setTimeout(timeout, TimeUnit.NANOSECONDS);
+      statement.setMaxInferences(maxInferences);
+      statement.setMaxAllocatedBytes(maxAllocatedBytes);
+      return statement;
    }
 
    /**
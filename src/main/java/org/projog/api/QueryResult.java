@@ -15,22 +15,40 @@
  */
 package org.projog.api;
 
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.DoubleStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.projog.core.ProjogException;
+import org.projog.core.event.QueryLimits;
+import org.projog.core.io.FileHandles;
+import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.predicate.CutException;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.predicate.udp.GoalStackMachine;
 import org.projog.core.term.Term;
 import org.projog.core.term.TermUtils;
+import org.projog.core.term.Trail;
 import org.projog.core.term.Variable;
 
 /**
  * Represents an executing query.
  */
 public final class QueryResult {
+   private final Trail trail = new Trail();
+   private final FileHandles.Streams streams;
+   private final QueryLimits limits;
    private final Predicate predicate;
    private final Map<String, Variable> variables;
    private boolean hasBeenEvaluated;
@@ -39,24 +57,47 @@ public final class QueryResult {
    /**
     * Evaluates a query.
     *
+    * @param kb the {@link KnowledgeBase} the query is evaluated against
     * @param PredicateFactory the {@link PredicateFactory} that will be used to evaluate the query
     * @param query represents the query statement being evaluated
     * @param variables collection of variables contained in the query (keyed by variable id)
+    * @param streams the current input and output streams of the query, or {@code null} if the query should use the
+    * streams shared by all queries of the knowledge base
+    * @param limits the limits on the resources the query can use
     * @see QueryStatement#executeQuery()
     */
-   QueryResult(PredicateFactory predicateFactory, Term query, Map<String, Variable> variables) {
+   QueryResult(KnowledgeBase kb, PredicateFactory predicateFactory, Term query, Map<String, Variable> variables, FileHandles.Streams streams, QueryLimits limits) {
+      this.streams = streams;
+      this.limits = limits;
+      Trail previous = trail.activate();
+      FileHandles.Streams previousStreams = activateStreams();
+      QueryLimits previousLimits = limits.activate();
+      try {
+         if (kb.getProjogProperties().isGoalStackEngineEnabled()) {
+            this.predicate = new GoalStackMachine(kb, query);
+         } else {
+            this.predicate = createPredicate(predicateFactory, query);
+         }
+      } finally {
+         limits.deactivate(previousLimits);
+         deactivateStreams(previousStreams);
+         trail.deactivate(previous);
+      }
+
+      this.variables = variables;
+   }
+
+   private static Predicate createPredicate(PredicateFactory predicateFactory, Term query) {
       int numArgs = query.getNumberOfArguments();
       if (numArgs == 0) {
-         this.predicate = predicateFactory.getPredicate(TermUtils.EMPTY_ARRAY);
+         return predicateFactory.getPredicate(TermUtils.EMPTY_ARRAY);
       } else {
          Term[] args = new Term[numArgs];
          for (int i = 0; i < args.length; i++) {
             args[i] = query.getArgument(i).getTerm();
          }
-         this.predicate = predicateFactory.getPredicate(args);
+         return predicateFactory.getPredicate(args);
       }
-
-      this.variables = variables;
    }
 
    /**
@@ -70,6 +111,7 @@ public final class QueryResult {
     * Once {@code false} has been returned by {@code next()} the {@code next()} method should no longer be called on
     * that object.
     * @throws ProjogException if an error occurs while evaluating the query
+    * @throws org.projog.core.event.QueryLimitException if the query has been cancelled or has exceeded one of its limits
     */
    public boolean next() {
       if (hasFailed) {
@@ -93,14 +135,52 @@ public final class QueryResult {
    }
 
    private boolean evaluate() {
+      Trail previous = trail.activate();
+      FileHandles.Streams previousStreams = activateStreams();
+      QueryLimits previousLimits = limits.activate();
       try {
+         limits.check();
          return predicate.evaluate();
       } catch (CutException e) {
          // e.g. for a query like: "?- true, !."
          return false;
+      } finally {
+         limits.deactivate(previousLimits);
+         deactivateStreams(previousStreams);
+         trail.deactivate(previous);
+      }
+   }
+
+   private FileHandles.Streams activateStreams() {
+      return streams == null ? null : streams.activate();
+   }
+
+   private void deactivateStreams(FileHandles.Streams previous) {
+      if (streams != null) {
+         streams.deactivate(previous);
       }
    }
 
+   /**
+    * Requests that the evaluation of this query is stopped.
+    * <p>
+    * Can be called by any thread. If the query is currently being evaluated then the thread evaluating it will throw a
+    * {@link org.projog.core.event.QueryLimitException} soon after. Any subsequent call of {@link #next()} will also
+    * throw a {@code QueryLimitException}.
+    */
+   public void cancel() {
+      limits.cancel();
+   }
+
+   /**
+    * Returns the number of inferences performed while evaluating this query.
+    *
+    * @see org.projog.core.event.InferenceCounter
+    */
+   public long getInferenceCount() {
+      return limits.getInferenceCount();
+   }
+
    /**
     * Returns {@code true} if it is known that all possible solutions have been found, else {@code false}.
     *
@@ -175,11 +255,151 @@ public final class QueryResult {
       if (hasFailed) {
          throw new ProjogException("No more solutions. Last call to QueryResult.next() returned false.");
       }
+      return getVariable(variableId).getTerm();
+   }
+
+   /**
+    * Returns an iterator over the remaining solutions of the query.
+    * <p>
+    * Solutions are found lazily - each call to {@link Iterator#hasNext()} that is not preceded by a call to
+    * {@link Iterator#next()} evaluates the query to find the next solution. Each element is an array containing the
+    * terms instantiated to the specified variables, in the order the variables were specified. The variables are
+    * resolved once, when this method is called, rather than for each solution.
+    *
+    * @param variableIds the ids of the variables to include in each element
+    * @return an iterator over the remaining solutions of the query
+    * @throws ProjogException if no variable with one of the specified ids exists in the query this object represents
+    */
+   public Iterator<Term[]> iterator(String... variableIds) {
+      Variable[] columns = getVariables(variableIds);
+      return new SolutionIterator<>(() -> {
+         Term[] row = new Term[columns.length];
+         for (int i = 0; i < columns.length; i++) {
+            row[i] = columns[i].getTerm();
+         }
+         return row;
+      });
+   }
+
+   /**
+    * Returns a spliterator over the remaining solutions of the query.
+    * <p>
+    * The spliterator is ordered and cannot be split, as solutions are found sequentially.
+    *
+    * @param variableIds the ids of the variables to include in each element
+    * @return a spliterator over the remaining solutions of the query
+    * @throws ProjogException if no variable with one of the specified ids exists in the query this object represents
+    * @see #iterator(String...)
+    */
+   public Spliterator<Term[]> spliterator(String... variableIds) {
+      return toSpliterator(iterator(variableIds));
+   }
+
+   /**
+    * Returns a sequential stream of the remaining solutions of the query.
+    * <p>
+    * Solutions are only found as they are consumed by the stream, so a short-circuiting operation (e.g.
+    * {@code limit(long)} or {@code findFirst()}) stops the query being evaluated further. Closing the stream prevents
+    * any further solutions being found.
+    *
+    * @param variableIds the ids of the variables to include in each element
+    * @return a stream of the remaining solutions of the query
+    * @throws ProjogException if no variable with one of the specified ids exists in the query this object represents
+    * @see #iterator(String...)
+    */
+   public Stream<Term[]> stream(String... variableIds) {
+      return StreamSupport.stream(spliterator(variableIds), false).onClose(this::close);
+   }
+
+   /**
+    * Returns a sequential stream of the names of the atoms instantiated to the specified variable by the remaining
+    * solutions of the query.
+    *
+    * @param variableId the id of the variable
+    * @return a stream of atom names
+    * @throws ProjogException if no variable with the specified id exists in the query this object represents, or if
+    * the term instantiated to the variable by a solution is not an atom
+    * @see #stream(String...)
+    */
+   public Stream<String> streamAsAtomName(String variableId) {
+      Variable column = getVariable(variableId);
+      return StreamSupport.stream(toSpliterator(new SolutionIterator<>(() -> TermUtils.getAtomName(column.getTerm()))), false).onClose(this::close);
+   }
+
+   /**
+    * Returns a sequential stream of the {@code long} values instantiated to the specified variable by the remaining
+    * solutions of the query.
+    *
+    * @param variableId the id of the variable
+    * @return a stream of {@code long} values
+    * @throws ProjogException if no variable with the specified id exists in the query this object represents, or if
+    * the term instantiated to the variable by a solution is not a number
+    * @see #stream(String...)
+    */
+   public LongStream streamAsLong(String variableId) {
+      Variable column = getVariable(variableId);
+      return StreamSupport.stream(toSpliterator(new SolutionIterator<>(() -> TermUtils.castToNumeric(column.getTerm()).getLong())), false)
+                  .mapToLong(Long::longValue).onClose(this::close);
+   }
+
+   /**
+    * Returns a sequential stream of the {@code double} values instantiated to the specified variable by the remaining
+    * solutions of the query.
+    *
+    * @param variableId the id of the variable
+    * @return a stream of {@code double} values
+    * @throws ProjogException if no variable with the specified id exists in the query this object represents, or if
+    * the term instantiated to the variable by a solution is not a number
+    * @see #stream(String...)
+    */
+   public DoubleStream streamAsDouble(String variableId) {
+      Variable column = getVariable(variableId);
+      return StreamSupport.stream(toSpliterator(new SolutionIterator<>(() -> TermUtils.castToNumeric(column.getTerm()).getDouble())), false)
+                  .mapToDouble(Double::doubleValue).onClose(this::close);
+   }
+
+   private Variable[] getVariables(String... variableIds) {
+      Variable[] result = new Variable[variableIds.length];
+      for (int i = 0; i < variableIds.length; i++) {
+         result[i] = getVariable(variableIds[i]);
+      }
+      return result;
+   }
+
+   private Variable getVariable(String variableId) {
       Variable v = variables.get(variableId);
       if (v == null) {
          throw new ProjogException("Unknown variable ID: " + variableId + ". Query contains the variables: " + getVariableIds());
       }
-      return v.getTerm();
+      return v;
+   }
+
+   /**
+    * Returns a spliterator that does not support splitting, so solutions are never found in advance of being required.
+    */
+   private static <T> Spliterator<T> toSpliterator(Iterator<T> itr) {
+      return new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+         @Override
+         public boolean tryAdvance(Consumer<? super T> action) {
+            if (itr.hasNext()) {
+               action.accept(itr.next());
+               return true;
+            } else {
+               return false;
+            }
+         }
+
+         @Override
+         public Spliterator<T> trySplit() {
+            return null;
+         }
+      };
+   }
+
+   /** Prevents any further solutions being found. */
+   private void close() {
+      hasBeenEvaluated = true;
+      hasFailed = true;
    }
 
    /**
@@ -190,4 +410,36 @@ public final class QueryResult {
    public Set<String> getVariableIds() {
       return new TreeSet<>(variables.keySet());
    }
+
+   /**
+    * Iterates over the remaining solutions of the query.
+    * <p>
+    * The query is only re-evaluated when {@link #hasNext()} is called after the previous solution has been returned by
+    * {@link #next()}.
+    */
+   private final class SolutionIterator<T> implements Iterator<T> {
+      private final Supplier<T> row;
+      private boolean found;
+
+      SolutionIterator(Supplier<T> row) {
+         this.row = row;
+      }
+
+      @Override
+      public boolean hasNext() {
+         if (!found && !isExhausted()) {
+            found = QueryResult.this.next();
+         }
+         return found;
+      }
+
+      @Override
+      public T next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         found = false;
+         return row.get();
+      }
+   }
 }
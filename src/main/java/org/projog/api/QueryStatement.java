@@ -15,19 +15,25 @@
  */
 package org.projog.api;
 
+import java.io.InputStream;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import org.projog.core.ProjogException;
+import org.projog.core.event.QueryLimits;
+import org.projog.core.io.FileHandles;
 import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.parser.ParserException;
 import org.projog.core.parser.SentenceParser;
 import org.projog.core.predicate.PredicateFactory;
 import org.projog.core.term.Atom;
+import org.projog.core.term.AtomCache;
 import org.projog.core.term.DecimalFraction;
 import org.projog.core.term.IntegerNumber;
 import org.projog.core.term.ListFactory;
@@ -45,9 +51,16 @@ import org.projog.core.term.Variable;
 public final class QueryStatement {
    private static final Map<String, Variable> EMPTY_VARIABLES = Collections.emptyMap();
 
+   private final KnowledgeBase kb;
+   private final FileHandles fileHandles;
    private final PredicateFactory predicateFactory;
    private final Term parsedInput;
    private final Map<String, Variable> variables;
+   private InputStream input;
+   private PrintStream output;
+   private long timeout = QueryLimits.UNLIMITED;
+   private long maxInferences = QueryLimits.UNLIMITED;
+   private long maxAllocatedBytes = QueryLimits.UNLIMITED;
    private boolean invoked;
 
    /**
@@ -58,6 +71,8 @@ public final class QueryStatement {
     * @throws ProjogException if an error occurs parsing {@code prologQuery}
     */
    QueryStatement(KnowledgeBase kb, String prologQuery) {
+      this.kb = kb;
+      this.fileHandles = kb.getFileHandles();
       try {
          SentenceParser sp = SentenceParser.getInstance(prologQuery, kb.getOperands());
 
@@ -78,11 +93,14 @@ public final class QueryStatement {
    /**
     * Creates a new {@code QueryStatement} representing a query specified by {@code prologQuery}.
     *
+    * @param kb the {@link KnowledgeBase} to query against
     * @param PredicateFactory the {@link PredicateFactory} that will be used to execute the query
     * @param prologQuery prolog syntax representing a query (do not prefix with a {@code ?-})
     * @throws ProjogException if an error occurs parsing {@code prologQuery}
     */
-   QueryStatement(PredicateFactory predicateFactory, Term prologQuery) {
+   QueryStatement(KnowledgeBase kb, PredicateFactory predicateFactory, Term prologQuery) {
+      this.kb = kb;
+      this.fileHandles = kb.getFileHandles();
       this.predicateFactory = predicateFactory;
       if (prologQuery.isImmutable()) {
          this.parsedInput = prologQuery;
@@ -143,7 +161,7 @@ public final class QueryStatement {
     * @see #setTerm(String, Term)
     */
    public void setAtomName(String variableId, String atomName) {
-      setTerm(variableId, new Atom(atomName));
+      setTerm(variableId, AtomCache.valueOf(atomName));
    }
 
    /**
@@ -185,7 +203,7 @@ public final class QueryStatement {
    public void setListOfAtomNames(String variableId, String... atomNames) {
       Term[] terms = new Term[atomNames.length];
       for (int i = 0; i < atomNames.length; i++) {
-         terms[i] = new Atom(atomNames[i]);
+         terms[i] = AtomCache.valueOf(atomNames[i]);
       }
       setTerm(variableId, ListFactory.createList(terms));
    }
@@ -203,7 +221,7 @@ public final class QueryStatement {
    public void setListOfAtomNames(String variableId, List<String> atomNames) {
       Term[] terms = new Term[atomNames.size()];
       for (int i = 0; i < atomNames.size(); i++) {
-         terms[i] = new Atom(atomNames.get(i));
+         terms[i] = AtomCache.valueOf(atomNames.get(i));
       }
       setTerm(variableId, ListFactory.createList(terms));
    }
@@ -302,6 +320,70 @@ public final class QueryStatement {
       setTerm(variableId, ListFactory.createList(terms));
    }
 
+   /**
+    * Sets the stream the query will read from when reading from {@code user_input}.
+    * <p>
+    * The current input stream of the query will initially be set to {@code user_input}. Any changes the query makes to
+    * its current input stream (e.g. by calling {@code see/1}) will not affect any other query.
+    *
+    * @param input the stream to use as {@code user_input}
+    */
+   public void setInput(InputStream input) {
+      this.input = input;
+   }
+
+   /**
+    * Sets the stream the query will write to when writing to {@code user_output}.
+    * <p>
+    * The current output stream of the query will initially be set to {@code user_output}. Any changes the query makes
+    * to its current output stream (e.g. by calling {@code tell/1}) will not affect any other query.
+    *
+    * @param output the stream to use as {@code user_output}
+    */
+   public void setOutput(PrintStream output) {
+      this.output = output;
+   }
+
+   /**
+    * Sets the maximum time the query can be evaluated for.
+    * <p>
+    * The time starts from when {@link #executeQuery()} is called. If the query is still being evaluated when the time
+    * has expired then a {@link org.projog.core.event.QueryLimitException} will be thrown.
+    *
+    * @param timeout the maximum time the query can be evaluated for
+    * @param unit the unit of {@code timeout}
+    */
+   public void setTimeout(long timeout, TimeUnit unit) {
+      this.timeout = unit.toNanos(timeout);
+   }
+
+   /**
+    * Sets the maximum number of inferences the query can perform.
+    * <p>
+    * The limit applies to all the solutions found for the query. If the query attempts to perform more inferences then
+    * a {@link org.projog.core.event.QueryLimitException} will be thrown.
+    *
+    * @param maxInferences the maximum number of inferences the query can perform
+    * @see org.projog.core.event.InferenceCounter
+    */
+   public void setMaxInferences(long maxInferences) {
+      this.maxInferences = maxInferences;
+   }
+
+   /**
+    * Sets the maximum number of bytes that can be allocated while evaluating the query.
+    * <p>
+    * The bytes counted are all those allocated by the thread evaluating the query while it is being evaluated,
+    * including memory that has since been garbage collected. If the limit is exceeded then a
+    * {@link org.projog.core.event.QueryLimitException} will be thrown.
+    *
+    * @param maxAllocatedBytes the maximum number of bytes that can be allocated while evaluating the query
+    * @see QueryLimits#isAllocationLimitSupported()
+    */
+   public void setMaxAllocatedBytes(long maxAllocatedBytes) {
+      this.maxAllocatedBytes = maxAllocatedBytes;
+   }
+
    /**
     * Returns a new {@link QueryResult} for the query represented by this object.
     * <p>
@@ -309,6 +391,8 @@ public final class QueryStatement {
     * {@link QueryResult#next()} that the first attempt to evaluate the query will be made.
     *
     * @return a new {@link QueryResult} for the query represented by this object.
+    * @throws ProjogException if a limit is negative, or a maximum number of bytes allocated is specified but measuring
+    * the memory allocated by a thread is not supported
     */
    public QueryResult executeQuery() {
       if (invoked) {
@@ -316,7 +400,9 @@ public final class QueryStatement {
                      + "If you want to reuse the same query then consider using a QueryPlan. See: Projog.createPlan(String)");
       }
       invoked = true;
-      return new QueryResult(predicateFactory, parsedInput, variables);
+      FileHandles.Streams streams = input == null && output == null ? null : fileHandles.createStreams(input, output);
+      QueryLimits limits = new QueryLimits(timeout, maxInferences, maxAllocatedBytes);
+      return new QueryResult(kb, predicateFactory, parsedInput, variables, streams, limits);
    }
 
    /**
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.event;
+
+/**
+ * Counts the number of inferences performed by the current thread.
+ * <p>
+ * An inference is counted each time a user defined predicate is called (including each level of recursion of a tail
+ * recursive predicate) and each time a built-in predicate that extends
+ * {@link org.projog.core.predicate.AbstractSingleResultPredicate} or
+ * {@link org.projog.core.predicate.AbstractPredicateFactory} is called. This includes control constructs, like
+ * conjunction and disjunction, that are implemented as built-in predicates. When the
+ * {@link org.projog.core.predicate.udp.GoalStackMachine goal stack engine} is used an inference is also counted for each
+ * control construct it evaluates itself and each time it retries a choice point.
+ * </p>
+ * <p>
+ * As the count is maintained per thread it can be incremented without synchronisation and is not affected by queries
+ * being evaluated by other threads.
+ * </p>
+ * <p>
+ * Recording an inference is also the point at which the {@link QueryLimits} of the query being evaluated by the current
+ * thread are checked.
+ * </p>
+ */
+public final class InferenceCounter {
+   private static final ThreadLocal<Counter> COUNTER = ThreadLocal.withInitial(Counter::new);
+
+   private InferenceCounter() {
+   }
+
+   /** Records that the current thread has performed an inference. */
+   public static void increment() {
+      Counter c = COUNTER.get();
+      if (++c.count >= c.checkpoint) {
+         c.limits.check();
+      }
+   }
+
+   /**
+    * Records that inferences have been performed on behalf of the current thread - e.g. by other threads evaluating
+    * goals for the query the current thread is evaluating.
+    * <p>
+    * The limits of the query are checked on the next call of {@link #increment()}.
+    */
+   public static void add(long inferences) {
+      COUNTER.get().count += inferences;
+   }
+
+   /** Returns the total number of inferences performed by the current thread. */
+   public static long get() {
+      return COUNTER.get().count;
+   }
+
+   static Counter getCounter() {
+      return COUNTER.get();
+   }
+
+   static final class Counter {
+      long count;
+      /** The count at which {@link #limits} should next be checked. */
+      long checkpoint = Long.MAX_VALUE;
+      /** The limits of the query currently being evaluated by the thread, or {@code null} if there are none. */
+      QueryLimits limits;
+   }
+}
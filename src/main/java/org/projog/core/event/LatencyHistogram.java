@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.event;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the distribution of durations, in nanoseconds.
+ * <p>
+ * Values are counted in buckets whose width grows with the magnitude of the values they contain. Each power of two is
+ * split into {@value #SUB_BUCKETS} equally sized buckets, so any value reported by
+ * {@link #getValueAtPercentile(double)} is within 12.5% of the recorded value it represents. The memory used is fixed,
+ * regardless of the number of values recorded.
+ * <p>
+ * Values can be recorded concurrently by multiple threads without locking.
+ */
+public final class LatencyHistogram {
+   private static final int SUB_BUCKET_BITS = 3;
+   private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+   private static final int NUMBER_OF_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+   private final AtomicLongArray buckets = new AtomicLongArray(NUMBER_OF_BUCKETS);
+   private final LongAdder count = new LongAdder();
+   private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+   /** Records a duration of the specified number of nanoseconds. Negative values are recorded as zero. */
+   public void record(long nanos) {
+      long value = Math.max(0, nanos);
+      buckets.incrementAndGet(getBucketIndex(value));
+      count.increment();
+      max.accumulate(value);
+   }
+
+   /** Returns the number of values recorded. */
+   public long getCount() {
+      return count.sum();
+   }
+
+   /** Returns the largest value recorded, or {@code 0} if no values have been recorded. */
+   public long getMax() {
+      return max.get();
+   }
+
+   /**
+    * Returns the value that the specified percentage of recorded values are less than or equal to.
+    *
+    * @param percentile a value between {@code 0} and {@code 100}
+    * @return the highest possible value of the bucket containing the percentile, capped at {@link #getMax()}, or
+    * {@code 0} if no values have been recorded
+    */
+   public long getValueAtPercentile(double percentile) {
+      long total = 0;
+      long[] counts = new long[NUMBER_OF_BUCKETS];
+      for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+         counts[i] = buckets.get(i);
+         total += counts[i];
+      }
+      if (total == 0) {
+         return 0;
+      }
+
+      long target = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100));
+      long seen = 0;
+      for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+         seen += counts[i];
+         if (seen >= target) {
+            return Math.min(getHighestValueInBucket(i), getMax());
+         }
+      }
+      return getMax();
+   }
+
+   /** Discards all recorded values. */
+   public void reset() {
+      for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+         buckets.set(i, 0);
+      }
+      count.reset();
+      max.reset();
+   }
+
+   static int getBucketIndex(long value) {
+      if (value < SUB_BUCKETS) {
+         return (int) value;
+      }
+      int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+      int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+      return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+   }
+
+   static long getHighestValueInBucket(int index) {
+      if (index < SUB_BUCKETS) {
+         return index;
+      }
+      int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+      long subBucket = index % SUB_BUCKETS;
+      long lowest = (1L << exponent) + (subBucket << (exponent - SUB_BUCKET_BITS));
+      long width = 1L << (exponent - SUB_BUCKET_BITS);
+      return lowest + width - 1 < 0 ? Long.MAX_VALUE : lowest + width - 1;
+   }
+}
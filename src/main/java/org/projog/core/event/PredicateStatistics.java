@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.event;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.projog.core.predicate.PredicateKey;
+
+/**
+ * Statistics recorded by the {@link Profiler} for a single predicate.
+ * <p>
+ * The counters correspond to the four ports of the Prolog box model: <i>call</i> (first attempt to evaluate a goal),
+ * <i>redo</i> (attempt to re-evaluate a goal on backtracking), <i>exit</i> (goal succeeded) and <i>fail</i> (goal
+ * failed). The time between a call or redo and the following exit or fail is recorded in {@link #getHistogram()}.
+ * Times include the time spent evaluating any goals in the body of the predicate's clauses.
+ */
+public final class PredicateStatistics {
+   private final PredicateKey key;
+   private final LongAdder calls = new LongAdder();
+   private final LongAdder redos = new LongAdder();
+   private final LongAdder exits = new LongAdder();
+   private final LongAdder fails = new LongAdder();
+   private final LongAdder totalNanos = new LongAdder();
+   private final LatencyHistogram histogram = new LatencyHistogram();
+
+   PredicateStatistics(PredicateKey key) {
+      this.key = key;
+   }
+
+   public PredicateKey getPredicateKey() {
+      return key;
+   }
+
+   public long getCalls() {
+      return calls.sum();
+   }
+
+   public long getRedos() {
+      return redos.sum();
+   }
+
+   public long getExits() {
+      return exits.sum();
+   }
+
+   public long getFails() {
+      return fails.sum();
+   }
+
+   /** Returns the total number of nanoseconds recorded between call or redo ports and their exit or fail ports. */
+   public long getTotalNanos() {
+      return totalNanos.sum();
+   }
+
+   public LatencyHistogram getHistogram() {
+      return histogram;
+   }
+
+   void onCall() {
+      calls.increment();
+   }
+
+   void onRedo() {
+      redos.increment();
+   }
+
+   void onExit() {
+      exits.increment();
+   }
+
+   void onFail() {
+      fails.increment();
+   }
+
+   void recordDuration(long nanos) {
+      totalNanos.add(nanos);
+      histogram.record(nanos);
+   }
+
+   void reset() {
+      calls.reset();
+      redos.reset();
+      exits.reset();
+      fails.reset();
+      totalNanos.reset();
+      histogram.reset();
+   }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.projog.core.predicate.PredicateKey;
+
+/**
+ * Records how often, and for how long, user defined predicates are evaluated.
+ * <p>
+ * Profiling uses the same call, redo, exit and fail notifications as spy points, but does not create
+ * {@link SpyPoints.SpyPointEvent} instances or copy the arguments of goals. Counters are striped so that threads
+ * evaluating queries concurrently do not contend when updating the statistics of the same predicate.
+ * <p>
+ * Profiling is disabled by default and can be enabled, and disabled, while queries are being evaluated. Predicates
+ * that were already being evaluated when profiling was enabled will not be included in the statistics.
+ * <p>
+ * Each {@link org.projog.core.kb.KnowledgeBase} has a single unique {@code Profiler} instance.
+ *
+ * @see SpyPoints#getProfiler()
+ */
+public final class Profiler {
+   private final Map<PredicateKey, PredicateStatistics> statistics = new ConcurrentSkipListMap<>();
+   private final ThreadLocal<Frames> frames = ThreadLocal.withInitial(Frames::new);
+   private volatile boolean enabled;
+
+   public boolean isEnabled() {
+      return enabled;
+   }
+
+   public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+   }
+
+   /** Discards all statistics recorded so far. */
+   public void reset() {
+      for (PredicateStatistics s : statistics.values()) {
+         s.reset();
+      }
+   }
+
+   /** Returns the statistics of every predicate that has been called since profiling was enabled or reset. */
+   public List<PredicateStatistics> getStatistics() {
+      List<PredicateStatistics> result = new ArrayList<>();
+      for (PredicateStatistics s : statistics.values()) {
+         if (s.getCalls() > 0 || s.getRedos() > 0) {
+            result.add(s);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Returns the statistics as a table with a row per predicate.
+    * <p>
+    * Times are in microseconds.
+    */
+   public String toTable() {
+      String format = "%-30s %10s %10s %10s %10s %12s %10s %10s %10s %10s%n";
+      StringBuilder sb = new StringBuilder();
+      sb.append(String.format(format, "PREDICATE", "CALLS", "REDOS", "EXITS", "FAILS", "TOTAL", "MEAN", "P50", "P99", "MAX"));
+      for (PredicateStatistics s : getStatistics()) {
+         LatencyHistogram h = s.getHistogram();
+         sb.append(String.format(format,
+                     s.getPredicateKey(),
+                     s.getCalls(),
+                     s.getRedos(),
+                     s.getExits(),
+                     s.getFails(),
+                     toMicros(s.getTotalNanos()),
+                     toMicros(h.getCount() == 0 ? 0 : s.getTotalNanos() / h.getCount()),
+                     toMicros(h.getValueAtPercentile(50)),
+                     toMicros(h.getValueAtPercentile(99)),
+                     toMicros(h.getMax())));
+      }
+      return sb.toString();
+   }
+
+   /**
+    * Returns the statistics as a JSON array with an element per predicate.
+    * <p>
+    * Times are in nanoseconds.
+    */
+   public String toJson() {
+      StringBuilder sb = new StringBuilder("[");
+      boolean first = true;
+      for (PredicateStatistics s : getStatistics()) {
+         if (!first) {
+            sb.append(',');
+         }
+         first = false;
+         LatencyHistogram h = s.getHistogram();
+         sb.append("{\"name\":");
+         appendJsonString(sb, s.getPredicateKey().getName());
+         sb.append(",\"arity\":").append(s.getPredicateKey().getNumArgs());
+         sb.append(",\"calls\":").append(s.getCalls());
+         sb.append(",\"redos\":").append(s.getRedos());
+         sb.append(",\"exits\":").append(s.getExits());
+         sb.append(",\"fails\":").append(s.getFails());
+         sb.append(",\"totalNanos\":").append(s.getTotalNanos());
+         sb.append(",\"p50Nanos\":").append(h.getValueAtPercentile(50));
+         sb.append(",\"p90Nanos\":").append(h.getValueAtPercentile(90));
+         sb.append(",\"p99Nanos\":").append(h.getValueAtPercentile(99));
+         sb.append(",\"maxNanos\":").append(h.getMax());
+         sb.append('}');
+      }
+      return sb.append(']').toString();
+   }
+
+   PredicateStatistics getStatistics(PredicateKey key) {
+      return statistics.computeIfAbsent(key, PredicateStatistics::new);
+   }
+
+   /** Records the start of a call or redo of the predicate being evaluated by {@code source}. */
+   void start(Object source) {
+      frames.get().push(source, System.nanoTime());
+   }
+
+   /** Records the exit or fail of the predicate being evaluated by {@code source}. */
+   void end(PredicateStatistics s, Object source) {
+      long startTime = frames.get().pop(source);
+      if (startTime != -1) {
+         s.recordDuration(System.nanoTime() - startTime);
+      }
+   }
+
+   private static String toMicros(long nanos) {
+      return String.format(Locale.ROOT, "%.1f", nanos / 1000d);
+   }
+
+   private static void appendJsonString(StringBuilder sb, String s) {
+      sb.append('"');
+      for (int i = 0; i < s.length(); i++) {
+         char c = s.charAt(i);
+         if (c == '"' || c == '\\') {
+            sb.append('\\').append(c);
+         } else if (c < ' ') {
+            sb.append(String.format("\\u%04x", (int) c));
+         } else {
+            sb.append(c);
+         }
+      }
+      sb.append('"');
+   }
+
+   /**
+    * The start times of the predicates currently being evaluated by a thread.
+    * <p>
+    * As the start and end of the evaluation of a predicate occur within the same invocation of
+    * {@link org.projog.core.predicate.Predicate#evaluate()} they are nested in the same way as the Java call stack. If
+    * an exception is thrown part way through an evaluation then the start of that evaluation will be discarded when the
+    * evaluation of the predicate that called it ends.
+    */
+   private static final class Frames {
+      private Object[] sources = new Object[32];
+      private long[] startTimes = new long[32];
+      private int size;
+
+      void push(Object source, long startTime) {
+         if (size == sources.length) {
+            sources = Arrays.copyOf(sources, size * 2);
+            startTimes = Arrays.copyOf(startTimes, size * 2);
+         }
+         sources[size] = source;
+         startTimes[size] = startTime;
+         size++;
+      }
+
+      /** Returns the start time of the most recent frame of {@code source}, or {@code -1} if there is none. */
+      long pop(Object source) {
+         for (int i = size - 1; i > -1; i--) {
+            if (sources[i] == source) {
+               Arrays.fill(sources, i, size, null);
+               size = i;
+               return startTimes[i];
+            }
+         }
+         return -1;
+      }
+   }
+}
@@ -15,22 +15,25 @@
  */
 package org.projog.core.event;
 
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.projog.core.event.SpyPoints.SpyPointEvent;
 import org.projog.core.event.SpyPoints.SpyPointExitEvent;
+import org.projog.core.kb.Forkable;
 import org.projog.core.kb.KnowledgeBase;
 
 /**
  * Controls the registering and notification of listeners of a {@link org.projog.core.kb.KnowledgeBase}.
  * <p>
  * Each {@link org.projog.core.kb.KnowledgeBase} has a single unique {@code ProjogListeners} instance.
+ * <p>
+ * Listeners can be added and removed while other threads are notifying them of events.
  *
  * @see KnowledgeBase#getProjogListeners()
  */
-public class ProjogListeners {
-   private final Set<ProjogListener> listeners = new HashSet<>();
+public class ProjogListeners implements Forkable<ProjogListeners> {
+   private final Set<ProjogListener> listeners = new CopyOnWriteArraySet<>();
 
    /**
     * Adds a listener to the set of listeners.
@@ -52,6 +55,12 @@ public class ProjogListeners {
       return listeners.remove(listener);
    }
 
+   /** Adds all the listeners of the specified {@code ProjogListeners} to this object. */
+   @Override
+   public void copyFrom(ProjogListeners original) {
+      listeners.addAll(original.listeners);
+   }
+
    /** Notify all listeners of a first attempt to evaluate a goal. */
    public void notifyCall(SpyPointEvent event) {
       for (ProjogListener listener : listeners) {
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.event;
+
+import org.projog.core.ProjogException;
+
+/**
+ * Thrown when the evaluation of a query is stopped, either because it was cancelled or because it exceeded one of its
+ * {@link QueryLimits}.
+ */
+public final class QueryLimitException extends ProjogException {
+   private static final long serialVersionUID = 1L;
+
+   /** The reason the evaluation of a query was stopped. */
+   public enum Reason {
+      /** The query was cancelled, or the thread evaluating it was interrupted. */
+      CANCELLED,
+      /** The query was still being evaluated when its timeout expired. */
+      TIMEOUT,
+      /** The query performed more than its maximum number of inferences. */
+      INFERENCES,
+      /** The thread evaluating the query allocated more than the maximum number of bytes. */
+      ALLOCATION
+   }
+
+   private final Reason reason;
+
+   QueryLimitException(Reason reason, String message) {
+      super(message);
+      this.reason = reason;
+   }
+
+   /** Returns the reason the evaluation of the query was stopped. */
+   public Reason getReason() {
+      return reason;
+   }
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.event;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.projog.core.ProjogException;
+
+/**
+ * The limits on the resources a query can use while being evaluated.
+ * <p>
+ * Limits are checked cooperatively by the thread evaluating the query, as part of the inferences recorded by
+ * {@link InferenceCounter}. The number of inferences is checked on every inference. Whether the query has been
+ * cancelled, whether its timeout has expired and the number of bytes allocated are only checked every
+ * {@link #CHECK_INTERVAL} inferences, so the evaluation of a query may continue for a short time after one of these
+ * limits has been exceeded. When a limit is exceeded a {@link QueryLimitException} is thrown.
+ * <p>
+ * The inferences and allocations counted are those performed by the thread evaluating the query while the limits are
+ * active - i.e. between calls to {@link #activate()} and {@link #deactivate(QueryLimits)}. They are accumulated over
+ * each time the limits are activated, so apply to all the solutions of the query rather than to each solution. If a
+ * query is evaluated while the limits of another query are active for the same thread (e.g. by a predicate implemented
+ * in Java) then the limits of both queries apply - the inferences and allocations of the inner query are also counted
+ * by the outer query.
+ * <p>
+ * The limits of a query can be applied to goals that other threads evaluate on its behalf by using
+ * {@link #createWorkers()}.
+ * <p>
+ * Apart from {@link #cancel()}, which can be called by any thread, a {@code QueryLimits} is not thread-safe.
+ * </p>
+ */
+public final class QueryLimits {
+   /** Used to specify that a limit should not be applied. */
+   public static final long UNLIMITED = Long.MAX_VALUE;
+   /** The number of inferences between checks of the limits that are relatively expensive to check. */
+   static final int CHECK_INTERVAL = 1024;
+
+   private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = getThreadMXBean();
+
+   private final long timeout;
+   private final long start;
+   private final long maxInferences;
+   private final long maxAllocatedBytes;
+   private volatile boolean cancelled;
+   /** The workers these limits were created for, or {@code null} if these are the limits of a query. */
+   private final Workers workers;
+   /** The counter of the thread these limits are active for, or {@code null} if not currently active. */
+   private InferenceCounter.Counter counter;
+   /** The limits that were active when these limits were activated, or {@code null} if there were none. */
+   private QueryLimits enclosing;
+   private long inferences;
+   private long allocatedBytes;
+   private long startCount;
+   private long startAllocatedBytes;
+   /** The inferences and allocations that have been added to the totals of {@link #workers}. */
+   private long reportedInferences;
+   private long reportedAllocatedBytes;
+
+   /** Creates a {@code QueryLimits} that does not limit the resources a query can use, but allows it to be cancelled. */
+   public QueryLimits() {
+      this(UNLIMITED, UNLIMITED, UNLIMITED);
+   }
+
+   /**
+    * Creates a {@code QueryLimits} with the specified limits.
+    * <p>
+    * The timeout starts from when this method is called.
+    *
+    * @param timeout the maximum time, in nanoseconds, the query can be evaluated for, or {@link #UNLIMITED}
+    * @param maxInferences the maximum number of inferences the query can perform, or {@link #UNLIMITED}
+    * @param maxAllocatedBytes the maximum number of bytes the thread evaluating the query can allocate, or
+    * {@link #UNLIMITED}
+    * @throws ProjogException if any of the limits is negative, or a maximum number of bytes is specified and measuring
+    * the memory allocated by a thread is not supported
+    */
+   public QueryLimits(long timeout, long maxInferences, long maxAllocatedBytes) {
+      if (timeout < 0 || maxInferences < 0 || maxAllocatedBytes < 0) {
+         throw new ProjogException("Query limits cannot be negative");
+      }
+      if (maxAllocatedBytes != UNLIMITED && !isAllocationLimitSupported()) {
+         throw new ProjogException("Measuring the memory allocated by a thread is not supported");
+      }
+      this.timeout = timeout;
+      this.start = System.nanoTime();
+      this.maxInferences = maxInferences;
+      this.maxAllocatedBytes = maxAllocatedBytes;
+      this.workers = null;
+   }
+
+   private QueryLimits(Workers workers) {
+      QueryLimits parent = workers.parent;
+      this.timeout = parent.timeout;
+      this.start = parent.start;
+      this.maxInferences = parent.maxInferences;
+      this.maxAllocatedBytes = parent.maxAllocatedBytes;
+      this.workers = workers;
+   }
+
+   /** Returns the limits that are active for the current thread, or {@code null} if there are none. */
+   public static QueryLimits getActive() {
+      return InferenceCounter.getCounter().limits;
+   }
+
+   /** Returns {@code true} if a maximum number of bytes allocated can be specified. */
+   public static boolean isAllocationLimitSupported() {
+      return THREAD_MX_BEAN != null;
+   }
+
+   private static com.sun.management.ThreadMXBean getThreadMXBean() {
+      try {
+         ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+         if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported()) {
+               sunBean.setThreadAllocatedMemoryEnabled(true);
+               return sunBean;
+            }
+         }
+      } catch (LinkageError | RuntimeException e) {
+         // the com.sun.management API is not available
+      }
+      return null;
+   }
+
+   /**
+    * Requests that the evaluation of the query is stopped.
+    * <p>
+    * Can be called by any thread. The thread evaluating the query will throw a {@link QueryLimitException} the next
+    * time it checks its limits.
+    */
+   public void cancel() {
+      cancelled = true;
+   }
+
+   /** Returns {@code true} if {@link #cancel()} has been called. */
+   public boolean isCancelled() {
+      return cancelled;
+   }
+
+   /** Returns the number of inferences the query has performed while these limits were active. */
+   public long getInferenceCount() {
+      return counter == null ? inferences : inferences + counter.count - startCount;
+   }
+
+   private long getAllocatedBytes() {
+      if (maxAllocatedBytes == UNLIMITED) {
+         return 0;
+      }
+      return counter == null ? allocatedBytes : allocatedBytes + getThreadAllocatedBytes() - startAllocatedBytes;
+   }
+
+   /**
+    * Returns an object that applies these limits to goals evaluated by other threads on behalf of the query.
+    * <p>
+    * Must be called by the thread these limits are active for.
+    */
+   public Workers createWorkers() {
+      return new Workers(this);
+   }
+
+   /**
+    * Applies these limits to inferences subsequently performed by the current thread.
+    *
+    * @return the limits that were previously active for the current thread, or {@code null} if there were none
+    * @see #deactivate(QueryLimits)
+    */
+   public QueryLimits activate() {
+      InferenceCounter.Counter c = InferenceCounter.getCounter();
+      QueryLimits previous = c.limits;
+      counter = c;
+      enclosing = previous;
+      startCount = c.count;
+      if (maxAllocatedBytes != UNLIMITED) {
+         startAllocatedBytes = getThreadAllocatedBytes();
+      }
+      c.limits = this;
+      // check on the next inference, in case the query has been cancelled while it was not active
+      c.checkpoint = c.count + 1;
+      return previous;
+   }
+
+   /**
+    * Stops applying these limits to the current thread and reactivates the limits that were previously active.
+    *
+    * @param previous the value returned by the corresponding call to {@link #activate()}
+    */
+   public void deactivate(QueryLimits previous) {
+      InferenceCounter.Counter c = counter;
+      inferences += c.count - startCount;
+      if (maxAllocatedBytes != UNLIMITED) {
+         allocatedBytes += getThreadAllocatedBytes() - startAllocatedBytes;
+      }
+      counter = null;
+      enclosing = null;
+      if (workers != null) {
+         workers.report(this);
+      }
+      c.limits = previous;
+      c.checkpoint = previous == null ? Long.MAX_VALUE : c.count + 1;
+   }
+
+   /**
+    * Throws an exception if the query has been cancelled or has exceeded any of its limits.
+    *
+    * @throws QueryLimitException if the query has been cancelled or has exceeded any of its limits
+    */
+   public void check() {
+      long interval = checkLimits();
+      if (counter != null && counter.limits == this) {
+         counter.checkpoint = counter.count + interval;
+      }
+   }
+
+   /**
+    * Checks these limits, and the limits they are nested within.
+    *
+    * @return the number of inferences that can be performed before the limits need to be checked again
+    */
+   private long checkLimits() {
+      if (cancelled || (workers != null && workers.parent.cancelled)) {
+         throw new QueryLimitException(QueryLimitException.Reason.CANCELLED, "Query cancelled");
+      }
+      if (Thread.currentThread().isInterrupted()) {
+         throw new QueryLimitException(QueryLimitException.Reason.CANCELLED, "Query interrupted");
+      }
+
+      long used = workers == null ? getInferenceCount() : workers.getInferenceCount(this);
+      if (used > maxInferences) {
+         throw new QueryLimitException(QueryLimitException.Reason.INFERENCES, "Exceeded the maximum number of inferences: " + maxInferences);
+      }
+      if (timeout != UNLIMITED && System.nanoTime() - start > timeout) {
+         throw new QueryLimitException(QueryLimitException.Reason.TIMEOUT, "Exceeded the timeout of: " + timeout + " nanoseconds");
+      }
+      if (maxAllocatedBytes != UNLIMITED) {
+         long bytes = workers == null ? getAllocatedBytes() : workers.getAllocatedBytes(this);
+         if (bytes > maxAllocatedBytes) {
+            throw new QueryLimitException(QueryLimitException.Reason.ALLOCATION, "Exceeded the maximum number of allocated bytes: " + maxAllocatedBytes);
+         }
+      }
+
+      long remaining = maxInferences - used;
+      long interval = remaining < CHECK_INTERVAL ? remaining + 1 : CHECK_INTERVAL;
+      return enclosing == null ? interval : Math.min(interval, enclosing.checkLimits());
+   }
+
+   private static long getThreadAllocatedBytes() {
+      return THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+   }
+
+   /**
+    * Applies the limits of a query to threads that evaluate goals on its behalf.
+    * <p>
+    * Each worker thread activates its own limits, returned by {@link #create()}. The worker threads share the timeout
+    * of the query, are stopped when the query is cancelled, and the inferences and allocations of all the worker
+    * threads are added together when checking the limits of the query. As the worker threads only add their inferences
+    * to the total when they check their limits, the maximum number of inferences may be exceeded by a small amount
+    * before it is detected. Once the worker threads have finished, {@link #finish()} adds their inferences and
+    * allocations to those of the query.
+    * </p>
+    */
+   public static final class Workers {
+      private final QueryLimits parent;
+      private final Thread thread;
+      /** The inferences performed, and bytes allocated, by the query when this object was created. */
+      private final long baseInferences;
+      private final long baseAllocatedBytes;
+      private final AtomicLong inferences = new AtomicLong();
+      private final AtomicLong allocatedBytes = new AtomicLong();
+
+      private Workers(QueryLimits parent) {
+         this.parent = parent;
+         this.thread = Thread.currentThread();
+         this.baseInferences = parent.getInferenceCount();
+         this.baseAllocatedBytes = parent.getAllocatedBytes();
+      }
+
+      /**
+       * Returns new limits to activate in a worker thread.
+       * <p>
+       * Can be called by any thread. Returns {@code null} if called by the thread that created this object, as the limits
+       * of the query are already active for that thread.
+       */
+      public QueryLimits create() {
+         return Thread.currentThread() == thread ? null : new QueryLimits(this);
+      }
+
+      /**
+       * Adds the inferences and allocations of the worker threads to those of the query.
+       * <p>
+       * Must be called by the thread that created this object, once the worker threads have finished.
+       */
+      public void finish() {
+         parent.allocatedBytes += allocatedBytes.get();
+         InferenceCounter.add(inferences.get());
+      }
+
+      private long getInferenceCount(QueryLimits worker) {
+         report(worker);
+         return baseInferences + inferences.get();
+      }
+
+      private long getAllocatedBytes(QueryLimits worker) {
+         report(worker);
+         return baseAllocatedBytes + allocatedBytes.get();
+      }
+
+      private void report(QueryLimits worker) {
+         long count = worker.getInferenceCount();
+         inferences.addAndGet(count - worker.reportedInferences);
+         worker.reportedInferences = count;
+
+         long bytes = worker.getAllocatedBytes();
+         allocatedBytes.addAndGet(bytes - worker.reportedAllocatedBytes);
+         worker.reportedAllocatedBytes = bytes;
+      }
+   }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.event;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.projog.core.ProjogException;
+import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.kb.KnowledgeBaseServiceLocator;
+import org.projog.core.predicate.udp.ClauseModel;
+import org.projog.core.predicate.udp.IndexCache;
+import org.projog.core.predicate.udp.UserDefinedPredicateFactory;
+import org.projog.core.term.Atom;
+import org.projog.core.term.IntegerNumber;
+import org.projog.core.term.ListFactory;
+import org.projog.core.term.Structure;
+import org.projog.core.term.Term;
+import org.projog.core.term.TermType;
+
+/**
+ * Provides the values returned by the {@code statistics/2} built-in predicate.
+ * <p>
+ * The supported keys are:
+ * <ul>
+ * <li>{@code runtime} - a list of two integers. The first is the CPU time, in milliseconds, used by the current thread.
+ * The second is the CPU time used since {@code runtime} was last requested by the current thread.</li>
+ * <li>{@code walltime} - a list of two integers. The first is the number of milliseconds since the JVM was started.
+ * The second is the number of milliseconds since {@code walltime} was last requested.</li>
+ * <li>{@code inferences} - the number of inferences performed by the current thread. See {@link InferenceCounter}.</li>
+ * <li>{@code heap} - the number of bytes of heap memory currently used by the JVM.</li>
+ * <li>{@code atoms} - the number of distinct atom and functor names used by the clauses of user defined
+ * predicates.</li>
+ * <li>{@code clauses} - the number of clauses of user defined predicates.</li>
+ * <li>{@code indexes} - a list of {@code Name-Value} pairs describing the indexes of user defined predicates. See
+ * {@link IndexCache}.</li>
+ * </ul>
+ * <p>
+ * One instance is associated with each {@link KnowledgeBase}, retrieved using
+ * {@link org.projog.core.kb.KnowledgeBaseServiceLocator}.
+ * </p>
+ */
+public final class RuntimeStatistics {
+   private static final List<String> KEYS = Collections.unmodifiableList(Arrays.asList("runtime", "walltime", "inferences", "heap", "atoms", "clauses", "indexes"));
+   private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+   private final KnowledgeBase kb;
+   /** Per thread, as {@code runtime} is the CPU time of the current thread. */
+   private final ThreadLocal<AtomicLong> lastRuntime = ThreadLocal.withInitial(AtomicLong::new);
+   private final AtomicLong lastWalltime = new AtomicLong();
+
+   public RuntimeStatistics(KnowledgeBase kb) {
+      this.kb = kb;
+   }
+
+   /** Returns the names of the keys supported by {@link #getValue(String)}. */
+   public static List<String> getKeys() {
+      return KEYS;
+   }
+
+   /**
+    * Returns the value associated with the specified key.
+    *
+    * @throws ProjogException if {@code key} is not one of the values returned by {@link #getKeys()}
+    */
+   public Term getValue(String key) {
+      switch (key) {
+         case "runtime":
+            return createPair(TimeUnit.NANOSECONDS.toMillis(getCurrentThreadCpuTime()), lastRuntime.get());
+         case "walltime":
+            return createPair(ManagementFactory.getRuntimeMXBean().getUptime(), lastWalltime);
+         case "inferences":
+            return new IntegerNumber(InferenceCounter.get());
+         case "heap":
+            Runtime runtime = Runtime.getRuntime();
+            return new IntegerNumber(runtime.totalMemory() - runtime.freeMemory());
+         case "atoms":
+            return new IntegerNumber(countAtoms());
+         case "clauses":
+            return new IntegerNumber(countClauses());
+         case "indexes":
+            return getIndexStatistics();
+         default:
+            throw new ProjogException("Unknown statistics key: " + key + " expected one of: " + KEYS);
+      }
+   }
+
+   private static Term createPair(long total, AtomicLong last) {
+      long sinceLast = total - last.getAndSet(total);
+      return ListFactory.createList(new Term[] {new IntegerNumber(total), new IntegerNumber(sinceLast)});
+   }
+
+   private Term getIndexStatistics() {
+      IndexCache cache = KnowledgeBaseServiceLocator.getServiceLocator(kb).getInstance(IndexCache.class);
+      return ListFactory.createList(new Term[] {
+                  createNameValuePair("count", cache.getIndexCount()),
+                  createNameValuePair("memory", cache.getMemoryUsage()),
+                  createNameValuePair("memory_limit", cache.getMemoryLimit()),
+                  createNameValuePair("builds", cache.getBuildCount()),
+                  createNameValuePair("build_time", TimeUnit.NANOSECONDS.toMillis(cache.getBuildTime())),
+                  createNameValuePair("hits", cache.getHitCount()),
+                  createNameValuePair("misses", cache.getMissCount()),
+                  createNameValuePair("evictions", cache.getEvictionCount())});
+   }
+
+   private static Term createNameValuePair(String name, long value) {
+      return Structure.createStructure("-", new Term[] {new Atom(name), new IntegerNumber(value)});
+   }
+
+   private long countClauses() {
+      long count = 0;
+      for (UserDefinedPredicateFactory udp : kb.getPredicates().getUserDefinedPredicates().values()) {
+         for (Iterator<ClauseModel> itr = udp.getImplicationsWithoutCopying(); itr.hasNext(); itr.next()) {
+            count++;
+         }
+      }
+      return count;
+   }
+
+   private int countAtoms() {
+      Set<String> names = new HashSet<>();
+      for (UserDefinedPredicateFactory udp : kb.getPredicates().getUserDefinedPredicates().values()) {
+         names.add(udp.getPredicateKey().getName());
+         for (Iterator<ClauseModel> itr = udp.getImplicationsWithoutCopying(); itr.hasNext();) {
+            addNames(itr.next().getOriginal(), names);
+         }
+      }
+      return names.size();
+   }
+
+   private static void addNames(Term t, Set<String> names) {
+      // iterate over the elements of a list, rather than recurse, so long lists can be processed
+      while (t.getType() == TermType.LIST) {
+         addNames(t.getArgument(0), names);
+         t = t.getArgument(1);
+      }
+
+      TermType type = t.getType();
+      if (type == TermType.ATOM || type == TermType.STRUCTURE) {
+         names.add(t.getName());
+      }
+      if (type.isStructure()) {
+         for (Term arg : t.getArgs()) {
+            addNames(arg, names);
+         }
+      }
+   }
+
+   /**
+    * Returns the CPU time, in nanoseconds, used by the current thread.
+    * <p>
+    * Returns the elapsed time since the JVM was started if measuring CPU time is not supported by the JVM.
+    */
+   public static long getCurrentThreadCpuTime() {
+      if (THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()) {
+         return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+      } else {
+         return TimeUnit.MILLISECONDS.toNanos(ManagementFactory.getRuntimeMXBean().getUptime());
+      }
+   }
+
+   /**
+    * Returns the number of bytes allocated on the heap by the current thread.
+    * <p>
+    * Returns {@code -1} if measuring allocated memory is not supported by the JVM.
+    */
+   public static long getCurrentThreadAllocatedBytes() {
+      if (THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean) {
+         com.sun.management.ThreadMXBean b = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+         if (b.isThreadAllocatedMemorySupported() && b.isThreadAllocatedMemoryEnabled()) {
+            return b.getThreadAllocatedBytes(Thread.currentThread().getId());
+         }
+      }
+      return -1;
+   }
+}
@@ -17,7 +17,7 @@ package org.projog.core.event;
 
 import java.util.Collections;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.predicate.PredicateKey;
@@ -42,11 +42,12 @@ import org.projog.core.term.TermUtils;
  */
 public final class SpyPoints {
    private final Object lock = new Object();
-   private final Map<PredicateKey, SpyPoint> spyPoints = new TreeMap<>(); // TODO make concurrent?
+   private final Map<PredicateKey, SpyPoint> spyPoints = new ConcurrentSkipListMap<>();
    private final KnowledgeBase kb;
    private final ProjogListeners projogListeners;
    private final TermFormatter termFormatter;
-   private boolean traceEnabled;
+   private final Profiler profiler = new Profiler();
+   private volatile boolean traceEnabled;
 
    public SpyPoints(KnowledgeBase kb) {
       this.kb = kb;
@@ -60,6 +61,13 @@ public final class SpyPoints {
       this.termFormatter = termFormatter;
    }
 
+   /**
+    * Returns the profiler that is notified of the same events as spy points.
+    */
+   public Profiler getProfiler() {
+      return profiler;
+   }
+
    public void setTraceEnabled(boolean traceEnabled) {
       this.traceEnabled = traceEnabled;
    }
@@ -96,10 +104,12 @@ public final class SpyPoints {
 
    public class SpyPoint {
       private final PredicateKey key;
-      private boolean set;
+      private final PredicateStatistics statistics;
+      private volatile boolean set;
 
       private SpyPoint(PredicateKey key) {
          this.key = key;
+         this.statistics = profiler.getStatistics(key);
       }
 
       public PredicateKey getPredicateKey() {
@@ -110,31 +120,52 @@ public final class SpyPoints {
          return set;
       }
 
+      /**
+       * Returns {@code true} if either listeners or the profiler need to be notified of attempts to evaluate goals.
+       */
       public boolean isEnabled() {
+         return set || traceEnabled || profiler.isEnabled();
+      }
+
+      /**
+       * Returns {@code true} if listeners need to be notified of attempts to evaluate goals.
+       */
+      public boolean isListenersEnabled() {
          return set || traceEnabled;
       }
 
       /** Notifies listeners of a first attempt to evaluate a goal. */
       public void logCall(Object source, Term[] args) {
-         if (isEnabled() == false) {
-            return;
+         if (profiler.isEnabled()) {
+            statistics.onCall();
+            profiler.start(source);
          }
 
-         projogListeners.notifyCall(new SpyPointEvent(key, args, source));
+         if (isListenersEnabled()) {
+            projogListeners.notifyCall(new SpyPointEvent(key, args, source));
+         }
       }
 
       /** Notifies listeners of an attempt to re-evaluate a goal. */
       public void logRedo(Object source, Term[] args) {
-         if (isEnabled() == false) {
-            return;
+         if (profiler.isEnabled()) {
+            statistics.onRedo();
+            profiler.start(source);
          }
 
-         projogListeners.notifyRedo(new SpyPointEvent(key, args, source));
+         if (isListenersEnabled()) {
+            projogListeners.notifyRedo(new SpyPointEvent(key, args, source));
+         }
       }
 
       /** Notifies listeners of that an attempt to evaluate a goal has succeeded. */
       @Deprecated
       public void logExit(Object source, Term[] args, int clauseNumber) {
+         if (!isListenersEnabled()) {
+            logExit(source, args, (ClauseModel) null);
+            return;
+         }
+
          ClauseModel clauseModel;
          if (clauseNumber != -1) {
             Map<PredicateKey, UserDefinedPredicateFactory> userDefinedPredicates = kb.getPredicates().getUserDefinedPredicates();
@@ -150,20 +181,26 @@ public final class SpyPoints {
 
       /** Notifies listeners of that an attempt to evaluate a goal has succeeded. */
       public void logExit(Object source, Term[] args, ClauseModel clause) {
-         if (isEnabled() == false) {
-            return;
+         if (profiler.isEnabled()) {
+            statistics.onExit();
+            profiler.end(statistics, source);
          }
 
-         projogListeners.notifyExit(new SpyPointExitEvent(key, args, source, clause));
+         if (isListenersEnabled()) {
+            projogListeners.notifyExit(new SpyPointExitEvent(key, args, source, clause));
+         }
       }
 
       /** Notifies listeners of that an attempt to evaluate a goal has failed. */
       public void logFail(Object source, Term[] args) {
-         if (isEnabled() == false) {
-            return;
+         if (profiler.isEnabled()) {
+            statistics.onFail();
+            profiler.end(statistics, source);
          }
 
-         projogListeners.notifyFail(new SpyPointEvent(key, args, source));
+         if (isListenersEnabled()) {
+            projogListeners.notifyFail(new SpyPointEvent(key, args, source));
+         }
       }
    }
 
@@ -27,6 +27,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.projog.core.ProjogException;
+import org.projog.core.kb.Forkable;
 import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.term.Atom;
 import org.projog.core.term.Term;
@@ -35,10 +36,13 @@ import org.projog.core.term.Term;
  * Collection of input and output streams.
  * <p>
  * Each {@link org.projog.core.kb.KnowledgeBase} has a single unique {@code FileHandles} instance.
+ * <p>
+ * By default all queries share the same current input and output streams. A query can be given its own current input
+ * and output streams by using {@link #createStreams(InputStream, PrintStream)}.
  *
  * @see KnowledgeBase#getFileHandles()
  */
-public final class FileHandles {
+public final class FileHandles implements Forkable<FileHandles> {
    /**
     * The handle of the "standard" output stream.
     * <p>
@@ -55,22 +59,72 @@ public final class FileHandles {
    private final Object lock = new Object();
    private final Map<String, InputStream> inputHandles = new HashMap<>();
    private final Map<String, PrintStream> outputHandles = new HashMap<>();
-
-   /** Current input used by get_char and read */
-   private Term currentInputHandle;
-   /** Current output used by put_char, nl, write and write_canonical */
-   private Term currentOutputHandle;
-
-   private InputStream in;
-   private PrintStream out;
+   /** The current streams of queries that have their own {@link Streams}. */
+   private final ThreadLocal<Streams> activeStreams = new ThreadLocal<>();
+   /** The current streams of queries that do not have their own {@link Streams}. */
+   private final Streams defaultStreams = new Streams(null, null);
 
    public FileHandles() {
       Atom userInputHandle = USER_INPUT_HANDLE;
       Atom userOutputHandle = USER_OUTPUT_HANDLE;
       inputHandles.put(userInputHandle.getName(), System.in);
       outputHandles.put(userOutputHandle.getName(), System.out);
-      setInput(userInputHandle);
-      setOutput(userOutputHandle);
+      defaultStreams.setInput(userInputHandle);
+      defaultStreams.setOutput(userOutputHandle);
+   }
+
+   /**
+    * Uses the "standard" input and output streams of the specified {@code FileHandles} as the "standard" input and
+    * output streams of this object.
+    * <p>
+    * Other streams, such as those opened for reading from or writing to files, are not copied.
+    */
+   @Override
+   public void copyFrom(FileHandles original) {
+      InputStream is;
+      PrintStream ps;
+      synchronized (original.lock) {
+         is = original.inputHandles.get(USER_INPUT_HANDLE.getName());
+         ps = original.outputHandles.get(USER_OUTPUT_HANDLE.getName());
+      }
+      setUserInput(is);
+      setUserOutput(ps);
+   }
+
+   /**
+    * Creates a new set of current input and output streams, to be used by a single query.
+    * <p>
+    * Changes to the current input and output streams made while the returned {@code Streams} is active (e.g. by calling
+    * {@code set_output/1}) will not affect any other query.
+    *
+    * @param userInput the stream to use as {@link #USER_INPUT_HANDLE} while the new {@code Streams} is active, or
+    * {@code null} to use the "standard" input stream
+    * @param userOutput the stream to use as {@link #USER_OUTPUT_HANDLE} while the new {@code Streams} is active, or
+    * {@code null} to use the "standard" output stream
+    * @see Streams#activate()
+    */
+   public Streams createStreams(InputStream userInput, PrintStream userOutput) {
+      Streams streams = new Streams(userInput, userOutput);
+      synchronized (lock) {
+         streams.setInput(USER_INPUT_HANDLE);
+         streams.setOutput(USER_OUTPUT_HANDLE);
+      }
+      return streams;
+   }
+
+   /**
+    * Returns the streams that are active for the current thread, or {@code null} if the current thread is using the
+    * streams shared by all queries of the knowledge base.
+    *
+    * @see Streams#activate()
+    */
+   public Streams getActiveStreams() {
+      return activeStreams.get();
+   }
+
+   private Streams getStreams() {
+      Streams streams = activeStreams.get();
+      return streams == null ? defaultStreams : streams;
    }
 
    /**
@@ -79,7 +133,7 @@ public final class FileHandles {
     * By default this will be an {@code Atom} with the name "{@code user_input}".
     */
    public Term getCurrentInputHandle() {
-      return currentInputHandle;
+      return getStreams().inputHandle;
    }
 
    /**
@@ -88,7 +142,7 @@ public final class FileHandles {
     * By default this will be an {@code Atom} with the name "{@code user_output}".
     */
    public Term getCurrentOutputHandle() {
-      return currentOutputHandle;
+      return getStreams().outputHandle;
    }
 
    /**
@@ -97,7 +151,7 @@ public final class FileHandles {
     * By default this will be {@code System.in}.
     */
    public InputStream getCurrentInputStream() {
-      return in;
+      return getStreams().in;
    }
 
    /**
@@ -106,7 +160,7 @@ public final class FileHandles {
     * By default this will be {@code System.out}.
     */
    public PrintStream getCurrentOutputStream() {
-      return out;
+      return getStreams().out;
    }
 
    /**
@@ -117,8 +171,8 @@ public final class FileHandles {
    public void setUserInput(InputStream is) {
       synchronized (lock) {
          inputHandles.put(USER_INPUT_HANDLE.getName(), is);
-         if (USER_INPUT_HANDLE.equals(currentInputHandle)) {
-            setInput(USER_INPUT_HANDLE);
+         if (USER_INPUT_HANDLE.equals(defaultStreams.inputHandle)) {
+            defaultStreams.setInput(USER_INPUT_HANDLE);
          }
       }
    }
@@ -131,8 +185,8 @@ public final class FileHandles {
    public void setUserOutput(PrintStream ps) {
       synchronized (lock) {
          outputHandles.put(USER_OUTPUT_HANDLE.getName(), ps);
-         if (USER_OUTPUT_HANDLE.equals(currentOutputHandle)) {
-            setOutput(USER_OUTPUT_HANDLE);
+         if (USER_OUTPUT_HANDLE.equals(defaultStreams.outputHandle)) {
+            defaultStreams.setOutput(USER_OUTPUT_HANDLE);
          }
       }
    }
@@ -143,14 +197,9 @@ public final class FileHandles {
     * @throws ProjogException if the specified {@link Term} does not represent an {@link Atom}
     */
    public void setInput(Term handle) {
-      String handleName = getAtomName(handle);
+      Streams streams = getStreams();
       synchronized (lock) {
-         if (inputHandles.containsKey(handleName)) {
-            currentInputHandle = handle;
-            in = inputHandles.get(handleName);
-         } else {
-            throw new ProjogException("cannot find file input handle with name: " + handleName);
-         }
+         streams.setInput(handle);
       }
    }
 
@@ -160,14 +209,9 @@ public final class FileHandles {
     * @throws ProjogException if the specified {@link Term} does not represent an {@link Atom}
     */
    public void setOutput(Term handle) {
-      String handleName = getAtomName(handle);
+      Streams streams = getStreams();
       synchronized (lock) {
-         if (outputHandles.containsKey(handleName)) {
-            currentOutputHandle = handle;
-            out = outputHandles.get(handleName);
-         } else {
-            throw new ProjogException("cannot find file output handle with name: " + handleName);
-         }
+         streams.setOutput(handle);
       }
    }
 
@@ -238,6 +282,78 @@ public final class FileHandles {
    }
 
    public boolean isHandle(String handle) {
-      return inputHandles.containsKey(handle) || outputHandles.containsKey(handle);
+      synchronized (lock) {
+         return inputHandles.containsKey(handle) || outputHandles.containsKey(handle);
+      }
+   }
+
+   /**
+    * The current input and output streams of a query.
+    * <p>
+    * Each query that has its own {@code Streams} can redirect its input and output without affecting other queries.
+    *
+    * @see FileHandles#createStreams(InputStream, PrintStream)
+    */
+   public final class Streams {
+      private final InputStream userInput;
+      private final PrintStream userOutput;
+      /** Current input used by get_char and read */
+      private volatile Term inputHandle;
+      private volatile InputStream in;
+      /** Current output used by put_char, nl, write and write_canonical */
+      private volatile Term outputHandle;
+      private volatile PrintStream out;
+
+      private Streams(InputStream userInput, PrintStream userOutput) {
+         this.userInput = userInput;
+         this.userOutput = userOutput;
+      }
+
+      /**
+       * Makes these the current streams of the current thread.
+       *
+       * @return the streams that were previously active for the current thread, or {@code null} if there were none
+       * @see #deactivate(Streams)
+       */
+      public Streams activate() {
+         Streams previous = activeStreams.get();
+         activeStreams.set(this);
+         return previous;
+      }
+
+      /**
+       * Restores the streams that were active for the current thread before {@link #activate()} was called.
+       *
+       * @param previous the value returned by the corresponding call to {@link #activate()}
+       */
+      public void deactivate(Streams previous) {
+         if (previous == null) {
+            activeStreams.remove();
+         } else {
+            activeStreams.set(previous);
+         }
+      }
+
+      private void setInput(Term handle) {
+         String handleName = getAtomName(handle);
+         InputStream is = userInput != null && USER_INPUT_HANDLE.getName().equals(handleName) ? userInput : inputHandles.get(handleName);
+         if (is != null) {
+            inputHandle = handle;
+            in = is;
+         } else {
+            throw new ProjogException("cannot find file input handle with name: " + handleName);
+         }
+      }
+
+      private void setOutput(Term handle) {
+         String handleName = getAtomName(handle);
+         PrintStream ps = userOutput != null && USER_OUTPUT_HANDLE.getName().equals(handleName) ? userOutput : outputHandles.get(handleName);
+         if (ps != null) {
+            outputHandle = handle;
+            out = ps;
+         } else {
+            throw new ProjogException("cannot find file output handle with name: " + handleName);
+         }
+      }
    }
 }
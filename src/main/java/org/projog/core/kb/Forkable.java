@@ -0,0 +1,34 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.kb;
+
+/**
+ * Implemented by objects, associated with a {@link KnowledgeBase}, whose state is copied when the knowledge base is
+ * forked.
+ *
+ * @param <T> the type of the object the state is copied from
+ * @see KnowledgeBaseUtils#fork(KnowledgeBase)
+ */
+public interface Forkable<T> {
+   /**
+    * Copies the state of the specified object to this object.
+    * <p>
+    * Subsequent changes to either object will not affect the other.
+    *
+    * @param original the equivalent object associated with the knowledge base being forked
+    */
+   void copyFrom(T original);
+}
@@ -52,6 +52,9 @@ public final class KnowledgeBase {
    private final TermFormatter termFormatter;
    private final SpyPoints spyPoints;
    private final FileHandles fileHandles;
+   private final Object serviceLocatorLock = new Object();
+   /** Created when first required. */
+   private volatile KnowledgeBaseServiceLocator serviceLocator;
 
    /**
     * @see KnowledgeBaseUtils#createKnowledgeBase()
@@ -69,6 +72,19 @@ public final class KnowledgeBase {
       this.fileHandles = new FileHandles();
    }
 
+   /**
+    * @see KnowledgeBaseUtils#fork(KnowledgeBase)
+    */
+   KnowledgeBase(KnowledgeBase original) {
+      this(original.projogProperties);
+      this.projogListeners.copyFrom(original.projogListeners);
+      this.operands.copyFrom(original.operands);
+      this.arithmeticOperators.copyFrom(original.arithmeticOperators);
+      this.fileHandles.copyFrom(original.fileHandles);
+      this.predicates.copyFrom(original.predicates);
+      KnowledgeBaseServiceLocator.getServiceLocator(this).copyFrom(KnowledgeBaseServiceLocator.getServiceLocator(original));
+   }
+
    public ProjogProperties getProjogProperties() {
       return projogProperties;
    }
@@ -100,4 +116,25 @@ public final class KnowledgeBase {
    public FileHandles getFileHandles() {
       return fileHandles;
    }
+
+   /**
+    * Returns the {@code KnowledgeBaseServiceLocator} of this object, creating it if it does not already exist.
+    * <p>
+    * Does not require a lock once the {@code KnowledgeBaseServiceLocator} has been created.
+    *
+    * @see KnowledgeBaseServiceLocator#getServiceLocator(KnowledgeBase)
+    */
+   KnowledgeBaseServiceLocator getServiceLocator() {
+      KnowledgeBaseServiceLocator l = serviceLocator;
+      if (l == null) {
+         synchronized (serviceLocatorLock) {
+            l = serviceLocator;
+            if (l == null) {
+               l = new KnowledgeBaseServiceLocator(this);
+               serviceLocator = l;
+            }
+         }
+      }
+      return l;
+   }
 }
@@ -0,0 +1,444 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.kb;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.projog.core.ProjogException;
+import org.projog.core.math.ArithmeticOperators;
+import org.projog.core.parser.Operands;
+import org.projog.core.predicate.PredicateKey;
+import org.projog.core.predicate.Predicates;
+import org.projog.core.predicate.builtin.clp.ExpressionFactories;
+import org.projog.core.predicate.udp.ClauseModel;
+import org.projog.core.predicate.udp.DynamicUserDefinedPredicateFactory;
+import org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory;
+import org.projog.core.predicate.udp.TabledUserDefinedPredicateFactory;
+import org.projog.core.predicate.udp.UserDefinedPredicateFactory;
+import org.projog.core.term.Atom;
+import org.projog.core.term.AtomCache;
+import org.projog.core.term.DecimalFraction;
+import org.projog.core.term.EmptyList;
+import org.projog.core.term.IntegerNumberCache;
+import org.projog.core.term.ListFactory;
+import org.projog.core.term.Structure;
+import org.projog.core.term.Term;
+import org.projog.core.term.TermType;
+import org.projog.core.term.TermUtils;
+import org.projog.core.term.Variable;
+
+/**
+ * Saves and loads the contents of a {@link KnowledgeBase} using a compact binary format.
+ * <p>
+ * An image contains the operators, the class names of the Java predicates, arithmetic operators and CLP expressions,
+ * and the clauses of all user defined predicates. Loading an image is much quicker than consulting the equivalent
+ * Prolog source, as no parsing is required. All names used in the image are stored once, in a table at the start of
+ * the image, and a single {@link Atom} is created for each name when the image is loaded.
+ * <p>
+ * Only the program is saved. The state of flags, the recorded database and any open streams are not included.
+ */
+public final class KnowledgeBaseImage {
+   private static final int MAGIC = 0x504A4B42; // PJKB
+   private static final int VERSION = 2;
+
+   private static final byte STATIC_PREDICATE = 0;
+   private static final byte DYNAMIC_PREDICATE = 1;
+   private static final byte TABLED_PREDICATE = 2;
+
+   private static final byte ATOM = 1;
+   private static final byte INTEGER = 2;
+   private static final byte FRACTION = 3;
+   private static final byte EMPTY_LIST = 4;
+   private static final byte VARIABLE = 5;
+   private static final byte STRUCTURE = 6;
+   private static final byte LIST = 7;
+
+   /**
+    * Private constructor as all methods are static.
+    */
+   private KnowledgeBaseImage() {
+      // do nothing
+   }
+
+   /**
+    * Writes the contents of the specified {@code KnowledgeBase} to the specified file.
+    *
+    * @throws ProjogException if the {@code KnowledgeBase} contains a clause that cannot be saved (e.g. one that
+    * contains a CLP variable)
+    */
+   public static void save(KnowledgeBase kb, Path image) throws IOException {
+      try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(image))) {
+         save(kb, os);
+      }
+   }
+
+   static void save(KnowledgeBase kb, OutputStream os) throws IOException {
+      Writer writer = new Writer();
+      writer.writeOperators(kb.getOperands().getOperators());
+      writer.writeClassNames(kb.getPredicates().getJavaPredicateClassNames());
+      writer.writeClassNames(kb.getArithmeticOperators().getArithmeticOperatorClassNames());
+      writer.writeClassNames(getExpressionFactories(kb).getExpressionFactoryClassNames());
+      writer.writeUserDefinedPredicates(kb.getPredicates().getUserDefinedPredicates());
+
+      DataOutputStream out = new DataOutputStream(os);
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(writer.strings.size());
+      for (String s : writer.strings) {
+         byte[] b = s.getBytes(StandardCharsets.UTF_8);
+         out.writeInt(b.length);
+         out.write(b);
+      }
+      writer.body.writeTo(out);
+      out.flush();
+   }
+
+   /**
+    * Adds the contents of the specified image file to the specified {@code KnowledgeBase}.
+    * <p>
+    * The whole image is read into memory, and every clause is decoded and added to the {@code KnowledgeBase}, before
+    * this method returns. The specified {@code KnowledgeBase} should not have been bootstrapped, as the image already
+    * contains everything that was added by bootstrapping the {@code KnowledgeBase} the image was saved from.
+    *
+    * @throws ProjogException if the file is not a valid image
+    */
+   public static void load(KnowledgeBase kb, Path image) throws IOException {
+      // the image is only read once, from start to end, so there is no benefit in memory-mapping it
+      load(kb, ByteBuffer.wrap(Files.readAllBytes(image)));
+   }
+
+   static void load(KnowledgeBase kb, ByteBuffer buffer) {
+      if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+         throw new ProjogException("Not a knowledge base image");
+      }
+      int version = buffer.getInt();
+      if (version != VERSION) {
+         throw new ProjogException("Unsupported knowledge base image version: " + version);
+      }
+
+      Reader reader = new Reader(buffer);
+      reader.readOperators(kb.getOperands());
+      reader.readJavaPredicates(kb.getPredicates());
+      reader.readArithmeticOperators(kb.getArithmeticOperators());
+      reader.readExpressionFactories(getExpressionFactories(kb));
+      reader.readUserDefinedPredicates(kb);
+   }
+
+   private static ExpressionFactories getExpressionFactories(KnowledgeBase kb) {
+      return KnowledgeBaseServiceLocator.getServiceLocator(kb).getInstance(ExpressionFactories.class);
+   }
+
+   private static final class Writer {
+      final List<String> strings = new ArrayList<>();
+      final Map<String, Integer> stringIds = new HashMap<>();
+      final ByteArrayOutputStream body = new ByteArrayOutputStream();
+      final DataOutputStream out = new DataOutputStream(body);
+      final Map<Variable, Integer> variables = new IdentityHashMap<>();
+
+      void writeOperators(List<Term> operators) throws IOException {
+         out.writeInt(operators.size());
+         for (Term op : operators) {
+            out.writeInt((int) TermUtils.castToNumeric(op.getArgument(0)).getLong());
+            writeString(op.getArgument(1).getName());
+            writeString(op.getArgument(2).getName());
+         }
+      }
+
+      void writeClassNames(Map<PredicateKey, String> classNames) throws IOException {
+         out.writeInt(classNames.size());
+         for (Map.Entry<PredicateKey, String> e : classNames.entrySet()) {
+            writePredicateKey(e.getKey());
+            writeString(e.getValue());
+         }
+      }
+
+      void writeUserDefinedPredicates(Map<PredicateKey, UserDefinedPredicateFactory> userDefinedPredicates) throws IOException {
+         out.writeInt(userDefinedPredicates.size());
+         for (UserDefinedPredicateFactory userDefinedPredicate : userDefinedPredicates.values()) {
+            List<Term> clauses = new ArrayList<>();
+            Iterator<ClauseModel> implications = userDefinedPredicate.getImplications();
+            while (implications.hasNext()) {
+               clauses.add(implications.next().getOriginal());
+            }
+
+            writePredicateKey(userDefinedPredicate.getPredicateKey());
+            out.writeByte(getPredicateType(userDefinedPredicate));
+            out.writeInt(clauses.size());
+            for (Term clause : clauses) {
+               variables.clear();
+               writeTerm(clause);
+            }
+         }
+      }
+
+      static byte getPredicateType(UserDefinedPredicateFactory userDefinedPredicate) {
+         if (userDefinedPredicate instanceof TabledUserDefinedPredicateFactory) {
+            return TABLED_PREDICATE;
+         } else if (userDefinedPredicate.isDynamic()) {
+            return DYNAMIC_PREDICATE;
+         } else {
+            return STATIC_PREDICATE;
+         }
+      }
+
+      void writePredicateKey(PredicateKey key) throws IOException {
+         writeString(key.getName());
+         out.writeInt(key.getNumArgs());
+      }
+
+      void writeTerm(Term t) throws IOException {
+         t = t.getTerm();
+         switch (t.getType()) {
+            case ATOM:
+               out.writeByte(ATOM);
+               writeString(t.getName());
+               break;
+            case INTEGER:
+               out.writeByte(INTEGER);
+               out.writeLong(TermUtils.castToNumeric(t).getLong());
+               break;
+            case FRACTION:
+               out.writeByte(FRACTION);
+               out.writeDouble(TermUtils.castToNumeric(t).getDouble());
+               break;
+            case EMPTY_LIST:
+               out.writeByte(EMPTY_LIST);
+               break;
+            case VARIABLE:
+               writeVariable((Variable) t);
+               break;
+            case STRUCTURE:
+               out.writeByte(STRUCTURE);
+               writeString(t.getName());
+               out.writeInt(t.getNumberOfArguments());
+               for (Term arg : t.getArgs()) {
+                  writeTerm(arg);
+               }
+               break;
+            case LIST:
+               writeList(t);
+               break;
+            default:
+               throw new ProjogException("Cannot save term: " + t + " of type: " + t.getType());
+         }
+      }
+
+      /** Writes the elements of a list iteratively, so long lists do not cause a stack overflow. */
+      void writeList(Term list) throws IOException {
+         List<Term> elements = new ArrayList<>();
+         Term tail = list;
+         while (tail.getType() == TermType.LIST) {
+            elements.add(tail.getArgument(0));
+            tail = tail.getArgument(1).getTerm();
+         }
+
+         out.writeByte(LIST);
+         out.writeInt(elements.size());
+         for (Term element : elements) {
+            writeTerm(element);
+         }
+         writeTerm(tail);
+      }
+
+      /** Variables are numbered in the order they first occur in a clause. Their name is only written once. */
+      void writeVariable(Variable v) throws IOException {
+         out.writeByte(VARIABLE);
+         Integer id = variables.get(v);
+         if (id == null) {
+            id = variables.size();
+            variables.put(v, id);
+            out.writeInt(id);
+            writeString(v.getId());
+         } else {
+            out.writeInt(id);
+         }
+      }
+
+      void writeString(String s) throws IOException {
+         Integer id = stringIds.get(s);
+         if (id == null) {
+            id = strings.size();
+            strings.add(s);
+            stringIds.put(s, id);
+         }
+         out.writeInt(id);
+      }
+   }
+
+   private static final class Reader {
+      final ByteBuffer buffer;
+      final String[] strings;
+      final Atom[] atoms;
+      final List<Variable> variables = new ArrayList<>();
+
+      Reader(ByteBuffer buffer) {
+         this.buffer = buffer;
+         this.strings = new String[buffer.getInt()];
+         this.atoms = new Atom[strings.length];
+         for (int i = 0; i < strings.length; i++) {
+            byte[] b = new byte[buffer.getInt()];
+            buffer.get(b);
+            strings[i] = new String(b, StandardCharsets.UTF_8).intern();
+         }
+      }
+
+      void readOperators(Operands operands) {
+         for (int i = buffer.getInt(); i > 0; i--) {
+            int precedence = buffer.getInt();
+            String associativity = readString();
+            String name = readString();
+            operands.addOperand(name, associativity, precedence);
+         }
+      }
+
+      void readJavaPredicates(Predicates predicates) {
+         Set<PredicateKey> existing = predicates.getAllDefinedPredicateKeys();
+         for (int i = buffer.getInt(); i > 0; i--) {
+            PredicateKey key = readPredicateKey();
+            String className = readString();
+            if (!existing.contains(key)) {
+               predicates.addPredicateFactory(key, className);
+            }
+         }
+      }
+
+      void readArithmeticOperators(ArithmeticOperators arithmeticOperators) {
+         Map<PredicateKey, String> existing = arithmeticOperators.getArithmeticOperatorClassNames();
+         for (int i = buffer.getInt(); i > 0; i--) {
+            PredicateKey key = readPredicateKey();
+            String className = readString();
+            if (!existing.containsKey(key)) {
+               arithmeticOperators.addArithmeticOperator(key, className);
+            }
+         }
+      }
+
+      void readExpressionFactories(ExpressionFactories expressionFactories) {
+         Map<PredicateKey, String> existing = expressionFactories.getExpressionFactoryClassNames();
+         for (int i = buffer.getInt(); i > 0; i--) {
+            PredicateKey key = readPredicateKey();
+            String className = readString();
+            if (!existing.containsKey(key)) {
+               expressionFactories.addExpressionFactory(key, className);
+            }
+         }
+      }
+
+      void readUserDefinedPredicates(KnowledgeBase kb) {
+         Predicates predicates = kb.getPredicates();
+         for (int i = buffer.getInt(); i > 0; i--) {
+            PredicateKey key = readPredicateKey();
+            UserDefinedPredicateFactory userDefinedPredicate = createUserDefinedPredicate(kb, key, buffer.get());
+            for (int j = buffer.getInt(); j > 0; j--) {
+               variables.clear();
+               userDefinedPredicate.addLast(ClauseModel.createClauseModel(readTerm()));
+            }
+            // static predicates are compiled when first used
+            predicates.addUserDefinedPredicate(userDefinedPredicate);
+         }
+      }
+
+      static UserDefinedPredicateFactory createUserDefinedPredicate(KnowledgeBase kb, PredicateKey key, byte type) {
+         switch (type) {
+            case STATIC_PREDICATE:
+               return new StaticUserDefinedPredicateFactory(kb, key);
+            case DYNAMIC_PREDICATE:
+               return new DynamicUserDefinedPredicateFactory(kb, key);
+            case TABLED_PREDICATE:
+               return new TabledUserDefinedPredicateFactory(kb, key);
+            default:
+               throw new ProjogException("Unknown predicate type in knowledge base image: " + type);
+         }
+      }
+
+      PredicateKey readPredicateKey() {
+         String name = readString();
+         int numArgs = buffer.getInt();
+         return new PredicateKey(name, numArgs);
+      }
+
+      Term readTerm() {
+         byte type = buffer.get();
+         switch (type) {
+            case ATOM:
+               return readAtom();
+            case INTEGER:
+               return IntegerNumberCache.valueOf(buffer.getLong());
+            case FRACTION:
+               return new DecimalFraction(buffer.getDouble());
+            case EMPTY_LIST:
+               return EmptyList.EMPTY_LIST;
+            case VARIABLE:
+               return readVariable();
+            case STRUCTURE:
+               String name = readString();
+               Term[] args = new Term[buffer.getInt()];
+               for (int i = 0; i < args.length; i++) {
+                  args[i] = readTerm();
+               }
+               return Structure.createStructure(name, args);
+            case LIST:
+               Term[] elements = new Term[buffer.getInt()];
+               for (int i = 0; i < elements.length; i++) {
+                  elements[i] = readTerm();
+               }
+               return ListFactory.createList(elements, readTerm());
+            default:
+               throw new ProjogException("Unexpected term type in knowledge base image: " + type);
+         }
+      }
+
+      Atom readAtom() {
+         int id = buffer.getInt();
+         Atom atom = atoms[id];
+         if (atom == null) {
+            atom = AtomCache.valueOf(strings[id]);
+            atoms[id] = atom;
+         }
+         return atom;
+      }
+
+      Variable readVariable() {
+         int id = buffer.getInt();
+         if (id == variables.size()) {
+            Variable v = new Variable(readString());
+            variables.add(v);
+            return v;
+         } else {
+            return variables.get(id);
+         }
+      }
+
+      String readString() {
+         return strings[buffer.getInt()];
+      }
+   }
+}
@@ -17,10 +17,9 @@ package org.projog.core.kb;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Associates arbitrary objects with a {@code KnowledgeBase}.
@@ -30,9 +29,7 @@ import java.util.WeakHashMap;
  * {@code RecordedDatabase} can be associated with one, and only one, {@code KnowledgeBase}.
  * </p>
  */
-public class KnowledgeBaseServiceLocator {
-   private static final Map<KnowledgeBase, KnowledgeBaseServiceLocator> CACHE = new WeakHashMap<>();
-
+public class KnowledgeBaseServiceLocator implements Forkable<KnowledgeBaseServiceLocator> {
    /**
     * Returns the {@code KnowledgeBaseServiceLocator} associated with the specified {@code KnowledgeBase}.
     * <p>
@@ -41,29 +38,14 @@ public class KnowledgeBaseServiceLocator {
     * </p>
     */
    public static KnowledgeBaseServiceLocator getServiceLocator(KnowledgeBase kb) {
-      KnowledgeBaseServiceLocator l = CACHE.get(kb);
-      if (l == null) {
-         l = createServiceLocator(kb);
-      }
-      return l;
-   }
-
-   private static KnowledgeBaseServiceLocator createServiceLocator(KnowledgeBase kb) {
-      synchronized (CACHE) {
-         KnowledgeBaseServiceLocator l = CACHE.get(kb);
-         if (l == null) {
-            l = new KnowledgeBaseServiceLocator(kb);
-            CACHE.put(kb, l);
-         }
-         return l;
-      }
+      return kb.getServiceLocator();
    }
 
    private final KnowledgeBase kb;
-   private final Map<Class<?>, Object> services = new HashMap<>();
+   private final Map<Class<?>, Object> services = new ConcurrentHashMap<>();
 
    /** @see #getServiceLocator */
-   private KnowledgeBaseServiceLocator(KnowledgeBase kb) {
+   KnowledgeBaseServiceLocator(KnowledgeBase kb) {
       this.kb = Objects.requireNonNull(kb);
    }
 
@@ -135,6 +117,27 @@ public class KnowledgeBaseServiceLocator {
       }
    }
 
+   /**
+    * Copies the services of the specified {@code KnowledgeBaseServiceLocator} that implement {@link Forkable}.
+    * <p>
+    * Services that do not implement {@code Forkable} are not copied. A new instance of them will be created when they
+    * are first requested from this object.
+    */
+   @SuppressWarnings("unchecked")
+   @Override
+   public void copyFrom(KnowledgeBaseServiceLocator original) {
+      synchronized (services) {
+         for (Map.Entry<Class<?>, Object> e : original.services.entrySet()) {
+            Object service = e.getValue();
+            if (service instanceof Forkable && !services.containsKey(e.getKey())) {
+               Object copy = newInstance(service.getClass());
+               ((Forkable<Object>) copy).copyFrom(service);
+               services.put(e.getKey(), copy);
+            }
+         }
+      }
+   }
+
    private void assertAssignableFrom(Class<?> referenceType, Class<?> instanceType) {
       if (!referenceType.isAssignableFrom(instanceType)) {
          throw new IllegalArgumentException(instanceType + " is not of type: " + referenceType);
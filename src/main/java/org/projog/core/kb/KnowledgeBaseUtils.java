@@ -64,6 +64,20 @@ public final class KnowledgeBaseUtils {
       return new KnowledgeBase(projogProperties);
    }
 
+   /**
+    * Constructs a new {@code KnowledgeBase} object that is a copy of the specified {@code KnowledgeBase}.
+    * <p>
+    * Creating a copy is much quicker than creating, bootstrapping and consulting a new {@code KnowledgeBase} as no
+    * Prolog syntax needs to be parsed. The clauses of static predicates are shared. Dynamic predicates, flags and the
+    * recorded database are copied - so subsequent changes made to them in either {@code KnowledgeBase} will not affect
+    * the other.
+    *
+    * @see Forkable
+    */
+   public static KnowledgeBase fork(KnowledgeBase kb) {
+      return new KnowledgeBase(kb);
+   }
+
    /**
     * Consults the {@link ProjogProperties#getBootstrapScript()} for the {@code KnowledgeBase}.
     * <p>
@@ -31,4 +31,40 @@ public class ProjogDefaultProperties implements ProjogProperties {
    public String getBootstrapScript() {
       return DEFAULT_BOOTSTRAP_SCRIPT;
    }
+
+   /** Returns {@code false} */
+   @Override
+   public boolean isGoalStackEngineEnabled() {
+      return false;
+   }
+
+   /** Returns {@code false} */
+   @Override
+   public boolean isRuntimeCompilationEnabled() {
+      return false;
+   }
+
+   /** Returns {@link #DEFAULT_RUNTIME_COMPILATION_THRESHOLD} */
+   @Override
+   public int getRuntimeCompilationThreshold() {
+      return DEFAULT_RUNTIME_COMPILATION_THRESHOLD;
+   }
+
+   /** Returns {@link #DEFAULT_INDEX_CACHE_MEMORY_LIMIT} */
+   @Override
+   public long getIndexCacheMemoryLimit() {
+      return DEFAULT_INDEX_CACHE_MEMORY_LIMIT;
+   }
+
+   /** Returns {@link #DEFAULT_MAX_TABLED_ANSWERS} */
+   @Override
+   public long getMaxTabledAnswers() {
+      return DEFAULT_MAX_TABLED_ANSWERS;
+   }
+
+   /** Returns {@code 1} */
+   @Override
+   public int getConcurrentFindAllParallelism() {
+      return 1;
+   }
 }
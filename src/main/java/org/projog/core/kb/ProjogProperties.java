@@ -34,6 +34,27 @@ public interface ProjogProperties {
     */
    String DEFAULT_BOOTSTRAP_SCRIPT = "projog-bootstrap.pl";
 
+   /**
+    * The default maximum number of bytes to use for the indexes of user defined predicates.
+    *
+    * @see #getIndexCacheMemoryLimit()
+    */
+   long DEFAULT_INDEX_CACHE_MEMORY_LIMIT = 64 * 1024 * 1024;
+
+   /**
+    * The default maximum number of answers to store in the tables of tabled predicates.
+    *
+    * @see #getMaxTabledAnswers()
+    */
+   long DEFAULT_MAX_TABLED_ANSWERS = 1_000_000;
+
+   /**
+    * The default number of times the clauses of a static user defined predicate are called before they are compiled.
+    *
+    * @see #getRuntimeCompilationThreshold()
+    */
+   int DEFAULT_RUNTIME_COMPILATION_THRESHOLD = 1000;
+
    /**
     * Returns the name of the resource loaded by {@link KnowledgeBaseUtils#bootstrap(KnowledgeBase)}.
     *
@@ -41,4 +62,98 @@ public interface ProjogProperties {
     * @see KnowledgeBaseUtils#bootstrap(KnowledgeBase)
     */
    String getBootstrapScript();
+
+   /**
+    * Returns {@code true} if queries should be evaluated by {@link org.projog.core.predicate.udp.GoalStackMachine}.
+    * <p>
+    * The goal stack engine keeps the goals still to be evaluated, and the choice points to backtrack to, in stacks
+    * allocated on the heap rather than using the Java call stack. This allows deeply recursive predicates, that are not
+    * eligible for tail recursion optimisation, to be evaluated without causing a {@code StackOverflowError}.
+    *
+    * @return {@code true} if queries should be evaluated by the goal stack engine, {@code false} if queries should be
+    * evaluated by the {@link org.projog.core.predicate.Predicate} returned by the query's
+    * {@link org.projog.core.predicate.PredicateFactory} - defaults to {@code false}
+    */
+   default boolean isGoalStackEngineEnabled() {
+      return false;
+   }
+
+   /**
+    * Returns {@code true} if the clauses of static user defined predicates should be compiled into Java classes.
+    * <p>
+    * When enabled, Java source code is generated for the clauses of a static user defined predicate and compiled at
+    * runtime using the {@code javax.tools} API. The generated code unifies the arguments of a query with the head of a
+    * clause without having to copy the clause, and calls directly into the predicates of its body. Requires the
+    * application to be run using a JDK rather than a JRE. If a predicate can not be compiled then it will be
+    * interpreted.
+    * <p>
+    * Compilation is expensive - each predicate is compiled by a separate invocation of the Java compiler, which
+    * typically takes tens of milliseconds, and is loaded by its own class loader. To avoid paying this cost for
+    * predicates that are rarely used, a predicate is interpreted until its clauses have been called
+    * {@link #getRuntimeCompilationThreshold()} times.
+    *
+    * @return {@code true} if the clauses of static user defined predicates should be compiled into Java classes,
+    * {@code false} if they should always be interpreted - defaults to {@code false}
+    */
+   default boolean isRuntimeCompilationEnabled() {
+      return false;
+   }
+
+   /**
+    * Returns the number of times the clauses of a static user defined predicate are called before they are compiled.
+    * <p>
+    * Only used if {@link #isRuntimeCompilationEnabled()} is {@code true}. A value less than {@code 2} means predicates
+    * are compiled the first time they are used.
+    *
+    * @return the number of times the clauses of a static user defined predicate are called before they are compiled -
+    * defaults to {@link #DEFAULT_RUNTIME_COMPILATION_THRESHOLD}
+    */
+   default int getRuntimeCompilationThreshold() {
+      return DEFAULT_RUNTIME_COMPILATION_THRESHOLD;
+   }
+
+   /**
+    * Returns the maximum number of bytes to use for the indexes of user defined predicates.
+    * <p>
+    * The indexes of a user defined predicate are created as they are required by the queries that are evaluated. Once
+    * the estimated size of all the indexes exceeds this limit then the indexes that have been least recently used are
+    * discarded. Indexes of predicates that have been pinned are never discarded.
+    *
+    * @return the maximum number of bytes to use for the indexes of user defined predicates - defaults to
+    * {@link #DEFAULT_INDEX_CACHE_MEMORY_LIMIT}
+    * @see org.projog.core.predicate.udp.IndexCache
+    */
+   default long getIndexCacheMemoryLimit() {
+      return DEFAULT_INDEX_CACHE_MEMORY_LIMIT;
+   }
+
+   /**
+    * Returns the maximum number of answers to store in the tables of tabled predicates.
+    * <p>
+    * Tabled predicates remember the answers of every call, so they can be reused by subsequent calls. If storing a new
+    * answer would exceed this limit then the tables of calls that have been completely evaluated are discarded. If the
+    * limit is still exceeded then the query fails with an error.
+    *
+    * @return the maximum number of answers to store in the tables of tabled predicates - defaults to
+    * {@link #DEFAULT_MAX_TABLED_ANSWERS}
+    * @see org.projog.core.predicate.udp.AnswerTables
+    */
+   default long getMaxTabledAnswers() {
+      return DEFAULT_MAX_TABLED_ANSWERS;
+   }
+
+   /**
+    * Returns the number of threads to use to evaluate the goals of {@code concurrent_findall/4}.
+    * <p>
+    * Concurrent evaluation is opt-in. If this method returns a value less than {@code 2} then
+    * {@code concurrent_findall/4} evaluates its goals sequentially, using the thread of the query, so produces the same
+    * results as {@code findall/3}.
+    *
+    * @return the number of threads to use to evaluate the goals of {@code concurrent_findall/4} - defaults to
+    * {@code 1}
+    * @see org.projog.core.predicate.builtin.compound.ConcurrentFindAll
+    */
+   default int getConcurrentFindAllParallelism() {
+      return 1;
+   }
 }
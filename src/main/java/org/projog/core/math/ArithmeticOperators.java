@@ -15,11 +15,14 @@
  */
 package org.projog.core.math;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.projog.core.ProjogException;
+import org.projog.core.kb.Forkable;
 import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.kb.KnowledgeBaseConsumer;
 import org.projog.core.kb.KnowledgeBaseUtils;
 import org.projog.core.predicate.PredicateKey;
 import org.projog.core.term.Term;
@@ -36,11 +39,11 @@ import org.projog.core.term.TermUtils;
  * Each {@link org.projog.core.kb.KnowledgeBase} has a single unique {@code ArithmeticOperators} instance.
  * </p>
  */
-public final class ArithmeticOperators {
+public final class ArithmeticOperators implements Forkable<ArithmeticOperators> {
    private final KnowledgeBase kb;
    private final Object lock = new Object();
-   private final Map<PredicateKey, String> operatorClassNames = new HashMap<>();
-   private final Map<PredicateKey, ArithmeticOperator> operatorInstances = new HashMap<>();
+   private final Map<PredicateKey, String> operatorClassNames = new ConcurrentHashMap<>();
+   private final Map<PredicateKey, ArithmeticOperator> operatorInstances = new ConcurrentHashMap<>();
 
    public ArithmeticOperators(KnowledgeBase kb) {
       this.kb = kb;
@@ -81,6 +84,36 @@ public final class ArithmeticOperators {
       }
    }
 
+   /**
+    * Adds all the operators of the specified {@code ArithmeticOperators} to this object.
+    * <p>
+    * Instances of {@link ArithmeticOperator} that are not associated with a particular {@code KnowledgeBase} are shared.
+    * Instances that implement {@link KnowledgeBaseConsumer} are not shared - instead a new instance will be created, for
+    * this object's {@code KnowledgeBase}, when first required.
+    */
+   @Override
+   public void copyFrom(ArithmeticOperators original) {
+      synchronized (lock) {
+         for (Map.Entry<PredicateKey, String> e : original.operatorClassNames.entrySet()) {
+            PredicateKey key = e.getKey();
+            if (!operatorClassNames.containsKey(key)) {
+               operatorClassNames.put(key, e.getValue());
+               ArithmeticOperator operator = original.operatorInstances.get(key);
+               if (operator != null && !(operator instanceof KnowledgeBaseConsumer)) {
+                  operatorInstances.put(key, operator);
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * Returns the class names of all the arithmetic operators of this object.
+    */
+   public Map<PredicateKey, String> getArithmeticOperatorClassNames() {
+      return Collections.unmodifiableMap(operatorClassNames);
+   }
+
    /**
     * Returns the result of evaluating the specified arithmetic expression.
     *
@@ -15,12 +15,19 @@
  */
 package org.projog.core.parser;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.projog.core.ProjogException;
+import org.projog.core.kb.Forkable;
 import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.term.Atom;
+import org.projog.core.term.IntegerNumberCache;
+import org.projog.core.term.Structure;
+import org.projog.core.term.Term;
 
 /**
  * Collection of operands.
@@ -38,14 +45,14 @@ import org.projog.core.kb.KnowledgeBase;
  *
  * @see KnowledgeBase#getOperands()
  */
-public final class Operands {
+public final class Operands implements Forkable<Operands> {
    private final Object LOCK = new Object();
 
-   private final Map<String, Operand> infixOperands = new HashMap<>();
+   private final Map<String, Operand> infixOperands = new ConcurrentHashMap<>();
 
-   private final Map<String, Operand> prefixOperands = new HashMap<>();
+   private final Map<String, Operand> prefixOperands = new ConcurrentHashMap<>();
 
-   private final Map<String, Operand> postfixOperands = new HashMap<>();
+   private final Map<String, Operand> postfixOperands = new ConcurrentHashMap<>();
 
    /**
     * Adds a new operator.
@@ -70,6 +77,16 @@ public final class Operands {
       }
    }
 
+   /** Adds all the operators of the specified {@code Operands} to this object. */
+   @Override
+   public void copyFrom(Operands original) {
+      synchronized (LOCK) {
+         infixOperands.putAll(original.infixOperands);
+         prefixOperands.putAll(original.prefixOperands);
+         postfixOperands.putAll(original.postfixOperands);
+      }
+   }
+
    private Associativity getAssociativity(String associativityName) {
       try {
          return Associativity.valueOf(associativityName);
@@ -186,6 +203,28 @@ public final class Operands {
       return postfix(op) && postfixOperands.get(op).associativity == Associativity.yf;
    }
 
+   /**
+    * Returns all the operators of this object.
+    * <p>
+    * Each operator is represented by a structure of the form {@code op(Precedence, Associativity, Name)} - matching the
+    * arguments used to define it using {@code op/3}.
+    */
+   public List<Term> getOperators() {
+      List<Term> result = new ArrayList<>();
+      addOperators(result, prefixOperands);
+      addOperators(result, infixOperands);
+      addOperators(result, postfixOperands);
+      return result;
+   }
+
+   private static void addOperators(List<Term> result, Map<String, Operand> operandsMap) {
+      for (Map.Entry<String, Operand> e : operandsMap.entrySet()) {
+         Operand o = e.getValue();
+         Term[] args = {IntegerNumberCache.valueOf(o.precedence), new Atom(o.associativity.name()), new Atom(e.getKey())};
+         result.add(Structure.createStructure("op", args));
+      }
+   }
+
    /** Returns {@code true} if {@code commandName} represents any known operator, else {@code false}. */
    public boolean isDefined(String commandName) {
       return infix(commandName) || prefix(commandName) || postfix(commandName);
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.projog.core.term.Atom;
+import org.projog.core.term.AtomCache;
 import org.projog.core.term.DecimalFraction;
 import org.projog.core.term.EmptyList;
 import org.projog.core.term.IntegerNumber;
@@ -142,6 +143,16 @@ public class SentenceParser {
     */
    private final HashMap<String, Variable> variables = new HashMap<>();
 
+   /**
+    * The {@code Atom}s this parser has read (key = the atom name).
+    * <p>
+    * Unlike {@link #variables} this is not cleared between sentences. Atoms are obtained from {@link AtomCache}, so
+    * atoms with the same name read by different parsers, or created at runtime, share the same instance. This map avoids
+    * having to acquire the lock of {@code AtomCache} for every occurrence of an atom. The names of structures are
+    * interned so that comparisons of names can usually be resolved by reference.
+    */
+   private final HashMap<String, Atom> atoms = new HashMap<>();
+
    /**
     * Returns a new {@code SentenceParser} will parse the specified {@code String} using the specified {@code Operands}.
     *
@@ -407,7 +418,7 @@ public class SentenceParser {
             return toTerm(token.getArgument(0));
          case ATOM:
          case SYMBOL:
-            return new Atom(token.getName());
+            return atoms.computeIfAbsent(token.getName(), AtomCache::valueOf);
          case NAMED_BRACKET:
             return toStructureFromNamedBracket(token);
          case OPERAND_AND_ARGUMENTS:
@@ -469,7 +480,7 @@ public class SentenceParser {
       for (int i = 0; i < args.length; i++) {
          args[i] = toTerm(tokens.get(i));
       }
-      return Structure.createStructure(token.getName(), args);
+      return Structure.createStructure(token.getName().intern(), args);
    }
 
    private Term toStructureFromOperandAndArguments(Token token) {
@@ -481,7 +492,7 @@ public class SentenceParser {
       for (int i = 0; i < args.length; i++) {
          args[i] = toTerm(token.getArgument(i));
       }
-      return Structure.createStructure(token.getName(), args);
+      return Structure.createStructure(token.getName().intern(), args);
    }
 
    private boolean isNegativeNumber(Token t) {
@@ -15,6 +15,7 @@
  */
 package org.projog.core.predicate;
 
+import org.projog.core.event.InferenceCounter;
 import org.projog.core.event.ProjogListeners;
 import org.projog.core.event.SpyPoints;
 import org.projog.core.io.FileHandles;
@@ -30,6 +31,7 @@ public abstract class AbstractPredicateFactory implements PredicateFactory, Know
 
    @Override
    public final Predicate getPredicate(Term[] args) {
+      InferenceCounter.increment();
       switch (args.length) {
          case 0:
             return getPredicate();
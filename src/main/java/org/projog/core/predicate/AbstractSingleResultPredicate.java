@@ -17,6 +17,7 @@ package org.projog.core.predicate;
 
 import static org.projog.core.predicate.udp.PredicateUtils.toPredicate;
 
+import org.projog.core.event.InferenceCounter;
 import org.projog.core.event.ProjogListeners;
 import org.projog.core.event.SpyPoints;
 import org.projog.core.io.FileHandles;
@@ -38,6 +39,7 @@ public abstract class AbstractSingleResultPredicate implements PredicateFactory,
 
    @Override
    public final Predicate getPredicate(Term[] args) {
+      InferenceCounter.increment();
       boolean result = evaluate(args);
       return toPredicate(result);
    }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate;
+
+import org.projog.core.term.Term;
+import org.projog.core.term.TermType;
+
+/**
+ * Caches the {@code PredicateFactory} instances found by a call site that evaluates goals only known at runtime.
+ * <p>
+ * Predicates like {@code call/N}, {@code findall/3} and {@code maplist/N} have to find the {@code PredicateFactory} of
+ * the goal they are given every time they are evaluated. Using {@link Predicates#getPredicateFactory(Term)} to do this
+ * requires the creation of a new {@link PredicateKey} followed by up to two map lookups. As a call site is often
+ * evaluated many times with goals of the same name and arity, each {@code PredicateFactoryCache} remembers the
+ * factories of the most recent names and arities it was used to find.
+ * <p>
+ * A cache is intended to be used by a single call site - e.g. the {@code PredicateFactory} returned when a clause
+ * containing {@code call/N} is preprocessed - so its entries reflect the goals of that call site only.
+ * <p>
+ * All cached values are discarded when a new predicate is added to the {@link Predicates} the cache was created for.
+ * {@link UnknownPredicate}s are never cached. Instances are thread-safe.
+ */
+public final class PredicateFactoryCache {
+   /** The maximum number of different name/arity combinations remembered by a cache. */
+   private static final int MAX_ENTRIES = 4;
+
+   private final Predicates predicates;
+   /**
+    * Not volatile, as {@code Entries} and {@code Entry} are immutable so can be safely read by other threads. A thread
+    * that does not see the latest value will find the factory using {@link #predicates}.
+    */
+   private Entries entries = new Entries(-1, new Entry[0]);
+
+   public PredicateFactoryCache(Predicates predicates) {
+      this.predicates = predicates;
+   }
+
+   /**
+    * Returns the {@code PredicateFactory} associated with the specified {@code Term}.
+    *
+    * @see Predicates#getPredicateFactory(Term)
+    */
+   public PredicateFactory getPredicateFactory(Term term) {
+      TermType type = term.getType();
+      if (type == TermType.ATOM || type == TermType.STRUCTURE || type == TermType.LIST) {
+         return getPredicateFactory(term.getName(), term.getNumberOfArguments());
+      } else {
+         // delegate so the same exception is thrown as when the cache is not used
+         return predicates.getPredicateFactory(term);
+      }
+   }
+
+   /**
+    * Returns the {@code PredicateFactory} associated with the specified name and number of arguments.
+    *
+    * @see Predicates#getPredicateFactory(PredicateKey)
+    */
+   public PredicateFactory getPredicateFactory(String name, int numArgs) {
+      long version = predicates.getVersion();
+      Entries current = entries;
+      if (current.version == version) {
+         for (Entry e : current.entries) {
+            if (e.numArgs == numArgs && e.name.equals(name)) {
+               return e.predicateFactory;
+            }
+         }
+      }
+
+      PredicateFactory predicateFactory = predicates.getPredicateFactory(new PredicateKey(name, numArgs));
+      if (!(predicateFactory instanceof UnknownPredicate)) {
+         entries = current.add(version, new Entry(name, numArgs, predicateFactory));
+      }
+      return predicateFactory;
+   }
+
+   /** Immutable, so can be replaced without locking. */
+   private static final class Entries {
+      final long version;
+      final Entry[] entries;
+
+      Entries(long version, Entry[] entries) {
+         this.version = version;
+         this.entries = entries;
+      }
+
+      /** Returns a new {@code Entries} with {@code e} as its first element, discarding the oldest if full. */
+      Entries add(long newVersion, Entry e) {
+         int numberToKeep = version == newVersion ? Math.min(entries.length, MAX_ENTRIES - 1) : 0;
+         Entry[] newEntries = new Entry[numberToKeep + 1];
+         newEntries[0] = e;
+         System.arraycopy(entries, 0, newEntries, 1, numberToKeep);
+         return new Entries(newVersion, newEntries);
+      }
+   }
+
+   private static final class Entry {
+      final String name;
+      final int numArgs;
+      final PredicateFactory predicateFactory;
+
+      Entry(String name, int numArgs, PredicateFactory predicateFactory) {
+         this.name = name;
+         this.numArgs = numArgs;
+         this.predicateFactory = predicateFactory;
+      }
+   }
+}
@@ -42,6 +42,7 @@ public final class PredicateKey implements Comparable<PredicateKey> {
 
    private final String name;
    private final int numArgs;
+   private final int hashCode;
 
    /**
     * Returns a {@code PredicateKey} for the specified term.
@@ -87,6 +88,7 @@ public final class PredicateKey implements Comparable<PredicateKey> {
       }
       this.name = name;
       this.numArgs = numArgs;
+      this.hashCode = name.hashCode() + numArgs;
    }
 
    public String getName() {
@@ -108,9 +110,11 @@ public final class PredicateKey implements Comparable<PredicateKey> {
     */
    @Override
    public boolean equals(Object o) {
-      if (o instanceof PredicateKey) {
+      if (o == this) {
+         return true;
+      } else if (o instanceof PredicateKey) {
          PredicateKey k = (PredicateKey) o;
-         return name.equals(k.name) && numArgs == k.numArgs;
+         return numArgs == k.numArgs && hashCode == k.hashCode && name.equals(k.name);
       } else {
          return false;
       }
@@ -118,7 +122,7 @@ public final class PredicateKey implements Comparable<PredicateKey> {
 
    @Override
    public int hashCode() {
-      return name.hashCode() + numArgs;
+      return hashCode;
    }
 
    /**
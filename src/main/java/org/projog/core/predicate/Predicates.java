@@ -15,27 +15,35 @@
  */
 package org.projog.core.predicate;
 
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import org.projog.core.ProjogException;
+import org.projog.core.kb.Forkable;
 import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.kb.KnowledgeBaseConsumer;
 import org.projog.core.kb.KnowledgeBaseUtils;
 import org.projog.core.predicate.udp.ClauseModel;
 import org.projog.core.predicate.udp.DynamicUserDefinedPredicateFactory;
+import org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory;
+import org.projog.core.predicate.udp.TabledUserDefinedPredicateFactory;
 import org.projog.core.predicate.udp.UserDefinedPredicateFactory;
 import org.projog.core.term.Term;
+import org.projog.core.term.TermType;
 
 /** Acts as a repository of rules and facts. */
-public class Predicates {
+public class Predicates implements Forkable<Predicates> {
    /**
-    * Used to coordinate access to {@link javaPredicateClassNames}, {@link #javaPredicateInstances} and
-    * {@link #userDefinedPredicates}
+    * Used to coordinate updates to {@link javaPredicateClassNames}, {@link #javaPredicateInstances} and
+    * {@link #userDefinedPredicates}.
+    * <p>
+    * The maps themselves are concurrent so they can be read, by threads evaluating queries, without acquiring the lock.
     */
    private final Object predicatesLock = new Object();
 
@@ -43,20 +51,37 @@ public class Predicates {
     * The class names of "built-in" Java predicates (i.e. not defined using Prolog syntax) associated with this
     * {@code KnowledgeBase}.
     */
-   private final Map<PredicateKey, String> javaPredicateClassNames = new HashMap<>();
+   private final Map<PredicateKey, String> javaPredicateClassNames = new ConcurrentHashMap<>();
 
    /**
     * The instances of "built-in" Java predicates (i.e. not defined using Prolog syntax) associated with this
     * {@code KnowledgeBase}.
     */
-   private final Map<PredicateKey, PredicateFactory> javaPredicateInstances = new HashMap<>();
+   private final Map<PredicateKey, PredicateFactory> javaPredicateInstances = new ConcurrentHashMap<>();
 
    /**
     * The user-defined predicates (i.e. defined using Prolog syntax) associated with this {@code KnowledgeBase}.
     * <p>
-    * Uses TreeMap to enforce predictable ordering for when iterated (e.g. by <code>listing(X)</code>).
+    * Uses a sorted map to enforce predictable ordering for when iterated (e.g. by <code>listing(X)</code>).
+    */
+   private final Map<PredicateKey, UserDefinedPredicateFactory> userDefinedPredicates = new ConcurrentSkipListMap<>();
+
+   /**
+    * The keys of {@link #javaPredicateClassNames} and {@link #userDefinedPredicates} (key = name, value = the keys
+    * with that name, indexed by number of arguments).
+    * <p>
+    * Used to find the {@code PredicateKey} of a goal without creating a new instance. The arrays are never altered once
+    * added to the map, so can be read without acquiring {@link #predicatesLock}.
+    */
+   private final Map<String, PredicateKey[]> keysByName = new ConcurrentHashMap<>();
+
+   /**
+    * Incremented every time a new predicate is associated with this object.
+    * <p>
+    * Used by {@link PredicateFactoryCache} to determine if the {@code PredicateFactory} instances it has cached are
+    * still valid.
     */
-   private final Map<PredicateKey, UserDefinedPredicateFactory> userDefinedPredicates = new TreeMap<>();
+   private volatile long version;
 
    private final KnowledgeBase kb;
 
@@ -78,6 +103,13 @@ public class Predicates {
       return Collections.unmodifiableSet(result);
    }
 
+   /**
+    * Returns the class names of all the "built-in" Java predicates of this object.
+    */
+   public Map<PredicateKey, String> getJavaPredicateClassNames() {
+      return Collections.unmodifiableMap(javaPredicateClassNames);
+   }
+
    /**
     * Returns details of all the user define predicates of this object.
     */
@@ -94,8 +126,12 @@ public class Predicates {
     * @throws ProjogException if the specified {@code PredicateKey} represents an existing "plugin" predicate
     */
    public UserDefinedPredicateFactory createOrReturnUserDefinedPredicate(PredicateKey key) {
-      UserDefinedPredicateFactory userDefinedPredicate;
-      synchronized (predicatesLock) { // TODO if already in userDefinedPredicates then avoid need to synch
+      UserDefinedPredicateFactory userDefinedPredicate = userDefinedPredicates.get(key);
+      if (userDefinedPredicate != null) {
+         return userDefinedPredicate;
+      }
+
+      synchronized (predicatesLock) {
          if (isExistingJavaPredicate(key)) {
             throw new ProjogException("Cannot replace already defined built-in predicate: " + key);
          }
@@ -126,6 +162,8 @@ public class Predicates {
             updateExistingPredicate(key, userDefinedPredicate);
          } else {
             userDefinedPredicates.put(key, userDefinedPredicate);
+            addKey(key);
+            version++;
          }
       }
    }
@@ -165,10 +203,44 @@ public class Predicates {
     * {@code Term} then a new instance of {@link UnknownPredicate} is returned.
     */
    public PredicateFactory getPredicateFactory(Term term) {
-      PredicateKey key = PredicateKey.createForTerm(term);
+      PredicateKey key = getExistingKey(term);
+      if (key == null) {
+         key = PredicateKey.createForTerm(term);
+      }
       return getPredicateFactory(key);
    }
 
+   /**
+    * Returns the {@code PredicateKey} of the specified goal if it is the key of a predicate of this object, else
+    * {@code null}.
+    */
+   private PredicateKey getExistingKey(Term term) {
+      TermType type = term.getType();
+      if (type == TermType.ATOM || type == TermType.STRUCTURE) {
+         PredicateKey[] keys = keysByName.get(term.getName());
+         int numArgs = term.getNumberOfArguments();
+         if (keys != null && numArgs < keys.length) {
+            return keys[numArgs];
+         }
+      }
+      return null;
+   }
+
+   /** Must be called while holding {@link #predicatesLock}. */
+   private void addKey(PredicateKey key) {
+      int numArgs = key.getNumArgs();
+      PredicateKey[] keys = keysByName.get(key.getName());
+      if (keys == null) {
+         keys = new PredicateKey[numArgs + 1];
+      } else if (numArgs < keys.length && keys[numArgs] != null) {
+         return;
+      } else {
+         keys = Arrays.copyOf(keys, Math.max(keys.length, numArgs + 1));
+      }
+      keys[numArgs] = key;
+      keysByName.put(key.getName(), keys);
+   }
+
    /**
     * Returns the {@code PredicateFactory} associated with the specified {@code PredicateKey}.
     * <p>
@@ -186,6 +258,13 @@ public class Predicates {
       }
    }
 
+   /**
+    * Returns a value that changes every time a new predicate is associated with this object.
+    */
+   long getVersion() {
+      return version;
+   }
+
    private PredicateFactory getExistingPredicateFactory(PredicateKey key) {
       PredicateFactory predicateFactory = javaPredicateInstances.get(key);
       if (predicateFactory != null) {
@@ -239,6 +318,8 @@ public class Predicates {
             throw new ProjogException("Already defined: " + key);
          } else {
             javaPredicateClassNames.put(key, predicateFactoryClassName);
+            addKey(key);
+            version++;
          }
       }
    }
@@ -262,8 +343,71 @@ public class Predicates {
          } else {
             javaPredicateClassNames.put(key, predicateFactory.getClass().getName());
             javaPredicateInstances.put(key, predicateFactory);
+            addKey(key);
+            version++;
+         }
+      }
+   }
+
+   /**
+    * Adds all the predicates of the specified {@code Predicates} to this object.
+    * <p>
+    * The clauses of static user defined predicates are shared, but each {@code KnowledgeBase} compiles them separately
+    * (when they are first used) as their compiled form refers to the predicates of the {@code KnowledgeBase} they were
+    * compiled for. The clauses of dynamic user defined predicates are copied.
+    * <p>
+    * Instances of {@link PredicateFactory} that are not associated with a particular {@code KnowledgeBase} are shared.
+    * Instances that implement {@link Forkable} are copied. Other instances that implement {@link KnowledgeBaseConsumer}
+    * are not shared - instead a new instance will be created, for this object's {@code KnowledgeBase}, when first
+    * required.
+    */
+   @SuppressWarnings("unchecked")
+   @Override
+   public void copyFrom(Predicates original) {
+      synchronized (predicatesLock) {
+         for (Map.Entry<PredicateKey, String> e : original.javaPredicateClassNames.entrySet()) {
+            PredicateKey key = e.getKey();
+            if (!isExistingPredicate(key)) {
+               javaPredicateClassNames.put(key, e.getValue());
+               addKey(key);
+               PredicateFactory predicateFactory = original.javaPredicateInstances.get(key);
+               if (predicateFactory instanceof Forkable) {
+                  PredicateFactory copy = instantiatePredicateFactory(e.getValue());
+                  ((Forkable<PredicateFactory>) copy).copyFrom(predicateFactory);
+                  javaPredicateInstances.put(key, copy);
+               } else if (predicateFactory != null && !(predicateFactory instanceof KnowledgeBaseConsumer)) {
+                  javaPredicateInstances.put(key, predicateFactory);
+               }
+            }
+         }
+
+         for (UserDefinedPredicateFactory userDefinedPredicate : original.userDefinedPredicates.values()) {
+            PredicateKey key = userDefinedPredicate.getPredicateKey();
+            if (!isExistingPredicate(key)) {
+               userDefinedPredicates.put(key, copyUserDefinedPredicate(userDefinedPredicate));
+               addKey(key);
+            }
          }
+
+         version++;
+      }
+   }
+
+   private UserDefinedPredicateFactory copyUserDefinedPredicate(UserDefinedPredicateFactory original) {
+      if (original instanceof StaticUserDefinedPredicateFactory) {
+         return new StaticUserDefinedPredicateFactory(kb, (StaticUserDefinedPredicateFactory) original);
+      } else if (original instanceof TabledUserDefinedPredicateFactory) {
+         return new TabledUserDefinedPredicateFactory(kb, (TabledUserDefinedPredicateFactory) original);
+      } else if (original instanceof DynamicUserDefinedPredicateFactory) {
+         return new DynamicUserDefinedPredicateFactory(kb, (DynamicUserDefinedPredicateFactory) original);
+      }
+
+      UserDefinedPredicateFactory copy = new DynamicUserDefinedPredicateFactory(kb, original.getPredicateKey());
+      Iterator<ClauseModel> implications = original.getImplications();
+      while (implications.hasNext()) {
+         copy.addLast(implications.next());
       }
+      return copy;
    }
 
    private boolean isExistingPredicate(PredicateKey key) {
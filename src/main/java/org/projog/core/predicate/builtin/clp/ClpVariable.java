@@ -38,6 +38,7 @@ import org.projog.core.ProjogException;
 import org.projog.core.math.Numeric;
 import org.projog.core.term.Term;
 import org.projog.core.term.TermType;
+import org.projog.core.term.Trail;
 import org.projog.core.term.Variable;
 
 /** A {@code Term} that could represent a number of possible numeric values. */
@@ -87,10 +88,15 @@ final class ClpVariable implements Numeric, LeafExpression {
          throw new IllegalStateException();
       }
       ClpVariable copy = new ClpVariable(this);
-      this.child = copy;
+      setChild(copy);
       return copy;
    }
 
+   private void setChild(ClpVariable child) {
+      this.child = child;
+      Trail.recordBinding(this);
+   }
+
    @Override
    public String getName() {
       throw new UnsupportedOperationException();
@@ -162,16 +168,16 @@ final class ClpVariable implements Numeric, LeafExpression {
          }
 
          if (s == a.state) {
-            other.child = a;
+            other.setChild(a);
          } else if (s == other.state) {
-            a.child = other;
+            a.setChild(other);
          } else {
             Set<Constraint> newRules = new LinkedHashSet<>();
             newRules.addAll(a.rules);
             newRules.addAll(other.rules);
             ClpVariable newChild = new ClpVariable(s, newRules);
-            a.child = newChild;
-            other.child = newChild;
+            a.setChild(newChild);
+            other.setChild(newChild);
          }
 
          return true;
@@ -17,14 +17,17 @@ package org.projog.core.predicate.builtin.clp;
 
 import static org.projog.core.term.TermUtils.castToNumeric;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.projog.clp.Expression;
 import org.projog.clp.FixedValue;
 import org.projog.core.ProjogException;
+import org.projog.core.kb.Forkable;
 import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.kb.KnowledgeBaseConsumer;
 import org.projog.core.kb.KnowledgeBaseUtils;
 import org.projog.core.predicate.PredicateKey;
 import org.projog.core.term.Term;
@@ -39,11 +42,11 @@ import org.projog.core.term.Term;
  * Each {@link org.projog.core.kb.KnowledgeBase} has at most one unique {@code ClpExpressions} instance.
  * </p>
  */
-public final class ExpressionFactories {
+public final class ExpressionFactories implements Forkable<ExpressionFactories> {
    private final KnowledgeBase kb;
    private final Object lock = new Object();
-   private final Map<PredicateKey, String> factoryClassNames = new HashMap<>();
-   private final Map<PredicateKey, ExpressionFactory> factoryInstances = new HashMap<>();
+   private final Map<PredicateKey, String> factoryClassNames = new ConcurrentHashMap<>();
+   private final Map<PredicateKey, ExpressionFactory> factoryInstances = new ConcurrentHashMap<>();
 
    public ExpressionFactories(KnowledgeBase kb) {
       this.kb = kb;
@@ -66,6 +69,35 @@ public final class ExpressionFactories {
       }
    }
 
+   /**
+    * Adds all the expression factories of the specified {@code ExpressionFactories} to this object.
+    * <p>
+    * Instances of {@link ExpressionFactory} that implement {@link KnowledgeBaseConsumer} are not shared - instead a new
+    * instance will be created, for this object's {@code KnowledgeBase}, when first required.
+    */
+   @Override
+   public void copyFrom(ExpressionFactories original) {
+      synchronized (lock) {
+         for (Map.Entry<PredicateKey, String> e : original.factoryClassNames.entrySet()) {
+            PredicateKey key = e.getKey();
+            if (!factoryClassNames.containsKey(key)) {
+               factoryClassNames.put(key, e.getValue());
+               ExpressionFactory factory = original.factoryInstances.get(key);
+               if (factory != null && !(factory instanceof KnowledgeBaseConsumer)) {
+                  factoryInstances.put(key, factory);
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * Returns the class names of all the expression factories of this object.
+    */
+   public Map<PredicateKey, String> getExpressionFactoryClassNames() {
+      return Collections.unmodifiableMap(factoryClassNames);
+   }
+
    public Expression toExpression(Term t, Set<ClpVariable> vars) {
       switch (t.getType()) {
          case VARIABLE:
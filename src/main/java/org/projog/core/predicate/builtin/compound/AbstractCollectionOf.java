@@ -55,7 +55,7 @@ abstract class AbstractCollectionOf implements Predicate {
          template.backtrack();
          Entry<Key, List<Term>> e = itr.next();
          bag.backtrack();
-         bag.unify(ListFactory.createList(e.getValue()));
+         bag.unify(ListFactory.createList(toBag(e.getValue())));
          for (int i = 0; i < variablesNotInTemplate.size(); i++) {
             Variable v = variablesNotInTemplate.get(i);
             v.backtrack();
@@ -81,7 +81,7 @@ abstract class AbstractCollectionOf implements Predicate {
                l = new ArrayList<>();
                m.put(key, l);
             }
-            add(l, template.getTerm());
+            l.add(template.getTerm());
          } while (hasFoundAnotherSolution(predicate));
       }
 
@@ -90,7 +90,15 @@ abstract class AbstractCollectionOf implements Predicate {
       itr = m.entrySet().iterator();
    }
 
-   protected abstract void add(List<Term> l, Term t);
+   /**
+    * Returns the elements of the bag to produce for a group of solutions.
+    * <p>
+    * Called when the group is about to be unified with the bag, rather than when the solutions are found, so the cost of
+    * processing a group is only incurred if the group is required.
+    *
+    * @param solutions the solutions of the group, in the order they were found
+    */
+   protected abstract List<Term> toBag(List<Term> solutions);
 
    private List<Variable> getVariablesNotInTemplate(Term template, Term goal) {
       Set<Variable> variablesInGoal = TermUtils.getAllVariablesInTerm(goal);
@@ -108,20 +116,33 @@ abstract class AbstractCollectionOf implements Predicate {
       return itr == null || itr.hasNext();
    }
 
-   /** Represents a combination of possible values for the variables contained in the goal. */
+   /**
+    * Represents a combination of possible values for the variables contained in the goal.
+    * <p>
+    * The hash code is derived from the hash codes of the values, which are consistent with
+    * {@link TermUtils#termsEqual(Term, Term)}, so solutions can be grouped in linear time.
+    */
    private static class Key {
       final List<Term> terms;
+      final int hashCode;
 
       Key(List<Variable> variables) {
          terms = new ArrayList<>(variables.size());
+         int h = 1;
          for (Variable v : variables) {
-            terms.add(v.getTerm());
+            Term t = v.getTerm();
+            terms.add(t);
+            h = 31 * h + t.hashCode();
          }
+         hashCode = h;
       }
 
       @Override
       public boolean equals(Object o) {
          Key k = (Key) o;
+         if (hashCode != k.hashCode) {
+            return false;
+         }
          for (int i = 0; i < terms.size(); i++) {
             if (!TermUtils.termsEqual(terms.get(i), k.terms.get(i))) {
                return false;
@@ -132,8 +153,7 @@ abstract class AbstractCollectionOf implements Predicate {
 
       @Override
       public int hashCode() {
-         // TODO is it possible to improve on returning the same hashCode for all instances?
-         return 0;
+         return hashCode;
       }
    }
 }
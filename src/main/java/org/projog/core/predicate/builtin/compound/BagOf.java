@@ -85,6 +85,17 @@ p(d,2).
 % X=UNINSTANTIATED VARIABLE
 % Y=3
 
+%?- bagof(X, member(X-K, [1-f(a),2-f(b),3-f(a),4-[x,y],5-f(b),6-[x,y]]), L)
+% K=f(a)
+% L=[1,3]
+% X=UNINSTANTIATED VARIABLE
+% K=f(b)
+% L=[2,5]
+% X=UNINSTANTIATED VARIABLE
+% K=[x,y]
+% L=[4,6]
+% X=UNINSTANTIATED VARIABLE
+
 % TODO bagof(X, Y ^ p(X,Y), List)
 */
 /**
@@ -109,8 +120,8 @@ public final class BagOf extends AbstractPredicateFactory implements Preprocessa
 
       /** "bagof" returns all elements (including duplicates) in the order they were found. */
       @Override
-      protected void add(List<Term> l, Term t) {
-         l.add(t);
+      protected List<Term> toBag(List<Term> solutions) {
+         return solutions;
       }
    }
 
@@ -21,6 +21,9 @@ import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.kb.KnowledgeBaseConsumer;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.predicate.PredicateFactoryCache;
+import org.projog.core.predicate.Predicates;
+import org.projog.core.predicate.PreprocessablePredicateFactory;
 import org.projog.core.term.Structure;
 import org.projog.core.term.Term;
 
@@ -51,14 +54,6 @@ testCall(X) :- call(X).
 %YES
 %YES
 
-% Note: "time" is a synonym for "call".
-%TRUE time(true)
-%FAIL time(fail)
-%?- time(repeat(3))
-%YES
-%YES
-%YES
-
 test(V1,V2,V3,V4,V5,V6,V7,V8,V9) :-
   write(V1), write(' '),
   write(V2), write(' '),
@@ -123,34 +118,64 @@ test(V1,V2,V3,V4,V5,V6,V7,V8,V9) :-
  * argument list of the goal represented by the first argument.
  * </p>
  */
-public final class Call implements PredicateFactory, KnowledgeBaseConsumer {
-   private KnowledgeBase knowledgeBase;
+public final class Call implements PreprocessablePredicateFactory, KnowledgeBaseConsumer {
+   private Predicates predicates;
 
    @Override
    public Predicate getPredicate(Term[] args) {
+      Term goal = createGoal(args);
+      return predicates.getPredicate(goal);
+   }
+
+   private static Term createGoal(Term[] args) {
       Term goal = args[0];
       if (args.length == 1) {
-         return getPredicate(goal);
+         return goal;
       } else {
          Term[] goalArgs = goal.getArgs();
          Term[] callArgs = Arrays.copyOf(goalArgs, goalArgs.length + args.length - 1);
          System.arraycopy(args, 1, callArgs, goalArgs.length, args.length - 1);
-         Term target = Structure.createStructure(goal.getName(), callArgs);
-         return getPredicate(target);
+         return Structure.createStructure(goal.getName(), callArgs);
       }
    }
 
-   private Predicate getPredicate(Term arg) {
-      return knowledgeBase.getPredicates().getPredicate(arg);
-   }
-
    @Override
    public boolean isRetryable() {
       return true;
    }
 
+   /**
+    * Returns a new {@code PredicateFactory} for the call site represented by {@code term}.
+    * <p>
+    * The goal is usually not known until the call site is evaluated, so each call site has its own
+    * {@link PredicateFactoryCache} to find the {@code PredicateFactory} of the goals it is evaluated with.
+    */
+   @Override
+   public PredicateFactory preprocess(Term term) {
+      return new CallSite(new PredicateFactoryCache(predicates));
+   }
+
    @Override
    public void setKnowledgeBase(KnowledgeBase knowledgeBase) {
-      this.knowledgeBase = knowledgeBase;
+      this.predicates = knowledgeBase.getPredicates();
+   }
+
+   private static final class CallSite implements PredicateFactory {
+      private final PredicateFactoryCache cache;
+
+      CallSite(PredicateFactoryCache cache) {
+         this.cache = cache;
+      }
+
+      @Override
+      public Predicate getPredicate(Term[] args) {
+         Term goal = createGoal(args);
+         return cache.getPredicateFactory(goal).getPredicate(goal.getArgs());
+      }
+
+      @Override
+      public boolean isRetryable() {
+         return true;
+      }
    }
 }
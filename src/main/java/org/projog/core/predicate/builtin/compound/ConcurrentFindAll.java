@@ -0,0 +1,256 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.compound;
+
+import static org.projog.core.kb.KnowledgeBaseServiceLocator.getServiceLocator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.projog.core.event.QueryLimits;
+import org.projog.core.io.FileHandles;
+import org.projog.core.predicate.AbstractSingleResultPredicate;
+import org.projog.core.predicate.CutException;
+import org.projog.core.predicate.Predicate;
+import org.projog.core.predicate.Predicates;
+import org.projog.core.predicate.udp.AnswerTables;
+import org.projog.core.term.ListFactory;
+import org.projog.core.term.Term;
+import org.projog.core.term.Trail;
+import org.projog.core.term.Variable;
+
+/* TEST
+%?- concurrent_findall(X, member(X,[1,2,3,4,5,6]), 0 =:= X mod 2, L)
+% L=[2,4,6]
+% X=UNINSTANTIATED VARIABLE
+
+%?- concurrent_findall(X-Y, member(X,[a,b,c]), member(Y,[1,2]), L)
+% L=[a - 1,a - 2,b - 1,b - 2,c - 1,c - 2]
+% X=UNINSTANTIATED VARIABLE
+% Y=UNINSTANTIATED VARIABLE
+
+%?- concurrent_findall(Y, between(1,5,X), Y is X*X, L)
+% L=[1,4,9,16,25]
+% X=UNINSTANTIATED VARIABLE
+% Y=UNINSTANTIATED VARIABLE
+
+%?- concurrent_findall(X, member(X,[a,b]), fail, L)
+% L=[]
+% X=UNINSTANTIATED VARIABLE
+
+%?- concurrent_findall(X, fail, true, L)
+% L=[]
+% X=UNINSTANTIATED VARIABLE
+
+%?- concurrent_findall(X, member(X,[a,b,c]), X \== b, [a,c])
+% X=UNINSTANTIATED VARIABLE
+
+%?- concurrent_findall(X, member(X,[1,a]), Y is X+1, L)
+%ERROR Cannot find arithmetic operator: a/0
+*/
+/**
+ * <code>concurrent_findall(X,G,P,L)</code> - find all solutions that satisfy a goal, evaluating goals concurrently.
+ * <p>
+ * <code>concurrent_findall(X,G,P,L)</code> produces a list (<code>L</code>) of <code>X</code> for each possible
+ * solution of the conjunction <code>(G,P)</code>. The solutions of the generator <code>G</code> are found first. A copy
+ * of <code>P</code> is then evaluated for each solution of <code>G</code>. The order of <code>L</code> is the same as
+ * would be produced by <code>findall(X,(G,P),L)</code>.
+ * <p>
+ * If {@link org.projog.core.kb.ProjogProperties#getConcurrentFindAllParallelism()} is greater than one then the copies
+ * of <code>P</code> are divided between the threads of a {@code ForkJoinPool}. Each thread uses its own record of
+ * bindings, so <code>P</code> must not rely on side effects of the evaluation of other solutions of <code>G</code>
+ * (e.g. the use of <code>assert</code> to communicate between solutions). A new {@code ForkJoinPool} is used for each
+ * evaluation, and shut down once the evaluation is complete. The limits of the query (e.g. its timeout) also apply to
+ * the threads of the pool, and the inferences they perform are counted as inferences of the query.
+ * <p>
+ * The copies of <code>P</code> are always evaluated by the calling thread if it is evaluating a tabled predicate. Other
+ * threads could need the tables that the calling thread is evaluating, which would result in a deadlock.
+ */
+public final class ConcurrentFindAll extends AbstractSingleResultPredicate {
+   /** The number of batches, per thread, to divide the goals into - so work can be redistributed between threads. */
+   private static final int BATCHES_PER_THREAD = 4;
+
+   private int parallelism;
+   private AnswerTables tables;
+
+   @Override
+   protected void init() {
+      parallelism = getKnowledgeBase().getProjogProperties().getConcurrentFindAllParallelism();
+      tables = getServiceLocator(getKnowledgeBase()).getInstance(AnswerTables.class);
+   }
+
+   @Override
+   protected boolean evaluate(Term template, Term generator, Term goal, Term output) {
+      List<Term[]> tasks = getTasks(template, generator, goal);
+      List<Term> solutions;
+      if (parallelism < 2 || tasks.size() < 2 || tables.isEvaluating()) {
+         solutions = new ArrayList<>();
+         for (Term[] task : tasks) {
+            evaluateTask(getPredicates(), task, solutions);
+         }
+      } else {
+         solutions = evaluateConcurrently(tasks);
+      }
+      Term list = ListFactory.createList(solutions);
+      list.backtrack();
+      return output.unify(list);
+   }
+
+   /**
+    * Returns a copy of the template and goal for each solution of the generator.
+    *
+    * @return a list of two element arrays - the first element is a copy of the template and the second element is the
+    * corresponding copy of the goal
+    */
+   private List<Term[]> getTasks(Term template, Term generator, Term goal) {
+      final Trail trail = Trail.getActive();
+      final long choicePoint = trail == null ? 0 : trail.mark();
+      final List<Term[]> tasks = new ArrayList<>();
+      final Predicate predicate = getPredicates().getPredicate(generator);
+      if (predicate.evaluate()) {
+         do {
+            Map<Variable, Variable> sharedVariables = new HashMap<>();
+            tasks.add(new Term[] {template.copy(sharedVariables), goal.copy(sharedVariables)});
+         } while (predicate.couldReevaluationSucceed() && predicate.evaluate());
+      }
+      if (choicePoint != 0 && trail.undo(choicePoint)) {
+         trail.release(choicePoint);
+      } else {
+         template.backtrack();
+         generator.backtrack();
+         goal.backtrack();
+      }
+      return tasks;
+   }
+
+   private List<Term> evaluateConcurrently(List<Term[]> tasks) {
+      int batchSize = Math.max(1, tasks.size() / (parallelism * BATCHES_PER_THREAD));
+      QueryLimits limits = QueryLimits.getActive();
+      QueryLimits.Workers workers = limits == null ? null : limits.createWorkers();
+      Batch batch = new Batch(getPredicates(), getFileHandles().getActiveStreams(), workers, tasks, 0, tasks.size(), batchSize, new AtomicReference<>());
+      ForkJoinPool pool = new ForkJoinPool(parallelism);
+      List<Term> solutions;
+      try {
+         solutions = pool.invoke(batch);
+      } finally {
+         pool.shutdown();
+         if (workers != null) {
+            workers.finish();
+         }
+      }
+      RuntimeException e = batch.error.get();
+      if (e != null) {
+         throw e;
+      }
+
+      Trail trail = Trail.getActive();
+      if (trail != null) {
+         trail.synchronizeStamp();
+      }
+      return solutions;
+   }
+
+   /** Adds a copy of the template of the specified task to {@code solutions} for every solution of its goal. */
+   private static void evaluateTask(Predicates predicates, Term[] task, List<Term> solutions) {
+      Term template = task[0];
+      Term goal = task[1];
+      try {
+         Predicate predicate = predicates.getPredicate(goal);
+         if (predicate.evaluate()) {
+            do {
+               solutions.add(template.copy(new HashMap<>()));
+            } while (predicate.couldReevaluationSucceed() && predicate.evaluate());
+         }
+      } catch (CutException e) {
+         // e.g. for a goal like: "true, !"
+      }
+   }
+
+   /**
+    * Evaluates a range of tasks, dividing it between threads if it is larger than the batch size.
+    * <p>
+    * The first exception thrown by any batch is recorded in {@link #error}, rather than being propagated by the
+    * {@code ForkJoinPool}, so that the original exception is thrown by {@code concurrent_findall/4}.
+    */
+   private static final class Batch extends RecursiveTask<List<Term>> {
+      private static final long serialVersionUID = 1L;
+
+      private final Predicates predicates;
+      private final FileHandles.Streams streams;
+      private final QueryLimits.Workers workers;
+      private final List<Term[]> tasks;
+      private final int from;
+      private final int to;
+      private final int batchSize;
+      private final AtomicReference<RuntimeException> error;
+
+      Batch(Predicates predicates, FileHandles.Streams streams, QueryLimits.Workers workers, List<Term[]> tasks, int from, int to, int batchSize, AtomicReference<RuntimeException> error) {
+         this.predicates = predicates;
+         this.streams = streams;
+         this.workers = workers;
+         this.tasks = tasks;
+         this.from = from;
+         this.to = to;
+         this.batchSize = batchSize;
+         this.error = error;
+      }
+
+      @Override
+      protected List<Term> compute() {
+         if (to - from > batchSize) {
+            int middle = (from + to) >>> 1;
+            Batch first = new Batch(predicates, streams, workers, tasks, from, middle, batchSize, error);
+            Batch second = new Batch(predicates, streams, workers, tasks, middle, to, batchSize, error);
+            second.fork();
+            List<Term> solutions = first.compute();
+            solutions.addAll(second.join());
+            return solutions;
+         }
+
+         List<Term> solutions = new ArrayList<>();
+         if (error.get() != null) {
+            return solutions;
+         }
+
+         Trail trail = new Trail();
+         Trail previousTrail = trail.activate();
+         FileHandles.Streams previousStreams = streams == null ? null : streams.activate();
+         QueryLimits limits = workers == null ? null : workers.create();
+         QueryLimits previousLimits = limits == null ? null : limits.activate();
+         try {
+            for (int i = from; i < to; i++) {
+               evaluateTask(predicates, tasks.get(i), solutions);
+            }
+         } catch (RuntimeException e) {
+            error.compareAndSet(null, e);
+         } finally {
+            if (limits != null) {
+               limits.deactivate(previousLimits);
+            }
+            if (streams != null) {
+               streams.deactivate(previousStreams);
+            }
+            trail.deactivate(previousTrail);
+         }
+         return solutions;
+      }
+   }
+}
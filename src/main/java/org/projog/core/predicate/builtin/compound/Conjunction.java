@@ -19,10 +19,12 @@ import org.projog.core.predicate.AbstractPredicateFactory;
 import org.projog.core.predicate.AbstractSingleResultPredicate;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.predicate.PredicateFactoryCache;
 import org.projog.core.predicate.PreprocessablePredicateFactory;
 import org.projog.core.predicate.udp.PredicateUtils;
 import org.projog.core.term.Term;
 import org.projog.core.term.TermUtils;
+import org.projog.core.term.Trail;
 
 /* TEST
 %TRUE true, true
@@ -128,7 +130,7 @@ public final class Conjunction extends AbstractPredicateFactory implements Prepr
       Term firstArg = term.getArgument(0);
       Term secondArg = term.getArgument(1);
       if (firstArg.getType().isVariable() || secondArg.getType().isVariable()) {
-         return this;
+         return new VariableConjunction(new PredicateFactoryCache(getPredicates()));
       }
 
       PredicateFactory firstPredicateFactory = getPredicates().getPreprocessedPredicateFactory(firstArg);
@@ -140,6 +142,25 @@ public final class Conjunction extends AbstractPredicateFactory implements Prepr
       }
    }
 
+   /** A call site where the goals are not known until the conjunction is evaluated. */
+   private static final class VariableConjunction extends AbstractPredicateFactory {
+      private final PredicateFactoryCache cache;
+
+      VariableConjunction(PredicateFactoryCache cache) {
+         this.cache = cache;
+      }
+
+      @Override
+      protected Predicate getPredicate(Term arg1, Term arg2) {
+         Predicate firstPredicate = cache.getPredicateFactory(arg1).getPredicate(arg1.getArgs());
+         if (firstPredicate.evaluate()) {
+            return new ConjunctionPredicate(firstPredicate, cache.getPredicateFactory(arg2), arg2);
+         } else {
+            return PredicateUtils.FALSE;
+         }
+      }
+   }
+
    private static final class OptimisedRetryableConjuction extends AbstractPredicateFactory {
       private final PredicateFactory firstPredicateFactory;
       private final PredicateFactory secondPredicateFactory;
@@ -190,13 +211,16 @@ public final class Conjunction extends AbstractPredicateFactory implements Prepr
       private final Predicate firstPredicate;
       private final PredicateFactory secondPredicateFactory;
       private final Term originalSecondArgument;
+      private final Trail trail;
       private Predicate secondPredicate;
       private Term copySecondArgument;
+      private long secondChoicePoint;
 
       private ConjunctionPredicate(Predicate firstPredicate, PredicateFactory secondPredicateFactory, Term secondArgument) {
          this.firstPredicate = firstPredicate;
          this.secondPredicateFactory = secondPredicateFactory;
          this.originalSecondArgument = secondArgument;
+         this.trail = Trail.getActive();
       }
 
       @Override
@@ -204,6 +228,9 @@ public final class Conjunction extends AbstractPredicateFactory implements Prepr
          do {
             if (secondPredicate == null) {
                copySecondArgument = originalSecondArgument.getTerm();
+               if (trail != null) {
+                  secondChoicePoint = trail.mark();
+               }
                secondPredicate = secondPredicateFactory.getPredicate(copySecondArgument.getArgs());
                if (secondPredicate.evaluate()) {
                   return true;
@@ -213,12 +240,21 @@ public final class Conjunction extends AbstractPredicateFactory implements Prepr
             }
 
             secondPredicate = null;
-            TermUtils.backtrack(copySecondArgument.getArgs());
+            backtrackSecondArgument();
          } while (firstPredicate.couldReevaluationSucceed() && firstPredicate.evaluate());
 
          return false;
       }
 
+      private void backtrackSecondArgument() {
+         if (secondChoicePoint != 0 && trail.undo(secondChoicePoint)) {
+            trail.release(secondChoicePoint);
+         } else {
+            TermUtils.backtrack(copySecondArgument.getArgs());
+         }
+         secondChoicePoint = 0;
+      }
+
       @Override
       public boolean couldReevaluationSucceed() {
          return firstPredicate.couldReevaluationSucceed()
@@ -22,12 +22,14 @@ import java.util.List;
 import org.projog.core.predicate.AbstractSingleResultPredicate;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.predicate.PredicateFactoryCache;
 import org.projog.core.predicate.PreprocessablePredicateFactory;
 import org.projog.core.predicate.builtin.list.PartialApplicationUtils;
 import org.projog.core.predicate.udp.PredicateUtils;
 import org.projog.core.term.EmptyList;
 import org.projog.core.term.ListFactory;
 import org.projog.core.term.Term;
+import org.projog.core.term.Trail;
 import org.projog.core.term.Variable;
 
 /* TEST
@@ -87,6 +89,8 @@ public final class FindAll extends AbstractSingleResultPredicate implements Prep
    }
 
    private static boolean evaluateFindAll(PredicateFactory pf, Term template, Term goal, Term output) {
+      final Trail trail = Trail.getActive();
+      final long choicePoint = trail == null ? 0 : trail.mark();
       final Predicate predicate = pf.getPredicate(goal.getArgs());
       final Term solutions;
       if (predicate.evaluate()) {
@@ -94,8 +98,12 @@ public final class FindAll extends AbstractSingleResultPredicate implements Prep
       } else {
          solutions = EmptyList.EMPTY_LIST;
       }
-      template.backtrack();
-      goal.backtrack();
+      if (choicePoint != 0 && trail.undo(choicePoint)) {
+         trail.release(choicePoint);
+      } else {
+         template.backtrack();
+         goal.backtrack();
+      }
       return output.unify(solutions);
    }
 
@@ -119,7 +127,21 @@ public final class FindAll extends AbstractSingleResultPredicate implements Prep
       if (PartialApplicationUtils.isAtomOrStructure(goal)) {
          return new PreprocessedFindAll(getPredicates().getPreprocessedPredicateFactory(goal));
       } else {
-         return this;
+         return new VariableFindAll(new PredicateFactoryCache(getPredicates()));
+      }
+   }
+
+   /** A call site where the goal is not known until {@code findall/3} is evaluated. */
+   private static class VariableFindAll extends AbstractSingleResultPredicate {
+      private final PredicateFactoryCache cache;
+
+      VariableFindAll(PredicateFactoryCache cache) {
+         this.cache = cache;
+      }
+
+      @Override
+      protected boolean evaluate(Term template, Term goal, Term output) {
+         return evaluateFindAll(cache.getPredicateFactory(goal), template, goal, output);
       }
    }
 
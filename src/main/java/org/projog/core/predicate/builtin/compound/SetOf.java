@@ -17,6 +17,7 @@ package org.projog.core.predicate.builtin.compound;
 
 import static org.projog.core.term.TermComparator.TERM_COMPARATOR;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.projog.core.predicate.AbstractPredicateFactory;
@@ -89,6 +90,14 @@ p(d,2).
 % X=UNINSTANTIATED VARIABLE
 % Y=3
 
+%?- setof(X, member(X-K, [c-1,b-2,a-1,c-1,f(b)-2,f(a)-2,b-2,1.0-1,1-1]), L)
+% K=1
+% L=[1.0,1,a,c]
+% X=UNINSTANTIATED VARIABLE
+% K=2
+% L=[b,f(a),f(b)]
+% X=UNINSTANTIATED VARIABLE
+
 % TODO setof(X, Y ^ p(X,Y), List)
 */
 /**
@@ -111,23 +120,35 @@ public final class SetOf extends AbstractPredicateFactory implements Preprocessa
          super(pf, template, goal, bag);
       }
 
-      /** "setof" excludes duplicates and orders elements using {@link TermComparator}. */
+      /**
+       * "setof" excludes duplicates and orders elements using {@link TermComparator}.
+       * <p>
+       * The solutions are sorted, using a stable sort, and then duplicates are removed from each run of elements that
+       * {@link TermComparator} considers to be equal.
+       */
       @Override
-      protected void add(List<Term> list, Term newTerm) {
-         final int numberOfElements = list.size();
-         for (int i = 0; i < numberOfElements; i++) {
-            final Term next = list.get(i);
-            final int comparison = TERM_COMPARATOR.compare(newTerm, next);
-            if (comparison < 0) {
-               // found correct position - so add
-               list.add(i, newTerm);
-               return;
-            } else if (comparison == 0 && TermUtils.termsEqual(newTerm, next)) {
-               // duplicate - so ignore
-               return;
+      protected List<Term> toBag(List<Term> solutions) {
+         solutions.sort(TERM_COMPARATOR);
+         List<Term> result = new ArrayList<>(solutions.size());
+         int runStart = 0;
+         for (Term next : solutions) {
+            if (result.size() > runStart && TERM_COMPARATOR.compare(result.get(runStart), next) != 0) {
+               runStart = result.size();
+            }
+            if (!containsEqual(result, runStart, next)) {
+               result.add(next);
+            }
+         }
+         return result;
+      }
+
+      private static boolean containsEqual(List<Term> list, int from, Term t) {
+         for (int i = from; i < list.size(); i++) {
+            if (TermUtils.termsEqual(list.get(i), t)) {
+               return true;
             }
          }
-         list.add(newTerm);
+         return false;
       }
    }
 
@@ -23,6 +23,7 @@ import org.projog.core.predicate.AbstractPredicateFactory;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.udp.PredicateUtils;
 import org.projog.core.term.Atom;
+import org.projog.core.term.AtomCache;
 import org.projog.core.term.Term;
 import org.projog.core.term.TermType;
 
@@ -138,16 +139,16 @@ public final class AtomConcat extends AbstractPredicateFactory {
       final boolean isArg1Atom = isAtom(arg1);
       final boolean isArg2Atom = isAtom(arg2);
       if (isArg1Atom && isArg2Atom) {
-         final Atom concat = new Atom(arg1.getName() + arg2.getName());
+         final Atom concat = AtomCache.valueOf(arg1.getName() + arg2.getName());
          return arg3.unify(concat);
       } else {
          final String atomName = getAtomName(arg3);
          if (isArg1Atom) {
             String prefix = arg1.getName();
-            return (atomName.startsWith(prefix) && arg2.unify(new Atom(atomName.substring(prefix.length()))));
+            return (atomName.startsWith(prefix) && arg2.unify(AtomCache.valueOf(atomName.substring(prefix.length()))));
          } else if (isArg2Atom) {
             String suffix = arg2.getName();
-            return (atomName.endsWith(suffix) && arg1.unify(new Atom(atomName.substring(0, (atomName.length() - suffix.length())))));
+            return (atomName.endsWith(suffix) && arg1.unify(AtomCache.valueOf(atomName.substring(0, (atomName.length() - suffix.length())))));
          } else {
             throw new ProjogException("If third argument is not an atom then both first and second arguments must be: " + arg1 + " " + arg2 + " " + arg3);
          }
@@ -183,8 +184,8 @@ public final class AtomConcat extends AbstractPredicateFactory {
             arg1.backtrack();
             arg2.backtrack();
 
-            Atom prefix = new Atom(combined.substring(0, ctr));
-            Atom suffix = new Atom(combined.substring(ctr));
+            Atom prefix = AtomCache.valueOf(combined.substring(0, ctr));
+            Atom suffix = AtomCache.valueOf(combined.substring(ctr));
             ctr++;
 
             return arg1.unify(prefix) && arg2.unify(suffix);
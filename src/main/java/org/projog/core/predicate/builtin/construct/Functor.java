@@ -19,7 +19,7 @@ import static org.projog.core.term.TermUtils.toInt;
 
 import org.projog.core.ProjogException;
 import org.projog.core.predicate.AbstractSingleResultPredicate;
-import org.projog.core.term.Atom;
+import org.projog.core.term.AtomCache;
 import org.projog.core.term.IntegerNumberCache;
 import org.projog.core.term.Structure;
 import org.projog.core.term.Term;
@@ -90,7 +90,7 @@ public final class Functor extends AbstractSingleResultPredicate {
          case STRUCTURE:
          case LIST:
          case EMPTY_LIST:
-            return functor.unify(new Atom(term.getName())) && arity.unify(IntegerNumberCache.valueOf(term.getNumberOfArguments()));
+            return functor.unify(AtomCache.valueOf(term.getName())) && arity.unify(IntegerNumberCache.valueOf(term.getNumberOfArguments()));
          case VARIABLE:
             Term createdTerm = createTerm(functor, arity);
             return term.unify(createdTerm);
@@ -19,6 +19,7 @@ import org.projog.core.ProjogException;
 import org.projog.core.math.Numeric;
 import org.projog.core.predicate.AbstractSingleResultPredicate;
 import org.projog.core.term.Atom;
+import org.projog.core.term.AtomCache;
 import org.projog.core.term.DecimalFraction;
 import org.projog.core.term.IntegerNumber;
 import org.projog.core.term.IntegerNumberCache;
@@ -310,7 +311,7 @@ public final class TermSplit extends AbstractSingleResultPredicate {
       if (convertToCharCodes) {
          return IntegerNumberCache.valueOf(c);
       } else {
-         return new Atom(Character.toString(c));
+         return AtomCache.valueOf(Character.toString(c));
       }
    }
 
@@ -322,7 +323,7 @@ public final class TermSplit extends AbstractSingleResultPredicate {
       if (firstArgNumeric) {
          return toNumeric(s);
       } else {
-         return new Atom(s);
+         return AtomCache.valueOf(s);
       }
    }
 
@@ -19,7 +19,7 @@ import java.util.ArrayList;
 
 import org.projog.core.ProjogException;
 import org.projog.core.predicate.AbstractSingleResultPredicate;
-import org.projog.core.term.Atom;
+import org.projog.core.term.AtomCache;
 import org.projog.core.term.ListFactory;
 import org.projog.core.term.Structure;
 import org.projog.core.term.Term;
@@ -127,7 +127,7 @@ public final class Univ extends AbstractSingleResultPredicate {
       }
 
       if (predicateArgs.size() == 0) {
-         return new Atom(predicateName);
+         return AtomCache.valueOf(predicateName);
       } else {
          return Structure.createStructure(predicateName, predicateArgs.toArray(new Term[predicateArgs.size()]));
       }
@@ -137,7 +137,7 @@ public final class Univ extends AbstractSingleResultPredicate {
       String predicateName = t.getName();
       int numArgs = t.getNumberOfArguments();
       Term[] listArgs = new Term[numArgs + 1];
-      listArgs[0] = new Atom(predicateName);
+      listArgs[0] = AtomCache.valueOf(predicateName);
       for (int i = 0; i < numArgs; i++) {
          listArgs[i + 1] = t.getArgument(i);
       }
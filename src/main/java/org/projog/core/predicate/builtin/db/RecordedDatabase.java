@@ -15,15 +15,17 @@
  */
 package org.projog.core.predicate.builtin.db;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.projog.core.kb.Forkable;
 import org.projog.core.predicate.PredicateKey;
 import org.projog.core.term.IntegerNumber;
 import org.projog.core.term.IntegerNumberCache;
@@ -33,12 +35,14 @@ import org.projog.core.term.Term;
  * Provides a mechanism to associate a term with a key.
  * <p>
  * Multiple terms can be associated with the same key.
+ * <p>
+ * Updates are synchronized. Terms can be read, by concurrently running queries, without locking.
  */
-public class RecordedDatabase {
+public class RecordedDatabase implements Forkable<RecordedDatabase> {
    private final AtomicLong referenceCtr = new AtomicLong();
    private final SortedMap<Long, Link> references = new TreeMap<>();
-   private final List<PredicateKey> keys = new ArrayList<>();
-   private final SortedMap<PredicateKey, Chain> chains = new TreeMap<>();
+   private final List<PredicateKey> keys = new CopyOnWriteArrayList<>();
+   private final SortedMap<PredicateKey, Chain> chains = new ConcurrentSkipListMap<>();
 
    /**
     * Associates a value with a key.
@@ -53,6 +57,24 @@ public class RecordedDatabase {
       return link.reference;
    }
 
+   /**
+    * Adds all the terms of the specified {@code RecordedDatabase} to this object.
+    * <p>
+    * The terms keep the same references, so a reference obtained from either database can be used with the other.
+    */
+   @Override
+   public void copyFrom(RecordedDatabase original) {
+      synchronized (original.references) {
+         referenceCtr.set(original.referenceCtr.get());
+         for (PredicateKey key : original.keys) {
+            Chain chain = getOrCreateChain(key);
+            for (Link link = original.chains.get(key).first; link != null; link = link.next) {
+               addReference(link.reference, new Link(chain, link.reference, link.value), true);
+            }
+         }
+      }
+   }
+
    Iterator<Record> getAll() {
       return new DatabaseIterator();
    }
@@ -228,7 +250,7 @@ public class RecordedDatabase {
 
    private static class Chain {
       final PredicateKey key;
-      Link first;
+      volatile Link first;
       Link last;
 
       Chain(PredicateKey key) {
@@ -241,8 +263,8 @@ public class RecordedDatabase {
       final IntegerNumber reference;
       final Term value;
       Link previous;
-      Link next;
-      boolean deleted;
+      volatile Link next;
+      volatile boolean deleted;
 
       Link(Chain chain, IntegerNumber reference, Term value) {
          this.chain = chain;
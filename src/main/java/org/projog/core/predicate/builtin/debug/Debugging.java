@@ -37,7 +37,7 @@ public final class Debugging extends AbstractSingleResultPredicate {
       PrintStream currentOutputStream = getFileHandles().getCurrentOutputStream();
       Map<PredicateKey, SpyPoints.SpyPoint> map = getSpyPoints().getSpyPoints();
       for (Map.Entry<PredicateKey, SpyPoints.SpyPoint> e : map.entrySet()) {
-         if (e.getValue().isEnabled()) {
+         if (e.getValue().isListenersEnabled()) {
             currentOutputStream.println(e.getKey());
          }
       }
@@ -18,6 +18,7 @@ package org.projog.core.predicate.builtin.io;
 import org.projog.core.ProjogException;
 import org.projog.core.predicate.AbstractSingleResultPredicate;
 import org.projog.core.term.Atom;
+import org.projog.core.term.AtomCache;
 import org.projog.core.term.Term;
 
 /* TEST
@@ -94,7 +95,7 @@ public final class GetChar extends AbstractSingleResultPredicate {
    }
 
    private Atom toAtom(int c) {
-      return new Atom(toString(c));
+      return AtomCache.valueOf(toString(c));
    }
 
    private String toString(int c) {
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.kb;
+
+import static org.projog.core.kb.KnowledgeBaseServiceLocator.getServiceLocator;
+
+import org.projog.core.predicate.AbstractSingleResultPredicate;
+import org.projog.core.predicate.udp.AnswerTables;
+
+/* TEST
+%TRUE table(abolish_all_tables_test/1)
+%TRUE assertz(abolish_all_tables_test(a))
+
+%?- abolish_all_tables_test(X)
+% X=a
+
+%TRUE abolish_all_tables
+
+%?- abolish_all_tables_test(X)
+% X=a
+
+%TRUE abolish_all_tables
+%TRUE abolish_all_tables
+
+% Not OK to call abolish_all_tables while a tabled predicate is being evaluated.
+%TRUE table(abolish_all_tables_test/0)
+%TRUE assertz((abolish_all_tables_test :- abolish_all_tables))
+%?- abolish_all_tables_test
+%ERROR Cannot abolish tables while a tabled predicate is being evaluated
+*/
+/**
+ * <code>abolish_all_tables</code> - discards the stored answers of all tabled predicates.
+ * <p>
+ * Subsequent calls to tabled predicates will re-evaluate their clauses. Cannot be called while a tabled predicate is
+ * being evaluated.
+ * </p>
+ *
+ * @see org.projog.core.predicate.builtin.kb.Table
+ */
+public final class AbolishAllTables extends AbstractSingleResultPredicate {
+   private AnswerTables tables;
+
+   @Override
+   protected void init() {
+      tables = getServiceLocator(getKnowledgeBase()).getInstance(AnswerTables.class);
+   }
+
+   @Override
+   protected boolean evaluate() {
+      tables.abolishAll();
+      return true;
+   }
+}
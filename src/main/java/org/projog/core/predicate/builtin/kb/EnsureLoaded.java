@@ -20,6 +20,7 @@ import static org.projog.core.term.TermUtils.getAtomName;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.projog.core.kb.Forkable;
 import org.projog.core.parser.ProjogSourceReader;
 import org.projog.core.predicate.AbstractSingleResultPredicate;
 import org.projog.core.term.Term;
@@ -35,11 +36,18 @@ import org.projog.core.term.Term;
  * <code>X</code> represents a file that has already been loaded using <code>ensure_loaded(X)</code>.
  * </p>
  */
-public final class EnsureLoaded extends AbstractSingleResultPredicate {
+public final class EnsureLoaded extends AbstractSingleResultPredicate implements Forkable<EnsureLoaded> {
    private final Object lock = new Object();
 
    private final Set<String> loadedResources = new HashSet<>();
 
+   @Override
+   public void copyFrom(EnsureLoaded original) {
+      synchronized (original.lock) {
+         loadedResources.addAll(original.loadedResources);
+      }
+   }
+
    @Override
    protected boolean evaluate(Term arg) {
       String resourceName = getResourceName(arg);
@@ -15,9 +15,10 @@
  */
 package org.projog.core.predicate.builtin.kb;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.projog.core.kb.Forkable;
 import org.projog.core.math.Numeric;
 import org.projog.core.predicate.AbstractSingleResultPredicate;
 import org.projog.core.predicate.PredicateKey;
@@ -54,34 +55,32 @@ import org.projog.core.term.Term;
  * with the key then it will default to 0. The third argument is the new value to associate with the key. The third
  * argument must be a numeric value.
  */
-public final class Flag extends AbstractSingleResultPredicate {
-   private final Map<PredicateKey, Numeric> flags = new HashMap<>();
+public final class Flag extends AbstractSingleResultPredicate implements Forkable<Flag> {
+   private final Map<PredicateKey, Numeric> flags = new ConcurrentHashMap<>();
+
+   @Override
+   public void copyFrom(Flag original) {
+      flags.putAll(original.flags);
+   }
 
    @Override
    protected boolean evaluate(Term key, Term oldValue, Term newValue) {
       PredicateKey pk = PredicateKey.createForTerm(key);
-      synchronized (flags) {
-         Numeric n = getOrCreate(pk);
+      while (true) {
+         Numeric n = flags.computeIfAbsent(pk, k -> IntegerNumberCache.ZERO);
 
-         if (oldValue.unify(n)) {
-            put(pk, newValue);
-            return true;
-         } else {
+         if (!oldValue.unify(n)) {
             return false;
          }
-      }
-   }
 
-   private Numeric getOrCreate(PredicateKey pk) {
-      Numeric n = flags.get(pk);
-      if (n == null) {
-         n = IntegerNumberCache.ZERO;
-         flags.put(pk, n);
-      }
-      return n;
-   }
+         // new value is evaluated after unifying the old value, as it may refer to it - e.g. flag(a, X, X+1)
+         Numeric replacement = getArithmeticOperators().getNumeric(newValue);
+         if (flags.replace(pk, n, replacement)) {
+            return true;
+         }
 
-   private void put(PredicateKey pk, Term value) {
-      flags.put(pk, getArithmeticOperators().getNumeric(value));
+         // another thread has updated the value since it was read - so undo the unification and try again
+         oldValue.backtrack();
+      }
    }
 }
@@ -156,7 +156,7 @@ public final class Inspect extends AbstractPredicateFactory {
       PredicateFactory predicateFactory = getPredicates().getPredicateFactory(clauseHead);
       if (predicateFactory instanceof UserDefinedPredicateFactory) {
          UserDefinedPredicateFactory userDefinedPredicate = (UserDefinedPredicateFactory) predicateFactory;
-         return new InspectPredicate(clauseHead, clauseBody, userDefinedPredicate.getImplications());
+         return new InspectPredicate(clauseHead, clauseBody, userDefinedPredicate.getImplications(clauseHead));
       } else if (predicateFactory instanceof UnknownPredicate) {
          return PredicateUtils.FALSE;
       } else {
@@ -187,21 +187,24 @@ public final class Inspect extends AbstractPredicateFactory {
             backtrack(clauseHead, clauseBody);
 
             ClauseModel clauseModel = implications.next();
-            if (unifiable(clauseHead, clauseBody, clauseModel)) {
-               if (doRemoveMatches) {
-                  remove();
-               }
+            if (unifiable(clauseHead, clauseBody, clauseModel) && (!doRemoveMatches || remove())) {
                return true;
             }
          }
          return false;
       }
 
-      private void remove() {
+      /**
+       * @return {@code false} if the clause has already been removed (e.g. by another call to {@code retract})
+       */
+      private boolean remove() {
          try {
             implications.remove();
+            return true;
          } catch (UnsupportedOperationException e) {
             throw new ProjogException("Cannot retract clause from user defined predicate as it is not dynamic: " + PredicateKey.createForTerm(clauseHead));
+         } catch (IllegalStateException e) {
+            return false;
          }
       }
 
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.kb;
+
+import static org.projog.core.kb.KnowledgeBaseServiceLocator.getServiceLocator;
+
+import org.projog.core.predicate.AbstractSingleResultPredicate;
+import org.projog.core.predicate.PredicateKey;
+import org.projog.core.predicate.udp.IndexCache;
+import org.projog.core.term.Term;
+
+/* TEST
+%TRUE pin_indexes(pin_indexes_test/3)
+
+pin_indexes_test(a, 1, x).
+pin_indexes_test(b, 2, y).
+pin_indexes_test(c, 3, x).
+
+%?- pin_indexes_test(b, X, Y)
+% X=2
+% Y=y
+
+%?- pin_indexes_test(X, Y, x)
+% X=a
+% Y=1
+% X=c
+% Y=3
+
+%?- pin_indexes(X)
+%ERROR Expected a predicate with two arguments and the name: '/' but got: X
+*/
+/**
+ * <code>pin_indexes(X)</code> - prevents the indexes of a user defined predicate from being discarded.
+ * <p>
+ * <code>X</code> is a predicate indicator of the form <code>Name/Arity</code>. The indexes of a pinned predicate are
+ * never discarded to reduce the amount of memory used, and an index of each of its indexable arguments is created as
+ * soon as the predicate is first used. Should be used as a directive before the predicate is first used.
+ * </p>
+ *
+ * @see IndexCache
+ */
+public final class PinIndexes extends AbstractSingleResultPredicate {
+   private IndexCache cache;
+
+   @Override
+   protected void init() {
+      cache = getServiceLocator(getKnowledgeBase()).getInstance(IndexCache.class);
+   }
+
+   @Override
+   protected boolean evaluate(Term arg) {
+      cache.pin(PredicateKey.createFromNameAndArity(arg));
+      return true;
+   }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.kb;
+
+import org.projog.core.ProjogException;
+import org.projog.core.predicate.AbstractSingleResultPredicate;
+import org.projog.core.predicate.PredicateKey;
+import org.projog.core.predicate.udp.TabledUserDefinedPredicateFactory;
+import org.projog.core.predicate.udp.UserDefinedPredicateFactory;
+import org.projog.core.term.Term;
+
+/* TEST
+%?- table(true/0)
+%ERROR Cannot replace already defined built-in predicate: true/0
+
+%TRUE table(table_test/2)
+
+%TRUE assertz(table_test_edge(a,b))
+%TRUE assertz(table_test_edge(b,c))
+%TRUE assertz(table_test_edge(c,a))
+%TRUE assertz(table_test_edge(c,d))
+%?- assertz((table_test(X,Y) :- table_test(X,Z), table_test_edge(Z,Y)))
+% X=UNINSTANTIATED VARIABLE
+% Y=UNINSTANTIATED VARIABLE
+% Z=UNINSTANTIATED VARIABLE
+%?- assertz((table_test(X,Y) :- table_test_edge(X,Y)))
+% X=UNINSTANTIATED VARIABLE
+% Y=UNINSTANTIATED VARIABLE
+
+%?- table_test(a,X)
+% X=b
+% X=c
+% X=a
+% X=d
+
+%?- table_test(X,d)
+% X=b
+% X=a
+% X=c
+
+% OK to call table/1 on a predicate that has already been tabled.
+%TRUE table(table_test/2)
+
+% Not OK to call table/1 on a predicate that has already been defined and is not tabled.
+%TRUE assertz(not_tabled(a))
+%?- table(not_tabled/1)
+%ERROR Predicate has already been defined and is not tabled: not_tabled/1
+
+%?- table(X)
+%ERROR Expected a predicate with two arguments and the name: '/' but got: X
+*/
+/**
+ * <code>table(X)</code> - indicates that the answers of a user defined predicate should be stored and reused.
+ * <p>
+ * <code>X</code> is a predicate indicator of the form <code>Name/Arity</code>. The first call to a tabled predicate
+ * with a particular pattern of arguments evaluates its clauses and stores the answers. Subsequent calls with the same
+ * pattern of arguments are answered using the stored answers. Calls to left recursive tabled predicates terminate, and
+ * each answer is only returned once. Should be used as a directive before the clauses of the predicate are defined.
+ * Like <code>dynamic/1</code>, clauses can be subsequently added using <code>asserta(X)</code>,
+ * <code>assertz(X)</code> and <code>consult/1</code>.
+ * </p>
+ *
+ * @see org.projog.core.predicate.udp.AnswerTables
+ */
+public final class Table extends AbstractSingleResultPredicate {
+   @Override
+   protected boolean evaluate(Term arg) {
+      PredicateKey key = PredicateKey.createFromNameAndArity(arg);
+      UserDefinedPredicateFactory pf = getPredicates().getUserDefinedPredicates().get(key);
+      if (pf == null) {
+         getPredicates().addUserDefinedPredicate(new TabledUserDefinedPredicateFactory(getKnowledgeBase(), key));
+         pf = getPredicates().getUserDefinedPredicates().get(key);
+      }
+      if (!(pf instanceof TabledUserDefinedPredicateFactory)) {
+         throw new ProjogException("Predicate has already been defined and is not tabled: " + key);
+      }
+      return true;
+   }
+}
@@ -20,6 +20,7 @@ import static org.projog.core.term.TermUtils.getAtomName;
 
 import org.projog.core.predicate.AbstractSingleResultPredicate;
 import org.projog.core.term.Atom;
+import org.projog.core.term.AtomCache;
 import org.projog.core.term.ListFactory;
 import org.projog.core.term.Term;
 import org.projog.core.term.TermType;
@@ -106,7 +107,7 @@ public final class AtomicListConcat extends AbstractSingleResultPredicate {
       for (Term atom : list) {
          sb.append(getAtomName(atom));
       }
-      return concatenatedResultAtom.unify(new Atom(sb.toString()));
+      return concatenatedResultAtom.unify(AtomCache.valueOf(sb.toString()));
    }
 
    @Override
@@ -124,7 +125,7 @@ public final class AtomicListConcat extends AbstractSingleResultPredicate {
       String[] splitStrings = concatenatedResult.split(separator);
       Term[] splitTerms = new Term[splitStrings.length];
       for (int i = 0; i < splitStrings.length; i++) {
-         splitTerms[i] = new Atom(splitStrings[i]);
+         splitTerms[i] = AtomCache.valueOf(splitStrings[i]);
       }
       return ListFactory.createList(splitTerms);
    }
@@ -138,6 +139,6 @@ public final class AtomicListConcat extends AbstractSingleResultPredicate {
          }
          sb.append(getAtomName(list.get(i)));
       }
-      return new Atom(sb.toString());
+      return AtomCache.valueOf(sb.toString());
    }
 }
@@ -24,6 +24,7 @@ import org.projog.core.ProjogException;
 import org.projog.core.predicate.AbstractPredicateFactory;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.predicate.PredicateFactoryCache;
 import org.projog.core.predicate.PreprocessablePredicateFactory;
 import org.projog.core.term.ListUtils;
 import org.projog.core.term.Term;
@@ -148,6 +149,9 @@ four_arg_predicate(b,_,_,_).
 %ERROR Expected concrete list but got: .(2, .(4, .(7, T)))
 %?- foldl(single_result_predicate, L, 0, X)
 %ERROR Expected concrete list but got: L
+
+%?- X = 1, foldl(X, [2,4,7], 0, Y)
+%ERROR Expected an atom or a predicate but got a INTEGER with value: 1
 */
 /**
  * <code>foldl(PredicateName, Values, Start, Result)</code> - combines elements of a list into a single term.
@@ -165,7 +169,7 @@ public final class Fold extends AbstractPredicateFactory implements Preprocessab
          PredicateFactory pf = PartialApplicationUtils.getPreprocessedPartiallyAppliedPredicateFactory(getPredicates(), action, FIRST_ARG_ARITY);
          return new OptimisedFold(pf, action);
       } else {
-         return this;
+         return new VariableFold(new PredicateFactoryCache(getPredicates()));
       }
    }
 
@@ -189,6 +193,21 @@ public final class Fold extends AbstractPredicateFactory implements Preprocessab
       }
    }
 
+   /** A call site where the predicate to apply is not known until {@code foldl/4} is evaluated. */
+   private static class VariableFold extends AbstractPredicateFactory {
+      private final PredicateFactoryCache cache;
+
+      VariableFold(PredicateFactoryCache cache) {
+         this.cache = cache;
+      }
+
+      @Override
+      protected Predicate getPredicate(Term atom, Term values, Term start, Term result) {
+         PredicateFactory pf = PartialApplicationUtils.getPartiallyAppliedPredicateFactory(cache, atom, FIRST_ARG_ARITY);
+         return getFoldPredicate(pf, atom, values, start, result);
+      }
+   }
+
    @Override
    protected Predicate getPredicate(Term atom, Term values, Term start, Term result) {
       PredicateFactory pf = PartialApplicationUtils.getPartiallyAppliedPredicateFactory(getPredicates(), atom, FIRST_ARG_ARITY);
@@ -27,6 +27,7 @@ import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.kb.KnowledgeBaseConsumer;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.predicate.PredicateFactoryCache;
 import org.projog.core.predicate.Predicates;
 import org.projog.core.predicate.PreprocessablePredicateFactory;
 import org.projog.core.predicate.udp.PredicateUtils;
@@ -351,7 +352,7 @@ public final class MapList implements PredicateFactory, PreprocessablePredicateF
          PredicateFactory pf = PartialApplicationUtils.getPreprocessedPartiallyAppliedPredicateFactory(predicates, action, input.getNumberOfArguments() - 1);
          return new PreprocessedMapList(pf);
       } else {
-         return this;
+         return new VariableMapList(new PredicateFactoryCache(predicates));
       }
    }
 
@@ -373,6 +374,31 @@ public final class MapList implements PredicateFactory, PreprocessablePredicateF
       }
    }
 
+   /** A call site where the predicate to apply is not known until {@code maplist} is evaluated. */
+   private static class VariableMapList implements PredicateFactory {
+      private final PredicateFactoryCache cache;
+
+      VariableMapList(PredicateFactoryCache cache) {
+         this.cache = cache;
+      }
+
+      @Override
+      public Predicate getPredicate(Term[] input) {
+         Term partiallyAppliedFunction = input[0];
+         if (!isAtomOrStructure(partiallyAppliedFunction)) {
+            return PredicateUtils.FALSE;
+         }
+
+         final PredicateFactory pf = PartialApplicationUtils.getPartiallyAppliedPredicateFactory(cache, partiallyAppliedFunction, input.length - 1);
+         return getMapListPredicate(pf, input);
+      }
+
+      @Override
+      public boolean isRetryable() {
+         return true;
+      }
+   }
+
    @Override
    public boolean isRetryable() {
       return true;
@@ -17,8 +17,10 @@ package org.projog.core.predicate.builtin.list;
 
 import static org.projog.core.term.TermUtils.backtrack;
 
+import org.projog.core.ProjogException;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.predicate.PredicateFactoryCache;
 import org.projog.core.predicate.PredicateKey;
 import org.projog.core.predicate.Predicates;
 import org.projog.core.term.Structure;
@@ -56,18 +58,33 @@ public class PartialApplicationUtils {
       for (int i = partiallyAppliedFunction.getNumberOfArguments(); i < args.length; i++) {
          args[i] = new Variable();
       }
-      // TODO check not numeric before calling .getName()
-      Term t = Structure.createStructure(partiallyAppliedFunction.getName(), args);
+      Term t = Structure.createStructure(getName(partiallyAppliedFunction), args);
       return predicates.getPreprocessedPredicateFactory(t);
    }
 
    public static PredicateFactory getPartiallyAppliedPredicateFactory(Predicates predicates, Term partiallyAppliedFunction, int numberOfExtraArguments) {
       int numArgs = partiallyAppliedFunction.getNumberOfArguments() + numberOfExtraArguments;
-      // TODO check not numeric before calling .getName()
-      PredicateKey key = new PredicateKey(partiallyAppliedFunction.getName(), numArgs);
+      PredicateKey key = new PredicateKey(getName(partiallyAppliedFunction), numArgs);
       return predicates.getPredicateFactory(key);
    }
 
+   public static PredicateFactory getPartiallyAppliedPredicateFactory(PredicateFactoryCache cache, Term partiallyAppliedFunction, int numberOfExtraArguments) {
+      int numArgs = partiallyAppliedFunction.getNumberOfArguments() + numberOfExtraArguments;
+      return cache.getPredicateFactory(getName(partiallyAppliedFunction), numArgs);
+   }
+
+   /**
+    * Returns the name of the predicate represented by the specified term.
+    *
+    * @throws ProjogException if the term is not an atom or structure
+    */
+   private static String getName(Term partiallyAppliedFunction) {
+      if (!isAtomOrStructure(partiallyAppliedFunction)) {
+         throw new ProjogException("Expected an atom or a predicate but got a " + partiallyAppliedFunction.getType() + " with value: " + partiallyAppliedFunction);
+      }
+      return partiallyAppliedFunction.getName();
+   }
+
    // TODO have overloaded version that avoids varargs
    public static Term[] createArguments(Term partiallyAppliedFunction, Term... extraArguments) {
       int originalNumArgs = partiallyAppliedFunction.getNumberOfArguments();
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.time;
+
+import static org.projog.core.kb.KnowledgeBaseServiceLocator.getServiceLocator;
+import static org.projog.core.term.TermUtils.getAtomName;
+
+import org.projog.core.event.RuntimeStatistics;
+import org.projog.core.predicate.AbstractSingleResultPredicate;
+import org.projog.core.term.Term;
+
+/* TEST
+validate_runtime :- statistics(runtime, [T,_]), integer(T), T>=0.
+validate_walltime :- statistics(walltime, [T,_]), integer(T), T>0.
+validate_heap :- statistics(heap, X), integer(X), X>0.
+
+%TRUE validate_runtime
+%TRUE validate_walltime
+%TRUE validate_heap
+
+count_to(N, N) :- !.
+count_to(I, N) :- I1 is I+1, count_to(I1, N).
+
+validate_inferences :- statistics(inferences, A), count_to(0, 100), statistics(inferences, B), B-A>100.
+
+%TRUE validate_inferences
+
+statistics_test_1(a, b).
+statistics_test_1(b, c).
+statistics_test_2(X) :- statistics_test_1(X, _).
+
+validate_clauses :- statistics(clauses, X), integer(X), X>=11.
+validate_atoms :- statistics(atoms, X), integer(X), X>=10.
+
+%TRUE validate_clauses
+%TRUE validate_atoms
+
+validate_indexes :-
+   statistics(indexes, [count-C, memory-M, memory_limit-L, builds-B, build_time-T, hits-H, misses-X, evictions-E]),
+   integer(C), integer(M), L>0, integer(B), integer(T), integer(H), integer(X), integer(E).
+
+%TRUE validate_indexes
+
+%?- statistics(X, Y)
+%ERROR Expected an atom but got: VARIABLE with value: X
+
+%?- statistics(unknown_key, Y)
+%ERROR Unknown statistics key: unknown_key expected one of: [runtime, walltime, inferences, heap, atoms, clauses, indexes]
+*/
+/**
+ * <code>statistics(K, V)</code> - provides information about the resources used by the system.
+ * <p>
+ * Unifies <code>V</code> with the value associated with the key <code>K</code>. Supported keys are:
+ * </p>
+ * <ul>
+ * <li><code>runtime</code> - <code>[CPU time in milliseconds, CPU time since last requested]</code></li>
+ * <li><code>walltime</code> - <code>[elapsed time in milliseconds, elapsed time since last requested]</code></li>
+ * <li><code>inferences</code> - the number of inferences performed by the current thread</li>
+ * <li><code>heap</code> - the number of bytes of heap memory in use</li>
+ * <li><code>atoms</code> - the number of distinct atom and functor names used by user defined predicates</li>
+ * <li><code>clauses</code> - the number of clauses of user defined predicates</li>
+ * <li><code>indexes</code> - <code>[count-C, memory-M, memory_limit-L, builds-B, build_time-T, hits-H, misses-X,
+ * evictions-E]</code> where <code>C</code> is the number of indexes of user defined predicates, <code>M</code> is
+ * their estimated size in bytes, <code>L</code> is the maximum size in bytes before indexes are discarded,
+ * <code>B</code> is the number of indexes created, <code>T</code> is the time in milliseconds spent creating them,
+ * <code>H</code> and <code>X</code> are the number of times a required index did and did not already exist, and
+ * <code>E</code> is the number of indexes discarded</li>
+ * </ul>
+ */
+public final class Statistics extends AbstractSingleResultPredicate {
+   private RuntimeStatistics statistics;
+
+   @Override
+   protected void init() {
+      statistics = getServiceLocator(getKnowledgeBase()).getInstance(RuntimeStatistics.class);
+   }
+
+   @Override
+   protected boolean evaluate(Term key, Term value) {
+      return value.unify(statistics.getValue(getAtomName(key)));
+   }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.time;
+
+import java.util.Locale;
+
+import org.projog.core.event.InferenceCounter;
+import org.projog.core.event.ProjogListeners;
+import org.projog.core.event.RuntimeStatistics;
+import org.projog.core.predicate.AbstractPredicateFactory;
+import org.projog.core.predicate.Predicate;
+import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.term.Term;
+
+/* TEST
+%TRUE time(true)
+%FAIL time(fail)
+%?- time(repeat(3))
+%YES
+%YES
+%YES
+
+%?- time(member(X, [a,b,c]))
+% X=a
+% X=b
+% X=c
+
+time_test(X) :- time(length(X, 2)).
+
+%?- time_test(X)
+% X=[E0,E1]
+*/
+/**
+ * <code>time(X)</code> - reports the resources used to evaluate a goal.
+ * <p>
+ * Evaluates the goal represented by <code>X</code> in the same way as <code>call(X)</code>. Each time an attempt to
+ * evaluate, or re-evaluate, the goal completes, a message is sent to the registered listeners reporting the number of
+ * inferences performed, the CPU time and elapsed time taken, the number of logical inferences per second (LIPS) and
+ * the number of bytes allocated on the heap. All values are measured for the current thread only.
+ * </p>
+ * <p>
+ * e.g. <code>% 1,000,001 inferences, 0.094 CPU in 0.095 seconds (99% CPU, 10638309 Lips), 1,048,576 bytes allocated</code>
+ * </p>
+ */
+public final class Time extends AbstractPredicateFactory {
+   @Override
+   protected Predicate getPredicate(Term goal) {
+      PredicateFactory pf = getPredicates().getPredicateFactory(goal);
+      return new TimePredicate(pf, goal, getProjogListeners());
+   }
+
+   /** Returns a description of the resources used to evaluate a goal. */
+   static String format(long inferences, long cpuNanos, long wallNanos, long allocatedBytes) {
+      double cpuSeconds = cpuNanos / 1e9;
+      double wallSeconds = wallNanos / 1e9;
+      long cpuPercentage = wallNanos > 0 ? Math.round(cpuNanos * 100d / wallNanos) : 0;
+      String lips = cpuNanos > 0 ? Long.toString((long) (inferences / cpuSeconds)) : "Infinite";
+      String message = String.format(Locale.ROOT, "%% %,d inferences, %.3f CPU in %.3f seconds (%d%% CPU, %s Lips)", inferences, cpuSeconds, wallSeconds, cpuPercentage, lips);
+      if (allocatedBytes < 0) {
+         return message;
+      } else {
+         return message + String.format(Locale.ROOT, ", %,d bytes allocated", allocatedBytes);
+      }
+   }
+
+   private static final class TimePredicate implements Predicate {
+      private final PredicateFactory pf;
+      private final Term goal;
+      private final ProjogListeners listeners;
+      private Predicate predicate;
+
+      private TimePredicate(PredicateFactory pf, Term goal, ProjogListeners listeners) {
+         this.pf = pf;
+         this.goal = goal;
+         this.listeners = listeners;
+      }
+
+      @Override
+      public boolean evaluate() {
+         long startInferences = InferenceCounter.get();
+         long startCpu = RuntimeStatistics.getCurrentThreadCpuTime();
+         long startAllocated = RuntimeStatistics.getCurrentThreadAllocatedBytes();
+         long startWall = System.nanoTime();
+
+         // the goal's predicate is created here, rather than when TimePredicate is, as creating it may evaluate it
+         if (predicate == null) {
+            predicate = pf.getPredicate(goal.getArgs());
+         }
+         boolean result = predicate.evaluate();
+
+         long wall = System.nanoTime() - startWall;
+         long cpu = RuntimeStatistics.getCurrentThreadCpuTime() - startCpu;
+         long allocated = startAllocated < 0 ? -1 : RuntimeStatistics.getCurrentThreadAllocatedBytes() - startAllocated;
+         long inferences = InferenceCounter.get() - startInferences;
+         listeners.notifyInfo(format(inferences, cpu, wall, allocated));
+
+         return result;
+      }
+
+      @Override
+      public boolean couldReevaluationSucceed() {
+         return predicate == null || predicate.couldReevaluationSucceed();
+      }
+   }
+}
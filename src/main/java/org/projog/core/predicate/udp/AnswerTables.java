@@ -0,0 +1,575 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.projog.core.ProjogException;
+import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.predicate.Predicate;
+import org.projog.core.predicate.PredicateKey;
+import org.projog.core.term.Term;
+import org.projog.core.term.TermType;
+import org.projog.core.term.TermUtils;
+
+/**
+ * Stores the answers of calls to tabled predicates.
+ * <p>
+ * A table is created for each distinct <i>call pattern</i> of a tabled predicate. Two calls have the same call pattern
+ * if their arguments are variants of each other - i.e. they are identical apart from the names of their variables. The
+ * first call with a particular pattern evaluates the clauses of the predicate and records every distinct answer in the
+ * table. Subsequent calls with the same pattern are answered from the table.
+ * <p>
+ * A call which, while being evaluated, results in a call with the same pattern (e.g. a left recursive predicate) does
+ * not re-evaluate the clauses. Instead the inner call consumes the answers that are already in the table. The clauses
+ * of the outer call are then re-evaluated until no new answers are found (i.e. "linear tabling" - a fixed point is
+ * computed by iteration, rather than by suspending and resuming calls as done by SLG resolution). Calls that depend on
+ * each other form a group which is only marked as complete when the call that started the group has reached its fixed
+ * point. Groups are completed incrementally - a call that does not depend on an outer call is completed as soon as it
+ * reaches its own fixed point, without waiting for the outer call.
+ * <p>
+ * While a table is being evaluated the keys of the dynamic predicates whose clauses are used are recorded. Tables that
+ * depend on another table also depend on the predicates it depends on. When the clauses of a dynamic predicate change,
+ * only the tables that depend on it are discarded, as their answers may no longer be valid. The total number of answers
+ * stored is limited by {@link org.projog.core.kb.ProjogProperties#getMaxTabledAnswers()}.
+ * <p>
+ * Multiple threads can evaluate tabled predicates at the same time. Each thread has its own stack of the calls it is
+ * evaluating. Complete tables are shared, and are read without locking. A table that is being evaluated is owned by the
+ * thread evaluating it - another thread that makes a call with the same pattern waits for the owner to complete the
+ * table. If waiting would result in a deadlock (i.e. the owner is itself waiting, directly or indirectly, for a table
+ * owned by the thread that would wait) then the thread evaluates the call using its own private table instead.
+ * <p>
+ * One instance is associated with each {@link KnowledgeBase}, retrieved using
+ * {@link org.projog.core.kb.KnowledgeBaseServiceLocator}.
+ * </p>
+ *
+ * @see TabledUserDefinedPredicateFactory
+ */
+public final class AnswerTables {
+   private final long maxAnswers;
+   private final Map<VariantKey, Table> tables = new ConcurrentHashMap<>();
+   /** The complete tables that depend on each dynamic predicate. */
+   private final Map<PredicateKey, Set<Table>> dependents = new ConcurrentHashMap<>();
+   private final AtomicLong answerCount = new AtomicLong();
+   /** The number of threads currently evaluating a tabled predicate. */
+   private final AtomicInteger evaluatingThreads = new AtomicInteger();
+   /** The table each thread is waiting for another thread to complete - used to detect deadlocks. */
+   private final Map<Thread, Table> waiting = new HashMap<>();
+   private final ThreadLocal<Evaluation> evaluations = ThreadLocal.withInitial(Evaluation::new);
+
+   public AnswerTables(KnowledgeBase kb) {
+      this(kb.getProjogProperties().getMaxTabledAnswers());
+   }
+
+   AnswerTables(long maxAnswers) {
+      this.maxAnswers = maxAnswers;
+   }
+
+   /** Returns the maximum number of answers that can be stored. */
+   public long getMaxAnswers() {
+      return maxAnswers;
+   }
+
+   /** Returns the number of shared tables, including those that are still being evaluated. */
+   public int getTableCount() {
+      return tables.size();
+   }
+
+   /** Returns the total number of answers stored in all the tables. */
+   public long getAnswerCount() {
+      return answerCount.get();
+   }
+
+   /** Returns {@code true} if the current thread is evaluating a tabled predicate. */
+   public boolean isEvaluating() {
+      return !evaluations.get().stack.isEmpty();
+   }
+
+   /**
+    * Discards all tables that have been completely evaluated.
+    * <p>
+    * Tables that are being evaluated by other threads are retained.
+    *
+    * @throws ProjogException if a tabled predicate is currently being evaluated by the current thread
+    */
+   public void abolishAll() {
+      if (isEvaluating()) {
+         throw new ProjogException("Cannot abolish tables while a tabled predicate is being evaluated");
+      }
+      discardComplete();
+   }
+
+   /**
+    * Discards the tables, that have been completely evaluated, that depend on the specified predicate.
+    * <p>
+    * Called when the clauses of a dynamic predicate are changed. Tables that are still being evaluated are retained, as
+    * calls already being evaluated are not affected by changes to the clauses they use.
+    */
+   void invalidate(PredicateKey key) {
+      Set<Table> s = dependents.get(key);
+      if (s != null) {
+         for (Table t : s) {
+            if (t.complete) {
+               discardComplete(t);
+            }
+         }
+      }
+   }
+
+   /**
+    * Records that the table currently being evaluated by the current thread depends on the clauses of the specified
+    * dynamic predicate.
+    * <p>
+    * Called every time the clauses of a dynamic predicate are used, so avoids looking up the state of the current thread
+    * unless a tabled predicate is being evaluated.
+    */
+   void addDependency(PredicateKey key) {
+      if (evaluatingThreads.get() != 0) {
+         List<Table> stack = evaluations.get().stack;
+         if (!stack.isEmpty()) {
+            stack.get(stack.size() - 1).dependencies.add(key);
+         }
+      }
+   }
+
+   /** Returns a predicate that provides the answers of the specified call to the specified tabled predicate. */
+   Predicate getPredicate(TabledUserDefinedPredicateFactory pf, Term[] args) {
+      return new TabledPredicate(pf, args);
+   }
+
+   /**
+    * Returns the table for the specified call, evaluating it if it is not already complete or being evaluated.
+    * <p>
+    * If the call is a variant of a call that is currently being evaluated by the current thread then the returned table
+    * will not be complete, and only contain the answers found so far.
+    */
+   private Table getTable(TabledUserDefinedPredicateFactory pf, Term[] args) {
+      VariantKey key = VariantKey.create(pf.getPredicateKey(), args);
+      Table table = tables.get(key);
+      if (table != null && table.complete) {
+         addDependencies(table);
+         return table;
+      }
+
+      Evaluation evaluation = evaluations.get();
+      table = evaluation.privateTables.get(key);
+      if (table == null) {
+         table = acquire(key, args, evaluation);
+      }
+
+      if (table.complete) {
+         addDependencies(table);
+         return table;
+      } else if (table.stackIndex != -1) {
+         // variant of a call that is currently being evaluated - the calls evaluated since are dependent on it
+         Table top = evaluation.stack.get(evaluation.stack.size() - 1);
+         top.lowLink = Math.min(top.lowLink, table.stackIndex);
+         return table;
+      } else {
+         evaluate(pf, table, evaluation);
+         return table;
+      }
+   }
+
+   /** Records that the table currently being evaluated by the current thread depends on the specified table. */
+   private void addDependencies(Table table) {
+      if (evaluatingThreads.get() != 0 && !table.dependencies.isEmpty()) {
+         List<Table> stack = evaluations.get().stack;
+         if (!stack.isEmpty()) {
+            stack.get(stack.size() - 1).dependencies.addAll(table.dependencies);
+         }
+      }
+   }
+
+   /**
+    * Returns a table for the specified call that is either complete or owned by the current thread.
+    * <p>
+    * If the shared table of the call is being evaluated by another thread then waits for it to be completed. If waiting
+    * would result in a deadlock then returns a new private table.
+    */
+   private Table acquire(VariantKey key, Term[] args, Evaluation evaluation) {
+      Thread current = Thread.currentThread();
+      while (true) {
+         Table table = tables.get(key);
+         if (table == null) {
+            Table created = new Table(key, TermUtils.copy(args), current, false);
+            table = tables.putIfAbsent(key, created);
+            if (table == null) {
+               return created;
+            }
+         }
+
+         synchronized (table) {
+            while (!table.complete && table.owner != null && table.owner != current) {
+               if (!await(table, current)) {
+                  Table privateTable = new Table(key, TermUtils.copy(args), current, true);
+                  evaluation.privateTables.put(key, privateTable);
+                  return privateTable;
+               }
+            }
+            if (table.complete || table.owner == current) {
+               return table;
+            }
+         }
+         // the evaluation of the table failed, so it has been discarded - try again with a new table
+      }
+   }
+
+   /**
+    * Waits for the thread that owns the specified table to complete or discard it.
+    * <p>
+    * Must be called while synchronized on {@code table}.
+    *
+    * @return {@code false}, without waiting, if waiting would result in a deadlock, else {@code true}
+    */
+   private boolean await(Table table, Thread current) {
+      synchronized (waiting) {
+         Thread owner = table.owner;
+         while (owner != null) {
+            if (owner == current) {
+               return false;
+            }
+            Table ownerIsWaitingFor = waiting.get(owner);
+            owner = ownerIsWaitingFor == null ? null : ownerIsWaitingFor.owner;
+         }
+         waiting.put(current, table);
+      }
+
+      try {
+         table.wait();
+         return true;
+      } catch (InterruptedException e) {
+         current.interrupt();
+         throw new ProjogException("Interrupted while waiting for the evaluation of a tabled predicate");
+      } finally {
+         synchronized (waiting) {
+            waiting.remove(current);
+         }
+      }
+   }
+
+   /** Re-evaluates the clauses of the specified table until no new answers are found. */
+   private void evaluate(TabledUserDefinedPredicateFactory pf, Table table, Evaluation evaluation) {
+      List<Table> stack = evaluation.stack;
+      int stackIndex = stack.size();
+      table.stackIndex = stackIndex;
+      table.lowLink = stackIndex;
+      stack.add(table);
+      if (stackIndex == 0) {
+         evaluatingThreads.incrementAndGet();
+      }
+      boolean success = false;
+      try {
+         long before;
+         do {
+            before = evaluation.additions;
+            Term[] args = TermUtils.copy(table.pattern);
+            Predicate p = pf.getClausesPredicate(args);
+            while (p.evaluate()) {
+               addAnswer(table, args, evaluation);
+               if (!p.couldReevaluationSucceed()) {
+                  break;
+               }
+            }
+         } while (evaluation.additions != before);
+         success = true;
+      } finally {
+         stack.remove(stackIndex);
+         table.stackIndex = -1;
+         if (stackIndex == 0) {
+            evaluatingThreads.decrementAndGet();
+         }
+         if (!success) {
+            // do not reuse the partial answers of a call that failed with an exception
+            discard(table, evaluation);
+            for (Table member : table.members) {
+               discard(member, evaluation);
+            }
+            table.members.clear();
+            if (stack.isEmpty()) {
+               discardPrivate(evaluation);
+            }
+         }
+      }
+
+      if (stackIndex > 0) {
+         // the call that made this call uses its answers, so depends on the same predicates
+         stack.get(stackIndex - 1).dependencies.addAll(table.dependencies);
+      }
+
+      if (table.lowLink == stackIndex) {
+         // does not depend on any call that is still being evaluated
+         complete(table);
+         for (Table member : table.members) {
+            // used the answers of this table before it was complete, so depends on the same predicates
+            member.dependencies.addAll(table.dependencies);
+            complete(member);
+         }
+         table.members.clear();
+         if (stack.isEmpty()) {
+            discardPrivate(evaluation);
+         }
+      } else {
+         // depends on a call that is still being evaluated, so can only be completed at the same time as that call
+         Table parent = stack.get(stackIndex - 1);
+         parent.lowLink = Math.min(parent.lowLink, table.lowLink);
+         parent.members.add(table);
+         parent.members.addAll(table.members);
+         table.members.clear();
+      }
+   }
+
+   private void addAnswer(Table table, Term[] args, Evaluation evaluation) {
+      VariantKey key = VariantKey.create(null, args);
+      if (!table.answerKeys.add(key)) {
+         return;
+      }
+
+      if (!reserveAnswer()) {
+         discardComplete();
+         if (!reserveAnswer()) {
+            table.answerKeys.remove(key);
+            throw new ProjogException("Exceeded the maximum number of tabled answers: " + maxAnswers);
+         }
+      }
+
+      table.answers.add(TermUtils.copy(args));
+      evaluation.additions++;
+   }
+
+   /** Increments the number of answers stored, unless the maximum has already been reached. */
+   private boolean reserveAnswer() {
+      long count;
+      do {
+         count = answerCount.get();
+         if (count >= maxAnswers) {
+            return false;
+         }
+      } while (!answerCount.compareAndSet(count, count + 1));
+      return true;
+   }
+
+   private void discardComplete() {
+      for (Table t : tables.values()) {
+         if (t.complete) {
+            discardComplete(t);
+         }
+      }
+   }
+
+   private void discardComplete(Table t) {
+      if (tables.remove(t.key, t)) {
+         answerCount.addAndGet(-t.answers.size());
+      }
+      for (PredicateKey key : t.dependencies) {
+         Set<Table> s = dependents.get(key);
+         if (s != null) {
+            s.remove(t);
+         }
+      }
+   }
+
+   private void discard(Table table, Evaluation evaluation) {
+      if (table.isPrivate) {
+         if (evaluation.privateTables.remove(table.key, table)) {
+            answerCount.addAndGet(-table.answers.size());
+         }
+         return;
+      }
+
+      if (tables.remove(table.key, table)) {
+         answerCount.addAndGet(-table.answers.size());
+      }
+      synchronized (table) {
+         table.owner = null;
+         table.notifyAll();
+      }
+   }
+
+   /** Discards the private tables of a thread once it has finished evaluating tabled predicates. */
+   private void discardPrivate(Evaluation evaluation) {
+      for (Table t : evaluation.privateTables.values()) {
+         answerCount.addAndGet(-t.answers.size());
+      }
+      evaluation.privateTables.clear();
+   }
+
+   private void complete(Table table) {
+      if (!table.isPrivate) {
+         // recorded before the table is marked as complete, so a table is never complete without being recorded
+         for (PredicateKey key : table.dependencies) {
+            dependents.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(table);
+         }
+      }
+      synchronized (table) {
+         table.complete = true;
+         table.owner = null;
+         table.notifyAll();
+      }
+   }
+
+   /** The state of the evaluation of tabled predicates by a particular thread. */
+   private static final class Evaluation {
+      /** The tables that are currently being evaluated by the thread, in the order their evaluation started. */
+      final List<Table> stack = new ArrayList<>();
+      /** Tables that could not be shared, as waiting for them to be completed by another thread would deadlock. */
+      final Map<VariantKey, Table> privateTables = new HashMap<>();
+      /** Incremented every time the thread adds a new answer to a table - used to determine when a fixed point is reached. */
+      long additions;
+   }
+
+   /** The answers of a particular call pattern. */
+   private static final class Table {
+      final VariantKey key;
+      final Term[] pattern;
+      final boolean isPrivate;
+      final List<Term[]> answers = new ArrayList<>();
+      final Set<VariantKey> answerKeys = new HashSet<>();
+      /**
+       * The keys of the dynamic predicates this table depends on. Only altered by the thread evaluating the table, and
+       * not altered once the table is complete.
+       */
+      final Set<PredicateKey> dependencies = new HashSet<>();
+      /** Tables that depend on this table and can only be marked as complete when this table is. */
+      final Set<Table> members = new HashSet<>();
+      /** Position in the stack of the owner, or {@code -1} if not currently being evaluated. */
+      int stackIndex = -1;
+      /** The lowest position in the stack of the owner of a table this table depends on. */
+      int lowLink;
+      /** The thread evaluating this table, or {@code null} if the table has been completed or discarded. */
+      volatile Thread owner;
+      volatile boolean complete;
+
+      Table(VariantKey key, Term[] pattern, Thread owner, boolean isPrivate) {
+         this.key = key;
+         this.pattern = pattern;
+         this.owner = owner;
+         this.isPrivate = isPrivate;
+      }
+   }
+
+   /**
+    * Identifies terms that are variants of each other.
+    * <p>
+    * Consists of a sequence of tokens created by traversing the terms. The token of an atomic term is the term itself.
+    * The token of a structure or list is its principal functor, followed by the tokens of its arguments. The token of
+    * a variable is its position in the order in which variables are first encountered.
+    */
+   static final class VariantKey {
+      private final Object[] tokens;
+      private final int hashCode;
+
+      static VariantKey create(PredicateKey predicateKey, Term[] args) {
+         List<Object> tokens = new ArrayList<>();
+         if (predicateKey != null) {
+            tokens.add(predicateKey);
+         }
+         Map<Term, Integer> variables = new IdentityHashMap<>();
+         for (Term arg : args) {
+            addTokens(arg, tokens, variables);
+         }
+         return new VariantKey(tokens.toArray());
+      }
+
+      private static void addTokens(Term t, List<Object> tokens, Map<Term, Integer> variables) {
+         t = t.getTerm();
+         // iterate over the elements of a list, rather than recurse, so long lists can be processed
+         while (t.getType() == TermType.LIST && !t.isImmutable()) {
+            tokens.add(PredicateKey.createForTerm(t));
+            addTokens(t.getArgument(0), tokens, variables);
+            t = t.getArgument(1).getTerm();
+         }
+
+         if (t.isImmutable()) {
+            tokens.add(t);
+         } else if (t.getType().isVariable()) {
+            Integer id = variables.get(t);
+            if (id == null) {
+               id = variables.size();
+               variables.put(t, id);
+            }
+            tokens.add(id);
+         } else if (t.getType() == TermType.STRUCTURE) {
+            tokens.add(PredicateKey.createForTerm(t));
+            for (Term arg : t.getArgs()) {
+               addTokens(arg, tokens, variables);
+            }
+         } else {
+            throw new ProjogException("Cannot table call with argument: " + t);
+         }
+      }
+
+      private VariantKey(Object[] tokens) {
+         this.tokens = tokens;
+         this.hashCode = Arrays.hashCode(tokens);
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         return o == this || (o instanceof VariantKey && hashCode == ((VariantKey) o).hashCode && Arrays.equals(tokens, ((VariantKey) o).tokens));
+      }
+
+      @Override
+      public int hashCode() {
+         return hashCode;
+      }
+   }
+
+   /** Unifies the arguments of a call with each of the answers in its table. */
+   private final class TabledPredicate implements Predicate {
+      private final TabledUserDefinedPredicateFactory pf;
+      private final Term[] args;
+      private Table table;
+      private int next;
+
+      TabledPredicate(TabledUserDefinedPredicateFactory pf, Term[] args) {
+         this.pf = pf;
+         this.args = args;
+      }
+
+      @Override
+      public boolean evaluate() {
+         if (table == null) {
+            table = getTable(pf, args);
+         } else {
+            TermUtils.backtrack(args);
+         }
+
+         while (next < table.answers.size()) {
+            Term[] answer = table.answers.get(next++);
+            if (TermUtils.unify(args, TermUtils.copy(answer))) {
+               return true;
+            }
+         }
+         return false;
+      }
+
+      @Override
+      public boolean couldReevaluationSucceed() {
+         return table == null || !table.complete || next < table.answers.size();
+      }
+   }
+}
@@ -27,4 +27,12 @@ public interface ClauseAction {
    boolean isRetryable();
 
    boolean isAlwaysCutOnBacktrack();
+
+   /**
+    * Returns {@code true} if {@link #getPredicate(Term[])} can return a {@link LastCallPredicate}, so the clause should
+    * be evaluated by an {@link InterpretedUserDefinedPredicate} to benefit from last call optimisation.
+    */
+   default boolean isLastCall() {
+      return false;
+   }
 }
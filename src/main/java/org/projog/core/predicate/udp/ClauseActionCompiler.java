@@ -0,0 +1,468 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import static org.projog.core.kb.KnowledgeBaseUtils.toArrayOfConjunctions;
+import static org.projog.core.predicate.udp.ClauseActionFactory.isCut;
+import static org.projog.core.predicate.udp.ClauseActionFactory.isUserDefinedPredicate;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.projog.core.ProjogException;
+import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.predicate.Predicate;
+import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.predicate.PredicateKey;
+import org.projog.core.predicate.udp.ClauseActionFactory.AlwaysMatchedFact;
+import org.projog.core.predicate.udp.ClauseActionFactory.ImmutableFact;
+import org.projog.core.predicate.udp.ClauseActionFactory.VariableAntecedantClauseAction;
+import org.projog.core.term.Term;
+import org.projog.core.term.TermType;
+import org.projog.core.term.Variable;
+
+/**
+ * Replaces the {@link ClauseAction} instances of a static user defined predicate with classes generated at runtime.
+ * <p>
+ * Used when {@link org.projog.core.kb.ProjogProperties#isRuntimeCompilationEnabled()} is {@code true}. For each clause
+ * a subclass of {@link CompiledClauseAction} is generated which:
+ * <ul>
+ * <li>unifies each argument of the query with the corresponding argument of the clause's head using code specific to
+ * that argument - rather than copying the whole head, using a map to keep track of the variables, and then unifying the
+ * copy with the query.</li>
+ * <li>constructs the arguments of each goal of the clause's body directly from the variables bound by the head.</li>
+ * <li>calls directly into the preprocessed {@link PredicateFactory} of each goal.</li>
+ * </ul>
+ * <p>
+ * Clauses which would not benefit from being compiled (e.g. facts with no variables) and clauses which cannot be
+ * compiled (e.g. a clause whose body is a variable) continue to be interpreted. If the Java compiler is not available,
+ * or reports an error, then a warning is sent to the registered listeners and all of the clauses are interpreted.
+ * <p>
+ * All the clauses of a predicate are compiled by a single invocation of the Java compiler. As each invocation is
+ * expensive, {@link #compileWhenCalled(KnowledgeBase, PredicateKey, Clauses, int)} only compiles a predicate once its
+ * clauses have been called a specified number of times.
+ */
+final class ClauseActionCompiler {
+   private static final String PACKAGE_NAME = "org.projog.core.predicate.udp.compiled";
+   private static final AtomicInteger CLASS_NAME_CTR = new AtomicInteger();
+
+   private ClauseActionCompiler() {
+   }
+
+   /**
+    * Returns a version of {@code clauses} where, where possible, the actions are replaced with compiled versions once
+    * they have been called {@code threshold} times.
+    * <p>
+    * The number of calls is shared by all the clauses of the predicate. Until the threshold is reached, and if the
+    * clauses could not be compiled, the actions delegate to the original interpreted versions.
+    *
+    * @param threshold the number of calls after which the clauses are compiled - if less than {@code 2} the clauses are
+    * compiled immediately
+    */
+   static Clauses compileWhenCalled(KnowledgeBase kb, PredicateKey key, Clauses clauses, int threshold) {
+      if (threshold < 2) {
+         return compile(kb, key, clauses);
+      }
+
+      ClauseAction[] actions = clauses.getClauseActions();
+      CompilationTrigger trigger = new CompilationTrigger(kb, key, clauses, threshold);
+      List<ClauseAction> result = new ArrayList<>(actions.length);
+      for (int i = 0; i < actions.length; i++) {
+         if (isCompilable(actions[i])) {
+            CountingClauseAction counting = new CountingClauseAction(actions[i], trigger);
+            trigger.actions[i] = counting;
+            result.add(counting);
+         } else {
+            result.add(actions[i]);
+         }
+      }
+      return trigger.isEmpty() ? clauses : Clauses.createFromActions(kb, result, null);
+   }
+
+   /**
+    * Returns a version of {@code clauses} where, where possible, the actions have been replaced with compiled versions.
+    */
+   static Clauses compile(KnowledgeBase kb, PredicateKey key, Clauses clauses) {
+      ClauseAction[] actions = clauses.getClauseActions();
+      String simpleClassName = "ProjogCompiledPredicate" + CLASS_NAME_CTR.incrementAndGet();
+      String className = PACKAGE_NAME + "." + simpleClassName;
+
+      StringBuilder source = new StringBuilder();
+      source.append("package ").append(PACKAGE_NAME).append(";\n\n");
+      source.append("import org.projog.core.predicate.*;\n");
+      source.append("import org.projog.core.predicate.udp.*;\n");
+      source.append("import org.projog.core.term.*;\n\n");
+      source.append("public final class ").append(simpleClassName).append(" {\n");
+
+      ClauseGenerator[] generators = new ClauseGenerator[actions.length];
+      boolean compilable = false;
+      for (int i = 0; i < actions.length; i++) {
+         if (isCompilable(actions[i])) {
+            ClauseGenerator generator = new ClauseGenerator(kb, actions[i].getModel());
+            if (generator.generate()) {
+               source.append(generator.getSource("C" + i));
+               generators[i] = generator;
+               compilable = true;
+            }
+         }
+      }
+      source.append("}\n");
+
+      if (!compilable) {
+         return clauses;
+      }
+
+      try {
+         ClassLoader loader = JavaSourceCompiler.compile(className, source.toString());
+         List<ClauseAction> result = new ArrayList<>(actions.length);
+         for (int i = 0; i < actions.length; i++) {
+            if (generators[i] == null) {
+               result.add(actions[i]);
+            } else {
+               result.add(generators[i].newInstance(loader.loadClass(className + "$C" + i)));
+            }
+         }
+         return Clauses.createFromActions(kb, result, null);
+      } catch (ProjogException | ReflectiveOperationException | LinkageError e) {
+         kb.getProjogListeners().notifyWarn("Could not compile " + key + " so will interpret it. Cause: " + e.getMessage());
+         return clauses;
+      }
+   }
+
+   private static boolean isCompilable(ClauseAction action) {
+      return !(action instanceof AlwaysMatchedFact || action instanceof ImmutableFact || action instanceof VariableAntecedantClauseAction);
+   }
+
+   /** Returns a version of the specified string that can be used as the content of a Java string literal. */
+   static String escape(String s) {
+      StringBuilder sb = new StringBuilder(s.length());
+      for (int i = 0; i < s.length(); i++) {
+         char c = s.charAt(i);
+         if (c == '"' || c == '\\') {
+            sb.append('\\').append(c);
+         } else if (c < ' ') {
+            // octal rather than unicode escape, as unicode escapes of line terminators are not valid in string literals
+            sb.append(String.format("\\%03o", (int) c));
+         } else if (c > '~') {
+            sb.append(String.format("\\u%04x", (int) c));
+         } else {
+            sb.append(c);
+         }
+      }
+      return sb.toString();
+   }
+
+   /** Compiles the clauses of a predicate once they have been called a specified number of times. */
+   private static final class CompilationTrigger {
+      private final KnowledgeBase kb;
+      private final PredicateKey key;
+      private final Clauses clauses;
+      private final int threshold;
+      private final AtomicInteger calls = new AtomicInteger();
+      /** The actions to update once compiled. {@code null} elements correspond to actions that are not compiled. */
+      private final CountingClauseAction[] actions;
+
+      CompilationTrigger(KnowledgeBase kb, PredicateKey key, Clauses clauses, int threshold) {
+         this.kb = kb;
+         this.key = key;
+         this.clauses = clauses;
+         this.threshold = threshold;
+         this.actions = new CountingClauseAction[clauses.getClauseActions().length];
+      }
+
+      boolean isEmpty() {
+         for (CountingClauseAction a : actions) {
+            if (a != null) {
+               return false;
+            }
+         }
+         return true;
+      }
+
+      void called() {
+         // only the call that reaches the threshold compiles the clauses - other calls continue to be interpreted
+         if (calls.incrementAndGet() == threshold) {
+            ClauseAction[] compiled = compile(kb, key, clauses).getClauseActions();
+            for (int i = 0; i < actions.length; i++) {
+               if (actions[i] != null) {
+                  actions[i].compiled(compiled[i]);
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * Counts the calls of a clause that has not yet been compiled.
+    * <p>
+    * Delegates to the interpreted version of the clause until the clauses of the predicate have been compiled, and then
+    * delegates to the compiled version.
+    */
+   static final class CountingClauseAction implements ClauseAction {
+      private volatile ClauseAction delegate;
+      /** Set to {@code null} once there is no longer a need to count calls. */
+      private volatile CompilationTrigger trigger;
+
+      private CountingClauseAction(ClauseAction delegate, CompilationTrigger trigger) {
+         this.delegate = delegate;
+         this.trigger = trigger;
+      }
+
+      private void compiled(ClauseAction compiled) {
+         delegate = compiled;
+         trigger = null;
+      }
+
+      ClauseAction getDelegate() {
+         return delegate;
+      }
+
+      @Override
+      public Predicate getPredicate(Term[] input) {
+         CompilationTrigger t = trigger;
+         if (t != null) {
+            t.called();
+         }
+         return delegate.getPredicate(input);
+      }
+
+      @Override
+      public ClauseModel getModel() {
+         return delegate.getModel();
+      }
+
+      @Override
+      public boolean isRetryable() {
+         return delegate.isRetryable();
+      }
+
+      @Override
+      public boolean isAlwaysCutOnBacktrack() {
+         return delegate.isAlwaysCutOnBacktrack();
+      }
+
+      @Override
+      public boolean isLastCall() {
+         return delegate.isLastCall();
+      }
+   }
+
+   /** Thrown when a clause contains a term that cannot be represented in generated code. */
+   private static final class UnsupportedTermException extends RuntimeException {
+      private static final long serialVersionUID = 1L;
+
+      UnsupportedTermException(Term t) {
+         super(t.getType() + " " + t, null, false, false);
+      }
+   }
+
+   /** Generates the source code of a single clause. */
+   private static final class ClauseGenerator {
+      private final KnowledgeBase kb;
+      private final ClauseModel model;
+      private final StringBuilder body = new StringBuilder();
+      private final Map<Term, String> variables = new IdentityHashMap<>();
+      private final List<Term> constants = new ArrayList<>();
+      private final List<PredicateFactory> factories = new ArrayList<>();
+      private boolean cut;
+      private boolean lastCall;
+
+      ClauseGenerator(KnowledgeBase kb, ClauseModel model) {
+         this.kb = kb;
+         this.model = model;
+      }
+
+      /** Returns {@code false} if the clause cannot be compiled. */
+      boolean generate() {
+         try {
+            generateHead();
+            generateBody();
+            return true;
+         } catch (UnsupportedTermException e) {
+            return false;
+         }
+      }
+
+      /**
+       * Unifies the query with the head of the clause.
+       * <p>
+       * For rules, the first occurrence of a variable as an argument of the head does not require any unification - the
+       * variable is simply assigned the corresponding argument of the query. For facts the variable is still unified with
+       * the query, so that the answers refer to variables with the same names as when the fact is interpreted.
+       */
+      private void generateHead() {
+         Term[] args = model.getConsequent().getArgs();
+         for (int i = 0; i < args.length; i++) {
+            Term arg = args[i];
+            if (!model.isFact() && arg.getType() == TermType.VARIABLE && !variables.containsKey(arg)) {
+               line("Term " + newVariableName(arg) + " = input[" + i + "];");
+            } else {
+               String expression = expression(arg);
+               line("if (!input[" + i + "].unify(" + expression + ")) {");
+               line("   return PredicateUtils.FALSE;");
+               line("}");
+            }
+         }
+      }
+
+      /**
+       * Evaluates the body of the clause.
+       * <p>
+       * If all goals prior to the last goal are either a cut or can succeed at most once then they are evaluated
+       * immediately, in order, and the predicate of the last goal is returned. Otherwise the predicate of the whole body
+       * is returned.
+       */
+      private void generateBody() {
+         if (model.isFact()) {
+            line("return PredicateUtils.TRUE;");
+            return;
+         }
+
+         Term antecedent = model.getAntecedent();
+         Term[] goals = toArrayOfConjunctions(antecedent);
+         PredicateFactory[] goalFactories = getDeterministicPrefixFactories(goals);
+         if (goalFactories == null) {
+            PredicateFactory pf = kb.getPredicates().getPreprocessedPredicateFactory(antecedent);
+            String arguments = arguments(antecedent);
+            line("return factories[" + factory(pf) + "].getPredicate(" + arguments + ");");
+            return;
+         }
+
+         int lastIdx = goals.length - 1;
+         for (int i = 0; i < lastIdx; i++) {
+            if (isCut(goals[i])) {
+               cut = true;
+            } else {
+               String arguments = arguments(goals[i]);
+               line("if (!factories[" + factory(goalFactories[i]) + "].getPredicate(" + arguments + ").evaluate()) {");
+               line(cut ? "   throw CutException.CUT_EXCEPTION;" : "   return PredicateUtils.FALSE;");
+               line("}");
+            }
+         }
+
+         String arguments = arguments(goals[lastIdx]);
+         int lastFactory = factory(goalFactories[lastIdx]);
+         if (cut || isUserDefinedPredicate(kb, goals[lastIdx])) {
+            lastCall = true;
+            line("return lastCall(factories[" + lastFactory + "], " + arguments + ", " + cut + ");");
+         } else {
+            line("return factories[" + lastFactory + "].getPredicate(" + arguments + ");");
+         }
+      }
+
+      /**
+       * Returns the preprocessed factories of the specified goals, or {@code null} if any goal prior to the last goal
+       * could succeed more than once or if any goal is a variable.
+       */
+      private PredicateFactory[] getDeterministicPrefixFactories(Term[] goals) {
+         int lastIdx = goals.length - 1;
+         PredicateFactory[] result = new PredicateFactory[goals.length];
+         for (int i = 0; i < goals.length; i++) {
+            Term goal = goals[i];
+            if (goal.getType().isVariable()) {
+               return null;
+            }
+            result[i] = kb.getPredicates().getPreprocessedPredicateFactory(goal);
+            if (i < lastIdx && !isCut(goal) && result[i].isRetryable()) {
+               return null;
+            }
+         }
+         return result;
+      }
+
+      /** Returns an expression which evaluates to the arguments of the specified goal. */
+      private String arguments(Term goal) {
+         if (goal.getNumberOfArguments() == 0) {
+            return "TermUtils.EMPTY_ARRAY";
+         }
+         StringBuilder sb = new StringBuilder("new Term[] {");
+         for (int i = 0; i < goal.getNumberOfArguments(); i++) {
+            if (i > 0) {
+               sb.append(", ");
+            }
+            sb.append(expression(goal.getArgument(i)));
+         }
+         return sb.append('}').toString();
+      }
+
+      /**
+       * Returns an expression which evaluates to the specified term.
+       * <p>
+       * Any variables that have not been referred to before are declared before the statement the expression is used
+       * in.
+       */
+      private String expression(Term t) {
+         if (t.isImmutable()) {
+            constants.add(t);
+            return "constants[" + (constants.size() - 1) + "]";
+         }
+
+         switch (t.getType()) {
+            case VARIABLE:
+               String name = variables.get(t);
+               if (name == null) {
+                  name = newVariableName(t);
+                  line("Term " + name + " = new Variable(\"" + escape(((Variable) t).getId()) + "\");");
+                  return name;
+               }
+               // as with Term#copy, refer to what the variable is bound to rather than the variable itself
+               return name + ".getTerm()";
+            case STRUCTURE:
+            case LIST:
+               return "Structure.createStructure(\"" + escape(t.getName()) + "\", " + arguments(t) + ")";
+            default:
+               throw new UnsupportedTermException(t);
+         }
+      }
+
+      private String newVariableName(Term variable) {
+         String name = "v" + variables.size();
+         variables.put(variable, name);
+         return name;
+      }
+
+      private int factory(PredicateFactory pf) {
+         factories.add(pf);
+         return factories.size() - 1;
+      }
+
+      private void line(String line) {
+         body.append("         ").append(line).append('\n');
+      }
+
+      String getSource(String className) {
+         StringBuilder sb = new StringBuilder();
+         sb.append("   public static final class ").append(className).append(" extends CompiledClauseAction {\n");
+         sb.append("      public ").append(className).append("(ClauseModel model, PredicateFactory[] factories, Term[] constants, boolean cut, boolean lastCall) {\n");
+         sb.append("         super(model, factories, constants, cut, lastCall);\n");
+         sb.append("      }\n\n");
+         sb.append("      @Override\n");
+         sb.append("      public Predicate getPredicate(Term[] input) {\n");
+         sb.append(body);
+         sb.append("      }\n");
+         sb.append("   }\n");
+         return sb.toString();
+      }
+
+      ClauseAction newInstance(Class<?> c) throws ReflectiveOperationException {
+         return (ClauseAction) c.getConstructor(ClauseModel.class, PredicateFactory[].class, Term[].class, boolean.class, boolean.class)
+                     .newInstance(model, factories.toArray(new PredicateFactory[factories.size()]), constants.toArray(new Term[constants.size()]), cut, lastCall);
+      }
+   }
+}
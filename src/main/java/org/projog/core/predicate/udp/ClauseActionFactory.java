@@ -15,32 +15,45 @@
  */
 package org.projog.core.predicate.udp;
 
+import static org.projog.core.kb.KnowledgeBaseUtils.toArrayOfConjunctions;
+
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
 import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.predicate.CutException;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.predicate.PredicateFactoryCache;
 import org.projog.core.term.Term;
 import org.projog.core.term.TermType;
 import org.projog.core.term.TermUtils;
+import org.projog.core.term.Trail;
 import org.projog.core.term.Variable;
 
 /**
  * Constructs new {@link ClauseAction} instances.
  */
 final class ClauseActionFactory {
+   private static final String CUT = "!";
+
    /**
     * Returns true if the arguments unify with the consequent of the clause.
     * <p>
     * TODO move to another class, e.g. ClauseAction
     */
    static boolean isMatch(ClauseAction clause, Term[] queryArgs) {
+      Trail trail = Trail.getActive();
+      long choicePoint = trail == null ? 0 : trail.mark();
       Term[] clauseArgs = TermUtils.copy(clause.getModel().getConsequent().getArgs());
       boolean match = TermUtils.unify(queryArgs, clauseArgs);
-      TermUtils.backtrack(queryArgs);
+      if (choicePoint != 0 && trail.undo(choicePoint)) {
+         trail.release(choicePoint);
+      } else {
+         TermUtils.backtrack(queryArgs);
+      }
       return match;
    }
 
@@ -54,6 +67,12 @@ final class ClauseActionFactory {
       }
 
       boolean isFact = model.isFact();
+      if (!isFact) {
+         ClauseAction lastCallRule = createLastCallRule(kb, model);
+         if (lastCallRule != null) {
+            return lastCallRule;
+         }
+      }
 
       Term consequent = model.getConsequent();
       if (consequent.getNumberOfArguments() == 0) {
@@ -91,6 +110,61 @@ final class ClauseActionFactory {
       }
    }
 
+   /**
+    * Returns a new {@link LastCallRule} based on the specified {@link ClauseModel}, or {@code null} if the antecedent
+    * of the clause is not suitable for last call optimisation.
+    * <p>
+    * The antecedent is suitable if its final element is a call to a user defined predicate and it is possible to
+    * detect, at the point the clause is defined, that all elements prior to the final element are either a cut or will
+    * never generate multiple solutions per-query.
+    */
+   private static ClauseAction createLastCallRule(KnowledgeBase kb, ClauseModel model) {
+      Term[] goals = toArrayOfConjunctions(model.getAntecedent());
+      int lastIdx = goals.length - 1;
+      Term lastGoal = goals[lastIdx];
+      if (!isUserDefinedPredicate(kb, lastGoal)) {
+         return null;
+      }
+
+      PredicateFactory[] factories = new PredicateFactory[goals.length];
+      int firstCutIdx = lastIdx;
+      for (int i = 0; i < lastIdx; i++) {
+         Term goal = goals[i];
+         if (goal.getType().isVariable()) {
+            return null;
+         }
+         factories[i] = kb.getPredicates().getPreprocessedPredicateFactory(goal);
+         if (isCut(goal)) {
+            firstCutIdx = Math.min(i, firstCutIdx);
+         } else if (factories[i].isRetryable()) {
+            return null;
+         }
+      }
+      factories[lastIdx] = kb.getPredicates().getPreprocessedPredicateFactory(lastGoal);
+
+      return new LastCallRule(model, goals, factories, firstCutIdx);
+   }
+
+   /** Returns {@code true} if the specified term represents a cut. */
+   static boolean isCut(Term goal) {
+      return goal.getType() == TermType.ATOM && CUT.equals(goal.getName());
+   }
+
+   /** Returns {@code true} if the specified term represents a call to a user defined predicate. */
+   static boolean isUserDefinedPredicate(KnowledgeBase kb, Term goal) {
+      return !goal.getType().isVariable() && kb.getPredicates().getPredicateFactory(goal) instanceof UserDefinedPredicateFactory;
+   }
+
+   /**
+    * Returns {@code true} if the specified action does not refer to the {@code KnowledgeBase} it was created for.
+    * <p>
+    * Facts do not call any predicates, so can be shared by copies of a {@code KnowledgeBase}. Rules can not, as they
+    * refer to the predicates of the {@code KnowledgeBase} they were created for.
+    */
+   static boolean isKnowledgeBaseIndependent(ClauseAction action) {
+      return action instanceof AlwaysMatchedFact || action instanceof ImmutableFact || action instanceof MutableFact;
+   }
+
    /**
     * Clause where the antecedent is a variable.
     * <p>
@@ -101,25 +175,32 @@ final class ClauseActionFactory {
     */
    static final class VariableAntecedantClauseAction implements ClauseAction {
       private final ClauseModel model;
-      private final KnowledgeBase kb;
+      private final PredicateFactoryCache cache;
+
+      private final TermTemplate[] consequentArgs;
+      private final TermTemplate antecedent;
+      private final int numVariables;
 
       private VariableAntecedantClauseAction(ClauseModel model, KnowledgeBase kb) {
          this.model = model;
-         this.kb = kb;
+         this.cache = new PredicateFactoryCache(kb.getPredicates());
+         Map<Variable, Integer> slots = new HashMap<>();
+         this.consequentArgs = TermTemplate.create(model.getConsequent().getArgs(), slots);
+         this.antecedent = TermTemplate.create(new Term[] {model.getAntecedent()}, slots)[0];
+         this.numVariables = slots.size();
       }
 
       @Override
       public Predicate getPredicate(Term[] input) {
-         Term[] consequentArgs = model.getConsequent().getArgs();
-         Map<Variable, Variable> sharedVariables = new HashMap<>();
+         Term[] frame = new Term[numVariables];
          for (int i = 0; i < input.length; i++) {
-            if (!input[i].unify(consequentArgs[i].copy(sharedVariables))) {
+            if (!consequentArgs[i].unify(input[i], frame)) {
                return PredicateUtils.FALSE;
             }
          }
 
-         Term antecedant = model.getAntecedent().copy(sharedVariables);
-         return kb.getPredicates().getPredicateFactory(antecedant).getPredicate(antecedant.getArgs());
+         Term antecedant = antecedent.copy(frame);
+         return cache.getPredicateFactory(antecedant).getPredicate(antecedant.getArgs());
       }
 
       @Override
@@ -306,17 +387,21 @@ final class ClauseActionFactory {
    static final class MutableFact implements ClauseAction {
       private final ClauseModel model;
 
+      private final TermTemplate[] consequentArgs;
+      private final int numVariables;
+
       private MutableFact(ClauseModel model) {
          this.model = model;
+         Map<Variable, Integer> slots = new HashMap<>();
+         this.consequentArgs = TermTemplate.create(model.getConsequent().getArgs(), slots);
+         this.numVariables = slots.size();
       }
 
       @Override
       public Predicate getPredicate(Term[] input) {
-         // TODO would be a performance improvement if no clause variable is created unless is a shared variable
-         Term[] consequentArgs = model.getConsequent().getArgs();
-         Map<Variable, Variable> sharedVariables = new HashMap<>();
+         Term[] frame = new Term[numVariables];
          for (int i = 0; i < input.length; i++) {
-            if (!input[i].unify(consequentArgs[i].copy(sharedVariables))) {
+            if (!consequentArgs[i].unify(input[i], frame)) {
                return PredicateUtils.FALSE;
             }
          }
@@ -349,29 +434,36 @@ final class ClauseActionFactory {
       private final ClauseModel model;
       private final PredicateFactory pf;
 
+      private final TermTemplate[] consequentArgs;
+      /** The arguments of the antecedent, or {@code null} if the antecedent is immutable. */
+      private final TermTemplate[] antecedentArgs;
+      private final int numVariables;
+
       private MutableRule(ClauseModel model, PredicateFactory pf) {
          this.model = model;
          this.pf = pf;
+         Map<Variable, Integer> slots = new HashMap<>();
+         this.consequentArgs = TermTemplate.create(model.getConsequent().getArgs(), slots);
+         Term antecedent = model.getAntecedent();
+         this.antecedentArgs = antecedent.isImmutable() ? null : TermTemplate.create(antecedent.getArgs(), slots);
+         this.numVariables = slots.size();
       }
 
       @Override
       public Predicate getPredicate(Term[] input) {
-         Term[] consequentArgs = model.getConsequent().getArgs();
-         Map<Variable, Variable> sharedVariables = new HashMap<>();
+         Term[] frame = new Term[numVariables];
          for (int i = 0; i < input.length; i++) {
-            if (!input[i].unify(consequentArgs[i].copy(sharedVariables))) {
+            if (!consequentArgs[i].unify(input[i], frame)) {
                return PredicateUtils.FALSE;
             }
          }
 
-         Term antecedent = model.getAntecedent();
-         if (antecedent.isImmutable()) {
-            return pf.getPredicate(antecedent.getArgs());
+         if (antecedentArgs == null) {
+            return pf.getPredicate(model.getAntecedent().getArgs());
          } else {
-            Term[] originalAntecedentArgs = antecedent.getArgs();
-            Term[] copyAntecedentArgs = new Term[originalAntecedentArgs.length];
-            for (int i = 0; i < originalAntecedentArgs.length; i++) {
-               copyAntecedentArgs[i] = originalAntecedentArgs[i].copy(sharedVariables);
+            Term[] copyAntecedentArgs = new Term[antecedentArgs.length];
+            for (int i = 0; i < antecedentArgs.length; i++) {
+               copyAntecedentArgs[i] = antecedentArgs[i].copy(frame);
             }
             return pf.getPredicate(copyAntecedentArgs);
          }
@@ -393,5 +485,113 @@ final class ClauseActionFactory {
       }
    }
 
-   // TODO add variation for where antecedent is conjuction of non-retryable predicates
+   /**
+    * Clause where the final element of the antecedent is a call to a user defined predicate and all prior elements are
+    * either a cut or will never generate multiple solutions.
+    * <p>
+    * e.g. "p(X) :- q(X)." or "p(X,Y) :- X>0, !, Z is X-1, p(Z,Y)." or "p(X) :- q(X,Y), r(Y)."
+    * <p>
+    * All elements prior to the final element are evaluated by {@link #getPredicate(Term[])}. The call to the final
+    * element is represented by the returned {@link LastCallPredicate}, so that it can be evaluated without consuming
+    * any additional Java stack - see {@link InterpretedUserDefinedPredicate#evaluate()}.
+    */
+   static final class LastCallRule implements ClauseAction {
+      private final ClauseModel model;
+      private final Term[] goals;
+      private final PredicateFactory[] factories;
+      /** The index of the first cut in {@link #goals}, or the index of the final element if there is no cut. */
+      private final int firstCutIdx;
+
+      private final TermTemplate[] consequentArgs;
+      /**
+       * The slot of each argument of the consequent which is a variable, or {@code -1} for arguments which are not a
+       * variable.
+       */
+      private final int[] consequentVariableSlots;
+      /** The arguments of each element of {@link #goals}, or {@code null} for elements that are immutable. */
+      private final TermTemplate[][] goalArgs;
+      private final int numVariables;
+
+      private LastCallRule(ClauseModel model, Term[] goals, PredicateFactory[] factories, int firstCutIdx) {
+         this.model = model;
+         this.goals = goals;
+         this.factories = factories;
+         this.firstCutIdx = firstCutIdx;
+
+         Map<Variable, Integer> slots = new HashMap<>();
+         Term[] consequent = model.getConsequent().getArgs();
+         this.consequentArgs = TermTemplate.create(consequent, slots);
+         this.consequentVariableSlots = new int[consequent.length];
+         for (int i = 0; i < consequent.length; i++) {
+            consequentVariableSlots[i] = consequent[i].getType() == TermType.VARIABLE ? slots.get(consequent[i].getTerm()) : -1;
+         }
+         this.goalArgs = new TermTemplate[goals.length][];
+         for (int i = 0; i < goals.length; i++) {
+            goalArgs[i] = goals[i].isImmutable() ? null : TermTemplate.create(goals[i].getArgs(), slots);
+         }
+         this.numVariables = slots.size();
+      }
+
+      @Override
+      public Predicate getPredicate(Term[] input) {
+         Term[] frame = new Term[numVariables];
+         for (int i = 0; i < input.length; i++) {
+            int slot = consequentVariableSlots[i];
+            if (slot != -1 && frame[slot] == null && input[i].getType() == TermType.VARIABLE) {
+               // reuse the query variable rather than unifying it with a new copy of the clause variable,
+               // so iterations which pass a variable through to the last call do not create a chain of variables
+               frame[slot] = input[i].getTerm();
+            } else if (!consequentArgs[i].unify(input[i], frame)) {
+               return PredicateUtils.FALSE;
+            }
+         }
+
+         int lastIdx = goals.length - 1;
+         for (int i = 0; i < lastIdx; i++) {
+            if (!factories[i].getPredicate(copyArgs(i, frame)).evaluate()) {
+               if (i > firstCutIdx) {
+                  throw CutException.CUT_EXCEPTION;
+               } else {
+                  return PredicateUtils.FALSE;
+               }
+            }
+         }
+
+         return new LastCallPredicate(factories[lastIdx], copyArgs(lastIdx, frame), firstCutIdx < lastIdx);
+      }
+
+      private Term[] copyArgs(int goalIdx, Term[] frame) {
+         TermTemplate[] templates = goalArgs[goalIdx];
+         if (templates == null) {
+            return goals[goalIdx].getArgs();
+         }
+
+         Term[] copyArgs = new Term[templates.length];
+         for (int i = 0; i < templates.length; i++) {
+            copyArgs[i] = templates[i].copy(frame);
+         }
+         return copyArgs;
+      }
+
+      @Override
+      public ClauseModel getModel() {
+         return model;
+      }
+
+      @Override
+      public boolean isRetryable() {
+         return firstCutIdx < goals.length - 1 || factories[goals.length - 1].isRetryable();
+      }
+
+      @Override
+      public boolean isAlwaysCutOnBacktrack() {
+         PredicateFactory last = factories[goals.length - 1];
+         return last.isAlwaysCutOnBacktrack() || (firstCutIdx < goals.length - 1 && !last.isRetryable());
+      }
+
+      @Override
+      public boolean isLastCall() {
+         return true;
+      }
+   }
 }
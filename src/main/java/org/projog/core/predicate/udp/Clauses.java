@@ -17,7 +17,9 @@ package org.projog.core.predicate.udp;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.term.Term;
@@ -25,10 +27,12 @@ import org.projog.core.term.Variable;
 
 // TODO add Javadoc and review method and variable names
 class Clauses {
-   private static final Clauses EMPTY = new Clauses(Collections.emptyList(), new int[0]);
+   private static final Clauses EMPTY = new Clauses(Collections.emptyList(), new int[0], new int[0]);
 
    private final List<ClauseAction> clauses;
    private final int[] immutableColumns;
+   /** The number of distinct values in each of the {@link #immutableColumns}. */
+   private final int[] columnCardinalities;
 
    static Clauses createFromModels(KnowledgeBase kb, List<ClauseModel> models) {
       List<ClauseAction> actions = new ArrayList<>();
@@ -66,7 +70,20 @@ class Clauses {
          }
       }
 
-      return new Clauses(actions, immutableColumns);
+      return new Clauses(actions, immutableColumns, countDistinctValues(actions, immutableColumns));
+   }
+
+   private static int[] countDistinctValues(List<ClauseAction> actions, int[] columns) {
+      int[] result = new int[columns.length];
+      Set<Term> values = new HashSet<>();
+      for (int i = 0; i < columns.length; i++) {
+         for (ClauseAction action : actions) {
+            values.add(action.getModel().getConsequent().getArgument(columns[i]));
+         }
+         result[i] = values.size();
+         values.clear();
+      }
+      return result;
    }
 
    private static boolean[] createArray(int numArgs, Term query) {
@@ -94,17 +111,40 @@ class Clauses {
       return ctr;
    }
 
-   private Clauses(List<ClauseAction> actions, int[] immutableColumns) {
+   private Clauses(List<ClauseAction> actions, int[] immutableColumns, int[] columnCardinalities) {
       this.clauses = actions;
       this.immutableColumns = immutableColumns;
-
+      this.columnCardinalities = columnCardinalities;
    }
 
    int[] getImmutableColumns() {
       return immutableColumns;
    }
 
+   /**
+    * Returns the number of distinct values in each of the columns returned by {@link #getImmutableColumns()}.
+    * <p>
+    * Used to estimate how selective an index of a column will be.
+    */
+   int[] getColumnCardinalities() {
+      return columnCardinalities;
+   }
+
    ClauseAction[] getClauseActions() {
       return clauses.toArray(new ClauseAction[clauses.size()]);
    }
+
+   /**
+    * Returns {@code true} if none of the clauses refer to the {@code KnowledgeBase} they were created for.
+    *
+    * @see ClauseActionFactory#isKnowledgeBaseIndependent(ClauseAction)
+    */
+   boolean isKnowledgeBaseIndependent() {
+      for (ClauseAction action : clauses) {
+         if (!ClauseActionFactory.isKnowledgeBaseIndependent(action)) {
+            return false;
+         }
+      }
+      return true;
+   }
 }
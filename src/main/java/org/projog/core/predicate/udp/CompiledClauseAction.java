@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import org.projog.core.predicate.Predicate;
+import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.term.Term;
+
+/**
+ * Superclass of the {@link ClauseAction} classes generated at runtime by {@link ClauseActionCompiler}.
+ * <p>
+ * Generated classes are loaded by their own class loader, so can only access {@code public} and {@code protected}
+ * members of the classes in this package.
+ */
+public abstract class CompiledClauseAction implements ClauseAction {
+   private final ClauseModel model;
+   /**
+    * The predicate factories called by the generated code, in the order they are called. The last element is the
+    * factory of the predicate returned by {@link #getPredicate(Term[])}.
+    */
+   protected final PredicateFactory[] factories;
+   /** The immutable terms referred to by the generated code. */
+   protected final Term[] constants;
+   /** {@code true} if the antecedent contains a cut that is evaluated before the last element of {@link #factories}. */
+   private final boolean cut;
+   /** {@code true} if the generated code calls {@link #lastCall(PredicateFactory, Term[], boolean)}. */
+   private final boolean lastCall;
+
+   protected CompiledClauseAction(ClauseModel model, PredicateFactory[] factories, Term[] constants, boolean cut, boolean lastCall) {
+      this.model = model;
+      this.factories = factories;
+      this.constants = constants;
+      this.cut = cut;
+      this.lastCall = lastCall;
+   }
+
+   /**
+    * Returns a predicate which will call the specified factory once {@code Predicate#evaluate()} is called.
+    *
+    * @see LastCallPredicate
+    */
+   protected static Predicate lastCall(PredicateFactory pf, Term[] args, boolean cut) {
+      return new LastCallPredicate(pf, args, cut);
+   }
+
+   @Override
+   public final ClauseModel getModel() {
+      return model;
+   }
+
+   @Override
+   public final boolean isRetryable() {
+      if (factories.length == 0) {
+         return false;
+      }
+      return cut || factories[factories.length - 1].isRetryable();
+   }
+
+   @Override
+   public final boolean isAlwaysCutOnBacktrack() {
+      if (factories.length == 0) {
+         return false;
+      }
+      PredicateFactory last = factories[factories.length - 1];
+      return last.isAlwaysCutOnBacktrack() || (cut && !last.isRetryable());
+   }
+
+   @Override
+   public final boolean isLastCall() {
+      return lastCall;
+   }
+}
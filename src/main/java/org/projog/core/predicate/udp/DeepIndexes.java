@@ -0,0 +1,300 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.projog.core.predicate.PredicateKey;
+import org.projog.core.term.Term;
+
+/**
+ * Supports indexing clauses by arguments that are not immutable in every clause.
+ * <p>
+ * {@link Indexes} only supports arguments that are immutable in every clause of a predicate, and uses the whole
+ * argument as the key. {@code DeepIndexes} supports arguments that are compound terms or variables. e.g.: <pre>
+ * handle(msg(login, User), ...) :- ...
+ * handle(msg(logout, User), ...) :- ...
+ * route([Host|_], ...) :- ...
+ * </pre>
+ * <p>
+ * Clauses are grouped by the <i>principal functor</i> (name and number of arguments) of an argument - or by the value of
+ * the argument if it is atomic. If more than one clause has the same principal functor then, when first required, a
+ * nested index is created using the argument of the compound term that best distinguishes between those clauses. For
+ * lists this will usually be the first element. Nested indexes are created up to a depth of {@link #MAX_DEPTH}.
+ * <p>
+ * A clause that has a variable at the position being indexed is included in every group, so the relative order of
+ * clauses is maintained.
+ * <p>
+ * Used both on its own, when a predicate has no arguments that are immutable in every clause, and by {@link Index} to
+ * narrow down the clauses that share the values of the immutable arguments used by the index.
+ */
+final class DeepIndexes {
+   /** Maximum depth of nested compound terms that will be indexed. */
+   static final int MAX_DEPTH = 4;
+   private static final Node NO_INDEX = new Node(new int[0], new ClauseAction[0], new HashMap<>(), new ClauseAction[0]);
+
+   private final ClauseAction[] masterData;
+   private final int[] indexableArgs;
+   private final AtomicReferenceArray<Node> indexes;
+
+   /**
+    * Returns a {@code DeepIndexes} for the specified clauses, or {@code null} if none of their arguments are suitable.
+    * <p>
+    * An argument is suitable if it is not immutable in every clause and if it would divide the clauses into at least
+    * two groups, or into a single group of compound terms that a nested index may be able to divide.
+    */
+   static DeepIndexes create(ClauseAction[] clauses) {
+      if (clauses.length < 2) {
+         return null;
+      }
+
+      int numArgs = Math.min(clauses[0].getModel().getConsequent().getNumberOfArguments(), Indexes.MAX_INDEXABLE_ARGS);
+      int[] indexableArgs = new int[numArgs];
+      int ctr = 0;
+      for (int i = 0; i < numArgs; i++) {
+         if (isIndexable(clauses, i)) {
+            indexableArgs[ctr++] = i;
+         }
+      }
+
+      return ctr == 0 ? null : new DeepIndexes(clauses, Arrays.copyOf(indexableArgs, ctr));
+   }
+
+   private static boolean isIndexable(ClauseAction[] clauses, int argIdx) {
+      boolean allImmutable = true;
+      Set<Object> keys = new HashSet<>();
+      for (ClauseAction clause : clauses) {
+         Term arg = clause.getModel().getConsequent().getArgument(argIdx);
+         allImmutable &= arg.isImmutable();
+         Object key = createKey(arg);
+         if (key != null) {
+            keys.add(key);
+         }
+      }
+      return !allImmutable && isUseful(keys);
+   }
+
+   /**
+    * Returns {@code true} if the specified keys would divide clauses into at least two groups.
+    * <p>
+    * A single key is only considered useful if it is a principal functor, as a nested index of that group may be able
+    * to distinguish between the clauses.
+    */
+   private static boolean isUseful(Set<Object> keys) {
+      return keys.size() > 1 || (keys.size() == 1 && keys.iterator().next() instanceof PredicateKey);
+   }
+
+   private DeepIndexes(ClauseAction[] clauses, int[] indexableArgs) {
+      this.masterData = clauses;
+      this.indexableArgs = indexableArgs;
+      this.indexes = new AtomicReferenceArray<>(indexableArgs.length);
+   }
+
+   /**
+    * Returns the clauses that could match the specified arguments.
+    * <p>
+    * If more than one argument could be used then the one which results in the fewest clauses is chosen.
+    */
+   ClauseAction[] index(Term[] args) {
+      ClauseAction[] result = masterData;
+      for (int i = 0; i < indexableArgs.length && result.length > 0; i++) {
+         if (createKey(args[indexableArgs[i]]) != null) {
+            ClauseAction[] matches = getOrCreateIndex(i).getMatches(args);
+            if (matches.length < result.length) {
+               result = matches;
+            }
+         }
+      }
+      return result;
+   }
+
+   int getClauseCount() {
+      return masterData.length;
+   }
+
+   // package access so can be used by tests
+   int[] getIndexableArgs() {
+      return indexableArgs;
+   }
+
+   private Node getOrCreateIndex(int i) {
+      Node index = indexes.get(i);
+      if (index == null) {
+         indexes.compareAndSet(i, null, Node.create(new int[] {indexableArgs[i]}, masterData));
+         index = indexes.get(i);
+      }
+      return index;
+   }
+
+   /**
+    * Returns the key to use for the specified term, or {@code null} if the term is a variable.
+    * <p>
+    * The key of a compound term is its principal functor. The key of an atomic term is the term itself.
+    */
+   static Object createKey(Term t) {
+      t = t.getBound();
+      if (t.getType().isStructure()) {
+         return PredicateKey.createForTerm(t);
+      } else if (t.isImmutable()) {
+         return t;
+      } else {
+         return null;
+      }
+   }
+
+   /**
+    * Returns the term at the specified path, or {@code null} if the path does not exist.
+    * <p>
+    * The first element of the path is the index of one of the specified arguments. Each subsequent element is the
+    * index of an argument of the compound term identified by the preceding elements.
+    */
+   private static Term getTerm(Term[] args, int[] path) {
+      Term t = args[path[0]];
+      for (int i = 1; i < path.length; i++) {
+         t = t.getBound();
+         if (!t.getType().isStructure()) {
+            return null;
+         }
+         t = t.getArgument(path[i]);
+      }
+      return t;
+   }
+
+   private static Object createKey(Term[] args, int[] path) {
+      Term t = getTerm(args, path);
+      return t == null ? null : createKey(t);
+   }
+
+   /** Groups clauses by the key of the term at a particular path. */
+   private static final class Node {
+      private final int[] path;
+      private final ClauseAction[] all;
+      private final Map<Object, Group> groups;
+      /** The clauses which have a variable at {@link #path} - these match any key that is not in {@link #groups}. */
+      private final ClauseAction[] variables;
+
+      static Node create(int[] path, ClauseAction[] clauses) {
+         Map<Object, List<ClauseAction>> lists = new LinkedHashMap<>();
+         Object[] keys = new Object[clauses.length];
+         for (int i = 0; i < clauses.length; i++) {
+            keys[i] = createKey(getConsequentArgs(clauses[i]), path);
+            if (keys[i] != null && !lists.containsKey(keys[i])) {
+               lists.put(keys[i], new ArrayList<>());
+            }
+         }
+
+         List<ClauseAction> variables = new ArrayList<>();
+         for (int i = 0; i < clauses.length; i++) {
+            if (keys[i] == null) {
+               variables.add(clauses[i]);
+               for (List<ClauseAction> list : lists.values()) {
+                  list.add(clauses[i]);
+               }
+            } else {
+               lists.get(keys[i]).add(clauses[i]);
+            }
+         }
+
+         Map<Object, Group> groups = new HashMap<>(lists.size());
+         for (Map.Entry<Object, List<ClauseAction>> e : lists.entrySet()) {
+            groups.put(e.getKey(), new Group(path, e.getKey(), toArray(e.getValue())));
+         }
+         return new Node(path, clauses, groups, toArray(variables));
+      }
+
+      private Node(int[] path, ClauseAction[] all, Map<Object, Group> groups, ClauseAction[] variables) {
+         this.path = path;
+         this.all = all;
+         this.groups = groups;
+         this.variables = variables;
+      }
+
+      ClauseAction[] getMatches(Term[] args) {
+         Object key = createKey(args, path);
+         if (key == null) {
+            return all;
+         }
+
+         Group group = groups.get(key);
+         return group == null ? variables : group.getMatches(args);
+      }
+   }
+
+   /** The clauses of a {@link Node} that share the same key, with an optional nested index. */
+   private static final class Group {
+      private final int[] path;
+      private final Object key;
+      private final ClauseAction[] clauses;
+      private volatile Node nested;
+
+      Group(int[] path, Object key, ClauseAction[] clauses) {
+         this.path = path;
+         this.key = key;
+         this.clauses = clauses;
+      }
+
+      ClauseAction[] getMatches(Term[] args) {
+         if (clauses.length < 2 || path.length > MAX_DEPTH || !(key instanceof PredicateKey)) {
+            return clauses;
+         }
+
+         Node n = nested;
+         if (n == null) {
+            nested = n = createNested();
+         }
+         return n == NO_INDEX ? clauses : n.getMatches(args);
+      }
+
+      /** Returns an index using the argument of the compound term that results in the most groups. */
+      private Node createNested() {
+         int numArgs = ((PredicateKey) key).getNumArgs();
+         int[] bestPath = null;
+         int bestKeyCount = 0;
+         for (int i = 0; i < numArgs; i++) {
+            int[] candidate = Arrays.copyOf(path, path.length + 1);
+            candidate[path.length] = i;
+            Set<Object> keys = new HashSet<>();
+            for (ClauseAction clause : clauses) {
+               Object k = createKey(getConsequentArgs(clause), candidate);
+               if (k != null) {
+                  keys.add(k);
+               }
+            }
+            if (isUseful(keys) && keys.size() > bestKeyCount) {
+               bestPath = candidate;
+               bestKeyCount = keys.size();
+            }
+         }
+         return bestPath == null ? NO_INDEX : Node.create(bestPath, clauses);
+      }
+   }
+
+   private static Term[] getConsequentArgs(ClauseAction clause) {
+      return clause.getModel().getConsequent().getArgs();
+   }
+
+   private static ClauseAction[] toArray(List<ClauseAction> list) {
+      return list.toArray(new ClauseAction[list.size()]);
+   }
+}
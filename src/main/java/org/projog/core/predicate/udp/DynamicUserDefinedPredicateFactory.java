@@ -20,6 +20,7 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import org.projog.core.event.SpyPoints;
 import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.kb.KnowledgeBaseServiceLocator;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateKey;
 import org.projog.core.term.Term;
@@ -29,50 +30,210 @@ import org.projog.core.term.Term;
  * <p>
  * A "dynamic" user defined predicate is one that can have clauses added and removed <i>after</i> it has been first
  * defined. This is normally done using the {@code asserta/1}, {@code assertz/1} and {@code retract/1} predicates.
+ * <p>
+ * Uses the "logical update view". Every clause is stamped with the generation at which it was added and, once
+ * retracted, the generation at which it was erased. A call to the predicate only considers the clauses that existed at
+ * the generation when the call was made, so clauses added or retracted while the call is being evaluated will not alter
+ * its results. Reading the clauses does not require a lock (other than when an index of an argument is first created).
+ * Adding and retracting clauses is done while holding a lock. A change is stamped with the next generation before that
+ * generation is published, so a call made at a particular generation either always or never sees the change. Erased
+ * clauses are physically removed in bulk, by replacing the list of clauses with a compacted copy, once they make up a
+ * significant proportion of the clauses.
+ * <p>
+ * Clauses are indexed by the values of their arguments. An index of the first argument is maintained as clauses are
+ * added and removed. An index of another argument is created the first time it is required, after which it is also
+ * maintained as clauses are added and removed. Each index maps a key to the clauses that have that value as the
+ * argument, so a key can be shared by any number of clauses. Clauses whose argument is not immutable (e.g. a variable)
+ * can match any key, so are kept separately and merged, in their original order, with the clauses that match the key.
+ * <p>
+ * A copy of a predicate, made for a copy of a {@code KnowledgeBase}, shares the clauses of the original until either
+ * predicate is altered. As the copy uses the clauses that were visible to the original at the generation the copy was
+ * made, subsequent changes to the original are not visible to it. The clauses are copied when the copy is first
+ * altered.
+ * <p>
+ * Adding or removing a clause discards the completed tables of the tabled predicates whose evaluation used the clauses of
+ * this predicate, as their answers may no longer be valid.
  *
  * @see org.projog.core.predicate.udp.InterpretedUserDefinedPredicate
  */
 public final class DynamicUserDefinedPredicateFactory implements UserDefinedPredicateFactory {
-   // use array rather than two instances so that references not lost between
-   // copies when heads or tails alter
-   private static final int FIRST = 0;
-   private static final int LAST = 1;
+   /** The minimum number of erased clauses that need to exist before the clauses will be compacted. */
+   private static final int MIN_ERASED_BEFORE_COMPACTION = 32;
 
    private final Object LOCK = new Object();
    private final KnowledgeBase kb;
    private final SpyPoints.SpyPoint spyPoint;
-   private final ClauseActionMetaData[] ends = new ClauseActionMetaData[2];
-   private ConcurrentHashMap<Term, ClauseActionMetaData> index;
-   private boolean hasPrimaryKey;
+   private final AnswerTables tables;
+   private final int numIndexableArgs;
+   /**
+    * Incremented every time a clause is added or erased. Only altered while holding {@link #LOCK}, and only after the
+    * change has been stamped with the new value.
+    */
+   private volatile long generation;
+   private volatile State state;
+   /**
+    * The clauses of the predicate this predicate is a copy of, or {@code null} if this predicate is not a copy or has
+    * been altered since it was copied.
+    */
+   private volatile Snapshot forkedFrom;
+   /** Used to determine the relative order of clauses, so results of different chains can be merged. */
+   private long lowestOrder;
+   private long highestOrder;
 
    public DynamicUserDefinedPredicateFactory(KnowledgeBase kb, PredicateKey predicateKey) {
       this.kb = kb;
-      if (predicateKey.getNumArgs() == 0) {
-         this.hasPrimaryKey = false;
-         this.index = null;
-      } else {
-         this.hasPrimaryKey = true;
-         index = new ConcurrentHashMap<>();
+      this.numIndexableArgs = Math.min(predicateKey.getNumArgs(), Indexes.MAX_INDEXABLE_ARGS);
+      this.state = new State(numIndexableArgs);
+      if (numIndexableArgs > 0) {
+         state.indexes[0] = new ArgumentIndex(0);
       }
       this.spyPoint = kb.getSpyPoints().getSpyPoint(predicateKey);
+      this.tables = KnowledgeBaseServiceLocator.getServiceLocator(kb).getInstance(AnswerTables.class);
+   }
+
+   /**
+    * Creates a copy of the specified predicate for use by another {@code KnowledgeBase}.
+    * <p>
+    * If all the clauses of the original are facts then they are shared with the copy until it is first altered.
+    * Otherwise the clauses are copied immediately, as rules refer to the predicates of the {@code KnowledgeBase} they
+    * were created for.
+    *
+    * @param kb the {@code KnowledgeBase} the copy is to be used by
+    * @param original the predicate to copy
+    */
+   public DynamicUserDefinedPredicateFactory(KnowledgeBase kb, DynamicUserDefinedPredicateFactory original) {
+      this(kb, original.getPredicateKey());
+      Snapshot snapshot = original.getSnapshot();
+      if (snapshot.isKnowledgeBaseIndependent()) {
+         this.forkedFrom = snapshot;
+      } else {
+         ClauseActionIterator itr = snapshot.getCandidates(null);
+         while (itr.hasNext()) {
+            addLast(itr.next().getModel());
+         }
+      }
    }
 
    @Override
    public Predicate getPredicate(Term[] args) {
-      if (hasPrimaryKey) {
-         Term firstArg = args[0];
-         if (firstArg.isImmutable()) {
-            ClauseActionMetaData match = index.get(firstArg);
-            if (match == null) {
-               return PredicateUtils.createFailurePredicate(spyPoint, args);
-            } else {
-               return PredicateUtils.createSingleClausePredicate(match.clause, spyPoint, args);
+      ClauseActionIterator candidates = getCandidates(args);
+      if (!candidates.indexed) {
+         return new InterpretedUserDefinedPredicate(candidates, spyPoint, args);
+      } else if (!candidates.hasNext()) {
+         return PredicateUtils.createFailurePredicate(spyPoint, args);
+      } else if (candidates.isSingle()) {
+         return PredicateUtils.createSingleClausePredicate(candidates.next(), spyPoint, args);
+      } else {
+         return new InterpretedUserDefinedPredicate(candidates, spyPoint, args);
+      }
+   }
+
+   /**
+    * Returns the clauses, visible at the current generation, that could match the specified arguments.
+    * <p>
+    * Uses the most selective available index to find the clauses. If none of the arguments can be used to query an
+    * index then all the clauses are returned.
+    *
+    * @param args the arguments to match against, or {@code null} if all clauses should be returned
+    */
+   private ClauseActionIterator getCandidates(Term[] args) {
+      tables.addDependency(getPredicateKey());
+      Snapshot snapshot = forkedFrom;
+      return snapshot == null ? getOwnCandidates(args) : snapshot.getCandidates(args);
+   }
+
+   private ClauseActionIterator getOwnCandidates(Term[] args) {
+      State state = this.state;
+      long generation = this.generation;
+      // if this state has since been replaced by a compacted copy then use the replacement, as clauses added after the
+      // replacement will not have been added to this state - as the replacement is published before the generation at
+      // which it was retired, reading the state again will return the replacement (or an even newer state)
+      while (generation >= state.retiredAt) {
+         state = this.state;
+         generation = this.generation;
+      }
+      return getCandidates(state, generation, args);
+   }
+
+   private ClauseActionIterator getCandidates(State state, long generation, Term[] args) {
+      ArgumentIndex bestIndex = null;
+      Chain bestChain = null;
+      int bestSize = Integer.MAX_VALUE;
+      ArgumentIndex[] indexes = state.indexes;
+      for (int i = 0; args != null && i < numIndexableArgs && bestSize > 1; i++) {
+         Term arg = args[i].getTerm();
+         if (arg.isImmutable()) {
+            ArgumentIndex index = indexes[i];
+            if (index == null) {
+               index = getOrCreateIndex(state, i);
+            }
+            Chain chain = index.chains.get(arg);
+            int size = (chain == null ? 0 : chain.size) + index.unindexed.size;
+            if (size < bestSize) {
+               bestIndex = index;
+               bestChain = chain;
+               bestSize = size;
             }
          }
       }
 
-      ClauseActionIterator itr = new ClauseActionIterator(ends[FIRST]);
-      return new InterpretedUserDefinedPredicate(itr, spyPoint, args);
+      if (bestIndex == null) {
+         return new ClauseActionIterator(generation, state.all.first, null, false);
+      } else {
+         return new ClauseActionIterator(generation, bestChain == null ? null : bestChain.first, bestIndex.unindexed.first, true);
+      }
+   }
+
+   /**
+    * Returns the current clauses of this predicate, for use by a copy of this predicate.
+    * <p>
+    * If this predicate is itself a copy that has not been altered, then the clauses it is sharing are returned.
+    */
+   private Snapshot getSnapshot() {
+      synchronized (LOCK) {
+         Snapshot snapshot = forkedFrom;
+         return snapshot == null ? new Snapshot(this, state, generation) : snapshot;
+      }
+   }
+
+   /**
+    * Copies the clauses this predicate is sharing with the predicate it is a copy of, so they can be altered.
+    * <p>
+    * Must be called while holding {@link #LOCK}.
+    */
+   private void unshare() {
+      Snapshot snapshot = forkedFrom;
+      if (snapshot != null) {
+         State state = this.state;
+         ClauseActionIterator itr = snapshot.getCandidates(null);
+         while (itr.hasNext()) {
+            // as facts can be shared, the copied clauses can use the same actions
+            add(state, new ClauseActionMetaData(itr.next(), ++highestOrder, generation), false);
+         }
+         // only stop using the shared clauses once all of them have been copied
+         forkedFrom = null;
+      }
+   }
+
+   /**
+    * Returns the index of the argument at the specified position, creating and populating it if it does not already
+    * exist.
+    */
+   private ArgumentIndex getOrCreateIndex(State state, int position) {
+      synchronized (LOCK) {
+         ArgumentIndex index = state.indexes[position];
+         if (index == null) {
+            index = new ArgumentIndex(position);
+            // include erased clauses, as they may still be visible to calls that use this index
+            for (ClauseNode n = state.all.first; n != null; n = n.next) {
+               index.addLast(n.metaData);
+            }
+            ArgumentIndex[] copy = state.indexes.clone();
+            copy[position] = index;
+            state.indexes = copy;
+         }
+         return index;
+      }
    }
 
    @Override
@@ -91,171 +252,439 @@ public final class DynamicUserDefinedPredicateFactory implements UserDefinedPred
     * The iterator returned will have the following characteristics:
     * <ul>
     * <li>Calls to {@link java.util.Iterator#next()} return a <i>new copy</i> of the {@link ClauseModel} to avoid the
-    * original being altered.</li>
+    * original being altered. (The original is returned if the clause is immutable, as it cannot be altered.)</li>
     * <li>Calls to {@link java.util.Iterator#remove()} <i>do</i> alter the underlying structure of this user defined
-    * predicate.</li>
-    * <li></li>
+    * predicate. If the clause has already been removed then {@code IllegalStateException} is thrown.</li>
+    * <li>Only the clauses that existed when this method was called are returned.</li>
     * </ul>
     */
    @Override
    public Iterator<ClauseModel> getImplications() {
-      return new ImplicationsIterator();
+      return new ImplicationsIterator(null);
    }
 
+   /**
+    * Returns an iterator over the clauses of this user defined predicate whose consequent could unify with
+    * {@code clauseHead}.
+    * <p>
+    * Uses the indexes of this predicate so, rather than considering every clause, only the clauses that could match
+    * are returned. The iterator has the same characteristics as the iterator returned by {@link #getImplications()}.
+    */
    @Override
-   public void addFirst(ClauseModel clauseModel) {
-      synchronized (LOCK) {
-         ClauseActionMetaData newClause = createClauseActionMetaData(clauseModel);
-         addToIndex(clauseModel, newClause);
+   public Iterator<ClauseModel> getImplications(Term clauseHead) {
+      return new ImplicationsIterator(numIndexableArgs == 0 ? null : clauseHead.getArgs());
+   }
 
-         // if first used in a implication antecedent before being used as a consequent,
-         // it will originally been created with first and last both null
-         ClauseActionMetaData first = ends[FIRST];
-         if (first == null) {
-            ends[FIRST] = newClause;
-            ends[LAST] = newClause;
-            return;
+   /**
+    * Returns an iterator over the clauses of this user defined predicate.
+    * <p>
+    * Unlike {@link #getImplications()}, the clauses are <i>not</i> copied, so must not be altered by the caller, and
+    * calls to {@link java.util.Iterator#remove()} cause a {@code UnsupportedOperationException}.
+    */
+   @Override
+   public Iterator<ClauseModel> getImplicationsWithoutCopying() {
+      final ClauseActionIterator candidates = getCandidates(null);
+      return new Iterator<ClauseModel>() {
+         @Override
+         public boolean hasNext() {
+            return candidates.hasNext();
+         }
+
+         @Override
+         public ClauseModel next() {
+            return candidates.next().getModel();
          }
-         newClause.next = first;
-         first.previous = newClause;
-         ends[FIRST] = newClause;
+      };
+   }
+
+   /**
+    * Returns the clauses of this user defined predicate that could unify with {@code args}, for use by
+    * {@link GoalStackMachine}.
+    * <p>
+    * Unlike {@link #getImplications(Term)}, the models of the clauses are <i>not</i> copied, so must not be altered by
+    * the caller.
+    */
+   Iterator<ClauseAction> getClauseActions(Term[] args) {
+      return getCandidates(numIndexableArgs == 0 ? null : args);
+   }
+
+   SpyPoints.SpyPoint getSpyPoint() {
+      return spyPoint;
+   }
+
+   @Override
+   public void addFirst(ClauseModel clauseModel) {
+      ClauseAction clauseAction = ClauseActionFactory.createClauseAction(kb, clauseModel);
+      synchronized (LOCK) {
+         unshare();
+         long born = generation + 1;
+         add(state, new ClauseActionMetaData(clauseAction, --lowestOrder, born), true);
+         generation = born;
       }
+      tables.invalidate(getPredicateKey());
    }
 
    @Override
    public void addLast(ClauseModel clauseModel) {
+      ClauseAction clauseAction = ClauseActionFactory.createClauseAction(kb, clauseModel);
       synchronized (LOCK) {
-         ClauseActionMetaData newClause = createClauseActionMetaData(clauseModel);
-         addToIndex(clauseModel, newClause);
+         unshare();
+         long born = generation + 1;
+         add(state, new ClauseActionMetaData(clauseAction, ++highestOrder, born), false);
+         generation = born;
+      }
+      tables.invalidate(getPredicateKey());
+   }
 
-         // if first used in a implication antecedent before being used as a consequent,
-         // it will originally been created with first and last both null
-         ClauseActionMetaData last = ends[LAST];
-         if (last == null) {
-            ends[FIRST] = newClause;
-            ends[LAST] = newClause;
-            return;
+   /** Must be called while holding {@link #LOCK}. */
+   private static void add(State state, ClauseActionMetaData newClause, boolean first) {
+      if (first) {
+         state.all.addFirst(newClause);
+      } else {
+         state.all.addLast(newClause);
+      }
+      for (ArgumentIndex index : state.indexes) {
+         if (index != null && first) {
+            index.addFirst(newClause);
+         } else if (index != null) {
+            index.addLast(newClause);
          }
-         last.next = newClause;
-         newClause.previous = last;
-         ends[LAST] = newClause;
       }
    }
 
-   private void addToIndex(ClauseModel clauseModel, ClauseActionMetaData metaData) {
-      if (hasPrimaryKey) {
-         Term firstArg = clauseModel.getConsequent().getArgument(0);
-         if (!firstArg.isImmutable() || index.put(firstArg, metaData) != null) {
-            hasPrimaryKey = false;
-            index.clear();
+   /**
+    * Erases the specified clause, so it will not be visible to subsequent calls.
+    *
+    * @param forked {@code true} if the clause was returned while this predicate was sharing the clauses of the predicate
+    * it is a copy of, so belongs to that predicate
+    * @return {@code false} if the clause had already been erased
+    */
+   private boolean erase(ClauseActionMetaData c, boolean forked) {
+      synchronized (LOCK) {
+         unshare();
+         if (forked) {
+            c = findCopy(c);
+         }
+         if (c == null || c.erased != Long.MAX_VALUE) {
+            return false;
+         }
+
+         long erasedAt = generation + 1;
+         c.erased = erasedAt;
+         generation = erasedAt;
+
+         State state = this.state;
+         int erasedCount = ++state.erasedCount;
+         if (erasedCount > MIN_ERASED_BEFORE_COMPACTION && erasedCount > state.all.size / 2) {
+            compact(state);
          }
       }
+      tables.invalidate(getPredicateKey());
+      return true;
+   }
+
+   /**
+    * Returns the clause of this predicate that was copied from the specified clause of the predicate this predicate is
+    * a copy of, or {@code null} if it has since been removed.
+    * <p>
+    * Must be called while holding {@link #LOCK}.
+    */
+   private ClauseActionMetaData findCopy(ClauseActionMetaData original) {
+      for (ClauseNode n = state.all.first; n != null; n = n.next) {
+         // the copy uses the same action as the original
+         if (n.metaData.clause == original.clause) {
+            return n.metaData;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Replaces the specified state with a copy that does not contain clauses that have been erased.
+    * <p>
+    * The replaced state is left intact, so calls already using it are unaffected.
+    */
+   private void compact(State state) {
+      synchronized (LOCK) {
+         if (state != this.state) {
+            // already compacted by another thread
+            return;
+         }
+
+         long retiredAt = generation + 1;
+         State compacted = new State(numIndexableArgs);
+         for (ClauseNode n = state.all.first; n != null; n = n.next) {
+            // as clauses are only erased while holding the lock, every clause that has been erased is no longer visible
+            // at the generation the current state is retired
+            if (n.metaData.erased == Long.MAX_VALUE) {
+               compacted.all.addLast(n.metaData);
+            }
+         }
+         ArgumentIndex[] indexes = state.indexes;
+         for (int i = 0; i < indexes.length; i++) {
+            if (indexes[i] != null) {
+               ArgumentIndex index = new ArgumentIndex(i);
+               for (ClauseNode n = compacted.all.first; n != null; n = n.next) {
+                  index.addLast(n.metaData);
+               }
+               compacted.indexes[i] = index;
+            }
+         }
+         // publish the replacement before the generation it applies from, so calls never wait for the replacement
+         this.state = compacted;
+         state.retiredAt = retiredAt;
+         generation = retiredAt;
+      }
    }
 
    @Override
    public ClauseModel getClauseModel(int index) {
-      ClauseActionMetaData next = ends[FIRST];
+      ClauseActionIterator itr = getCandidates(null);
       for (int i = 0; i < index; i++) {
-         if (next == null) {
+         if (!itr.hasNext()) {
             return null;
          }
-         next = next.next;
+         itr.next();
       }
-      if (next == null) {
+      if (!itr.hasNext()) {
          return null;
       }
-      return next.clause.getModel().copy();
-   }
-
-   private ClauseActionMetaData createClauseActionMetaData(ClauseModel clauseModel) {
-      return new ClauseActionMetaData(kb, clauseModel);
+      return itr.next().getModel().copy();
    }
 
+   /**
+    * Iterates over the clauses of a {@link Chain} that are visible at a particular generation, merged (in clause order)
+    * with the visible clauses of an optional second chain.
+    */
    private static class ClauseActionIterator implements Iterator<ClauseAction> {
-      private ClauseActionMetaData next;
+      private final long generation;
+      /** {@code true} if the clauses were selected using an index. */
+      private final boolean indexed;
+      private ClauseNode first;
+      private ClauseNode second;
 
-      ClauseActionIterator(ClauseActionMetaData first) {
-         next = first;
+      ClauseActionIterator(long generation, ClauseNode first, ClauseNode second, boolean indexed) {
+         this.generation = generation;
+         this.indexed = indexed;
+         this.first = nextVisible(first);
+         this.second = nextVisible(second);
       }
 
       @Override
       public boolean hasNext() {
-         return next != null;
+         return first != null || second != null;
+      }
+
+      /** Returns {@code true} if there is exactly one clause remaining. */
+      boolean isSingle() {
+         if (first == null) {
+            return second != null && nextVisible(second.next) == null;
+         } else {
+            return second == null && nextVisible(first.next) == null;
+         }
       }
 
-      /** need to call getFree on result */
       @Override
       public ClauseAction next() {
-         ClauseAction c = next.clause;
-         next = next.next;
-         return c;
+         return nextMetaData().clause;
+      }
+
+      ClauseActionMetaData nextMetaData() {
+         ClauseNode n;
+         if (second == null || (first != null && first.metaData.order < second.metaData.order)) {
+            n = first;
+            first = nextVisible(n.next);
+         } else {
+            n = second;
+            second = nextVisible(n.next);
+         }
+         return n.metaData;
+      }
+
+      private ClauseNode nextVisible(ClauseNode n) {
+         while (n != null && !n.metaData.isVisible(generation)) {
+            n = n.next;
+         }
+         return n;
       }
    }
 
    private class ImplicationsIterator implements Iterator<ClauseModel> {
+      private final ClauseActionIterator candidates;
+      /** {@code true} if the clauses are shared with the predicate this predicate is a copy of. */
+      private final boolean forked;
       private ClauseActionMetaData previous;
 
+      /** @param args the arguments to match against, or {@code null} if all clauses should be returned */
+      ImplicationsIterator(Term[] args) {
+         tables.addDependency(getPredicateKey());
+         Snapshot snapshot = forkedFrom;
+         this.forked = snapshot != null;
+         this.candidates = forked ? snapshot.getCandidates(args) : getOwnCandidates(args);
+      }
+
       @Override
       public boolean hasNext() {
-         return getNext() != null;
+         return candidates.hasNext();
       }
 
       /**
        * Returns a <i>new copy</i> to avoid the original being altered.
+       * <p>
+       * If the clause is immutable then the original is returned, as there is no risk of it being altered.
        */
       @Override
       public ClauseModel next() {
-         ClauseActionMetaData next = getNext();
-         ClauseModel clauseModel = next.clause.getModel();
-         previous = next;
-         return clauseModel.copy();
+         previous = candidates.nextMetaData();
+         ClauseModel clauseModel = previous.clause.getModel();
+         return clauseModel.getOriginal().isImmutable() ? clauseModel : clauseModel.copy();
       }
 
-      private ClauseActionMetaData getNext() {
-         return previous == null ? ends[FIRST] : previous.next;
+      @Override
+      public void remove() {
+         if (!erase(previous, forked)) {
+            throw new IllegalStateException("Clause has already been removed: " + previous.clause.getModel().getOriginal());
+         }
       }
+   }
 
-      @Override
-      public void remove() { // TODO find way to use index when retracting
-         synchronized (LOCK) {
-            if (hasPrimaryKey) {
-               Term firstArg = previous.clause.getModel().getConsequent().getArgument(0);
-               if (index.remove(firstArg) == null) {
-                  throw new IllegalStateException();
-               }
-            }
-            if (previous.previous != null) {
-               previous.previous.next = previous.next;
-            } else {
-               ClauseActionMetaData newHead = previous.next;
-               if (newHead != null) {
-                  newHead.previous = null;
-               }
-               ends[FIRST] = newHead;
-            }
-            if (previous.next != null) {
-               previous.next.previous = previous.previous;
-            } else {
-               ClauseActionMetaData newTail = previous.previous;
-               if (newTail != null) {
-                  newTail.next = null;
-               }
-               ends[LAST] = newTail;
-            }
-            if (ends[FIRST] == null && ends[LAST] == null) {
-               hasPrimaryKey = index != null;
+   /** The clauses of this predicate, and their indexes, at a point in time. */
+   private static class State {
+      final Chain all = new Chain();
+      volatile ArgumentIndex[] indexes;
+      /** The generation at which this state was replaced by a compacted copy. */
+      volatile long retiredAt = Long.MAX_VALUE;
+      /** Only accessed while holding {@code LOCK}. */
+      int erasedCount;
+
+      State(int numIndexableArgs) {
+         this.indexes = new ArgumentIndex[numIndexableArgs];
+      }
+   }
+
+   /** The clauses of a predicate at a particular generation. */
+   private static class Snapshot {
+      final DynamicUserDefinedPredicateFactory source;
+      final State state;
+      final long generation;
+
+      Snapshot(DynamicUserDefinedPredicateFactory source, State state, long generation) {
+         this.source = source;
+         this.state = state;
+         this.generation = generation;
+      }
+
+      ClauseActionIterator getCandidates(Term[] args) {
+         return source.getCandidates(state, generation, args);
+      }
+
+      boolean isKnowledgeBaseIndependent() {
+         ClauseActionIterator itr = getCandidates(null);
+         while (itr.hasNext()) {
+            if (!ClauseActionFactory.isKnowledgeBaseIndependent(itr.next())) {
+               return false;
             }
          }
+         return true;
       }
    }
 
    private static class ClauseActionMetaData {
       final ClauseAction clause;
-      ClauseActionMetaData previous;
-      ClauseActionMetaData next;
+      final long order;
+      /** The generation at which this clause was added. */
+      final long born;
+      /** The generation at which this clause was erased. Only altered while holding {@code LOCK}. */
+      volatile long erased = Long.MAX_VALUE;
+
+      ClauseActionMetaData(ClauseAction clause, long order, long born) {
+         this.clause = clause;
+         this.order = order;
+         this.born = born;
+      }
+
+      boolean isVisible(long generation) {
+         return born <= generation && erased > generation;
+      }
+
+      Term getArgument(int position) {
+         return clause.getModel().getConsequent().getArgument(position);
+      }
+   }
+
+   /**
+    * Index of the clauses of a dynamic user defined predicate by the value of the argument at a particular position.
+    * <p>
+    * Must only be altered while holding {@code LOCK}.
+    */
+   private static class ArgumentIndex {
+      final int position;
+      final ConcurrentHashMap<Term, Chain> chains = new ConcurrentHashMap<>();
+      /** The clauses whose argument at {@link #position} is not immutable, so could match any key. */
+      final Chain unindexed = new Chain();
+
+      ArgumentIndex(int position) {
+         this.position = position;
+      }
+
+      void addFirst(ClauseActionMetaData c) {
+         getOrCreateChain(c).addFirst(c);
+      }
+
+      void addLast(ClauseActionMetaData c) {
+         getOrCreateChain(c).addLast(c);
+      }
+
+      private Chain getOrCreateChain(ClauseActionMetaData c) {
+         Term arg = c.getArgument(position);
+         if (arg.isImmutable()) {
+            return chains.computeIfAbsent(arg, k -> new Chain());
+         } else {
+            return unindexed;
+         }
+      }
+   }
+
+   /**
+    * A sequence of clauses.
+    * <p>
+    * Clauses are only ever added to the start or end of a chain. Nodes are never altered in a way that would stop a
+    * concurrent iteration from reaching a clause that was already in the chain when the iteration started. Must only be
+    * altered while holding {@code LOCK}.
+    */
+   private static class Chain {
+      volatile ClauseNode first;
+      ClauseNode last;
+      int size;
+
+      void addFirst(ClauseActionMetaData c) {
+         ClauseNode n = new ClauseNode(c, first);
+         if (last == null) {
+            last = n;
+         }
+         first = n;
+         size++;
+      }
+
+      void addLast(ClauseActionMetaData c) {
+         ClauseNode n = new ClauseNode(c, null);
+         if (last == null) {
+            first = n;
+         } else {
+            last.next = n;
+         }
+         last = n;
+         size++;
+      }
+   }
+
+   private static class ClauseNode {
+      final ClauseActionMetaData metaData;
+      volatile ClauseNode next;
 
-      ClauseActionMetaData(KnowledgeBase kb, ClauseModel clauseModel) {
-         this.clause = ClauseActionFactory.createClauseAction(kb, clauseModel);
+      ClauseNode(ClauseActionMetaData metaData, ClauseNode next) {
+         this.metaData = metaData;
+         this.next = next;
       }
    }
 
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.kb.KnowledgeBaseServiceLocator;
+import org.projog.core.predicate.Predicate;
+import org.projog.core.predicate.PredicateFactoryCache;
+import org.projog.core.predicate.PredicateKey;
+import org.projog.core.predicate.Predicates;
+import org.projog.core.term.Term;
+import org.projog.core.term.TermType;
+import org.projog.core.term.Variable;
+
+/**
+ * The clauses of a static user defined predicate, prepared for evaluation by {@link GoalStackMachine}.
+ * <p>
+ * The clauses that could match a call are selected using {@link Indexes} or {@link DeepIndexes}, in the same way as
+ * they are when the predicate is evaluated by its {@link org.projog.core.predicate.PredicateFactory}. The arguments and
+ * goals of the body of each clause are converted to {@link TermTemplate}s, so a clause can be renamed without using a
+ * map of variables. Each goal that is not a control construct has its own {@link PredicateFactoryCache}, so the
+ * {@link org.projog.core.predicate.PredicateFactory} of the goal does not have to be looked up every time it is called.
+ */
+final class GoalStackClauses {
+   private final ClauseAction[] clauses;
+   /** May be {@code null}. */
+   private final Indexes indexes;
+   /** May be {@code null}. Only used if {@link #indexes} is {@code null}. */
+   private final DeepIndexes deepIndexes;
+
+   GoalStackClauses(KnowledgeBase kb, PredicateKey predicateKey, ClauseAction[] actions) {
+      List<ClauseAction> wrapped = new ArrayList<>(actions.length);
+      for (ClauseAction action : actions) {
+         wrapped.add(new GoalStackClause(kb.getPredicates(), action));
+      }
+      Clauses c = Clauses.createFromActions(kb, wrapped, null);
+      this.clauses = c.getClauseActions();
+      if (c.getImmutableColumns().length > 0) {
+         IndexCache cache = KnowledgeBaseServiceLocator.getServiceLocator(kb).getInstance(IndexCache.class);
+         this.indexes = new Indexes(c, cache, cache.isPinned(predicateKey));
+         this.deepIndexes = null;
+      } else {
+         this.indexes = null;
+         this.deepIndexes = DeepIndexes.create(clauses);
+      }
+   }
+
+   /**
+    * Returns the clauses that could match the specified arguments.
+    * <p>
+    * Every element of the returned array is a {@link GoalStackClause}. The array must not be altered by the caller.
+    */
+   ClauseAction[] getCandidates(Term[] args) {
+      if (indexes != null) {
+         return indexes.index(args);
+      } else if (deepIndexes != null) {
+         return deepIndexes.index(args);
+      } else {
+         return clauses;
+      }
+   }
+
+   /**
+    * A clause of a static user defined predicate, represented as {@link TermTemplate}s.
+    * <p>
+    * Implements {@link ClauseAction} so it can be selected using {@link Indexes} and {@link DeepIndexes}. It is
+    * evaluated by {@link GoalStackMachine} using its templates, but can also be evaluated by the {@link Predicate}
+    * returned by the {@link ClauseAction} it wraps.
+    */
+   static final class GoalStackClause implements ClauseAction {
+      private static final TermTemplate[] NO_GOALS = new TermTemplate[0];
+      private static final PredicateFactoryCache[] NO_CALL_SITES = new PredicateFactoryCache[0];
+
+      private final ClauseAction action;
+      private final ClauseModel model;
+      private final TermTemplate[] consequentArgs;
+      /** The goals of the body of the clause, with any conjunctions flattened. Empty if the clause is a fact. */
+      private final TermTemplate[] goals;
+      /** The call site of each element of {@link #goals}, or {@code null} if the goal is a control construct. */
+      private final PredicateFactoryCache[] callSites;
+      private final int numVariables;
+      private final boolean alwaysMatched;
+
+      private GoalStackClause(Predicates predicates, ClauseAction action) {
+         ClauseModel model = action.getModel();
+         Map<Variable, Integer> slots = new HashMap<>();
+         this.action = action;
+         this.model = model;
+         this.consequentArgs = TermTemplate.create(model.getConsequent().getArgs(), slots);
+         if (model.isFact()) {
+            this.goals = NO_GOALS;
+            this.callSites = NO_CALL_SITES;
+         } else {
+            List<Term> body = new ArrayList<>();
+            addGoals(model.getAntecedent(), body);
+            this.goals = TermTemplate.create(body.toArray(new Term[body.size()]), slots);
+            this.callSites = new PredicateFactoryCache[goals.length];
+            for (int i = 0; i < callSites.length; i++) {
+               Term goal = body.get(i);
+               TermType type = goal.getType();
+               if ((type == TermType.ATOM || type == TermType.STRUCTURE) && !GoalStackMachine.isControlConstruct(goal)) {
+                  callSites[i] = new PredicateFactoryCache(predicates);
+               }
+            }
+         }
+         this.numVariables = slots.size();
+         this.alwaysMatched = GoalStackMachine.isAlwaysMatched(model);
+      }
+
+      private static void addGoals(Term t, List<Term> goals) {
+         while (t.getType() == TermType.STRUCTURE && ",".equals(t.getName()) && t.getNumberOfArguments() == 2) {
+            addGoals(t.getArgument(0), goals);
+            t = t.getArgument(1);
+         }
+         goals.add(t);
+      }
+
+      /** Returns {@code true} if the clause is a fact whose arguments are all distinct variables. */
+      boolean isAlwaysMatched() {
+         return alwaysMatched;
+      }
+
+      /**
+       * Unifies the specified arguments with the arguments of a renamed copy of the head of this clause.
+       *
+       * @return a frame containing what each variable of the clause refers to, or {@code null} if unification failed
+       */
+      Term[] unify(Term[] args) {
+         Term[] frame = new Term[numVariables];
+         for (int i = 0; i < args.length; i++) {
+            if (!consequentArgs[i].unify(args[i], frame)) {
+               return null;
+            }
+         }
+         return frame;
+      }
+
+      /** Returns the number of goals in the body of this clause, or {@code 0} if this clause is a fact. */
+      int getNumberOfGoals() {
+         return goals.length;
+      }
+
+      /**
+       * Returns a renamed copy of the goal at the specified position in the body of this clause.
+       *
+       * @param frame the frame returned by {@link #unify(Term[])}
+       */
+      Term getGoal(int idx, Term[] frame) {
+         return goals[idx].copy(frame);
+      }
+
+      /**
+       * Returns the cache to use to find the {@code PredicateFactory} of the goal at the specified position in the body
+       * of this clause, or {@code null} if the goal is a control construct (or a variable) evaluated by
+       * {@link GoalStackMachine}.
+       */
+      PredicateFactoryCache getCallSite(int idx) {
+         return callSites[idx];
+      }
+
+      @Override
+      public Predicate getPredicate(Term[] input) {
+         return action.getPredicate(input);
+      }
+
+      @Override
+      public ClauseModel getModel() {
+         return model;
+      }
+
+      @Override
+      public boolean isRetryable() {
+         return action.isRetryable();
+      }
+
+      @Override
+      public boolean isAlwaysCutOnBacktrack() {
+         return action.isAlwaysCutOnBacktrack();
+      }
+
+      @Override
+      public boolean isLastCall() {
+         return action.isLastCall();
+      }
+   }
+}
@@ -0,0 +1,743 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+import org.projog.core.event.InferenceCounter;
+import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.predicate.Predicate;
+import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.predicate.PredicateFactoryCache;
+import org.projog.core.predicate.Predicates;
+import org.projog.core.predicate.udp.GoalStackClauses.GoalStackClause;
+import org.projog.core.term.ListFactory;
+import org.projog.core.term.Structure;
+import org.projog.core.term.Term;
+import org.projog.core.term.TermType;
+import org.projog.core.term.TermUtils;
+import org.projog.core.term.Trail;
+
+/**
+ * Evaluates a goal using explicit, heap allocated, stacks rather than the Java call stack.
+ * <p>
+ * The goals still to be evaluated are represented as a linked list of frames (the <i>continuation</i>). Calling a
+ * clause of a user defined predicate replaces the call with the clause's body, sharing the frames that follow it. As a
+ * call does not need to be returned to, every last call is optimised - not just calls of predicates that are eligible
+ * for tail recursion optimisation. Alternative clauses, and the alternatives of disjunctions, are recorded on a stack of
+ * choice points. Each choice point records the continuation to resume and a {@link Trail} choice point to undo the
+ * bindings made since it was created.
+ * </p>
+ * <p>
+ * Clauses of user defined predicates and the control constructs (conjunction, disjunction, if-then-else, negation,
+ * cut, {@code call/N}, {@code once/1} and {@code findall/3}) are evaluated by this class. All other goals are evaluated
+ * by the {@link Predicate} returned by their {@link PredicateFactory}, so all existing built-in predicates are
+ * supported. A retryable built-in predicate is recorded as a choice point so it can be reevaluated on backtracking.
+ * User defined predicates that have a spy point enabled are also evaluated by their {@link PredicateFactory}, so that
+ * they are still reported to the registered listeners. The {@link PredicateFactory} of each goal of a clause of a static
+ * user defined predicate is found using a cache specific to that goal - see {@link GoalStackClauses}. Enabling the profiler does not alter how goals are evaluated, so
+ * the calls of user defined predicates that are evaluated by this class are not recorded by the profiler.
+ * </p>
+ * <p>
+ * Goals evaluated by built-in predicates that are not evaluated by this class (e.g. the goal of {@code bagof/3}) are
+ * still evaluated using the Java call stack.
+ * </p>
+ * <p>
+ * Must be evaluated while a {@link Trail} is active - as it is when used by {@link org.projog.api.QueryResult}.
+ * </p>
+ *
+ * @see org.projog.core.kb.ProjogProperties#isGoalStackEngineEnabled()
+ */
+public final class GoalStackMachine implements Predicate {
+   private static final int INITIAL_CAPACITY = 16;
+
+   private final Predicates predicates;
+   private final Trail trail;
+   private Frame continuation;
+   private ChoicePoint[] choicePoints = new ChoicePoint[INITIAL_CAPACITY];
+   private int choicePointCount;
+   private boolean started;
+
+   public GoalStackMachine(KnowledgeBase kb, Term goal) {
+      this(kb.getPredicates(), Trail.getActive(), goal);
+   }
+
+   private GoalStackMachine(Predicates predicates, Trail trail, Term goal) {
+      if (trail == null) {
+         throw new IllegalStateException("No active trail");
+      }
+      this.predicates = predicates;
+      this.trail = trail;
+      this.continuation = new Frame(goal, 0, null);
+   }
+
+   @Override
+   public boolean evaluate() {
+      if (started) {
+         if (!backtrack()) {
+            return false;
+         }
+      } else {
+         started = true;
+      }
+
+      while (continuation != null) {
+         Frame frame = continuation;
+         continuation = frame.next;
+         if (!evaluate(frame) && !backtrack()) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   @Override
+   public boolean couldReevaluationSucceed() {
+      return !started || choicePointCount > 0;
+   }
+
+   /**
+    * Evaluates the goal of the specified frame.
+    *
+    * @return {@code false} if the goal failed, else {@code true} - in which case {@link #continuation} has been updated
+    * to contain any subgoals that still need to be evaluated
+    */
+   private boolean evaluate(Frame frame) {
+      if (frame.type == Frame.CUT) {
+         cut(frame.cutBarrier);
+         return true;
+      } else if (frame.type == Frame.CUT_AND_FAIL) {
+         cut(frame.cutBarrier);
+         return false;
+      } else if (frame.callSite != null) {
+         // a goal of a clause of a static user defined predicate that is known not to be a control construct
+         return call(frame.goal, frame.callSite.getPredicateFactory(frame.goal));
+      }
+
+      Term goal = frame.goal.getBound();
+      // a variable goal is evaluated as if it was the argument of call/1, so a cut in it is local to the goal
+      int cutBarrier = goal == frame.goal ? frame.cutBarrier : choicePointCount;
+      TermType type = goal.getType();
+      if (type == TermType.ATOM) {
+         switch (goal.getName()) {
+            case "true":
+               InferenceCounter.increment();
+               return true;
+            case "fail":
+               InferenceCounter.increment();
+               return false;
+            case "!":
+               InferenceCounter.increment();
+               cut(cutBarrier);
+               return true;
+            default:
+               break;
+         }
+      } else if (type == TermType.STRUCTURE) {
+         int numArgs = goal.getNumberOfArguments();
+         switch (goal.getName()) {
+            case ",":
+               if (numArgs == 2) {
+                  InferenceCounter.increment();
+                  continuation = new Frame(goal.getArgument(0), cutBarrier, new Frame(goal.getArgument(1), cutBarrier, continuation));
+                  return true;
+               }
+               break;
+            case ";":
+               if (numArgs == 2) {
+                  InferenceCounter.increment();
+                  disjunction(goal.getArgument(0), goal.getArgument(1), cutBarrier);
+                  return true;
+               }
+               break;
+            case "->":
+               if (numArgs == 2) {
+                  InferenceCounter.increment();
+                  ifThen(goal.getArgument(0), goal.getArgument(1), cutBarrier);
+                  return true;
+               }
+               break;
+            case "\\+":
+            case "not":
+               if (numArgs == 1) {
+                  InferenceCounter.increment();
+                  not(goal.getArgument(0));
+                  return true;
+               }
+               break;
+            case "once":
+               if (numArgs == 1) {
+                  InferenceCounter.increment();
+                  int barrier = choicePointCount;
+                  continuation = new Frame(goal.getArgument(0), barrier, new Frame(Frame.CUT, barrier, continuation));
+                  return true;
+               }
+               break;
+            case "call":
+               InferenceCounter.increment();
+               continuation = new Frame(createCallTarget(goal), choicePointCount, continuation);
+               return true;
+            case "findall":
+               if (numArgs == 3) {
+                  InferenceCounter.increment();
+                  return findAll(goal.getArgument(0), goal.getArgument(1), goal.getArgument(2));
+               }
+               break;
+            default:
+               break;
+         }
+      }
+
+      // user defined predicates, and built-in predicates, record their own inferences
+      return call(goal, predicates.getPredicateFactory(goal));
+   }
+
+   /**
+    * Returns {@code true} if the specified goal is a control construct evaluated by this class.
+    * <p>
+    * Must be kept consistent with the goals recognised by {@link #evaluate(Frame)}.
+    */
+   static boolean isControlConstruct(Term goal) {
+      int numArgs = goal.getNumberOfArguments();
+      switch (goal.getName()) {
+         case "true":
+         case "fail":
+         case "!":
+            return numArgs == 0;
+         case ",":
+         case ";":
+         case "->":
+            return numArgs == 2;
+         case "\\+":
+         case "not":
+         case "once":
+            return numArgs == 1;
+         case "call":
+            return numArgs > 0;
+         case "findall":
+            return numArgs == 3;
+         default:
+            return false;
+      }
+   }
+
+   private void disjunction(Term first, Term second, int cutBarrier) {
+      Term condition = first.getBound();
+      if (condition.getType() == TermType.STRUCTURE && "->".equals(condition.getName()) && condition.getNumberOfArguments() == 2) {
+         // if-then-else - the else branch is recorded as a choice point that is removed if the condition succeeds
+         int barrier = choicePointCount;
+         pushChoicePoint(new AlternativeChoicePoint(trail.mark(), new Frame(second, cutBarrier, continuation)));
+         Frame then = new Frame(condition.getArgument(1), cutBarrier, continuation);
+         continuation = new Frame(condition.getArgument(0), barrier + 1, new Frame(Frame.CUT, barrier, then));
+      } else {
+         pushChoicePoint(new AlternativeChoicePoint(trail.mark(), new Frame(second, cutBarrier, continuation)));
+         continuation = new Frame(first, cutBarrier, continuation);
+      }
+   }
+
+   private void ifThen(Term condition, Term then, int cutBarrier) {
+      int barrier = choicePointCount;
+      continuation = new Frame(condition, barrier, new Frame(Frame.CUT, barrier, new Frame(then, cutBarrier, continuation)));
+   }
+
+   /**
+    * Evaluates {@code \+ goal}.
+    * <p>
+    * If the goal succeeds then the choice point, that would otherwise resume the current continuation, is cut and
+    * evaluation fails. If the goal fails then evaluation backtracks to the choice point.
+    */
+   private void not(Term goal) {
+      int barrier = choicePointCount;
+      pushChoicePoint(new AlternativeChoicePoint(trail.mark(), continuation));
+      continuation = new Frame(goal, barrier + 1, new Frame(Frame.CUT_AND_FAIL, barrier, null));
+   }
+
+   private static Term createCallTarget(Term call) {
+      Term goal = call.getArgument(0).getBound();
+      int numArgs = call.getNumberOfArguments();
+      if (numArgs == 1) {
+         return goal;
+      } else {
+         Term[] goalArgs = goal.getArgs();
+         Term[] callArgs = Arrays.copyOf(goalArgs, goalArgs.length + numArgs - 1);
+         for (int i = 1; i < numArgs; i++) {
+            callArgs[goalArgs.length + i - 1] = call.getArgument(i);
+         }
+         return Structure.createStructure(goal.getName(), callArgs);
+      }
+   }
+
+   private boolean findAll(Term template, Term goal, Term output) {
+      long choicePoint = trail.mark();
+      GoalStackMachine machine = new GoalStackMachine(predicates, trail, goal);
+      List<Term> solutions = new ArrayList<>();
+      while (machine.couldReevaluationSucceed() && machine.evaluate()) {
+         solutions.add(template.copy(new HashMap<>()));
+      }
+      trail.undo(choicePoint);
+      trail.release(choicePoint);
+      return output.unify(ListFactory.createList(solutions));
+   }
+
+   private boolean call(Term goal, PredicateFactory pf) {
+      if (pf instanceof StaticUserDefinedPredicateFactory) {
+         StaticUserDefinedPredicateFactory udp = (StaticUserDefinedPredicateFactory) pf;
+         if (!udp.getSpyPoint().isListenersEnabled()) {
+            Term[] args = getBoundArgs(goal);
+            return call(args, new ArrayCandidates(args, udp.getGoalStackClauses().getCandidates(args)));
+         }
+      } else if (pf instanceof DynamicUserDefinedPredicateFactory) {
+         DynamicUserDefinedPredicateFactory udp = (DynamicUserDefinedPredicateFactory) pf;
+         if (!udp.getSpyPoint().isListenersEnabled()) {
+            Term[] args = getBoundArgs(goal);
+            return call(args, new IteratorCandidates(args, udp.getClauseActions(args)));
+         }
+      }
+
+      // as with QueryResult, use the current state of the arguments - as some predicates backtrack their arguments
+      Term[] args = getTermArgs(goal);
+      if (pf.isRetryable()) {
+         // as with Conjunction, no trail choice point is created before the predicate is evaluated - the predicate undoes
+         // its own bindings when it is reevaluated, and any bindings that remain are undone by earlier choice points
+         Predicate p = pf.getPredicate(args);
+         if (p.evaluate()) {
+            if (p.couldReevaluationSucceed()) {
+               pushChoicePoint(new PredicateChoicePoint(trail.mark(), p, continuation));
+            }
+            return true;
+         } else {
+            return false;
+         }
+      } else {
+         return pf.getPredicate(args).evaluate();
+      }
+   }
+
+   private static Term[] getTermArgs(Term goal) {
+      int numArgs = goal.getNumberOfArguments();
+      Term[] args = new Term[numArgs];
+      for (int i = 0; i < numArgs; i++) {
+         args[i] = goal.getArgument(i).getTerm();
+      }
+      return args;
+   }
+
+   private static Term[] getBoundArgs(Term goal) {
+      int numArgs = goal.getNumberOfArguments();
+      Term[] args = new Term[numArgs];
+      for (int i = 0; i < numArgs; i++) {
+         args[i] = goal.getArgument(i).getBound();
+      }
+      return args;
+   }
+
+   /** Calls a user defined predicate. */
+   private boolean call(Term[] args, Candidates candidates) {
+      InferenceCounter.increment();
+      if (!candidates.hasNext()) {
+         return false;
+      }
+
+      // the clause being called is cut back to the height of the choice point stack before it was called
+      int cutBarrier = choicePointCount;
+      Frame next = continuation;
+      ClauseAction clause = candidates.next();
+      if (candidates.hasNext()) {
+         pushChoicePoint(new ClauseChoicePoint(trail.mark(), args, candidates, cutBarrier, next));
+      }
+      return resolve(args, clause, cutBarrier, next);
+   }
+
+   /**
+    * Unifies {@code args} with the head of a renamed copy of {@code clause} and, if successful, continues with the body
+    * of the clause.
+    */
+   private boolean resolve(Term[] args, ClauseAction clause, int cutBarrier, Frame next) {
+      if (clause instanceof GoalStackClause) {
+         return resolve(args, (GoalStackClause) clause, cutBarrier, next);
+      } else {
+         return resolve(args, clause.getModel(), cutBarrier, next);
+      }
+   }
+
+   /** Renames the clause of a static user defined predicate using its precomputed templates. */
+   private boolean resolve(Term[] args, GoalStackClause clause, int cutBarrier, Frame next) {
+      if (clause.isAlwaysMatched()) {
+         continuation = next;
+         return true;
+      }
+
+      // no need to backtrack on failure, as any bindings that need to be undone have been recorded by the trail
+      Term[] frame = clause.unify(args);
+      if (frame == null) {
+         return false;
+      }
+
+      int numGoals = clause.getNumberOfGoals();
+      Term[] goals = new Term[numGoals];
+      for (int i = 0; i < numGoals; i++) {
+         // copied in the order they appear in the clause, so variables are created in the order they are encountered
+         goals[i] = clause.getGoal(i, frame);
+      }
+      for (int i = numGoals - 1; i > -1; i--) {
+         next = new Frame(goals[i], clause.getCallSite(i), cutBarrier, next);
+      }
+      continuation = next;
+      return true;
+   }
+
+   /** Renames the clause of a dynamic user defined predicate, which may have been added since it was last called. */
+   private boolean resolve(Term[] args, ClauseModel clause, int cutBarrier, Frame next) {
+      Term head;
+      Term body;
+      if (isAlwaysMatched(clause)) {
+         continuation = next;
+         return true;
+      } else if (clause.isFact()) {
+         head = clause.getConsequent().copy(new HashMap<>());
+         body = null;
+      } else {
+         Term[] copy = TermUtils.copy(clause.getConsequent(), clause.getAntecedent());
+         head = copy[0];
+         body = copy[1];
+      }
+
+      // no need to backtrack on failure, as any bindings that need to be undone have been recorded by the trail
+      for (int i = 0; i < args.length; i++) {
+         if (!args[i].unify(head.getArgument(i))) {
+            return false;
+         }
+      }
+
+      continuation = body == null ? next : new Frame(body, cutBarrier, next);
+      return true;
+   }
+
+   /** Returns {@code true} if the clause is a fact whose arguments are all distinct variables. */
+   static boolean isAlwaysMatched(ClauseModel clause) {
+      if (!clause.isFact()) {
+         return false;
+      }
+      Term consequent = clause.getConsequent();
+      int numArgs = consequent.getNumberOfArguments();
+      for (int i = 0; i < numArgs; i++) {
+         Term arg = consequent.getArgument(i);
+         if (arg.getType() != TermType.VARIABLE) {
+            return false;
+         }
+         for (int j = 0; j < i; j++) {
+            if (arg == consequent.getArgument(j)) {
+               return false;
+            }
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Removes all choice points above the specified height of the choice point stack.
+    */
+   private void cut(int height) {
+      if (choicePointCount > height) {
+         trail.release(choicePoints[height].trailChoicePoint);
+         Arrays.fill(choicePoints, height, choicePointCount, null);
+         choicePointCount = height;
+      }
+   }
+
+   /**
+    * Resumes evaluation from the most recent choice point.
+    *
+    * @return {@code true} if evaluation has been resumed, {@code false} if there are no choice points left
+    */
+   private boolean backtrack() {
+      while (choicePointCount > 0) {
+         // count each retry, so the limits of the query are checked even if no goals are evaluated between retries
+         InferenceCounter.increment();
+         if (choicePoints[choicePointCount - 1].retry()) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private void pushChoicePoint(ChoicePoint choicePoint) {
+      if (choicePointCount == choicePoints.length) {
+         choicePoints = Arrays.copyOf(choicePoints, choicePointCount * 2);
+      }
+      choicePoints[choicePointCount++] = choicePoint;
+   }
+
+   /** Removes the most recent choice point, undoing any bindings made since it was created. */
+   private void popChoicePoint() {
+      ChoicePoint choicePoint = choicePoints[--choicePointCount];
+      choicePoints[choicePointCount] = null;
+      trail.undo(choicePoint.trailChoicePoint);
+      trail.release(choicePoint.trailChoicePoint);
+   }
+
+   /**
+    * Returns {@code true} if it is possible that {@code args} could unify with the arguments of {@code head}.
+    * <p>
+    * Used to avoid renaming clauses, and creating choice points, for clauses that cannot match.
+    */
+   static boolean couldUnify(Term[] args, Term head) {
+      for (int i = 0; i < args.length; i++) {
+         if (!couldUnify(args[i], head.getArgument(i))) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static boolean couldUnify(Term a, Term h) {
+      a = a.getBound();
+      TermType aType = a.getType();
+      TermType hType = h.getType();
+      if (aType.isVariable() || hType.isVariable() || aType == TermType.CLP_VARIABLE || hType == TermType.CLP_VARIABLE) {
+         return true;
+      } else if (aType != hType) {
+         return false;
+      } else if (a.isImmutable() && h.isImmutable()) {
+         return a.equals(h);
+      } else if (aType.isStructure()) {
+         int numArgs = h.getNumberOfArguments();
+         if (a.getNumberOfArguments() != numArgs || !a.getName().equals(h.getName())) {
+            return false;
+         }
+         for (int i = 0; i < numArgs; i++) {
+            if (!couldUnify(a.getArgument(i), h.getArgument(i))) {
+               return false;
+            }
+         }
+      }
+      return true;
+   }
+
+   /** A goal still to be evaluated. */
+   private static final class Frame {
+      static final int GOAL = 0;
+      /** Removes all choice points above {@link #cutBarrier}. */
+      static final int CUT = 1;
+      /** Removes all choice points above {@link #cutBarrier} and then fails. */
+      static final int CUT_AND_FAIL = 2;
+
+      final int type;
+      final Term goal;
+      /** The height of the choice point stack that a cut in {@link #goal} removes choice points above. */
+      /**
+       * The call site to use to find the {@code PredicateFactory} of {@link #goal}, or {@code null} if it is not known
+       * until the goal is evaluated.
+       */
+      final PredicateFactoryCache callSite;
+      final int cutBarrier;
+      final Frame next;
+
+      Frame(Term goal, int cutBarrier, Frame next) {
+         this(GOAL, goal, null, cutBarrier, next);
+      }
+
+      Frame(Term goal, PredicateFactoryCache callSite, int cutBarrier, Frame next) {
+         this(GOAL, goal, callSite, cutBarrier, next);
+      }
+
+      Frame(int type, int cutBarrier, Frame next) {
+         this(type, null, null, cutBarrier, next);
+      }
+
+      private Frame(int type, Term goal, PredicateFactoryCache callSite, int cutBarrier, Frame next) {
+         this.type = type;
+         this.goal = goal;
+         this.callSite = callSite;
+         this.cutBarrier = cutBarrier;
+         this.next = next;
+      }
+   }
+
+   private abstract static class ChoicePoint {
+      /** Identifies the point in the trail to undo bindings back to. */
+      long trailChoicePoint;
+
+      ChoicePoint(long trailChoicePoint) {
+         this.trailChoicePoint = trailChoicePoint;
+      }
+
+      /**
+       * Attempts to resume evaluation from this choice point.
+       * <p>
+       * If this choice point has no more alternatives then it is removed from the choice point stack.
+       *
+       * @return {@code true} if evaluation can continue from the updated {@link #continuation}
+       */
+      abstract boolean retry();
+   }
+
+   /** The remaining clauses of a call to a user defined predicate. */
+   private final class ClauseChoicePoint extends ChoicePoint {
+      private final Term[] args;
+      private final Candidates candidates;
+      private final int cutBarrier;
+      private final Frame next;
+
+      ClauseChoicePoint(long trailChoicePoint, Term[] args, Candidates candidates, int cutBarrier, Frame next) {
+         super(trailChoicePoint);
+         this.args = args;
+         this.candidates = candidates;
+         this.cutBarrier = cutBarrier;
+         this.next = next;
+      }
+
+      @Override
+      boolean retry() {
+         trail.undo(trailChoicePoint);
+         ClauseAction clause = candidates.next();
+         if (!candidates.hasNext()) {
+            popChoicePoint();
+         }
+         return resolve(args, clause, cutBarrier, next);
+      }
+   }
+
+   /** An alternative continuation - e.g. the second argument of a disjunction. */
+   private final class AlternativeChoicePoint extends ChoicePoint {
+      private final Frame alternative;
+
+      AlternativeChoicePoint(long trailChoicePoint, Frame alternative) {
+         super(trailChoicePoint);
+         this.alternative = alternative;
+      }
+
+      @Override
+      boolean retry() {
+         popChoicePoint();
+         continuation = alternative;
+         return true;
+      }
+   }
+
+   /**
+    * A built-in predicate that could be reevaluated.
+    * <p>
+    * The trail choice point identifies the point in the trail when the predicate last succeeded. It is replaced each
+    * time the predicate is reevaluated, so the trail does not grow however many times the predicate is retried.
+    */
+   private final class PredicateChoicePoint extends ChoicePoint {
+      private final Predicate predicate;
+      private final Frame next;
+
+      PredicateChoicePoint(long trailChoicePoint, Predicate predicate, Frame next) {
+         super(trailChoicePoint);
+         this.predicate = predicate;
+         this.next = next;
+      }
+
+      @Override
+      boolean retry() {
+         // undo the bindings made by subsequent goals - the predicate undoes its own bindings when it is reevaluated
+         trail.undo(trailChoicePoint);
+         trail.release(trailChoicePoint);
+         if (predicate.evaluate()) {
+            if (predicate.couldReevaluationSucceed()) {
+               trailChoicePoint = trail.mark();
+            } else {
+               choicePoints[--choicePointCount] = null;
+            }
+            continuation = next;
+            return true;
+         } else {
+            choicePoints[--choicePointCount] = null;
+            return false;
+         }
+      }
+   }
+
+   /** The clauses of a user defined predicate that could match a particular call. */
+   private abstract static class Candidates {
+      final Term[] args;
+      private ClauseAction next;
+
+      Candidates(Term[] args) {
+         this.args = args;
+      }
+
+      boolean hasNext() {
+         return next != null;
+      }
+
+      ClauseAction next() {
+         ClauseAction result = next;
+         next = find();
+         return result;
+      }
+
+      /** Called by the constructors of subclasses, once they have been initialised, to find the first candidate. */
+      final void init() {
+         next = find();
+      }
+
+      /** Returns the next clause whose consequent could unify with {@link #args}, or {@code null} if there are none. */
+      abstract ClauseAction find();
+   }
+
+   /** Candidates selected, using the indexes of a static user defined predicate, from an array of clauses. */
+   private static final class ArrayCandidates extends Candidates {
+      private final ClauseAction[] clauses;
+      private int idx;
+
+      ArrayCandidates(Term[] args, ClauseAction[] clauses) {
+         super(args);
+         this.clauses = clauses;
+         init();
+      }
+
+      @Override
+      ClauseAction find() {
+         while (idx < clauses.length) {
+            ClauseAction clause = clauses[idx++];
+            if (couldUnify(args, clause.getModel().getConsequent())) {
+               return clause;
+            }
+         }
+         return null;
+      }
+   }
+
+   /** Candidates selected, using the indexes of a dynamic user defined predicate, from an iterator of clauses. */
+   private static final class IteratorCandidates extends Candidates {
+      private final Iterator<ClauseAction> clauses;
+
+      IteratorCandidates(Term[] args, Iterator<ClauseAction> clauses) {
+         super(args);
+         this.clauses = clauses;
+         init();
+      }
+
+      @Override
+      ClauseAction find() {
+         while (clauses.hasNext()) {
+            ClauseAction clause = clauses.next();
+            if (couldUnify(args, clause.getModel().getConsequent())) {
+               return clause;
+            }
+         }
+         return null;
+      }
+   }
+}
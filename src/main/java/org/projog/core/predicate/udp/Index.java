@@ -15,9 +15,10 @@
  */
 package org.projog.core.predicate.udp;
 
+import java.util.IdentityHashMap;
 import java.util.Map;
 
-import org.projog.core.predicate.udp.KeyFactories.KeyFactory;
+import org.projog.core.predicate.udp.KeyFactories.KeyN;
 import org.projog.core.term.Term;
 
 final class Index {
@@ -25,20 +26,122 @@ final class Index {
 
    private final int[] positions;
    private final Map<Object, ClauseAction[]> result;
-   private final KeyFactory keyFactory;
+   /** Hash table of composite keys - only used when the index is of more than one argument. */
+   private final KeyN[] keys;
+   private final ClauseAction[][] values;
+   /**
+    * Indexes of the clauses that share a key, using the arguments that are not immutable in every clause. Keyed by the
+    * identity of the array of clauses that share a key. {@code null} if the clauses are not deep indexed.
+    */
+   private final Map<ClauseAction[], DeepIndexes> deepIndexes;
+   /** Set when the index is used, and cleared by {@link IndexCache} when deciding which indexes to discard. */
+   private volatile boolean referenced = true;
 
    Index(int[] positions, Map<Object, ClauseAction[]> result) {
-      this.keyFactory = KeyFactories.getKeyFactory(positions.length);
+      this(positions, result, false);
+   }
+
+   /**
+    * @param deep {@code true} if clauses that share a key should be further indexed using {@link DeepIndexes}
+    */
+   Index(int[] positions, Map<Object, ClauseAction[]> result, boolean deep) {
       this.positions = positions;
       this.result = result;
+      this.deepIndexes = deep ? createDeepIndexes(result) : null;
+      if (positions.length == 1) {
+         this.keys = null;
+         this.values = null;
+      } else {
+         // use open addressing, with a load factor of no more than 0.5, so a lookup does not need to create a key
+         int capacity = Integer.highestOneBit(Math.max(1, result.size()) * 2) * 2;
+         this.keys = new KeyN[capacity];
+         this.values = new ClauseAction[capacity][];
+         for (Map.Entry<Object, ClauseAction[]> e : result.entrySet()) {
+            KeyN key = (KeyN) e.getKey();
+            int i = key.hashCode & (capacity - 1);
+            while (keys[i] != null) {
+               i = (i + 1) & (capacity - 1);
+            }
+            keys[i] = key;
+            values[i] = e.getValue();
+         }
+      }
+   }
+
+   private static Map<ClauseAction[], DeepIndexes> createDeepIndexes(Map<Object, ClauseAction[]> result) {
+      Map<ClauseAction[], DeepIndexes> deepIndexes = new IdentityHashMap<>();
+      for (ClauseAction[] clauses : result.values()) {
+         DeepIndexes d = DeepIndexes.create(clauses);
+         if (d != null) {
+            deepIndexes.put(clauses, d);
+         }
+      }
+      return deepIndexes.isEmpty() ? null : deepIndexes;
    }
 
    ClauseAction[] getMatches(Term[] args) {
-      Object key = keyFactory.createKey(positions, args);
-      return result.getOrDefault(key, NO_MATCHES);
+      if (!referenced) {
+         referenced = true;
+      }
+
+      ClauseAction[] matches = getKeyMatches(args);
+      if (deepIndexes != null && matches.length > 1) {
+         DeepIndexes d = deepIndexes.get(matches);
+         if (d != null) {
+            return d.index(args);
+         }
+      }
+      return matches;
+   }
+
+   private ClauseAction[] getKeyMatches(Term[] args) {
+      if (keys == null) {
+         return result.getOrDefault(args[positions[0]], NO_MATCHES);
+      }
+
+      int hashCode = KeyFactories.hashCode(positions, args);
+      int mask = keys.length - 1;
+      for (int i = hashCode & mask; keys[i] != null; i = (i + 1) & mask) {
+         KeyN key = keys[i];
+         if (key.hashCode == hashCode && key.matches(positions, args)) {
+            return values[i];
+         }
+      }
+      return NO_MATCHES;
    }
 
    int getKeyCount() {
       return result.size();
    }
+
+   /**
+    * Returns {@code true} if this index has been used since this method was last called.
+    */
+   boolean clearReferenced() {
+      boolean result = referenced;
+      referenced = false;
+      return result;
+   }
+
+   /**
+    * Returns an estimate of the number of bytes used by this index.
+    * <p>
+    * Only the memory used by the index itself is included - not the clauses it refers to.
+    */
+   long estimateSize() {
+      // object headers, references and the entries of the map
+      long size = 64 + 48L * result.size();
+      for (ClauseAction[] a : result.values()) {
+         size += 16 + 4L * a.length;
+      }
+      if (keys != null) {
+         size += 2 * (16 + 4L * keys.length);
+         size += result.size() * (40 + 4L * positions.length);
+      }
+      if (deepIndexes != null) {
+         // only the deep indexes themselves - their nested indexes are created when first required
+         size += 64 + 80L * deepIndexes.size();
+      }
+      return size;
+   }
 }
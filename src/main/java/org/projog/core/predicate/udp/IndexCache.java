@@ -0,0 +1,176 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.predicate.PredicateKey;
+
+/**
+ * Manages the memory used by the indexes of user defined predicates.
+ * <p>
+ * The indexes of a user defined predicate are created on demand, the first time a query specifies a particular
+ * combination of immutable arguments. Each new index is registered with the {@code IndexCache} of the knowledge base.
+ * When the estimated size of all the registered indexes exceeds
+ * {@link org.projog.core.kb.ProjogProperties#getIndexCacheMemoryLimit()} then indexes are discarded until the limit is
+ * no longer exceeded. Indexes that have been recently used are given a second chance before being discarded (i.e. the
+ * "clock" approximation of least recently used). A discarded index will be recreated if it is required again.
+ * <p>
+ * The indexes of a predicate can be pinned using {@link #pin(PredicateKey)}. The indexes of a pinned predicate are
+ * never discarded, and an index for each of its indexable arguments is created as soon as the predicate is first used
+ * rather than when a query first requires it.
+ * <p>
+ * One instance is associated with each {@link KnowledgeBase}, retrieved using
+ * {@link org.projog.core.kb.KnowledgeBaseServiceLocator}.
+ * </p>
+ */
+public final class IndexCache {
+   private final long memoryLimit;
+   private final Set<PredicateKey> pinned = Collections.newSetFromMap(new ConcurrentHashMap<>());
+   private final ArrayDeque<Entry> clock = new ArrayDeque<>();
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+   private long builds;
+   private long buildTime;
+   private long evictions;
+   private long memory;
+   private int count;
+
+   public IndexCache(KnowledgeBase kb) {
+      this(kb.getProjogProperties().getIndexCacheMemoryLimit());
+   }
+
+   IndexCache(long memoryLimit) {
+      this.memoryLimit = memoryLimit;
+   }
+
+   /**
+    * Prevents the indexes of the specified predicate from being discarded.
+    * <p>
+    * Should be called before the predicate is first used - e.g. as a directive in the file that defines the predicate.
+    */
+   public void pin(PredicateKey key) {
+      pinned.add(key);
+   }
+
+   /** Returns {@code true} if {@link #pin(PredicateKey)} has been called for the specified predicate. */
+   public boolean isPinned(PredicateKey key) {
+      return pinned.contains(key);
+   }
+
+   /** Returns the maximum number of bytes to use for indexes. */
+   public long getMemoryLimit() {
+      return memoryLimit;
+   }
+
+   /** Returns the estimated number of bytes currently used by indexes. */
+   public synchronized long getMemoryUsage() {
+      return memory;
+   }
+
+   /** Returns the number of indexes currently registered, including those of pinned predicates. */
+   public synchronized int getIndexCount() {
+      return count;
+   }
+
+   /** Returns the number of indexes that have been created. */
+   public synchronized long getBuildCount() {
+      return builds;
+   }
+
+   /** Returns the total time, in nanoseconds, spent creating indexes. */
+   public synchronized long getBuildTime() {
+      return buildTime;
+   }
+
+   /** Returns the number of indexes that have been discarded to keep within the memory limit. */
+   public synchronized long getEvictionCount() {
+      return evictions;
+   }
+
+   /** Returns the number of times an index was required and already existed. */
+   public long getHitCount() {
+      return hits.sum();
+   }
+
+   /** Returns the number of times an index was required and had to be created. */
+   public long getMissCount() {
+      return misses.sum();
+   }
+
+   /** Returns the proportion of times an index was required and already existed, or {@code 0} if none were required. */
+   public double getHitRate() {
+      long h = getHitCount();
+      long total = h + getMissCount();
+      return total == 0 ? 0 : (double) h / total;
+   }
+
+   void recordHit() {
+      hits.increment();
+   }
+
+   /**
+    * Registers a newly created index, discarding other indexes if the memory limit is exceeded.
+    *
+    * @param owner the object the index was created for - used to discard the index
+    * @param bitmask identifies the index within {@code owner}
+    * @param index the new index
+    * @param pinned {@code true} if the index should never be discarded
+    * @param duration the time, in nanoseconds, it took to create the index
+    */
+   synchronized void register(Indexes owner, int bitmask, Index index, boolean pinned, long duration) {
+      misses.increment();
+      builds++;
+      buildTime += duration;
+      count++;
+      long size = index.estimateSize();
+      memory += size;
+      if (!pinned) {
+         clock.addLast(new Entry(owner, bitmask, index, size));
+      }
+
+      while (memory > memoryLimit && !clock.isEmpty()) {
+         Entry e = clock.pollFirst();
+         if (e.index.clearReferenced()) {
+            clock.addLast(e);
+         } else {
+            e.owner.discard(e.bitmask, e.index);
+            evictions++;
+            count--;
+            memory -= e.size;
+         }
+      }
+   }
+
+   private static final class Entry {
+      final Indexes owner;
+      final int bitmask;
+      final Index index;
+      final long size;
+
+      Entry(Indexes owner, int bitmask, Index index, long size) {
+         this.owner = owner;
+         this.bitmask = bitmask;
+         this.index = index;
+         this.size = size;
+      }
+   }
+}
@@ -15,11 +15,12 @@
  */
 package org.projog.core.predicate.udp;
 
-import java.lang.ref.SoftReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.projog.core.predicate.udp.KeyFactories.KeyFactory;
 import org.projog.core.term.Term;
@@ -33,36 +34,74 @@ final class Indexes {
    /**
     * Maximum number of arguments of a clause that will be considered indexable.
     * <p>
-    * Note that this is not the same as the maximum number of arguments that can be included in a single index.
+    * Limited by the number of bits available to the bitmask used to identify the arguments of an index.
     */
-   private static final int MAX_INDEXABLE_ARGS = 9;
+   static final int MAX_INDEXABLE_ARGS = Integer.SIZE - 1;
 
    private final ClauseAction[] masterData;
    private final Object lock = new Object();
-   private final SoftReference<Index>[] indexes;
+   private final Map<Integer, Index> indexes = new ConcurrentHashMap<>();
+   /** Manages the memory used by {@link #indexes}. May be {@code null}, in which case indexes are never discarded. */
+   private final IndexCache cache;
+   private final boolean pinned;
    private final int[] indexableArgs;
-   private final int numIndexableArgs;
+   private final int[] cardinalities;
+   /** Positions in {@link #indexableArgs}, ordered so the arguments with the most distinct values are first. */
+   private final int[] selectivityOrder;
+   /**
+    * Used when none of the arguments that can be used by this object are immutable. May be {@code null}, in which case
+    * the clauses that share the values of immutable arguments are also not deep indexed.
+    */
+   private final DeepIndexes deepIndexes;
 
-   @SuppressWarnings("unchecked")
    Indexes(Clauses clauses) {
-      this.indexableArgs = clauses.getImmutableColumns();
-      this.masterData = clauses.getClauseActions();
-      this.numIndexableArgs = Math.min(indexableArgs.length, MAX_INDEXABLE_ARGS);
+      this(clauses, null, false);
+   }
+
+   /**
+    * @param clauses the clauses to index
+    * @param cache manages the memory used by the indexes, or {@code null} if the indexes should never be discarded
+    * @param pinned {@code true} if the indexes should never be discarded, and an index of each indexable argument
+    * should be created immediately
+    */
+   Indexes(Clauses clauses, IndexCache cache, boolean pinned) {
+      int numIndexableArgs = Math.min(clauses.getImmutableColumns().length, MAX_INDEXABLE_ARGS);
       if (numIndexableArgs == 0) {
          throw new IllegalArgumentException();
       }
-      int size = 0;
-      for (int i = 0, b = 1; i < numIndexableArgs; i++, b *= 2) {
-         size += b;
+      this.indexableArgs = Arrays.copyOf(clauses.getImmutableColumns(), numIndexableArgs);
+      this.cardinalities = Arrays.copyOf(clauses.getColumnCardinalities(), numIndexableArgs);
+      this.masterData = clauses.getClauseActions();
+      this.selectivityOrder = createSelectivityOrder(cardinalities);
+      this.deepIndexes = DeepIndexes.create(masterData);
+      this.cache = cache;
+      this.pinned = pinned;
+      if (pinned) {
+         for (int i = 0; i < numIndexableArgs; i++) {
+            getOrCreateIndex(1 << i);
+         }
       }
-      indexes = new SoftReference[size + 1];
+   }
+
+   private static int[] createSelectivityOrder(int[] cardinalities) {
+      Integer[] order = new Integer[cardinalities.length];
+      for (int i = 0; i < order.length; i++) {
+         order[i] = i;
+      }
+      // stable sort, so arguments with the same number of distinct values remain in positional order
+      Arrays.sort(order, (a, b) -> Integer.compare(cardinalities[b], cardinalities[a]));
+      int[] result = new int[order.length];
+      for (int i = 0; i < order.length; i++) {
+         result[i] = order[i];
+      }
+      return result;
    }
 
    ClauseAction[] index(Term[] args) { // TODO rename
       int bitmask = createBitmask(args);
 
       if (bitmask == 0) {
-         return masterData;
+         return deepIndexes == null ? masterData : deepIndexes.index(args);
       } else {
          return getOrCreateIndex(bitmask).getMatches(args);
       }
@@ -72,46 +111,70 @@ final class Indexes {
       return masterData.length;
    }
 
+   /**
+    * Returns a bitmask identifying the immutable arguments to use in an index.
+    * <p>
+    * Arguments are selected in order of how many distinct values they have. Selection stops once the expected number of
+    * matching clauses, assuming the values of arguments are independent of each other, is no more than one. An argument
+    * that has the same value in every clause is only selected if no other argument can be.
+    */
    private int createBitmask(Term[] args) {
       int bitmask = 0;
-      for (int i = 0, b = 1, bitCount = 0; i < numIndexableArgs; i++, b *= 2) {
+      int unselective = 0;
+      double expectedMatches = masterData.length;
+      for (int i : selectivityOrder) {
          if (args[indexableArgs[i]].isImmutable()) {
-            bitmask += b;
-            if (++bitCount == KeyFactories.MAX_ARGUMENTS_PER_INDEX) {
-               return bitmask;
+            if (cardinalities[i] == 1) {
+               if (unselective == 0) {
+                  unselective = 1 << i;
+               }
+            } else {
+               bitmask |= 1 << i;
+               expectedMatches /= cardinalities[i];
+               if (expectedMatches <= 1) {
+                  return bitmask;
+               }
             }
          }
       }
-      return bitmask;
+      return bitmask == 0 ? unselective : bitmask;
    }
 
    public Index getOrCreateIndex(int bitmask) {
-      SoftReference<Index> ref = indexes[bitmask];
-      Index index = ref != null ? ref.get() : null;
+      Integer key = bitmask;
+      Index index = indexes.get(key);
 
       if (index == null) {
          synchronized (lock) {
-            while (index == null) {
-               ref = indexes[bitmask];
-               index = ref != null ? ref.get() : null;
-
-               if (index == null) {
-                  index = createIndex(bitmask);
-                  indexes[bitmask] = new SoftReference<>(index);
+            index = indexes.get(key);
+            if (index == null) {
+               long start = System.nanoTime();
+               index = createIndex(bitmask);
+               indexes.put(key, index);
+               if (cache != null) {
+                  cache.register(this, bitmask, index, pinned, System.nanoTime() - start);
                }
             }
          }
+      } else if (cache != null) {
+         cache.recordHit();
       }
 
       return index;
    }
 
+   /** Called by {@link IndexCache} to discard an index so the memory it uses can be reclaimed. */
+   void discard(int bitmask, Index index) {
+      indexes.remove(bitmask, index);
+   }
+
    private Index createIndex(int bitmask) {
       int[] positions = createPositionsFromBitmask(bitmask);
 
       Map<Object, List<ClauseAction>> map = groupDataByPositions(positions);
 
-      return new Index(positions, convertListsToArrays(map));
+      // if the clauses can be deep indexed, then so can the clauses that share the values of the immutable arguments
+      return new Index(positions, convertListsToArrays(map), deepIndexes != null);
    }
 
    private int[] createPositionsFromBitmask(int bitmask) {
@@ -150,23 +213,6 @@ final class Indexes {
 
    // only used by tests
    int countReferences() {
-      int ctr = 0;
-      for (SoftReference<Index> index : indexes) {
-         if (index != null) {
-            ctr++;
-         }
-      }
-      return ctr;
-   }
-
-   // only used by tests
-   int countClearedReferences() {
-      int ctr = 0;
-      for (SoftReference<Index> index : indexes) {
-         if (index != null && index.get() == null) {
-            ctr++;
-         }
-      }
-      return ctr;
+      return indexes.size();
    }
 }
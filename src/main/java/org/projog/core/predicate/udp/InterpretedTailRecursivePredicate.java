@@ -18,6 +18,7 @@ package org.projog.core.predicate.udp;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.projog.core.event.InferenceCounter;
 import org.projog.core.event.SpyPoints.SpyPoint;
 import org.projog.core.predicate.PredicateFactory;
 import org.projog.core.term.Term;
@@ -64,6 +65,7 @@ final class InterpretedTailRecursivePredicate extends TailRecursivePredicate {
       this.secondClauseConsequentArgs = secondClauseConsequentArgs;
       this.secondClauseOriginalTerms = secondClauseOriginalTerms;
       this.isRetryable = isRetryable;
+      InferenceCounter.increment();
    }
 
    @Override
@@ -111,6 +113,8 @@ final class InterpretedTailRecursivePredicate extends TailRecursivePredicate {
       for (int i = 0; i < numArgs; i++) {
          currentQueryArgs[i] = finalTermArgs[i].copy(sharedVariables);
       }
+      // the recursive call is evaluated by the next iteration rather than by a new predicate
+      InferenceCounter.increment();
 
       return true;
    }
@@ -15,14 +15,18 @@
  */
 package org.projog.core.predicate.udp;
 
+import java.util.Collections;
 import java.util.Iterator;
 
 import org.projog.core.ProjogException;
+import org.projog.core.event.InferenceCounter;
 import org.projog.core.event.SpyPoints;
 import org.projog.core.predicate.CutException;
 import org.projog.core.predicate.Predicate;
+import org.projog.core.predicate.PredicateFactory;
 import org.projog.core.term.Term;
 import org.projog.core.term.TermUtils;
+import org.projog.core.term.Trail;
 
 /**
  * Represents a user defined predicate.
@@ -30,20 +34,34 @@ import org.projog.core.term.TermUtils;
  * @see #evaluate()
  */
 public final class InterpretedUserDefinedPredicate implements Predicate {
-   private final Iterator<ClauseAction> clauseActions;
-   private final SpyPoints.SpyPoint spyPoint;
-   private final Term[] queryArgs;
+   private Iterator<ClauseAction> clauseActions;
+   private SpyPoints.SpyPoint spyPoint;
+   private Term[] queryArgs;
+   /** {@code true} if either listeners or the profiler need to be notified. */
    private final boolean debugEnabled;
+   /** {@code true} if listeners need to be notified, in which case last call optimisation is not applied. */
+   private final boolean listenersEnabled;
+   private final Trail trail;
 
    private ClauseAction currentClause;
    private Predicate currentPredicate;
    private boolean retryCurrentClauseAction;
+   /** The choice point of {@link #trail} created on the first evaluation, or {@code 0} if there is none. */
+   private long choicePoint;
+   /**
+    * The choice point of {@link #trail} created when the clauses of a last call replaced the clauses of this predicate,
+    * or {@code 0} if there has been no such replacement.
+    */
+   private long lastCallChoicePoint;
 
    public InterpretedUserDefinedPredicate(Iterator<ClauseAction> clauseActions, SpyPoints.SpyPoint spyPoint, Term[] queryArgs) {
       this.clauseActions = clauseActions;
       this.spyPoint = spyPoint;
       this.queryArgs = queryArgs;
       this.debugEnabled = spyPoint.isEnabled();
+      this.listenersEnabled = spyPoint.isListenersEnabled();
+      this.trail = Trail.getActive();
+      InferenceCounter.increment();
    }
 
    /**
@@ -65,6 +83,14 @@ public final class InterpretedUserDefinedPredicate implements Predicate {
     * successfully re-evaluated then {@code true} is returned. If the body of the clause is not successfully
     * re-evaluated then the arguments in the query are backtracked and the method continues to iterate through the
     * clauses starting with the next clause in the sequence.
+    * <p>
+    * <i>Last call optimisation</i> - if the body of a clause ends with a call to a user defined predicate, all goals
+    * prior to that call have been successfully evaluated and there are no other clauses left to try (either because it
+    * is the last clause or because the body contained a cut) then, rather than evaluating the call in a nested
+    * {@code evaluate()}, this object continues by iterating through the clauses of the called predicate. This means
+    * deterministic recursive predicates, including mutually recursive predicates, can be evaluated in a constant amount
+    * of Java stack. Last call optimisation is not applied if listeners need to be notified of the nested call, but is
+    * applied when only the profiler is enabled - so profiling does not alter how a program is evaluated.
     */
    @Override
    public boolean evaluate() {
@@ -82,37 +108,52 @@ public final class InterpretedUserDefinedPredicate implements Predicate {
             }
             // attempt at retrying has failed so discard it
             retryCurrentClauseAction = false;
-            TermUtils.backtrack(queryArgs);
+            backtrack();
          } else if (currentClause == null) {
             if (debugEnabled) {
                spyPoint.logCall(this, queryArgs);
             }
+            if (trail != null) {
+               choicePoint = trail.mark();
+            }
          } else {
             if (debugEnabled) {
                spyPoint.logRedo(this, queryArgs);
             }
-            TermUtils.backtrack(queryArgs);
+            backtrack();
          }
          // cycle though all rules until none left
          while (clauseActions.hasNext()) {
             currentClause = clauseActions.next();
             currentPredicate = currentClause.getPredicate(queryArgs);
+            if (currentPredicate instanceof LastCallPredicate && replaceWithLastCall((LastCallPredicate) currentPredicate)) {
+               continue;
+            }
             if (currentPredicate != null && currentPredicate.evaluate()) {
                retryCurrentClauseAction = currentPredicate.couldReevaluationSucceed();
                if (debugEnabled) {
                   spyPoint.logExit(this, queryArgs, currentClause.getModel());
                }
+               if (choicePoint != 0 && !couldReevaluationSucceed()) {
+                  releaseChoicePoint();
+               }
                return true;
             } else {
                retryCurrentClauseAction = false;
-               TermUtils.backtrack(queryArgs);
+               backtrack();
             }
          }
+         if (lastCallChoicePoint != 0) {
+            // also undo the bindings made before the clauses of a last call replaced the original clauses
+            trail.undo(choicePoint);
+         }
+         releaseChoicePoint();
          if (debugEnabled) {
             spyPoint.logFail(this, queryArgs);
          }
          return false;
       } catch (CutException e) {
+         releaseChoicePoint();
          if (debugEnabled) {
             spyPoint.logFail(this, queryArgs);
          }
@@ -127,6 +168,106 @@ public final class InterpretedUserDefinedPredicate implements Predicate {
       }
    }
 
+   /**
+    * Attempts to continue evaluation using the clauses of the user defined predicate called by the specified
+    * {@code LastCallPredicate}.
+    *
+    * @return {@code true} if the clauses of this object have been replaced with the clauses of the called predicate,
+    * else {@code false} if the {@code LastCallPredicate} should be evaluated as a nested call
+    */
+   private boolean replaceWithLastCall(LastCallPredicate lastCall) {
+      if (listenersEnabled || trail == null || (clauseActions.hasNext() && !lastCall.isCut())) {
+         return false;
+      }
+
+      PredicateFactory pf = lastCall.getPredicateFactory();
+      if (pf instanceof StaticUserDefinedPredicateFactory) {
+         pf = ((StaticUserDefinedPredicateFactory) pf).getActualPredicateFactory();
+      }
+
+      Iterator<ClauseAction> nextClauseActions;
+      SpyPoints.SpyPoint nextSpyPoint;
+      if (pf instanceof SingleNonRetryableRulePredicateFactory) {
+         SingleNonRetryableRulePredicateFactory f = (SingleNonRetryableRulePredicateFactory) pf;
+         nextClauseActions = Collections.singletonList(f.getClause()).iterator();
+         nextSpyPoint = f.getSpyPoint();
+      } else if (pf instanceof SingleRetryableRulePredicateFactory) {
+         SingleRetryableRulePredicateFactory f = (SingleRetryableRulePredicateFactory) pf;
+         nextClauseActions = Collections.singletonList(f.getClause()).iterator();
+         nextSpyPoint = f.getSpyPoint();
+      } else {
+         Predicate callee = lastCall.getCallee();
+         if (callee instanceof InterpretedUserDefinedPredicate && !((InterpretedUserDefinedPredicate) callee).listenersEnabled) {
+            InterpretedUserDefinedPredicate udp = (InterpretedUserDefinedPredicate) callee;
+            replaceClauses(udp.clauseActions, udp.spyPoint, lastCall.getArgs());
+            return true;
+         } else {
+            return false;
+         }
+      }
+
+      if (nextSpyPoint.isListenersEnabled()) {
+         return false;
+      }
+      InferenceCounter.increment();
+      replaceClauses(nextClauseActions, nextSpyPoint, lastCall.getArgs());
+      return true;
+   }
+
+   /**
+    * Continues evaluation using the specified clauses of a last call.
+    * <p>
+    * If the profiler is enabled then the predicate being replaced is recorded as having exited, and the called
+    * predicate as having been called, so each call recorded by the profiler is matched by an exit or fail. The time
+    * recorded for the replaced predicate therefore does not include the time taken to evaluate the last call.
+    */
+   private void replaceClauses(Iterator<ClauseAction> nextClauseActions, SpyPoints.SpyPoint nextSpyPoint, Term[] nextArgs) {
+      if (debugEnabled) {
+         spyPoint.logExit(this, queryArgs, currentClause.getModel());
+      }
+      clauseActions = nextClauseActions;
+      spyPoint = nextSpyPoint;
+      queryArgs = nextArgs;
+      if (debugEnabled) {
+         spyPoint.logCall(this, queryArgs);
+      }
+      markLastCall();
+   }
+
+   /**
+    * Replaces the choice point used to backtrack the clauses of the previous last call, if any, with a new choice point.
+    * <p>
+    * The choice point created on the first evaluation is retained, so the bindings that were made before the first
+    * last call can still be undone.
+    */
+   private void markLastCall() {
+      if (lastCallChoicePoint != 0) {
+         trail.release(lastCallChoicePoint);
+      }
+      lastCallChoicePoint = trail.mark();
+   }
+
+   /**
+    * Undoes the bindings made since this predicate was first evaluated, or since the clauses of the most recent last
+    * call replaced the clauses of this predicate.
+    * <p>
+    * Falls back to backtracking the query arguments if there is no trail, or the choice point is no longer available.
+    */
+   private void backtrack() {
+      long cp = lastCallChoicePoint == 0 ? choicePoint : lastCallChoicePoint;
+      if (cp == 0 || !trail.undo(cp)) {
+         TermUtils.backtrack(queryArgs);
+      }
+   }
+
+   private void releaseChoicePoint() {
+      if (choicePoint != 0) {
+         trail.release(choicePoint);
+         choicePoint = 0;
+         lastCallChoicePoint = 0;
+      }
+   }
+
    @Override
    public boolean couldReevaluationSucceed() {
       if (currentClause != null && currentClause.isAlwaysCutOnBacktrack()) {
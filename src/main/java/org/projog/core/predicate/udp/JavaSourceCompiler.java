@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.CodeSource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.projog.core.ProjogException;
+
+/**
+ * Compiles Java source code, held in memory, into classes that can be loaded at runtime.
+ * <p>
+ * Uses the {@code javax.tools} API, so requires the application to be run using a JDK rather than a JRE.
+ */
+final class JavaSourceCompiler {
+   private static final JavaCompiler COMPILER = ToolProvider.getSystemJavaCompiler();
+   /**
+    * Reused by every compilation, so the contents of the class path are only read once. Not thread-safe, so only used
+    * while holding the lock of this class.
+    */
+   private static final StandardJavaFileManager FILE_MANAGER = COMPILER == null ? null : COMPILER.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+
+   private JavaSourceCompiler() {
+   }
+
+   /**
+    * Compiles the specified source code.
+    *
+    * @param className the name of the top-level class defined by {@code source}
+    * @param source the Java source code to compile
+    * @return the class loader that will load the classes defined by {@code source}
+    * @throws ProjogException if the source code could not be compiled
+    */
+   static synchronized ClassLoader compile(String className, String source) {
+      if (COMPILER == null) {
+         throw new ProjogException("No Java compiler available");
+      }
+
+      Map<String, ByteArrayOutputStream> classes = new ConcurrentHashMap<>();
+      DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+      // not closed, as closing would also close the shared FILE_MANAGER
+      JavaFileManager fileManager = new InMemoryFileManager(FILE_MANAGER, classes);
+      List<String> options = Arrays.asList("-classpath", getClassPath(), "-g:none", "-proc:none", "-nowarn");
+      List<JavaFileObject> sources = Collections.singletonList(new SourceFile(className, source));
+      if (!COMPILER.getTask(null, fileManager, diagnostics, options, null, sources).call()) {
+         throw new ProjogException("Could not compile " + className + ": " + getErrors(diagnostics));
+      }
+
+      return new ByteArrayClassLoader(JavaSourceCompiler.class.getClassLoader(), classes);
+   }
+
+   /**
+    * Returns the class path to compile against.
+    * <p>
+    * Includes the location the Projog classes were loaded from, as that may not be on the system class path.
+    */
+   private static String getClassPath() {
+      String classPath = System.getProperty("java.class.path", "");
+      CodeSource codeSource = JavaSourceCompiler.class.getProtectionDomain().getCodeSource();
+      URL location = codeSource == null ? null : codeSource.getLocation();
+      if (location != null && "file".equals(location.getProtocol())) {
+         try {
+            classPath = new File(location.toURI()).getPath() + File.pathSeparator + classPath;
+         } catch (URISyntaxException | IllegalArgumentException e) {
+            // rely on the system class path
+         }
+      }
+      return classPath;
+   }
+
+   private static String getErrors(DiagnosticCollector<JavaFileObject> diagnostics) {
+      StringBuilder sb = new StringBuilder();
+      for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+         if (d.getKind() == Diagnostic.Kind.ERROR) {
+            sb.append(d.getMessage(null)).append(" line: ").append(d.getLineNumber()).append(' ');
+         }
+      }
+      return sb.toString().trim();
+   }
+
+   private static final class SourceFile extends SimpleJavaFileObject {
+      private final String source;
+
+      SourceFile(String className, String source) {
+         super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+         this.source = source;
+      }
+
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+         return source;
+      }
+   }
+
+   private static final class ClassFile extends SimpleJavaFileObject {
+      private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+      ClassFile(String className) {
+         super(URI.create("bytes:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+      }
+
+      @Override
+      public OutputStream openOutputStream() {
+         return bytes;
+      }
+   }
+
+   /** Writes compiled classes to memory rather than the file system. */
+   private static final class InMemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+      private final Map<String, ByteArrayOutputStream> classes;
+
+      InMemoryFileManager(JavaFileManager fileManager, Map<String, ByteArrayOutputStream> classes) {
+         super(fileManager);
+         this.classes = classes;
+      }
+
+      @Override
+      public JavaFileObject getJavaFileForOutput(Location location, String className, Kind kind, FileObject sibling) {
+         ClassFile classFile = new ClassFile(className);
+         classes.put(className, classFile.bytes);
+         return classFile;
+      }
+   }
+
+   private static final class ByteArrayClassLoader extends ClassLoader {
+      private final Map<String, ByteArrayOutputStream> classes;
+
+      ByteArrayClassLoader(ClassLoader parent, Map<String, ByteArrayOutputStream> classes) {
+         super(parent);
+         this.classes = classes;
+      }
+
+      @Override
+      protected Class<?> findClass(String name) throws ClassNotFoundException {
+         ByteArrayOutputStream bytes = classes.get(name);
+         if (bytes == null) {
+            throw new ClassNotFoundException(name);
+         }
+         byte[] b = bytes.toByteArray();
+         return defineClass(name, b, 0, b.length);
+      }
+   }
+}
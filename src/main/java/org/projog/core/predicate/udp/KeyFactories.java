@@ -15,20 +15,29 @@
  */
 package org.projog.core.predicate.udp;
 
+import java.util.Arrays;
+
 import org.projog.core.term.Term;
 
 final class KeyFactories {
-   private static final KeyFactory[] FACTORIES = {
-               null,
-               new KeyFactory1(),
-               new KeyFactory2(),
-               new KeyFactory3(),
-   };
-
-   static final int MAX_ARGUMENTS_PER_INDEX = FACTORIES.length - 1;
+   private static final KeyFactory KEY_FACTORY_1 = new KeyFactory1();
+   private static final KeyFactory KEY_FACTORY_N = new KeyFactoryN();
 
    static KeyFactory getKeyFactory(int numArgs) {
-      return FACTORIES[numArgs];
+      return numArgs == 1 ? KEY_FACTORY_1 : KEY_FACTORY_N;
+   }
+
+   /**
+    * Returns the hash code of the key that would be created for the arguments at the specified positions.
+    * <p>
+    * Allows an index to find the key for a combination of arguments without having to create a new {@link KeyN}.
+    */
+   static int hashCode(int[] positions, Term[] args) {
+      int hashCode = 1;
+      for (int position : positions) {
+         hashCode = 31 * hashCode + args[position].hashCode();
+      }
+      return hashCode;
    }
 
    interface KeyFactory {
@@ -43,54 +52,35 @@ final class KeyFactories {
       }
    }
 
-   private static final class KeyFactory2 implements KeyFactory {
+   private static final class KeyFactoryN implements KeyFactory {
       @Override
-      public Key2 createKey(int[] positions, Term[] args) {
-         return new Key2(args[positions[0]], args[positions[1]]);
+      public KeyN createKey(int[] positions, Term[] args) {
+         Term[] terms = new Term[positions.length];
+         for (int i = 0; i < positions.length; i++) {
+            terms[i] = args[positions[i]];
+         }
+         return new KeyN(terms, KeyFactories.hashCode(positions, args));
       }
    }
 
-   private static final class Key2 {
-      final Term t1;
-      final Term t2;
+   /** A key composed of any number of terms. */
+   static final class KeyN {
+      final Term[] terms;
       final int hashCode;
 
-      Key2(Term t1, Term t2) {
-         this.t1 = t1;
-         this.t2 = t2;
-         this.hashCode = t1.hashCode() + (7 * t2.hashCode());
+      private KeyN(Term[] terms, int hashCode) {
+         this.terms = terms;
+         this.hashCode = hashCode;
       }
 
-      @Override
-      public int hashCode() {
-         return hashCode;
-      }
-
-      @Override
-      public boolean equals(Object o) {
-         Key2 k = (Key2) o;
-         return t1.equals(k.t1) && t2.equals(k.t2);
-      }
-   }
-
-   private static final class KeyFactory3 implements KeyFactory {
-      @Override
-      public Key3 createKey(int[] positions, Term[] args) {
-         return new Key3(args[positions[0]], args[positions[1]], args[positions[2]]);
-      }
-   }
-
-   private static final class Key3 {
-      final Term t1;
-      final Term t2;
-      final Term t3;
-      final int hashCode;
-
-      Key3(Term t1, Term t2, Term t3) {
-         this.t1 = t1;
-         this.t2 = t2;
-         this.t3 = t3;
-         this.hashCode = t1.hashCode() + (7 * t2.hashCode()) + (11 * t3.hashCode());
+      /** Returns {@code true} if the arguments at the specified positions are equal to the terms of this key. */
+      boolean matches(int[] positions, Term[] args) {
+         for (int i = 0; i < positions.length; i++) {
+            if (!terms[i].equals(args[positions[i]])) {
+               return false;
+            }
+         }
+         return true;
       }
 
       @Override
@@ -100,8 +90,8 @@ final class KeyFactories {
 
       @Override
       public boolean equals(Object o) {
-         Key3 k = (Key3) o;
-         return t1.equals(k.t1) && t2.equals(k.t2) && t3.equals(k.t3);
+         KeyN k = (KeyN) o;
+         return hashCode == k.hashCode && Arrays.equals(terms, k.terms);
       }
    }
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import org.projog.core.predicate.CutException;
+import org.projog.core.predicate.Predicate;
+import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.term.Term;
+
+/**
+ * The final goal of a clause whose preceding goals have already been successfully evaluated.
+ * <p>
+ * Returned by {@link ClauseActionFactory.LastCallRule#getPredicate(Term[])}. The call to the user defined predicate is
+ * not made until {@link #evaluate()} is called. This gives an {@link InterpretedUserDefinedPredicate} which has no
+ * remaining clauses to try the opportunity to continue with the clauses of the called predicate, rather than
+ * evaluating them in a nested call - see {@link InterpretedUserDefinedPredicate#evaluate()}.
+ */
+final class LastCallPredicate implements Predicate {
+   private final PredicateFactory pf;
+   private final Term[] args;
+   private final boolean cut;
+   private Predicate callee;
+   private boolean retrying;
+
+   LastCallPredicate(PredicateFactory pf, Term[] args, boolean cut) {
+      this.pf = pf;
+      this.args = args;
+      this.cut = cut;
+   }
+
+   PredicateFactory getPredicateFactory() {
+      return pf;
+   }
+
+   Term[] getArgs() {
+      return args;
+   }
+
+   /** Returns {@code true} if a cut was evaluated before the last goal was reached. */
+   boolean isCut() {
+      return cut;
+   }
+
+   /** Returns the predicate that will be evaluated by {@link #evaluate()}, creating it if necessary. */
+   Predicate getCallee() {
+      if (callee == null) {
+         callee = pf.getPredicate(args);
+      }
+      return callee;
+   }
+
+   @Override
+   public boolean evaluate() {
+      boolean result;
+      if (retrying) {
+         result = callee.couldReevaluationSucceed() && callee.evaluate();
+      } else {
+         retrying = true;
+         result = getCallee().evaluate();
+      }
+
+      if (result) {
+         return true;
+      } else if (cut) {
+         throw CutException.CUT_EXCEPTION;
+      } else {
+         return false;
+      }
+   }
+
+   @Override
+   public boolean couldReevaluationSucceed() {
+      return cut || !retrying || callee.couldReevaluationSucceed();
+   }
+}
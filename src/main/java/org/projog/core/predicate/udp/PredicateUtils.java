@@ -15,6 +15,7 @@
  */
 package org.projog.core.predicate.udp;
 
+import org.projog.core.event.InferenceCounter;
 import org.projog.core.event.SpyPoints.SpyPoint;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.SucceedsNeverPredicate;
@@ -35,13 +36,14 @@ public final class PredicateUtils {
 
    static Predicate createSingleClausePredicate(ClauseAction clause, SpyPoint spyPoint, Term[] args) {
       if (clause.isRetryable()) {
-         return new SingleRetryableRulePredicateFactory.RetryableRulePredicate(clause, spyPoint, args);
+         return SingleRetryableRulePredicateFactory.createPredicate(clause, spyPoint, args);
       } else {
          return SingleNonRetryableRulePredicateFactory.evaluateClause(clause, spyPoint, args);
       }
    }
 
    static Predicate createFailurePredicate(SpyPoint spyPoint, Term[] args) {
+      InferenceCounter.increment();
       if (spyPoint.isEnabled()) {
          spyPoint.logCall(PredicateUtils.class, args);
          spyPoint.logFail(PredicateUtils.class, args);
@@ -15,7 +15,10 @@
  */
 package org.projog.core.predicate.udp;
 
+import java.util.Collections;
+
 import org.projog.core.ProjogException;
+import org.projog.core.event.InferenceCounter;
 import org.projog.core.event.SpyPoints;
 import org.projog.core.predicate.CutException;
 import org.projog.core.predicate.Predicate;
@@ -38,6 +41,12 @@ final class SingleNonRetryableRulePredicateFactory implements PreprocessablePred
    }
 
    static Predicate evaluateClause(ClauseAction clause, SpyPoints.SpyPoint spyPoint, Term[] args) {
+      if (clause.isLastCall()) {
+         // evaluate using an InterpretedUserDefinedPredicate so last call optimisation is applied
+         return PredicateUtils.toPredicate(new InterpretedUserDefinedPredicate(Collections.singletonList(clause).iterator(), spyPoint, args).evaluate());
+      }
+
+      InferenceCounter.increment();
       try {
          if (spyPoint.isEnabled()) {
             spyPoint.logCall(SingleNonRetryableRulePredicateFactory.class, args);
@@ -69,6 +78,14 @@ final class SingleNonRetryableRulePredicateFactory implements PreprocessablePred
       }
    }
 
+   ClauseAction getClause() {
+      return clause;
+   }
+
+   SpyPoints.SpyPoint getSpyPoint() {
+      return spyPoint;
+   }
+
    @Override
    public boolean isRetryable() {
       return false;
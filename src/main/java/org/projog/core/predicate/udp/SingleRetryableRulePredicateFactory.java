@@ -15,7 +15,10 @@
  */
 package org.projog.core.predicate.udp;
 
+import java.util.Collections;
+
 import org.projog.core.ProjogException;
+import org.projog.core.event.InferenceCounter;
 import org.projog.core.event.SpyPoints;
 import org.projog.core.predicate.CutException;
 import org.projog.core.predicate.Predicate;
@@ -33,8 +36,25 @@ final class SingleRetryableRulePredicateFactory implements PreprocessablePredica
    }
 
    @Override
-   public RetryableRulePredicate getPredicate(Term[] args) {
-      return new RetryableRulePredicate(clause, spyPoint, args);
+   public Predicate getPredicate(Term[] args) {
+      return createPredicate(clause, spyPoint, args);
+   }
+
+   static Predicate createPredicate(ClauseAction clause, SpyPoints.SpyPoint spyPoint, Term[] args) {
+      if (clause.isLastCall()) {
+         // evaluate using an InterpretedUserDefinedPredicate so last call optimisation is applied
+         return new InterpretedUserDefinedPredicate(Collections.singletonList(clause).iterator(), spyPoint, args);
+      } else {
+         return new RetryableRulePredicate(clause, spyPoint, args);
+      }
+   }
+
+   ClauseAction getClause() {
+      return clause;
+   }
+
+   SpyPoints.SpyPoint getSpyPoint() {
+      return spyPoint;
    }
 
    @Override
@@ -54,6 +74,7 @@ final class SingleRetryableRulePredicateFactory implements PreprocessablePredica
          this.spyPoint = spyPoint;
          this.args = queryArgs;
          this.isSpyPointEnabled = spyPoint.isEnabled();
+         InferenceCounter.increment();
       }
 
       @Override
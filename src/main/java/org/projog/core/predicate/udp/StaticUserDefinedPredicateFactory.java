@@ -17,6 +17,7 @@ package org.projog.core.predicate.udp;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -24,6 +25,7 @@ import java.util.List;
 import org.projog.core.ProjogException;
 import org.projog.core.event.SpyPoints;
 import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.kb.KnowledgeBaseServiceLocator;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
 import org.projog.core.predicate.PredicateKey;
@@ -41,8 +43,17 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
    private final PredicateKey predicateKey;
    private final KnowledgeBase kb;
    private final SpyPoints.SpyPoint spyPoint;
-   private final List<ClauseModel> implications;
-   private PredicateFactory compiledPredicateFactory;
+   private List<ClauseModel> implications;
+   /** {@code true} if {@link #implications} is shared with the predicate this predicate was copied from. */
+   private boolean implicationsShared;
+   /**
+    * The clauses created when this predicate was compiled or, if this predicate is a copy that has not yet been compiled,
+    * the clauses of the original that can be shared with it.
+    */
+   private Clauses clauses;
+   private volatile PredicateFactory compiledPredicateFactory;
+   /** Created by {@link #getGoalStackClauses()} when first required. */
+   private volatile GoalStackClauses goalStackClauses;
    private int setCompiledPredicateFactoryInvocationCtr;
 
    public StaticUserDefinedPredicateFactory(KnowledgeBase kb, PredicateKey predicateKey) {
@@ -52,6 +63,35 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
       this.implications = new ArrayList<>();
    }
 
+   /**
+    * Creates a copy of the specified predicate for use by another {@code KnowledgeBase}.
+    * <p>
+    * The clauses of the predicate are shared. If the original has already been compiled, and all of its clauses are
+    * facts, then the {@link ClauseAction}s created when it was compiled are also shared. Otherwise the compiled form is
+    * not shared, as that refers to the predicates of the {@code KnowledgeBase} it was compiled for. The copy will be
+    * compiled when it is first used.
+    *
+    * @param kb the {@code KnowledgeBase} the copy is to be used by
+    * @param original the predicate to copy
+    */
+   public StaticUserDefinedPredicateFactory(KnowledgeBase kb, StaticUserDefinedPredicateFactory original) {
+      this.predicateKey = original.predicateKey;
+      this.kb = kb;
+      this.spyPoint = kb.getSpyPoints().getSpyPoint(predicateKey);
+      if (original.compiledPredicateFactory == null) {
+         this.implications = new ArrayList<>(original.implications);
+      } else {
+         // once compiled the clauses of the original can no longer be altered, so are only copied if this copy is altered
+         synchronized (original.lock) {
+            this.implications = original.implications;
+            this.implicationsShared = true;
+            if (original.clauses.isKnowledgeBaseIndependent()) {
+               this.clauses = original.clauses;
+            }
+         }
+      }
+   }
+
    /**
     * Not supported.
     * <p>
@@ -74,6 +114,11 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
    @Override
    public void addLast(ClauseModel clauseModel) {
       if (compiledPredicateFactory == null) {
+         if (implicationsShared) {
+            implications = new ArrayList<>(implications);
+            implicationsShared = false;
+            clauses = null;
+         }
          implications.add(clauseModel);
       } else {
          throw new ProjogException("Cannot add clause to already defined user defined predicate as it is not dynamic: " + predicateKey + " clause: " + clauseModel.getOriginal());
@@ -91,10 +136,37 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
       }
    }
 
+   /**
+    * Returns the clauses of this user defined predicate, prepared for evaluation by {@link GoalStackMachine}.
+    * <p>
+    * The predicate is compiled first, so no more clauses can be added to it. The result is created when first required
+    * and then reused.
+    */
+   GoalStackClauses getGoalStackClauses() {
+      GoalStackClauses result = goalStackClauses;
+      if (result == null) {
+         compile();
+         synchronized (lock) {
+            result = goalStackClauses;
+            if (result == null) {
+               result = new GoalStackClauses(kb, predicateKey, clauses.getClauseActions());
+               goalStackClauses = result;
+            }
+         }
+      }
+      return result;
+   }
+
+   SpyPoints.SpyPoint getSpyPoint() {
+      return spyPoint;
+   }
+
    private void setCompiledPredicateFactory() {
       setCompiledPredicateFactoryInvocationCtr++;
       // TODO always create Clauses here - can we move creation until InterpretedUserDefinedPredicatePredicateFactory
-      Clauses clauses = Clauses.createFromModels(kb, implications);
+      // (unless this is a copy of a predicate whose clauses could be shared)
+      Clauses clauses = this.clauses == null ? Clauses.createFromModels(kb, implications) : this.clauses;
+      this.clauses = clauses;
       List<ClauseModel> clauseModels = getCopyOfImplications(); // TODO do we need to copy here?
       compiledPredicateFactory = createInterpretedPredicateFactoryFromClauseActions(clauses, clauseModels);
    }
@@ -126,6 +198,9 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
       TailRecursivePredicateMetaData tailRecursiveMetaData = TailRecursivePredicateMetaData.create(kb, clauseModels);
       if (tailRecursiveMetaData != null) {
          return new InterpretedTailRecursivePredicateFactory(kb, tailRecursiveMetaData);
+      } else if (kb.getProjogProperties().isRuntimeCompilationEnabled()) {
+         int threshold = kb.getProjogProperties().getRuntimeCompilationThreshold();
+         return createInterpretedPredicateFactoryFromClauses(ClauseActionCompiler.compileWhenCalled(kb, predicateKey, clauses, threshold));
       } else {
          return createInterpretedPredicateFactoryFromClauses(clauses);
       }
@@ -137,7 +212,12 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
       } else if (clauses.getClauseActions().length == 0) {
          return new NeverSucceedsPredicateFactory(spyPoint);
       } else if (clauses.getImmutableColumns().length == 0) {
-         return new NotIndexablePredicateFactory(clauses);
+         DeepIndexes deepIndexes = DeepIndexes.create(clauses.getClauseActions());
+         if (deepIndexes == null) {
+            return new NotIndexablePredicateFactory(clauses);
+         } else {
+            return new DeepIndexablePredicateFactory(clauses, deepIndexes);
+         }
       } else if (clauses.getImmutableColumns().length == 1) {
          Index index = new Indexes(clauses).getOrCreateIndex(1);
          ClauseAction[] actions = clauses.getClauseActions();
@@ -231,6 +311,11 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
       return new ImplicationsIterator(implications);
    }
 
+   @Override
+   public Iterator<ClauseModel> getImplicationsWithoutCopying() {
+      return Collections.unmodifiableList(implications).iterator();
+   }
+
    @Override
    public boolean isDynamic() {
       return false;
@@ -403,7 +488,40 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
       private final boolean retryable;
 
       private IndexablePredicateFactory(Clauses clauses) {
-         this.index = new Indexes(clauses);
+         IndexCache cache = KnowledgeBaseServiceLocator.getServiceLocator(kb).getInstance(IndexCache.class);
+         this.index = new Indexes(clauses, cache, cache.isPinned(predicateKey));
+         this.retryable = isClausesRetryable(clauses.getClauseActions());
+      }
+
+      @Override
+      public Predicate getPredicate(Term[] args) {
+         return createPredicate(args, index.index(args));
+      }
+
+      @Override
+      public boolean isRetryable() {
+         return retryable;
+      }
+
+      @Override
+      public PredicateFactory preprocess(Term arg) {
+         ClauseAction[] data = index.index(arg.getArgs());
+         List<ClauseAction> result = optimisePredicateFactory(kb, data, arg);
+         if (result.size() < index.getClauseCount()) {
+            final Clauses clauses = Clauses.createFromActions(kb, result, arg);
+            return createInterpretedPredicateFactoryFromClauses(clauses);
+         } else {
+            return this;
+         }
+      }
+   }
+
+   private final class DeepIndexablePredicateFactory implements PreprocessablePredicateFactory {
+      private final DeepIndexes index;
+      private final boolean retryable;
+
+      private DeepIndexablePredicateFactory(Clauses clauses, DeepIndexes index) {
+         this.index = index;
          this.retryable = isClausesRetryable(clauses.getClauseActions());
       }
 
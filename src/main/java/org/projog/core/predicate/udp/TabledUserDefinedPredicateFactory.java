@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import static org.projog.core.kb.KnowledgeBaseServiceLocator.getServiceLocator;
+
+import java.util.Iterator;
+
+import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.predicate.Predicate;
+import org.projog.core.predicate.PredicateKey;
+import org.projog.core.term.Term;
+
+/**
+ * Maintains a record of the clauses of a "tabled" user defined predicate.
+ * <p>
+ * The answers of calls to a tabled predicate are stored, so that subsequent calls that are variants of previous calls
+ * are answered without re-evaluating the clauses. Tabling also allows left recursive predicates, e.g.
+ * {@code path(X,Y) :- path(X,Z), edge(Z,Y).}, to terminate. The clauses are stored by a
+ * {@link DynamicUserDefinedPredicateFactory}, so can be added to by subsequent consults or by {@code assertz/1}.
+ *
+ * @see AnswerTables
+ */
+public final class TabledUserDefinedPredicateFactory implements UserDefinedPredicateFactory {
+   private final DynamicUserDefinedPredicateFactory clauses;
+   private final AnswerTables tables;
+
+   public TabledUserDefinedPredicateFactory(KnowledgeBase kb, PredicateKey predicateKey) {
+      this.clauses = new DynamicUserDefinedPredicateFactory(kb, predicateKey);
+      this.tables = getServiceLocator(kb).getInstance(AnswerTables.class);
+   }
+
+   /**
+    * Creates a copy of the specified predicate for use by another {@code KnowledgeBase}.
+    * <p>
+    * The clauses are copied as described by
+    * {@link DynamicUserDefinedPredicateFactory#DynamicUserDefinedPredicateFactory(KnowledgeBase, DynamicUserDefinedPredicateFactory)}.
+    * The tables of the original are not copied.
+    *
+    * @param kb the {@code KnowledgeBase} the copy is to be used by
+    * @param original the predicate to copy
+    */
+   public TabledUserDefinedPredicateFactory(KnowledgeBase kb, TabledUserDefinedPredicateFactory original) {
+      this.clauses = new DynamicUserDefinedPredicateFactory(kb, original.clauses);
+      this.tables = getServiceLocator(kb).getInstance(AnswerTables.class);
+   }
+
+   @Override
+   public Predicate getPredicate(Term[] args) {
+      return tables.getPredicate(this, args);
+   }
+
+   /** Returns a predicate that evaluates the clauses of this predicate without using the tables. */
+   Predicate getClausesPredicate(Term[] args) {
+      return clauses.getPredicate(args);
+   }
+
+   @Override
+   public PredicateKey getPredicateKey() {
+      return clauses.getPredicateKey();
+   }
+
+   @Override
+   public boolean isDynamic() {
+      return true;
+   }
+
+   @Override
+   public Iterator<ClauseModel> getImplications() {
+      return clauses.getImplications();
+   }
+
+   @Override
+   public Iterator<ClauseModel> getImplicationsWithoutCopying() {
+      return clauses.getImplicationsWithoutCopying();
+   }
+
+   @Override
+   public Iterator<ClauseModel> getImplications(Term clauseHead) {
+      return clauses.getImplications(clauseHead);
+   }
+
+   @Override
+   public void addFirst(ClauseModel clauseModel) {
+      clauses.addFirst(clauseModel);
+   }
+
+   @Override
+   public void addLast(ClauseModel clauseModel) {
+      clauses.addLast(clauseModel);
+   }
+
+   @Override
+   public ClauseModel getClauseModel(int index) {
+      return clauses.getClauseModel(index);
+   }
+
+   @Override
+   public boolean isRetryable() {
+      return true;
+   }
+}
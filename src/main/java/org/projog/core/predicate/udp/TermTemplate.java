@@ -0,0 +1,266 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.projog.core.term.ListFactory;
+import org.projog.core.term.Structure;
+import org.projog.core.term.Term;
+import org.projog.core.term.TermType;
+import org.projog.core.term.Variable;
+
+/**
+ * A term of a clause that has been analysed so that it can be unified with, or copied, without using a map of
+ * variables.
+ * <p>
+ * Each distinct variable of a clause is assigned a fixed index (a "slot"). When a clause is called a {@code Term[]}
+ * "frame", with an element for every slot, is used to keep track of what each variable of the clause refers to. A
+ * variable which is encountered for the first time while unifying with an argument that is not an uninstantiated
+ * variable is simply assigned the argument - no new {@link Variable} is created.
+ * <p>
+ * Unification of a structure or list is performed by comparing the template directly against the argument. A copy of
+ * the template is only created if the argument is an uninstantiated variable.
+ */
+abstract class TermTemplate {
+   /**
+    * Returns templates for each of the specified terms.
+    *
+    * @param terms the terms to create templates for
+    * @param slots the slots already assigned to variables of the clause - new entries will be added for any variables
+    * not already present
+    */
+   static TermTemplate[] create(Term[] terms, Map<Variable, Integer> slots) {
+      TermTemplate[] result = new TermTemplate[terms.length];
+      for (int i = 0; i < terms.length; i++) {
+         result[i] = create(terms[i], slots);
+      }
+      return result;
+   }
+
+   private static TermTemplate create(Term t, Map<Variable, Integer> slots) {
+      if (t.isImmutable()) {
+         return new ConstantTemplate(t);
+      }
+
+      switch (t.getType()) {
+         case VARIABLE:
+            Variable v = (Variable) t.getTerm();
+            Integer slot = slots.get(v);
+            if (slot == null) {
+               slot = slots.size();
+               slots.put(v, slot);
+            }
+            return new VariableTemplate(slot, v.getId());
+         case LIST:
+            List<TermTemplate> heads = new ArrayList<>();
+            Term list = t;
+            while (list.getType() == TermType.LIST && !list.isImmutable()) {
+               heads.add(create(list.getArgument(0), slots));
+               list = list.getArgument(1);
+            }
+            return new ListTemplate(heads.toArray(new TermTemplate[heads.size()]), create(list, slots));
+         case STRUCTURE:
+            return new StructureTemplate(t.getName(), create(t.getArgs(), slots));
+         default:
+            return new OtherTemplate(t);
+      }
+   }
+
+   /**
+    * Attempts to unify the specified term with this template.
+    *
+    * @param input the term to unify with
+    * @param frame what each variable of the clause currently refers to - {@code null} elements represent variables
+    * that have not yet been encountered
+    * @return {@code true} if the unification was successful
+    */
+   abstract boolean unify(Term input, Term[] frame);
+
+   /**
+    * Returns a copy of this template.
+    * <p>
+    * Variables that have already been encountered are replaced with what they refer to. New variables are created for
+    * any that have not.
+    *
+    * @param frame what each variable of the clause currently refers to
+    */
+   abstract Term copy(Term[] frame);
+
+   private static final class ConstantTemplate extends TermTemplate {
+      private final Term term;
+
+      ConstantTemplate(Term term) {
+         this.term = term;
+      }
+
+      @Override
+      boolean unify(Term input, Term[] frame) {
+         return input.unify(term);
+      }
+
+      @Override
+      Term copy(Term[] frame) {
+         return term;
+      }
+   }
+
+   private static final class VariableTemplate extends TermTemplate {
+      private final int slot;
+      private final String id;
+
+      VariableTemplate(int slot, String id) {
+         this.slot = slot;
+         this.id = id;
+      }
+
+      @Override
+      boolean unify(Term input, Term[] frame) {
+         Term existing = frame[slot];
+         if (existing != null) {
+            return input.unify(existing.getBound());
+         }
+
+         Term t = input.getBound();
+         if (t.getType() == TermType.VARIABLE) {
+            // bind to a new variable so the answer refers to the variable by the name used in the clause
+            Variable v = new Variable(id);
+            frame[slot] = v;
+            return t.unify(v);
+         } else {
+            frame[slot] = t;
+            return true;
+         }
+      }
+
+      @Override
+      Term copy(Term[] frame) {
+         Term existing = frame[slot];
+         if (existing == null) {
+            Variable v = new Variable(id);
+            frame[slot] = v;
+            return v;
+         } else {
+            // only dereference the variable - unlike Term#getTerm, which would traverse the whole of the bound term
+            return existing.getBound();
+         }
+      }
+   }
+
+   private static final class StructureTemplate extends TermTemplate {
+      private final String name;
+      private final TermTemplate[] args;
+
+      StructureTemplate(String name, TermTemplate[] args) {
+         this.name = name;
+         this.args = args;
+      }
+
+      @Override
+      boolean unify(Term input, Term[] frame) {
+         Term t = input.getBound();
+         if (t.getType() == TermType.VARIABLE) {
+            return t.unify(copy(frame));
+         } else if (t.getType() != TermType.STRUCTURE || t.getNumberOfArguments() != args.length || !name.equals(t.getName())) {
+            return false;
+         }
+
+         for (int i = 0; i < args.length; i++) {
+            if (!args[i].unify(t.getArgument(i), frame)) {
+               return false;
+            }
+         }
+         return true;
+      }
+
+      @Override
+      Term copy(Term[] frame) {
+         Term[] copy = new Term[args.length];
+         for (int i = 0; i < args.length; i++) {
+            copy[i] = args[i].copy(frame);
+         }
+         return Structure.createStructure(name, copy);
+      }
+   }
+
+   /**
+    * Template for a list.
+    * <p>
+    * Stores the elements of the list in an array, rather than as nested templates, so that long lists can be processed
+    * without recursion.
+    */
+   private static final class ListTemplate extends TermTemplate {
+      private final TermTemplate[] heads;
+      private final TermTemplate tail;
+
+      ListTemplate(TermTemplate[] heads, TermTemplate tail) {
+         this.heads = heads;
+         this.tail = tail;
+      }
+
+      @Override
+      boolean unify(Term input, Term[] frame) {
+         Term t = input.getBound();
+         for (int i = 0; i < heads.length; i++) {
+            if (t.getType() == TermType.VARIABLE) {
+               return t.unify(copy(i, frame));
+            } else if (t.getType() != TermType.LIST) {
+               return false;
+            } else if (!heads[i].unify(t.getArgument(0), frame)) {
+               return false;
+            }
+            t = t.getArgument(1).getBound();
+         }
+         return tail.unify(t, frame);
+      }
+
+      @Override
+      Term copy(Term[] frame) {
+         return copy(0, frame);
+      }
+
+      /** Returns a copy of the list starting from the element at the specified index. */
+      private Term copy(int from, Term[] frame) {
+         Term[] elements = new Term[heads.length - from];
+         for (int i = 0; i < elements.length; i++) {
+            elements[i] = heads[from + i].copy(frame);
+         }
+         return ListFactory.createList(elements, tail.copy(frame));
+      }
+   }
+
+   /** Template for a mutable term that cannot contain variables, e.g. a CLP variable. */
+   private static final class OtherTemplate extends TermTemplate {
+      private final Term term;
+
+      OtherTemplate(Term term) {
+         this.term = term;
+      }
+
+      @Override
+      boolean unify(Term input, Term[] frame) {
+         return input.unify(copy(frame));
+      }
+
+      @Override
+      Term copy(Term[] frame) {
+         return term.copy(new HashMap<>());
+      }
+   }
+}
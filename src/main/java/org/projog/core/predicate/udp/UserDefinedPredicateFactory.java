@@ -19,6 +19,7 @@ import java.util.Iterator;
 
 import org.projog.core.predicate.PredicateFactory;
 import org.projog.core.predicate.PredicateKey;
+import org.projog.core.term.Term;
 
 /**
  * Maintains a record of the clauses that define a user defined predicate.
@@ -56,6 +57,33 @@ public interface UserDefinedPredicateFactory extends PredicateFactory {
     */
    Iterator<ClauseModel> getImplications();
 
+   /**
+    * Returns an iterator over the clauses in the predicate in proper sequence, without copying them.
+    * <p>
+    * For use when the clauses only need to be inspected. Unlike {@link #getImplications()}, the returned clauses may be
+    * the ones used by this predicate, so must not be altered by the caller. The default implementation returns the same
+    * as {@link #getImplications()}.
+    *
+    * @return an iterator over the clauses in the predicate in proper sequence.
+    */
+   default Iterator<ClauseModel> getImplicationsWithoutCopying() {
+      return getImplications();
+   }
+
+   /**
+    * Returns an iterator over the clauses in the predicate, in proper sequence, that could match the specified term.
+    * <p>
+    * Implementations may use an index to avoid returning clauses whose consequent cannot unify with
+    * {@code clauseHead}. As the returned clauses are not guaranteed to match, callers still need to attempt
+    * unification. The default implementation returns the same as {@link #getImplications()}.
+    *
+    * @param clauseHead the term the consequent of the returned clauses should be unified with
+    * @return an iterator over the clauses in the predicate, in proper sequence, that could match {@code clauseHead}
+    */
+   default Iterator<ClauseModel> getImplications(Term clauseHead) {
+      return getImplications();
+   }
+
    /**
     * Returns {@code true} is this predicate is dynamic.
     * <p>
@@ -87,6 +87,9 @@ public final class Atom implements Term {
 
    @Override
    public boolean unify(Term t) {
+      if (t == this) {
+         return true;
+      }
       TermType tType = t.getType();
       if (tType == TermType.ATOM) {
          return value.equals(t.getName());
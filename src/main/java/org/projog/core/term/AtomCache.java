@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.term;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares {@link Atom} instances, so that every atom with a particular name is represented by the same instance.
+ * <p>
+ * Used when parsing Prolog syntax and by the built-in predicates that construct atoms at runtime (e.g.
+ * {@code atom_codes/2}), so that large fact bases do not contain many copies of the same atom, and so that atoms can
+ * usually be compared by reference. The names of the atoms are interned.
+ * <p>
+ * Atoms are only weakly referenced, so an atom that is no longer used is garbage collected - and a subsequent request
+ * for an atom with the same name will return a new instance. The entries of atoms that have been garbage collected are
+ * removed the next time a new atom is created.
+ * <p>
+ * Can be used by multiple threads at the same time without locking.
+ */
+public final class AtomCache {
+   private static final ConcurrentHashMap<String, AtomReference> CACHE = new ConcurrentHashMap<>();
+   /** The references of atoms that have been garbage collected, whose entries have not yet been removed. */
+   private static final ReferenceQueue<Atom> COLLECTED = new ReferenceQueue<>();
+
+   private AtomCache() {
+   }
+
+   /** Returns an {@code Atom} with the specified name. */
+   public static Atom valueOf(String name) {
+      AtomReference ref = CACHE.get(name);
+      Atom atom = ref == null ? null : ref.get();
+      if (atom != null) {
+         return atom;
+      }
+
+      removeCollected();
+      String key = name.intern();
+      Atom created = new Atom(key);
+      AtomReference createdRef = new AtomReference(created);
+      while (true) {
+         ref = CACHE.putIfAbsent(key, createdRef);
+         if (ref == null) {
+            return created;
+         }
+         // another thread may have added an atom with the same name since it was last checked
+         atom = ref.get();
+         if (atom != null) {
+            return atom;
+         }
+         if (CACHE.replace(key, ref, createdRef)) {
+            return created;
+         }
+      }
+   }
+
+   private static void removeCollected() {
+      AtomReference ref;
+      while ((ref = (AtomReference) COLLECTED.poll()) != null) {
+         // only removes the entry if it has not already been replaced by a new atom with the same name
+         CACHE.remove(ref.name, ref);
+      }
+   }
+
+   private static final class AtomReference extends WeakReference<Atom> {
+      /** The name of the atom, so its entry can be removed once the atom has been garbage collected. */
+      final String name;
+
+      AtomReference(Atom atom) {
+         super(atom, COLLECTED);
+         this.name = atom.getName();
+      }
+   }
+}
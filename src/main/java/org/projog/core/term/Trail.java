@@ -0,0 +1,235 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.term;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the bindings made while evaluating a query so they can be undone when backtracking.
+ * <p>
+ * Rather than walking the arguments of a goal and calling {@link Term#backtrack()} on every term it contains, a
+ * predicate can call {@link #mark()} to create a <i>choice point</i> and later call {@link #undo(long)} to revert only
+ * the bindings that were actually made since the choice point was created.
+ * <p>
+ * Bindings are recorded conditionally. A binding is only recorded if the bound term existed before the most recent
+ * choice point - a variable created after the most recent choice point will not be reachable once the state at that
+ * choice point has been restored, so there is no need to record it. When a choice point is {@link #release(long)
+ * released} the records that are no longer required by any remaining choice point are discarded. This means the trail
+ * does not grow while evaluating deterministic goals.
+ * <p>
+ * Each query has its own {@code Trail}. A {@code Trail} is only recorded to when it has been made active for the
+ * current thread using {@link #activate()}.
+ */
+public final class Trail {
+   private static final ThreadLocal<Trail> ACTIVE = new ThreadLocal<>();
+   /** Used to ensure terms created by one trail are considered older than choice points created by later trails. */
+   private static final AtomicLong LATEST_STAMP = new AtomicLong();
+
+   private Term[] terms = new Term[32];
+   private long[] termStamps = new long[32];
+   private int size;
+   private int[] choicePointPositions = new int[8];
+   private long[] choicePointStamps = new long[8];
+   private int choicePointCount;
+   private long stamp;
+
+   public Trail() {
+      this.stamp = LATEST_STAMP.get();
+   }
+
+   /**
+    * Returns the trail active for the current thread, or {@code null} if there is no active trail.
+    */
+   public static Trail getActive() {
+      return ACTIVE.get();
+   }
+
+   /**
+    * Makes this trail active for the current thread.
+    *
+    * @return the trail that was previously active for the current thread, or {@code null} if there was none
+    * @see #deactivate(Trail)
+    */
+   public Trail activate() {
+      Trail previous = ACTIVE.get();
+      stamp = Math.max(stamp, LATEST_STAMP.get());
+      if (previous != null) {
+         stamp = Math.max(stamp, previous.stamp);
+      }
+      ACTIVE.set(this);
+      return previous;
+   }
+
+   /**
+    * Restores the trail that was active for the current thread before {@link #activate()} was called.
+    *
+    * @param previous the value returned by the corresponding call to {@link #activate()}
+    */
+   public void deactivate(Trail previous) {
+      LATEST_STAMP.accumulateAndGet(stamp, Math::max);
+      if (previous == null) {
+         ACTIVE.remove();
+      } else {
+         previous.stamp = Math.max(previous.stamp, stamp);
+         ACTIVE.set(previous);
+      }
+   }
+
+   /**
+    * Ensures terms created using trails that have since been deactivated, by any thread, are considered older than
+    * choice points subsequently created by this trail.
+    * <p>
+    * To be called when this trail is active and terms created by other threads (e.g. the results of goals evaluated
+    * concurrently) are about to be bound to terms created using this trail.
+    */
+   public void synchronizeStamp() {
+      stamp = Math.max(stamp, LATEST_STAMP.get());
+   }
+
+   /**
+    * Returns the stamp to associate with a newly created term.
+    * <p>
+    * Terms created when there is no active trail have a stamp of {@code 0}, meaning they are considered older than
+    * every choice point.
+    */
+   static long getCurrentStamp() {
+      Trail t = ACTIVE.get();
+      return t == null ? 0 : t.stamp;
+   }
+
+   /**
+    * Records that the specified term has been bound.
+    * <p>
+    * To be called by mutable terms, that do not have a stamp, whenever their state is altered by unification. The
+    * term's {@link Term#backtrack()} method will be called if the binding needs to be undone.
+    *
+    * @param term the term that has been bound
+    */
+   public static void recordBinding(Term term) {
+      recordBinding(term, 0);
+   }
+
+   static void recordBinding(Term term, long termStamp) {
+      Trail t = ACTIVE.get();
+      if (t != null && t.choicePointCount != 0 && termStamp < t.choicePointStamps[t.choicePointCount - 1]) {
+         t.push(term, termStamp);
+      }
+   }
+
+   private void push(Term term, long termStamp) {
+      if (size == terms.length) {
+         terms = Arrays.copyOf(terms, size * 2);
+         termStamps = Arrays.copyOf(termStamps, size * 2);
+      }
+      terms[size] = term;
+      termStamps[size] = termStamp;
+      size++;
+   }
+
+   /**
+    * Creates a new choice point.
+    *
+    * @return identifies the new choice point, to be used in subsequent calls to {@link #undo(long)} and
+    * {@link #release(long)}
+    */
+   public long mark() {
+      if (choicePointCount == choicePointPositions.length) {
+         choicePointPositions = Arrays.copyOf(choicePointPositions, choicePointCount * 2);
+         choicePointStamps = Arrays.copyOf(choicePointStamps, choicePointCount * 2);
+      }
+      choicePointPositions[choicePointCount] = size;
+      choicePointStamps[choicePointCount] = ++stamp;
+      choicePointCount++;
+      return stamp;
+   }
+
+   /**
+    * Undoes all bindings recorded since the specified choice point was created.
+    * <p>
+    * The choice point remains, so it can be undone again. Any choice points created after it are discarded.
+    *
+    * @param choicePoint the value returned by {@link #mark()} when the choice point was created
+    * @return {@code false} if the choice point has already been discarded, in which case no bindings have been undone
+    * and the caller needs to backtrack its terms by calling {@link Term#backtrack()}
+    */
+   public boolean undo(long choicePoint) {
+      int idx = indexOf(choicePoint);
+      if (idx == -1) {
+         return false;
+      }
+
+      int position = choicePointPositions[idx];
+      while (size > position) {
+         Term t = terms[--size];
+         terms[size] = null;
+         t.backtrack();
+      }
+      choicePointCount = idx + 1;
+      return true;
+   }
+
+   /**
+    * Discards the specified choice point, and any created after it, without undoing any bindings.
+    * <p>
+    * To be called once it is known that no further attempt will be made to undo to the choice point.
+    *
+    * @param choicePoint the value returned by {@link #mark()} when the choice point was created
+    */
+   public void release(long choicePoint) {
+      int idx = indexOf(choicePoint);
+      if (idx == -1) {
+         return;
+      }
+
+      choicePointCount = idx;
+      int start = choicePointPositions[idx];
+      if (idx == 0) {
+         Arrays.fill(terms, 0, size, null);
+         size = 0;
+      } else {
+         // only need to keep the bindings of terms created before the, now, most recent choice point
+         long newestStamp = choicePointStamps[idx - 1];
+         int newSize = start;
+         for (int i = start; i < size; i++) {
+            if (termStamps[i] < newestStamp) {
+               terms[newSize] = terms[i];
+               termStamps[newSize] = termStamps[i];
+               newSize++;
+            }
+         }
+         Arrays.fill(terms, newSize, size, null);
+         size = newSize;
+      }
+   }
+
+   private int indexOf(long choicePoint) {
+      for (int i = choicePointCount - 1; i > -1; i--) {
+         long s = choicePointStamps[i];
+         if (s == choicePoint) {
+            return i;
+         } else if (s < choicePoint) {
+            return -1;
+         }
+      }
+      return -1;
+   }
+
+   /** Returns the number of bindings currently recorded. */
+   int size() {
+      return size;
+   }
+}
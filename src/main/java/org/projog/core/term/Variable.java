@@ -45,6 +45,11 @@ public final class Variable implements Term {
     */
    private final Map<VariableAttribute, Term> attributes;
 
+   /**
+    * When this variable was created, relative to the choice points of the active {@link Trail}.
+    */
+   private final long stamp = Trail.getCurrentStamp();
+
    /**
     * Creates an anonymous variable. The ID of the variable will be an underscore.
     */
@@ -86,7 +91,7 @@ public final class Variable implements Term {
          updatedAttributes.put(attributeKey, attributeValue);
       }
 
-      value = new Variable(id, updatedAttributes);
+      bind(new Variable(id, updatedAttributes));
    }
 
    public void removeAttribute(VariableAttribute attributeKey) {
@@ -95,11 +100,11 @@ public final class Variable implements Term {
       } else if (attributes == null || !attributes.containsKey(attributeKey)) {
          // do nothing
       } else if (attributes.size() == 1) {
-         value = new Variable(id);
+         bind(new Variable(id));
       } else {
          Map<VariableAttribute, Term> updatedAttributes = new HashMap<>(attributes);
          updatedAttributes.remove(attributeKey);
-         value = new Variable(id, updatedAttributes);
+         bind(new Variable(id, updatedAttributes));
       }
    }
 
@@ -177,19 +182,19 @@ public final class Variable implements Term {
       } else if (t.getType().isVariable()) {
          Variable otherVariable = (Variable) t.getTerm();
          if (attributes == null && otherVariable.attributes == null) {
-            value = t;
+            bind(t);
             return true;
          } else if (attributes == null) {
-            value = otherVariable;
+            bind(otherVariable);
             return otherVariable.postUnify();
          } else if (otherVariable.attributes == null) {
-            otherVariable.value = this;
+            otherVariable.bind(this);
             return this.postUnify();
          } else {
             return unifyVariablesWithAttributes(this, otherVariable);
          }
       } else {
-         value = t;
+         bind(t);
          return postUnify();
       }
    }
@@ -217,12 +222,17 @@ public final class Variable implements Term {
 
       // create new variable using attributes in map and unify with v1 and v2.
       Variable c = new Variable(v2.getId(), copy);
-      v1.value = c;
-      v2.value = c;
+      v1.bind(c);
+      v2.bind(c);
 
       return c.postUnify();
    }
 
+   private void bind(Term t) {
+      value = t;
+      Trail.recordBinding(this, stamp);
+   }
+
    private boolean postUnify() {
       if (attributes == null) {
          return true;
@@ -64,10 +64,10 @@
 ?- pj_add_predicate(call/8, 'org.projog.core.predicate.builtin.compound.Call').
 ?- pj_add_predicate(call/9, 'org.projog.core.predicate.builtin.compound.Call').
 ?- pj_add_predicate(call/10, 'org.projog.core.predicate.builtin.compound.Call').
-?- pj_add_predicate(time/1, 'org.projog.core.predicate.builtin.compound.Call').
 ?- pj_add_predicate(once/1, 'org.projog.core.predicate.builtin.compound.Once').
 ?- pj_add_predicate(bagof/3, 'org.projog.core.predicate.builtin.compound.BagOf').
 ?- pj_add_predicate(findall/3, 'org.projog.core.predicate.builtin.compound.FindAll').
+?- pj_add_predicate(concurrent_findall/4, 'org.projog.core.predicate.builtin.compound.ConcurrentFindAll').
 ?- pj_add_predicate(setof/3, 'org.projog.core.predicate.builtin.compound.SetOf').
 ?- pj_add_predicate('->'/2, 'org.projog.core.predicate.builtin.compound.IfThen').
 ?- pj_add_predicate(limit/2, 'org.projog.core.predicate.builtin.compound.Limit').
@@ -134,6 +134,9 @@
 ?- pj_add_predicate(flag/3, 'org.projog.core.predicate.builtin.kb.Flag').
 ?- pj_add_predicate(current_predicate/1, 'org.projog.core.predicate.builtin.kb.CurrentPredicate').
 ?- pj_add_predicate('/'('dynamic', 1), 'org.projog.core.predicate.builtin.kb.Dynamic').
+?- pj_add_predicate(pin_indexes/1, 'org.projog.core.predicate.builtin.kb.PinIndexes').
+?- pj_add_predicate('/'('table', 1), 'org.projog.core.predicate.builtin.kb.Table').
+?- pj_add_predicate(abolish_all_tables/0, 'org.projog.core.predicate.builtin.kb.AbolishAllTables').
 
 % db (recorded database)
 ?- pj_add_predicate(erase/1, 'org.projog.core.predicate.builtin.db.Erase').
@@ -229,6 +232,8 @@
 % time
 ?- pj_add_predicate(get_time/1, 'org.projog.core.predicate.builtin.time.GetTime').
 ?- pj_add_predicate(convert_time/2, 'org.projog.core.predicate.builtin.time.ConvertTime').
+?- pj_add_predicate(time/1, 'org.projog.core.predicate.builtin.time.Time').
+?- pj_add_predicate(statistics/2, 'org.projog.core.predicate.builtin.time.Statistics').
 
 ?- pj_add_predicate(dif/2, 'org.projog.core.predicate.builtin.reif.Dif').
 
@@ -263,6 +268,7 @@
 ?- op(1200, xfx, ':-').
 ?- op(1200, fx, ':-').
 ?- op(1100, fx, dynamic).
+?- op(1100, fx, table).
 ?- op(1100, xfy, ';').
 ?- op(1050, xfy, '->').
 ?- op(1000, xfy, ',').
@@ -16,12 +16,14 @@
 package org.projog;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.FileFilter;
 import java.io.FileNotFoundException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.Test;
@@ -29,6 +31,7 @@ import org.projog.api.Projog;
 import org.projog.core.event.ProjogListener;
 import org.projog.core.event.SpyPoints.SpyPointEvent;
 import org.projog.core.event.SpyPoints.SpyPointExitEvent;
+import org.projog.core.kb.ProjogDefaultProperties;
 import org.projog.test.ProjogTestExtractor;
 import org.projog.test.ProjogTestExtractorConfig;
 import org.projog.test.ProjogTestRunner;
@@ -60,6 +63,117 @@ public class PrologTest {
       assertSuccess(EXTRACTED_OPERATORS_TESTS_DIR);
    }
 
+   /**
+    * Test that the same answers are produced when queries are evaluated by the goal stack engine.
+    * <p>
+    * The goal stack engine can determine that there are no more answers before the point that the tests expect (e.g.
+    * when the remaining clauses can not match) so those errors are ignored.
+    */
+   @Test
+   public void prologTestsUsingGoalStackEngine() {
+      assertSameAnswersUsingGoalStackEngine(SOURCE_PROLOG_TESTS_DIR);
+   }
+
+   /** Test that the same answers are produced when the examples of built-in predicates use the goal stack engine. */
+   @Test
+   public void extractedPredicateTestsUsingGoalStackEngine() {
+      extract(EXTRACTED_PREDICATES_TESTS_DIR, BUILTIN_PREDICATES_PACKAGE);
+      assertSameAnswersUsingGoalStackEngine(EXTRACTED_PREDICATES_TESTS_DIR);
+   }
+
+   private void assertSameAnswersUsingGoalStackEngine(File scriptsDir) {
+      TestResults results = ProjogTestRunner.runTests(scriptsDir, new ProjogTestRunnerConfig() {
+         @Override
+         public Projog createProjog() {
+            return new Projog(new ProjogDefaultProperties() {
+               @Override
+               public boolean isGoalStackEngineEnabled() {
+                  return true;
+               }
+            });
+         }
+
+         @Override
+         public boolean doIgnoreFailedRetries() {
+            return true;
+         }
+
+         @Override
+         public boolean isParallel() {
+            return true;
+         }
+      });
+      System.out.println(results.getSummary());
+      for (String error : results.getErrorMessages().split("\\R")) {
+         if (!error.isEmpty() && !error.endsWith("Did not have to fail before determining there were no more answers")) {
+            fail(results.getErrorMessages());
+         }
+      }
+   }
+
+   /**
+    * Test that the same answers are produced when the clauses of static user defined predicates are compiled to Java
+    * classes at runtime.
+    * <p>
+    * Also checks that no clauses were interpreted because the generated code failed to compile.
+    */
+   @Test
+   public void prologTestsUsingRuntimeCompilation() {
+      final List<String> warnings = Collections.synchronizedList(new ArrayList<>());
+      final ProjogListener listener = new ProjogListener() {
+         @Override
+         public void onWarn(String message) {
+            if (message.startsWith("Could not compile")) {
+               warnings.add(message);
+            }
+         }
+
+         @Override
+         public void onInfo(String message) {
+         }
+
+         @Override
+         public void onRedo(SpyPointEvent event) {
+         }
+
+         @Override
+         public void onFail(SpyPointEvent event) {
+         }
+
+         @Override
+         public void onExit(SpyPointExitEvent event) {
+         }
+
+         @Override
+         public void onCall(SpyPointEvent event) {
+         }
+      };
+
+      assertSuccess(SOURCE_PROLOG_TESTS_DIR, new ProjogTestRunnerConfig() {
+         @Override
+         public Projog createProjog() {
+            return new Projog(new ProjogDefaultProperties() {
+               @Override
+               public boolean isRuntimeCompilationEnabled() {
+                  return true;
+               }
+
+               @Override
+               public int getRuntimeCompilationThreshold() {
+                  // compile the first time a predicate is used, so every predicate used by the tests is compiled
+                  return 1;
+               }
+            }, listener);
+         }
+
+         @Override
+         public boolean isParallel() {
+            return true;
+         }
+      });
+      assertEquals(warnings.toString(), 0, warnings.size());
+   }
+
    /** Test that a user-defined predicate with many clauses can be interpreted. */
    @Test
    public void predicateWithManyClauses() throws FileNotFoundException {
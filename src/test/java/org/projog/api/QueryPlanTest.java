@@ -26,9 +26,16 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 import org.projog.core.ProjogException;
+import org.projog.core.event.QueryLimitException;
 import org.projog.core.predicate.PredicateFactory;
 import org.projog.core.predicate.PredicateKey;
 import org.projog.core.predicate.PreprocessablePredicateFactory;
@@ -149,4 +156,71 @@ public class QueryPlanTest {
          assertEquals("Failed to find a solution for: ,(true, ,(true, fail))", projogException.getMessage());
       }
    }
+
+   /**
+    * Confirm that multiple threads can concurrently evaluate queries against the same knowledge base.
+    */
+   @Test
+   public void testConcurrentExecution() throws Exception {
+      final int numThreads = 8;
+      final int numIterations = 100;
+      Projog projog = new Projog();
+      projog.consultReader(new StringReader("?- dynamic(seen/2). "
+                                            + "count(N, N, []). "
+                                            + "count(I, N, [I|T]) :- I < N, I1 is I + 1, count(I1, N, T). "
+                                            + "add(_, []). "
+                                            + "add(Id, [H|T]) :- assertz(seen(Id, H)), add(Id, T). "
+                                            + "sum([], 0). "
+                                            + "sum([H|T], Total) :- sum(T, X), Total is X + H. "
+                                            + "test(Id, Total) :- "
+                                            + "count(0, 50, L), "
+                                            + "add(Id, L), "
+                                            + "findall(X, seen(Id, X), Xs), "
+                                            + "sum(Xs, Total), "
+                                            + "retractall(seen(Id, _)), "
+                                            + "flag(calls, C, C+1)."));
+      QueryPlan plan = projog.createPlan("test(Id, Total).");
+
+      ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+      try {
+         List<Future<?>> futures = new ArrayList<>();
+         for (int t = 0; t < numThreads; t++) {
+            final long id = t;
+            futures.add(executor.submit(() -> {
+               for (int i = 0; i < numIterations; i++) {
+                  QueryStatement s = plan.createStatement();
+                  s.setLong("Id", id);
+                  QueryResult r = s.executeQuery();
+                  assertTrue(r.next());
+                  assertEquals(1225, r.getLong("Total"));
+                  assertFalse(r.next());
+               }
+               return null;
+            }));
+         }
+         for (Future<?> f : futures) {
+            f.get();
+         }
+      } finally {
+         executor.shutdown();
+      }
+
+      assertEquals(numThreads * numIterations, projog.createPlan("flag(calls, X, X).").findFirstAsLong());
+      assertFalse(projog.executeQuery("seen(_, _).").next());
+   }
+
+   @Test
+   public void testLimits() {
+      QueryPlan plan = new Projog().createPlan("repeat, fail.");
+      plan.setMaxInferences(10);
+      plan.setTimeout(1, TimeUnit.MINUTES);
+      for (int i = 0; i < 2; i++) {
+         try {
+            plan.executeOnce();
+            fail();
+         } catch (QueryLimitException e) {
+            assertEquals(QueryLimitException.Reason.INFERENCES, e.getReason());
+         }
+      }
+   }
 }
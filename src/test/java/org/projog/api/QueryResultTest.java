@@ -15,18 +15,35 @@
  */
 package org.projog.api;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.Test;
 import org.projog.core.ProjogException;
+import org.projog.core.event.QueryLimitException;
 import org.projog.core.term.Atom;
 import org.projog.core.term.IntegerNumber;
 import org.projog.core.term.Structure;
@@ -215,4 +232,160 @@ public class QueryResultTest {
       expected.add("Z");
       assertEquals(expected, r.getVariableIds());
    }
+
+   @Test
+   public void testIterator() {
+      Projog p = new Projog();
+      p.consultReader(new StringReader("test(a, 1).test(b, 2).test(c, 3)."));
+      QueryResult r = p.executeQuery("test(X, Y).");
+      Iterator<Term[]> itr = r.iterator("Y", "X");
+      assertFalse(r.isExhausted());
+
+      assertTrue(itr.hasNext());
+      assertTrue(itr.hasNext());
+      Term[] row = itr.next();
+      assertEquals(2, row.length);
+      assertEquals(new IntegerNumber(1), row[0]);
+      assertEquals(new Atom("a"), row[1]);
+      assertEquals("b", p.formatTerm(itr.next()[1]));
+      assertEquals("c", p.formatTerm(itr.next()[1]));
+      assertTrue(r.isExhausted());
+      assertFalse(itr.hasNext());
+      try {
+         itr.next();
+         fail();
+      } catch (NoSuchElementException e) {
+         // expected
+      }
+   }
+
+   @Test
+   public void testIteratorUnknownVariable() {
+      QueryResult r = new Projog().executeQuery("X = a.");
+      try {
+         r.iterator("X", "Y");
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Unknown variable ID: Y. Query contains the variables: [X]", e.getMessage());
+      }
+   }
+
+   @Test
+   public void testStream() {
+      QueryResult r = new Projog().executeQuery("member(X, [a,b,c]), Y = f(X).");
+      assertEquals(Arrays.asList("a:f(a)", "b:f(b)", "c:f(c)"), r.stream("X", "Y").map(row -> row[0] + ":" + row[1]).collect(Collectors.toList()));
+   }
+
+   @Test
+   public void testStreamIsLazy() {
+      // the query would never finish if all solutions were found before the stream was consumed
+      QueryResult r = new Projog().executeQuery("repeat, X = a.");
+      assertEquals(Arrays.asList("a", "a", "a"), r.streamAsAtomName("X").limit(3).collect(Collectors.toList()));
+   }
+
+   @Test
+   public void testStreamAsLong() {
+      QueryResult r = new Projog().executeQuery("between(1, 100000, X).");
+      assertEquals(5000050000L, r.streamAsLong("X").sum());
+      assertTrue(r.isExhausted());
+   }
+
+   @Test
+   public void testStreamAsDouble() {
+      QueryResult r = new Projog().executeQuery("member(X, [1.5, 2, 3.25]).");
+      assertArrayEquals(new double[] {1.5, 2, 3.25}, r.streamAsDouble("X").toArray(), 0);
+   }
+
+   @Test
+   public void testCloseStream() {
+      QueryResult r = new Projog().executeQuery("repeat, X = a.");
+      try (Stream<Term[]> s = r.stream("X")) {
+         assertEquals(new Atom("a"), s.findFirst().get()[0]);
+      }
+      assertTrue(r.isExhausted());
+      try {
+         r.next();
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Query has already been exhausted. Last call to QueryResult.next() returned false.", e.getMessage());
+      }
+   }
+
+   @Test
+   public void testSpliterator() {
+      Spliterator<Term[]> s = new Projog().executeQuery("member(X, [a,b]).").spliterator("X");
+      assertTrue(s.hasCharacteristics(Spliterator.ORDERED));
+      assertNull(s.trySplit());
+      List<Term> terms = new ArrayList<>();
+      s.forEachRemaining(row -> terms.add(row[0]));
+      assertEquals(Arrays.asList(new Atom("a"), new Atom("b")), terms);
+   }
+
+   @Test
+   public void testCancelBeforeEvaluation() {
+      QueryResult r = new Projog().executeQuery("true.");
+      r.cancel();
+      try {
+         r.next();
+         fail();
+      } catch (QueryLimitException e) {
+         assertEquals(QueryLimitException.Reason.CANCELLED, e.getReason());
+         assertEquals("Query cancelled", e.getMessage());
+      }
+   }
+
+   @Test
+   public void testCancelBetweenSolutions() {
+      QueryResult r = new Projog().executeQuery("repeat.");
+      assertTrue(r.next());
+      r.cancel();
+      try {
+         r.next();
+         fail();
+      } catch (QueryLimitException e) {
+         assertEquals(QueryLimitException.Reason.CANCELLED, e.getReason());
+      }
+   }
+
+   @Test(timeout = 10000)
+   public void testCancelFromAnotherThread() throws Exception {
+      Projog projog = new Projog();
+      QueryResult r = projog.executeQuery("repeat, fail.");
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         Future<?> future = executor.submit(() -> r.next());
+         Thread.sleep(50);
+         assertFalse(future.isDone());
+         r.cancel();
+         try {
+            future.get();
+            fail();
+         } catch (ExecutionException e) {
+            assertEquals(QueryLimitException.class, e.getCause().getClass());
+         }
+      } finally {
+         executor.shutdown();
+      }
+
+      // other queries are not affected by the cancelled query
+      assertEquals(3, projog.createPlan("X is 1 + 2.").findFirstAsLong());
+   }
+
+   @Test(timeout = 10000)
+   public void testInterrupt() throws Exception {
+      CountDownLatch started = new CountDownLatch(1);
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         Future<?> future = executor.submit(() -> {
+            started.countDown();
+            return new Projog().executeQuery("repeat, fail.").next();
+         });
+         started.await();
+         future.cancel(true);
+         executor.shutdown();
+         assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+      } finally {
+         executor.shutdownNow();
+      }
+   }
 }
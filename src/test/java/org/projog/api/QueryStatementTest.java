@@ -16,19 +16,30 @@
 package org.projog.api;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
+import org.junit.Assume;
 import org.junit.Test;
 import org.projog.TestUtils;
 import org.projog.core.ProjogException;
+import org.projog.core.event.QueryLimitException;
+import org.projog.core.event.QueryLimits;
+import org.projog.core.io.FileHandles;
 import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.kb.ProjogDefaultProperties;
 import org.projog.core.parser.ParserException;
 import org.projog.core.predicate.PredicateFactory;
 import org.projog.core.predicate.PredicateKey;
@@ -215,4 +226,169 @@ public class QueryStatementTest {
          assertEquals("Failed to find a solution for: ,(true, ,(true, fail))", projogException.getMessage());
       }
    }
+
+   @Test
+   public void testSetOutput() {
+      ByteArrayOutputStream output1 = new ByteArrayOutputStream();
+      ByteArrayOutputStream output2 = new ByteArrayOutputStream();
+      String filename = "target/" + getClass().getName() + "_testSetOutput_" + System.currentTimeMillis() + ".tmp";
+      QueryStatement s1 = new QueryStatement(kb, "write(a), open('" + filename + "', write, Z), set_output(Z), write(b), close(Z).");
+      QueryStatement s2 = new QueryStatement(kb, "write(c), current_output(X).");
+      s1.setOutput(new PrintStream(output1));
+      s2.setOutput(new PrintStream(output2));
+
+      kb.getFileHandles().setUserOutput(new PrintStream(new ByteArrayOutputStream()));
+      QueryResult r1 = s1.executeQuery();
+      QueryResult r2 = s2.executeQuery();
+      assertTrue(r1.next());
+      assertTrue(r2.next());
+
+      assertEquals("a", output1.toString());
+      assertEquals("c", output2.toString());
+      assertEquals("user_output", r2.getAtomName("X"));
+      assertSame(FileHandles.USER_OUTPUT_HANDLE, kb.getFileHandles().getCurrentOutputHandle());
+   }
+
+   @Test
+   public void testSetInput() {
+      QueryStatement s = new QueryStatement(kb, "get_char(X), get_char(Y).");
+      s.setInput(new ByteArrayInputStream("xy".getBytes()));
+
+      QueryResult r = s.executeQuery();
+      assertTrue(r.next());
+
+      assertEquals("x", r.getAtomName("X"));
+      assertEquals("y", r.getAtomName("Y"));
+   }
+
+   @Test
+   public void testSetMaxInferences() {
+      QueryStatement s = new QueryStatement(kb, "repeat, fail.");
+      s.setMaxInferences(100);
+      QueryResult r = s.executeQuery();
+      try {
+         r.next();
+         fail();
+      } catch (QueryLimitException e) {
+         assertEquals(QueryLimitException.Reason.INFERENCES, e.getReason());
+         assertEquals("Exceeded the maximum number of inferences: 100", e.getMessage());
+         assertEquals(101, r.getInferenceCount());
+      }
+   }
+
+   @Test
+   public void testSetMaxInferencesAppliesToAllSolutions() {
+      QueryStatement s = new QueryStatement(kb, "repeat, true.");
+      s.setMaxInferences(5);
+      QueryResult r = s.executeQuery();
+      assertTrue(r.next());
+      assertTrue(r.next());
+      assertTrue(r.next());
+      try {
+         r.next();
+         fail();
+      } catch (QueryLimitException e) {
+         assertEquals(QueryLimitException.Reason.INFERENCES, e.getReason());
+      }
+   }
+
+   @Test
+   public void testSetMaxInferencesNotExceeded() {
+      QueryStatement s = new QueryStatement(kb, "between(1, 10, X), X > 9.");
+      s.setMaxInferences(1000);
+      QueryResult r = s.executeQuery();
+      assertTrue(r.next());
+      assertEquals(10, r.getLong("X"));
+      assertFalse(r.next());
+   }
+
+   @Test
+   public void testSetTimeout() {
+      QueryStatement s = new QueryStatement(kb, "repeat, fail.");
+      s.setTimeout(50, TimeUnit.MILLISECONDS);
+      QueryResult r = s.executeQuery();
+      try {
+         r.next();
+         fail();
+      } catch (QueryLimitException e) {
+         assertEquals(QueryLimitException.Reason.TIMEOUT, e.getReason());
+         assertEquals("Exceeded the timeout of: 50000000 nanoseconds", e.getMessage());
+      }
+   }
+
+   @Test
+   public void testSetMaxInferencesWithGoalStackEngine() {
+      QueryStatement s = new QueryStatement(createGoalStackKnowledgeBase(), "repeat, fail.");
+      s.setMaxInferences(10000);
+      QueryResult r = s.executeQuery();
+      try {
+         r.next();
+         fail();
+      } catch (QueryLimitException e) {
+         assertEquals(QueryLimitException.Reason.INFERENCES, e.getReason());
+         assertEquals(10001, r.getInferenceCount());
+      }
+   }
+
+   @Test
+   public void testSetMaxInferencesWithGoalStackEngineWhenOnlyRetrying() {
+      QueryStatement s = new QueryStatement(createGoalStackKnowledgeBase(), "findall(x, repeat, L).");
+      s.setMaxInferences(10000);
+      QueryResult r = s.executeQuery();
+      try {
+         r.next();
+         fail();
+      } catch (QueryLimitException e) {
+         assertEquals(QueryLimitException.Reason.INFERENCES, e.getReason());
+      }
+   }
+
+   @Test
+   public void testSetTimeoutWithGoalStackEngine() {
+      QueryStatement s = new QueryStatement(createGoalStackKnowledgeBase(), "repeat, fail.");
+      s.setTimeout(200, TimeUnit.MILLISECONDS);
+      QueryResult r = s.executeQuery();
+      try {
+         r.next();
+         fail();
+      } catch (QueryLimitException e) {
+         assertEquals(QueryLimitException.Reason.TIMEOUT, e.getReason());
+      }
+   }
+
+   @Test
+   public void testSetMaxAllocatedBytes() {
+      Assume.assumeTrue(QueryLimits.isAllocationLimitSupported());
+      QueryStatement s = new QueryStatement(kb, "repeat, atom_length(abcdefghij, _), length(L, 100), fail.");
+      s.setMaxAllocatedBytes(1_000_000);
+      QueryResult r = s.executeQuery();
+      try {
+         r.next();
+         fail();
+      } catch (QueryLimitException e) {
+         assertEquals(QueryLimitException.Reason.ALLOCATION, e.getReason());
+         assertEquals("Exceeded the maximum number of allocated bytes: 1000000", e.getMessage());
+      }
+   }
+
+   @Test
+   public void testNegativeLimit() {
+      QueryStatement s = new QueryStatement(kb, "true.");
+      s.setMaxInferences(-1);
+      try {
+         s.executeQuery();
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Query limits cannot be negative", e.getMessage());
+      }
+   }
+
+   private static KnowledgeBase createGoalStackKnowledgeBase() {
+      return TestUtils.createKnowledgeBase(new ProjogDefaultProperties() {
+         @Override
+         public boolean isGoalStackEngineEnabled() {
+            return true;
+         }
+      });
+   }
 }
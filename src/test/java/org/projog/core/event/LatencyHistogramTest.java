@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+   @Test
+   public void testEmpty() {
+      LatencyHistogram h = new LatencyHistogram();
+      assertEquals(0, h.getCount());
+      assertEquals(0, h.getMax());
+      assertEquals(0, h.getValueAtPercentile(50));
+   }
+
+   @Test
+   public void testBuckets() {
+      long previousIndex = -1;
+      for (long value = 0; value < 100_000; value++) {
+         int index = LatencyHistogram.getBucketIndex(value);
+         // each bucket contains a consecutive range of values
+         assertTrue(index == previousIndex || index == previousIndex + 1);
+         previousIndex = index;
+
+         long highest = LatencyHistogram.getHighestValueInBucket(index);
+         assertTrue(highest >= value);
+         // highest value in bucket within 12.5% of the value
+         assertTrue(highest - value <= value / 8);
+         assertEquals(index, LatencyHistogram.getBucketIndex(highest));
+      }
+
+      int lastIndex = LatencyHistogram.getBucketIndex(Long.MAX_VALUE);
+      assertEquals(Long.MAX_VALUE, LatencyHistogram.getHighestValueInBucket(lastIndex));
+   }
+
+   @Test
+   public void testPercentiles() {
+      LatencyHistogram h = new LatencyHistogram();
+      for (int i = 1; i <= 1000; i++) {
+         h.record(i * 1000L);
+      }
+      assertEquals(1000, h.getCount());
+      assertEquals(1_000_000, h.getMax());
+      assertWithinPrecision(500_000, h.getValueAtPercentile(50));
+      assertWithinPrecision(990_000, h.getValueAtPercentile(99));
+      assertEquals(1_000_000, h.getValueAtPercentile(100));
+      assertWithinPrecision(1_000, h.getValueAtPercentile(0));
+   }
+
+   @Test
+   public void testNegativeRecordedAsZero() {
+      LatencyHistogram h = new LatencyHistogram();
+      h.record(-5);
+      assertEquals(1, h.getCount());
+      assertEquals(0, h.getValueAtPercentile(100));
+   }
+
+   @Test
+   public void testReset() {
+      LatencyHistogram h = new LatencyHistogram();
+      h.record(42);
+      h.reset();
+      assertEquals(0, h.getCount());
+      assertEquals(0, h.getMax());
+      assertEquals(0, h.getValueAtPercentile(99));
+   }
+
+   private static void assertWithinPrecision(long expected, long actual) {
+      assertTrue(actual + " not within precision of " + expected, actual >= expected && actual - expected <= expected / 8);
+   }
+}
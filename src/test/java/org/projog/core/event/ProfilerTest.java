@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.Test;
+import org.projog.SimpleProjogListener;
+import org.projog.api.Projog;
+import org.projog.core.predicate.PredicateKey;
+
+public class ProfilerTest {
+   private static final String PROGRAM = "p(X) :- q(X), r(X). q(1). q(2). q(3). r(2). r(3).";
+
+   @Test
+   public void testDisabledByDefault() {
+      Projog projog = createProjog();
+      Profiler profiler = projog.getKnowledgeBase().getSpyPoints().getProfiler();
+      assertFalse(profiler.isEnabled());
+
+      projog.createPlan("p(X).").findAllAsLong();
+
+      assertTrue(profiler.getStatistics().isEmpty());
+   }
+
+   @Test
+   public void testCounts() {
+      Projog projog = createProjog();
+      Profiler profiler = projog.getKnowledgeBase().getSpyPoints().getProfiler();
+      profiler.setEnabled(true);
+
+      projog.createPlan("p(X).").findAllAsLong();
+
+      List<PredicateStatistics> statistics = profiler.getStatistics();
+      assertEquals(3, statistics.size());
+      assertStatistics(statistics.get(0), "p", 1, 1, 1, 2, 0);
+      assertStatistics(statistics.get(1), "q", 1, 1, 2, 3, 0);
+      assertStatistics(statistics.get(2), "r", 1, 3, 0, 2, 1);
+   }
+
+   @Test
+   public void testNoEventsSentToListenersWhenOnlyProfiling() {
+      SimpleProjogListener listener = new SimpleProjogListener();
+      Projog projog = createProjog();
+      projog.addListener(listener);
+      projog.getKnowledgeBase().getSpyPoints().getProfiler().setEnabled(true);
+
+      projog.createPlan("p(X).").findAllAsLong();
+
+      assertEquals("", listener.result());
+   }
+
+   @Test
+   public void testEnableAndDisable() {
+      Projog projog = createProjog();
+      Profiler profiler = projog.getKnowledgeBase().getSpyPoints().getProfiler();
+
+      profiler.setEnabled(true);
+      projog.createPlan("q(X).").findAllAsLong();
+      profiler.setEnabled(false);
+      projog.createPlan("q(X).").findAllAsLong();
+
+      assertEquals(1, profiler.getStatistics().size());
+      assertStatistics(profiler.getStatistics().get(0), "q", 1, 1, 2, 3, 0);
+
+      profiler.reset();
+      assertTrue(profiler.getStatistics().isEmpty());
+   }
+
+   @Test
+   public void testTimesRecorded() {
+      Projog projog = createProjog();
+      Profiler profiler = projog.getKnowledgeBase().getSpyPoints().getProfiler();
+      profiler.setEnabled(true);
+
+      projog.createPlan("p(X).").findAllAsLong();
+
+      for (PredicateStatistics s : profiler.getStatistics()) {
+         LatencyHistogram h = s.getHistogram();
+         // a time is recorded for each call and redo
+         assertEquals(s.getCalls() + s.getRedos(), h.getCount());
+         assertTrue(s.getTotalNanos() >= h.getMax());
+      }
+      // the time of p/1 includes the time of q/1 and r/1
+      assertTrue(profiler.getStatistics().get(0).getTotalNanos() >= profiler.getStatistics().get(1).getTotalNanos());
+   }
+
+   @Test
+   public void testLastCallOptimisationAppliedWhenProfiling() {
+      Projog projog = new Projog();
+      projog.consultReader(new StringReader("count_to(I, N) :- I < N, !, I1 is I+1, count_to(I1, N). count_to(N, N)."));
+      Profiler profiler = projog.getKnowledgeBase().getSpyPoints().getProfiler();
+      profiler.setEnabled(true);
+
+      projog.executeOnce("count_to(0, 1000000).");
+
+      List<PredicateStatistics> statistics = profiler.getStatistics();
+      assertEquals(1, statistics.size());
+      assertStatistics(statistics.get(0), "count_to", 2, 1000001, 0, 1000001, 0);
+      assertEquals(1000001, statistics.get(0).getHistogram().getCount());
+   }
+
+   @Test
+   public void testToTable() {
+      Projog projog = createProjog();
+      Profiler profiler = projog.getKnowledgeBase().getSpyPoints().getProfiler();
+      profiler.setEnabled(true);
+
+      projog.createPlan("r(X).").findAllAsLong();
+
+      String[] lines = profiler.toTable().split(System.lineSeparator());
+      assertEquals(2, lines.length);
+      assertTrue(lines[0].matches("PREDICATE +CALLS +REDOS +EXITS +FAILS +TOTAL +MEAN +P50 +P99 +MAX"));
+      assertTrue(lines[1], lines[1].matches("r/1 +1 +1 +2 +0 +[0-9.]+ +[0-9.]+ +[0-9.]+ +[0-9.]+ +[0-9.]+"));
+   }
+
+   @Test
+   public void testToJson() {
+      Projog projog = createProjog();
+      Profiler profiler = projog.getKnowledgeBase().getSpyPoints().getProfiler();
+      assertEquals("[]", profiler.toJson());
+      profiler.setEnabled(true);
+
+      projog.createPlan("r(X).").findAllAsLong();
+
+      String json = profiler.toJson();
+      assertTrue(json, json.matches("\\[\\{\"name\":\"r\",\"arity\":1,\"calls\":1,\"redos\":1,\"exits\":2,\"fails\":0,"
+                                    + "\"totalNanos\":\\d+,\"p50Nanos\":\\d+,\"p90Nanos\":\\d+,\"p99Nanos\":\\d+,\"maxNanos\":\\d+\\}\\]"));
+   }
+
+   @Test
+   public void testToJsonEscapesNames() {
+      Projog projog = new Projog();
+      projog.consultReader(new StringReader("'a \"b\" \\\\ c'."));
+      Profiler profiler = projog.getKnowledgeBase().getSpyPoints().getProfiler();
+      profiler.setEnabled(true);
+
+      projog.executeOnce("'a \"b\" \\\\ c'.");
+
+      assertTrue(profiler.toJson(), profiler.toJson().startsWith("[{\"name\":\"a \\\"b\\\" \\\\ c\",\"arity\":0,"));
+   }
+
+   private static Projog createProjog() {
+      Projog projog = new Projog();
+      projog.consultReader(new StringReader(PROGRAM));
+      return projog;
+   }
+
+   private static void assertStatistics(PredicateStatistics s, String name, int arity, long calls, long redos, long exits, long fails) {
+      assertEquals(new PredicateKey(name, arity), s.getPredicateKey());
+      assertEquals("calls", calls, s.getCalls());
+      assertEquals("redos", redos, s.getRedos());
+      assertEquals("exits", exits, s.getExits());
+      assertEquals("fails", fails, s.getFails());
+   }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class QueryLimitsTest {
+   @Test
+   public void testUnlimited() {
+      QueryLimits limits = new QueryLimits();
+      QueryLimits previous = limits.activate();
+      try {
+         for (int i = 0; i < QueryLimits.CHECK_INTERVAL * 3; i++) {
+            InferenceCounter.increment();
+         }
+      } finally {
+         limits.deactivate(previous);
+      }
+      assertEquals(QueryLimits.CHECK_INTERVAL * 3, limits.getInferenceCount());
+   }
+
+   @Test
+   public void testMaxInferences() {
+      QueryLimits limits = new QueryLimits(QueryLimits.UNLIMITED, 5, QueryLimits.UNLIMITED);
+      QueryLimits previous = limits.activate();
+      try {
+         for (int i = 0; i < 5; i++) {
+            InferenceCounter.increment();
+         }
+         assertInferenceLimitExceeded();
+      } finally {
+         limits.deactivate(previous);
+      }
+      assertEquals(6, limits.getInferenceCount());
+   }
+
+   @Test
+   public void testInferencesOnlyCountedWhileActive() {
+      QueryLimits limits = new QueryLimits(QueryLimits.UNLIMITED, 5, QueryLimits.UNLIMITED);
+      for (int a = 0; a < 5; a++) {
+         QueryLimits previous = limits.activate();
+         try {
+            InferenceCounter.increment();
+         } finally {
+            limits.deactivate(previous);
+         }
+         // not counted, as limits not active
+         InferenceCounter.increment();
+      }
+      assertEquals(5, limits.getInferenceCount());
+
+      QueryLimits previous = limits.activate();
+      try {
+         assertInferenceLimitExceeded();
+      } finally {
+         limits.deactivate(previous);
+      }
+   }
+
+   @Test
+   public void testNested() {
+      QueryLimits outer = new QueryLimits(QueryLimits.UNLIMITED, 10, QueryLimits.UNLIMITED);
+      QueryLimits inner = new QueryLimits(QueryLimits.UNLIMITED, 3, QueryLimits.UNLIMITED);
+      assertNull(outer.activate());
+      try {
+         InferenceCounter.increment();
+         assertSame(outer, inner.activate());
+         try {
+            InferenceCounter.increment();
+            InferenceCounter.increment();
+         } finally {
+            inner.deactivate(outer);
+         }
+         // the inferences of the inner limits are also counted by the outer limits
+         assertEquals(2, inner.getInferenceCount());
+         assertEquals(3, outer.getInferenceCount());
+         for (int i = 0; i < 7; i++) {
+            InferenceCounter.increment();
+         }
+         assertInferenceLimitExceeded();
+      } finally {
+         outer.deactivate(null);
+      }
+   }
+
+   @Test
+   public void testCancel() {
+      QueryLimits limits = new QueryLimits();
+      assertFalse(limits.isCancelled());
+      limits.cancel();
+      assertTrue(limits.isCancelled());
+      QueryLimits previous = limits.activate();
+      try {
+         InferenceCounter.increment();
+         fail();
+      } catch (QueryLimitException e) {
+         assertEquals(QueryLimitException.Reason.CANCELLED, e.getReason());
+      } finally {
+         limits.deactivate(previous);
+      }
+      // limits only checked while active
+      InferenceCounter.increment();
+   }
+
+   @Test
+   public void testTimeout() throws InterruptedException {
+      QueryLimits limits = new QueryLimits(1, QueryLimits.UNLIMITED, QueryLimits.UNLIMITED);
+      Thread.sleep(1);
+      try {
+         limits.check();
+         fail();
+      } catch (QueryLimitException e) {
+         assertEquals(QueryLimitException.Reason.TIMEOUT, e.getReason());
+         assertEquals("Exceeded the timeout of: 1 nanoseconds", e.getMessage());
+      }
+   }
+
+   private static void assertInferenceLimitExceeded() {
+      try {
+         InferenceCounter.increment();
+         fail();
+      } catch (QueryLimitException e) {
+         assertEquals(QueryLimitException.Reason.INFERENCES, e.getReason());
+      }
+   }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.projog.TestUtils;
+import org.projog.core.ProjogException;
+import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.parser.ProjogSourceReader;
+import org.projog.core.term.Term;
+import org.projog.core.term.TermType;
+import org.projog.core.term.TermUtils;
+
+public class RuntimeStatisticsTest {
+   private final KnowledgeBase kb = TestUtils.createKnowledgeBase();
+   private final RuntimeStatistics statistics = new RuntimeStatistics(kb);
+
+   @Test
+   public void testInferences() {
+      ProjogSourceReader.parseReader(kb, new StringReader("p(X) :- q(X), X > 1. q(1). q(2). q(3)."));
+
+      long before = getLong("inferences");
+      assertTrue(kb.getPredicates().getPredicate(TestUtils.parseSentence("p(3).")).evaluate());
+      // one each for: p/1, ,/2, q/1 and >/2
+      assertEquals(before + 4, getLong("inferences"));
+   }
+
+   @Test
+   public void testInferencesTailRecursive() {
+      ProjogSourceReader.parseReader(kb, new StringReader("count(N, N). count(I, N) :- I < N, I1 is I+1, count(I1, N)."));
+
+      long before = getLong("inferences");
+      assertTrue(kb.getPredicates().getPredicate(TestUtils.parseSentence("count(0, 10).")).evaluate());
+      // 11 calls of count/2, 10 calls each of </2 and is/2 and 1 call of the body of the first clause
+      assertEquals(before + 32, getLong("inferences"));
+   }
+
+   @Test
+   public void testClausesAndAtoms() {
+      long clauses = getLong("clauses");
+      long atoms = getLong("atoms");
+
+      ProjogSourceReader.parseReader(kb, new StringReader("statistics_test(a, f(b)). statistics_test(c, [a])."));
+
+      assertEquals(clauses + 2, getLong("clauses"));
+      // statistics_test, a, f, b and c
+      assertEquals(atoms + 5, getLong("atoms"));
+   }
+
+   @Test
+   public void testAtomsOfLongList() {
+      long atoms = getLong("atoms");
+      StringBuilder sb = new StringBuilder("statistics_test([");
+      for (int i = 0; i < 200000; i++) {
+         sb.append(i == 0 ? "" : ",").append(i % 2 == 0 ? "x" : "f(y)");
+      }
+      ProjogSourceReader.parseReader(kb, new StringReader(sb.append("]).").toString()));
+
+      // statistics_test, x, f and y
+      assertEquals(atoms + 4, getLong("atoms"));
+   }
+
+   @Test
+   public void testRuntimeAndWalltime() {
+      for (String key : new String[] {"runtime", "walltime"}) {
+         Term first = statistics.getValue(key);
+         assertEquals(TermType.LIST, first.getType());
+         long total = TermUtils.castToNumeric(first.getArgument(0)).getLong();
+         long sinceLast = TermUtils.castToNumeric(first.getArgument(1).getArgument(0)).getLong();
+         assertTrue(total >= 0);
+         assertEquals(total, sinceLast);
+
+         Term second = statistics.getValue(key);
+         long secondTotal = TermUtils.castToNumeric(second.getArgument(0)).getLong();
+         long secondSinceLast = TermUtils.castToNumeric(second.getArgument(1).getArgument(0)).getLong();
+         assertEquals(secondTotal - total, secondSinceLast);
+      }
+   }
+
+   @Test
+   public void testRuntimeIsPerThread() throws InterruptedException {
+      Thread other = new Thread(() -> {
+         // use some CPU time so this thread's runtime is greater than that of the main thread
+         long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+         while (System.nanoTime() < end) {
+            // busy wait
+         }
+         statistics.getValue("runtime");
+      });
+      other.start();
+      other.join();
+
+      Term runtime = statistics.getValue("runtime");
+      long total = TermUtils.castToNumeric(runtime.getArgument(0)).getLong();
+      long sinceLast = TermUtils.castToNumeric(runtime.getArgument(1).getArgument(0)).getLong();
+      assertEquals(total, sinceLast);
+   }
+
+   @Test
+   public void testHeap() {
+      assertTrue(getLong("heap") > 0);
+   }
+
+   @Test
+   public void testUnknownKey() {
+      try {
+         statistics.getValue("unknown");
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Unknown statistics key: unknown expected one of: [runtime, walltime, inferences, heap, atoms, clauses, indexes]", e.getMessage());
+      }
+   }
+
+   private long getLong(String key) {
+      return TermUtils.castToNumeric(statistics.getValue(key)).getLong();
+   }
+}
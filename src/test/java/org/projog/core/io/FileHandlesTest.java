@@ -194,6 +194,42 @@ public class FileHandlesTest {
       assertFalse(fh.isHandle(handle.getName()));
    }
 
+   @Test
+   public void testStreams() throws IOException {
+      FileHandles fh = new FileHandles();
+      InputStream is = new ByteArrayInputStream(new byte[0]);
+      PrintStream ps = new PrintStream(new ByteArrayOutputStream());
+      FileHandles.Streams streams = fh.createStreams(is, ps);
+
+      FileHandles.Streams previous = streams.activate();
+      try {
+         // user_input and user_output refer to the streams specified when the Streams was created
+         assertSame(FileHandles.USER_INPUT_HANDLE, fh.getCurrentInputHandle());
+         assertSame(is, fh.getCurrentInputStream());
+         assertSame(FileHandles.USER_OUTPUT_HANDLE, fh.getCurrentOutputHandle());
+         assertSame(ps, fh.getCurrentOutputStream());
+
+         // changing the current output while the Streams is active does not alter the default streams
+         String filename = createFileName("testStreams");
+         Term handle = fh.openOutput(filename);
+         fh.setOutput(handle);
+         assertSame(handle, fh.getCurrentOutputHandle());
+         assertNotSame(ps, fh.getCurrentOutputStream());
+
+         fh.setOutput(FileHandles.USER_OUTPUT_HANDLE);
+         assertSame(ps, fh.getCurrentOutputStream());
+         fh.setOutput(handle);
+         fh.close(handle);
+      } finally {
+         streams.deactivate(previous);
+      }
+
+      assertSame(FileHandles.USER_INPUT_HANDLE, fh.getCurrentInputHandle());
+      assertSame(System.in, fh.getCurrentInputStream());
+      assertSame(FileHandles.USER_OUTPUT_HANDLE, fh.getCurrentOutputHandle());
+      assertSame(System.out, fh.getCurrentOutputStream());
+   }
+
    private String createFileName(String name) {
       return "target/" + getClass().getName() + "_" + name + "_" + System.currentTimeMillis() + ".tmp";
    }
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.kb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+
+import org.junit.Test;
+import org.projog.TestUtils;
+import org.projog.core.ProjogException;
+import org.projog.core.parser.ProjogSourceReader;
+import org.projog.core.predicate.Predicate;
+import org.projog.core.predicate.PredicateKey;
+import org.projog.core.predicate.udp.ClauseModel;
+import org.projog.core.predicate.udp.TabledUserDefinedPredicateFactory;
+import org.projog.core.predicate.udp.UserDefinedPredicateFactory;
+import org.projog.core.term.Term;
+
+public class KnowledgeBaseImageTest {
+   @Test
+   public void testSaveAndLoad() throws IOException {
+      KnowledgeBase original = TestUtils.createKnowledgeBase();
+      ProjogSourceReader.parseReader(original, new StringReader("?- op(700, xfx, '~>'). "
+                                                                + "?- dynamic(d/1). "
+                                                                + "d(1). "
+                                                                + "d([a,b|T]). "
+                                                                + "s(X, Y) :- X ~> Z, Y = [X, Z, _, '\u00dcn\u00efc\u00f8d\u00e9', 1.5, -7, []|_]. "
+                                                                + "~>(a, b)."));
+
+      KnowledgeBase loaded = saveAndLoad(original);
+
+      assertEquals(original.getOperands().getOperators().size(), loaded.getOperands().getOperators().size());
+      assertTrue(loaded.getOperands().xfx("~>"));
+      assertEquals(original.getPredicates().getAllDefinedPredicateKeys(), loaded.getPredicates().getAllDefinedPredicateKeys());
+      assertEquals(original.getArithmeticOperators().getArithmeticOperatorClassNames(), loaded.getArithmeticOperators().getArithmeticOperatorClassNames());
+
+      assertClauses(original, loaded, new PredicateKey("d", 1));
+      assertClauses(original, loaded, new PredicateKey("s", 2));
+      assertTrue(loaded.getPredicates().getUserDefinedPredicates().get(new PredicateKey("d", 1)).isDynamic());
+      assertFalse(loaded.getPredicates().getUserDefinedPredicates().get(new PredicateKey("s", 2)).isDynamic());
+
+      // confirm the loaded clauses, and built-in predicates, can be evaluated
+      Predicate p = loaded.getPredicates().getPredicate(TestUtils.parseSentence("s(a, Y), Y = [_, Z|_], assertz(d(Z)), d(b)."));
+      assertTrue(p.evaluate());
+   }
+
+   @Test
+   public void testVariablesSharedWithinClause() throws IOException {
+      KnowledgeBase original = TestUtils.createKnowledgeBase();
+      ProjogSourceReader.parseReader(original, new StringReader("p(X, X, Y, _, _)."));
+
+      KnowledgeBase loaded = saveAndLoad(original);
+
+      Term clause = loaded.getPredicates().getUserDefinedPredicates().get(new PredicateKey("p", 5)).getImplications().next().getOriginal();
+      assertSame(clause.getArgument(0), clause.getArgument(1));
+      assertTrue(clause.getArgument(0) != clause.getArgument(2));
+      assertTrue(clause.getArgument(3) != clause.getArgument(4));
+      assertEquals("p(X, X, Y, _, _)", loaded.getTermFormatter().formatTerm(clause));
+   }
+
+   @Test
+   public void testAtomsInterned() throws IOException {
+      KnowledgeBase original = TestUtils.createKnowledgeBase();
+      ProjogSourceReader.parseReader(original, new StringReader("q(abc). q(abc)."));
+
+      KnowledgeBase loaded = saveAndLoad(original);
+
+      Iterator<ClauseModel> itr = loaded.getPredicates().getUserDefinedPredicates().get(new PredicateKey("q", 1)).getImplications();
+      Term first = itr.next().getOriginal().getArgument(0);
+      Term second = itr.next().getOriginal().getArgument(0);
+      assertSame(first, second);
+   }
+
+   @Test
+   public void testTabledPredicate() throws IOException {
+      KnowledgeBase original = TestUtils.createKnowledgeBase();
+      ProjogSourceReader.parseReader(original, new StringReader("edge(a,b). edge(b,a). "
+                                                                + "?- table(path/2). "
+                                                                + "path(X,Y) :- path(X,Z), edge(Z,Y). "
+                                                                + "path(X,Y) :- edge(X,Y)."));
+
+      KnowledgeBase loaded = saveAndLoad(original);
+
+      PredicateKey key = new PredicateKey("path", 2);
+      assertClauses(original, loaded, key);
+      assertTrue(loaded.getPredicates().getUserDefinedPredicates().get(key) instanceof TabledUserDefinedPredicateFactory);
+
+      // the left recursive predicate only terminates if it is tabled
+      Predicate p = loaded.getPredicates().getPredicate(TestUtils.parseSentence("findall(X, path(a, X), [b,a])."));
+      assertTrue(p.evaluate());
+   }
+
+   @Test
+   public void testInvalidImage() {
+      try {
+         KnowledgeBaseImage.load(KnowledgeBaseUtils.createKnowledgeBase(), ByteBuffer.wrap("not an image".getBytes()));
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Not a knowledge base image", e.getMessage());
+      }
+   }
+
+   private static KnowledgeBase saveAndLoad(KnowledgeBase original) throws IOException {
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      KnowledgeBaseImage.save(original, os);
+
+      KnowledgeBase loaded = KnowledgeBaseUtils.createKnowledgeBase();
+      KnowledgeBaseImage.load(loaded, ByteBuffer.wrap(os.toByteArray()));
+      return loaded;
+   }
+
+   private static void assertClauses(KnowledgeBase original, KnowledgeBase loaded, PredicateKey key) {
+      UserDefinedPredicateFactory expected = original.getPredicates().getUserDefinedPredicates().get(key);
+      UserDefinedPredicateFactory actual = loaded.getPredicates().getUserDefinedPredicates().get(key);
+      Iterator<ClauseModel> expectedItr = expected.getImplications();
+      Iterator<ClauseModel> actualItr = actual.getImplications();
+      while (expectedItr.hasNext()) {
+         assertTrue(actualItr.hasNext());
+         assertEquals(expectedItr.next().getOriginal().toString(), actualItr.next().getOriginal().toString());
+      }
+      assertFalse(actualItr.hasNext());
+   }
+}
@@ -23,7 +23,12 @@ import static org.junit.Assert.fail;
 import static org.projog.TestUtils.createKnowledgeBase;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 import org.projog.core.kb.KnowledgeBase;
@@ -44,6 +49,24 @@ public class KnowledgeBaseServiceLocatorTest {
       assertNotSame(sl1, sl2);
    }
 
+   @Test(timeout = 10000)
+   public void testConcurrentCreation() throws Exception {
+      KnowledgeBase kb = createKnowledgeBase();
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+         List<Future<KnowledgeBaseServiceLocator>> futures = new ArrayList<>();
+         for (int i = 0; i < 4; i++) {
+            futures.add(executor.submit(() -> KnowledgeBaseServiceLocator.getServiceLocator(kb)));
+         }
+         // every thread is given the same instance
+         for (Future<KnowledgeBaseServiceLocator> f : futures) {
+            assertSame(KnowledgeBaseServiceLocator.getServiceLocator(kb), f.get());
+         }
+      } finally {
+         executor.shutdown();
+      }
+   }
+
    @Test
    public void testGetInstance_OneArgument() {
       KnowledgeBaseServiceLocator l = createKnowledgeBaseServiceLocator();
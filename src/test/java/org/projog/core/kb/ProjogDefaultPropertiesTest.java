@@ -16,6 +16,7 @@
 package org.projog.core.kb;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 import org.junit.Test;
 import org.projog.core.kb.ProjogDefaultProperties;
@@ -27,4 +28,34 @@ public class ProjogDefaultPropertiesTest {
    public void testGetBootstrapScript() {
       assertEquals("projog-bootstrap.pl", properties.getBootstrapScript());
    }
+
+   @Test
+   public void testIsGoalStackEngineEnabled() {
+      assertFalse(properties.isGoalStackEngineEnabled());
+   }
+
+   @Test
+   public void testIsRuntimeCompilationEnabled() {
+      assertFalse(properties.isRuntimeCompilationEnabled());
+   }
+
+   @Test
+   public void testGetRuntimeCompilationThreshold() {
+      assertEquals(1000, properties.getRuntimeCompilationThreshold());
+   }
+
+   @Test
+   public void testGetIndexCacheMemoryLimit() {
+      assertEquals(64 * 1024 * 1024, properties.getIndexCacheMemoryLimit());
+   }
+
+   @Test
+   public void testGetMaxTabledAnswers() {
+      assertEquals(1000000, properties.getMaxTabledAnswers());
+   }
+
+   @Test
+   public void testGetConcurrentFindAllParallelism() {
+      assertEquals(1, properties.getConcurrentFindAllParallelism());
+   }
 }
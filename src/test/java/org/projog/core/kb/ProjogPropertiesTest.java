@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.kb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+/** Tests the default methods of {@link ProjogProperties}, used by implementations that do not override them. */
+public class ProjogPropertiesTest {
+   private final ProjogProperties properties = () -> "test.pl";
+
+   @Test
+   public void testIsGoalStackEngineEnabled() {
+      assertFalse(properties.isGoalStackEngineEnabled());
+   }
+
+   @Test
+   public void testIsRuntimeCompilationEnabled() {
+      assertFalse(properties.isRuntimeCompilationEnabled());
+   }
+
+   @Test
+   public void testGetRuntimeCompilationThreshold() {
+      assertEquals(ProjogProperties.DEFAULT_RUNTIME_COMPILATION_THRESHOLD, properties.getRuntimeCompilationThreshold());
+   }
+   @Test
+   public void testGetIndexCacheMemoryLimit() {
+      assertEquals(ProjogProperties.DEFAULT_INDEX_CACHE_MEMORY_LIMIT, properties.getIndexCacheMemoryLimit());
+   }
+   @Test
+   public void testGetMaxTabledAnswers() {
+      assertEquals(ProjogProperties.DEFAULT_MAX_TABLED_ANSWERS, properties.getMaxTabledAnswers());
+   }
+   @Test
+   public void testGetConcurrentFindAllParallelism() {
+      assertEquals(1, properties.getConcurrentFindAllParallelism());
+   }
+}
@@ -364,6 +364,23 @@ public class SentenceParserTest {
       check("p(1,2','(3+4),5)", "p(1, 2, +(3, 4), 5)");
    }
 
+   @Test
+   public void testAtomsShared() {
+      SentenceParser sp = getSentenceParser("p(a, b, a). q(a, p(c)).");
+      Term first = sp.parseSentence();
+      Term second = sp.parseSentence();
+
+      // each occurrence of the same atom name read by a parser refers to the same instance
+      assertSame(first.getArgument(0), first.getArgument(2));
+      assertSame(first.getArgument(0), second.getArgument(0));
+      assertNotSame(first.getArgument(0), first.getArgument(1));
+
+      // names are interned, so can be compared by reference
+      assertSame(first.getName(), second.getArgument(1).getName());
+      assertSame(first.getName(), parseSentence("p(x).").getName());
+      assertSame(first.getArgument(1).getName(), parseSentence("b.").getName());
+   }
+
    private void checkEquation(String input, String expected) {
       check(input, expected);
 
@@ -225,18 +225,18 @@ public class TermParserTest {
    }
 
    // Check if a term appears twice in a single sentence whether two Term objects are created or if the same instance is referenced twice.
-   // Currently only certain integer terms are cached.
-   // A possible future performance improvement would be to enable caching for all terms.
+   // Certain integer terms and all atoms are cached.
    @Test
-   public void testNoCache() {
+   public void testCache() {
       Term t = parseTerm("p(1,a,0.5)=p(a,0.5,1).");
 
       // the integer number 1 will be reused due to th use of IntegerNumberCache
       assertEquals(t.getArgument(0).getArgument(0), t.getArgument(1).getArgument(2));
       assertSame(t.getArgument(0).getArgument(0), t.getArgument(1).getArgument(2));
 
+      // the atom a will be reused as the parser shares atoms with the same name
       assertEquals(t.getArgument(0).getArgument(1), t.getArgument(1).getArgument(0));
-      assertNotSame(t.getArgument(0).getArgument(1), t.getArgument(1).getArgument(0));
+      assertSame(t.getArgument(0).getArgument(1), t.getArgument(1).getArgument(0));
 
       assertEquals(t.getArgument(0).getArgument(2), t.getArgument(1).getArgument(1));
       assertNotSame(t.getArgument(0).getArgument(2), t.getArgument(1).getArgument(1));
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.projog.TermFactory.atom;
+import static org.projog.TermFactory.integerNumber;
+import static org.projog.TermFactory.structure;
+import static org.projog.TermFactory.variable;
+
+import org.junit.Test;
+import org.projog.TestUtils;
+import org.projog.core.ProjogException;
+import org.projog.core.kb.KnowledgeBase;
+
+public class PredicateFactoryCacheTest {
+   private final KnowledgeBase kb = TestUtils.createKnowledgeBase();
+   private final Predicates predicates = kb.getPredicates();
+   private final PredicateFactoryCache cache = new PredicateFactoryCache(predicates);
+
+   @Test
+   public void testSameAsPredicates() {
+      assertSame(predicates.getPredicateFactory(atom("true")), cache.getPredicateFactory(atom("true")));
+      assertSame(predicates.getPredicateFactory(atom("true")), cache.getPredicateFactory(atom("true")));
+      assertSame(predicates.getPredicateFactory(structure("=", atom(), atom())), cache.getPredicateFactory(structure("=", atom(), atom())));
+      assertSame(predicates.getPredicateFactory(new PredicateKey("write", 1)), cache.getPredicateFactory("write", 1));
+   }
+
+   @Test
+   public void testMoreEntriesThanCacheSize() {
+      String[] names = {"true", "fail", "nl", "repeat", "seen", "told"};
+      for (int i = 0; i < 3; i++) {
+         for (String name : names) {
+            assertSame(predicates.getPredicateFactory(atom(name)), cache.getPredicateFactory(atom(name)));
+         }
+      }
+   }
+
+   @Test
+   public void testUnknownPredicateNotCached() {
+      PredicateKey key = new PredicateKey("test", 1);
+      assertTrue(cache.getPredicateFactory(structure("test", atom())) instanceof UnknownPredicate);
+
+      PredicateFactory pf = mock(PredicateFactory.class);
+      predicates.addPredicateFactory(key, pf);
+      assertSame(pf, cache.getPredicateFactory(structure("test", atom())));
+   }
+
+   @Test
+   public void testInvalidatedWhenPredicateAdded() {
+      PredicateKey key = new PredicateKey("test", 1);
+      // populate the cache before adding the predicate being tested
+      cache.getPredicateFactory(atom("true"));
+
+      PredicateFactory pf = mock(PredicateFactory.class);
+      predicates.addPredicateFactory(key, pf);
+      assertSame(pf, cache.getPredicateFactory(structure("test", atom())));
+      assertSame(predicates.getPredicateFactory(atom("true")), cache.getPredicateFactory(atom("true")));
+   }
+
+   @Test
+   public void testVariable() {
+      try {
+         cache.getPredicateFactory(variable("true"));
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Expected an atom or a predicate but got a VARIABLE with value: true", e.getMessage());
+      }
+   }
+
+   @Test
+   public void testNumber() {
+      try {
+         cache.getPredicateFactory(integerNumber(1));
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Expected an atom or a predicate but got a INTEGER with value: 1", e.getMessage());
+      }
+   }
+}
@@ -22,6 +22,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.projog.TermFactory.atom;
+import static org.projog.TermFactory.structure;
 
 import java.io.StringReader;
 import java.util.Arrays;
@@ -368,4 +369,22 @@ public class PredicatesTest {
       assertSame(PredicateUtils.TRUE, p.getPredicate(atom("true")));
       assertSame(PredicateUtils.FALSE, p.getPredicate(atom("does_not_exist")));
    }
+
+   @Test
+   public void testGetPredicateFactoryOfPredicatesWithSameName() {
+      Predicates p = TestUtils.createKnowledgeBase().getPredicates();
+      PredicateFactory pf2 = mock(PredicateFactory.class);
+      PredicateFactory pf0 = mock(PredicateFactory.class);
+      PredicateFactory pf1 = mock(PredicateFactory.class);
+
+      // add in an order that requires the keys with the same name to be both appended to and inserted into
+      p.addPredicateFactory(new PredicateKey("same_name", 2), pf2);
+      p.addPredicateFactory(new PredicateKey("same_name", 0), pf0);
+      p.addPredicateFactory(new PredicateKey("same_name", 1), pf1);
+
+      assertSame(pf0, p.getPredicateFactory(atom("same_name")));
+      assertSame(pf1, p.getPredicateFactory(structure("same_name", atom("a"))));
+      assertSame(pf2, p.getPredicateFactory(structure("same_name", atom("a"), atom("b"))));
+      assertTrue(p.getPredicateFactory(structure("same_name", atom("a"), atom("b"), atom("c"))) instanceof UnknownPredicate);
+   }
 }
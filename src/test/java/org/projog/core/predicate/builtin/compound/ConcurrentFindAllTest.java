@@ -0,0 +1,183 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.compound;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.projog.api.Projog;
+import org.projog.api.QueryResult;
+import org.projog.api.QueryStatement;
+import org.projog.core.ProjogException;
+import org.projog.core.event.QueryLimitException;
+import org.projog.core.kb.ProjogDefaultProperties;
+import org.projog.core.predicate.AbstractSingleResultPredicate;
+import org.projog.core.predicate.PredicateKey;
+
+public class ConcurrentFindAllTest {
+   private final Projog projog = new Projog(new ProjogDefaultProperties() {
+      @Override
+      public int getConcurrentFindAllParallelism() {
+         return 4;
+      }
+   });
+
+   @Test
+   public void testSameResultsAsFindAll() {
+      projog.consultReader(new StringReader("score(X, S) :- between(1, X, Y), S is (X * Y) mod 7, S > 3."));
+
+      String expected = findAll("findall(X-S, (between(1, 300, X), score(X, S)), L)");
+      assertEquals(expected, findAll("concurrent_findall(X-S, between(1, 300, X), score(X, S), L)"));
+   }
+
+   @Test
+   public void testGoalsEvaluatedByMultipleThreads() {
+      Set<Thread> threads = ConcurrentHashMap.newKeySet();
+      projog.addPredicateFactory(new PredicateKey("record_thread", 0), new AbstractSingleResultPredicate() {
+         @Override
+         protected boolean evaluate() {
+            threads.add(Thread.currentThread());
+            try {
+               Thread.sleep(2);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            }
+            return true;
+         }
+      });
+
+      assertEquals("100", findAll("concurrent_findall(X, between(1, 100, X), record_thread, L0), length(L0, L)"));
+      assertTrue(threads.size() > 1);
+      assertTrue(threads.size() <= 4);
+      assertFalse(threads.contains(Thread.currentThread()));
+   }
+
+   @Test
+   public void testBindingsOfResultsCanBeUndone() {
+      assertEquals("[a,b]", findAll("findall(Y, (concurrent_findall(Z, member(X, [1,2]), true, [A,B]), member(Y-A, [a-Q,b-Q])), L)"));
+   }
+
+   @Test
+   public void testException() {
+      try {
+         findAll("concurrent_findall(X, member(X, [1,2,3,4,a,6,7,8]), Y is X + 1, L)");
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Cannot find arithmetic operator: a/0", e.getMessage());
+      }
+   }
+
+   @Test(timeout = 10000)
+   public void testGoalsCallTabledPredicate() {
+      projog.consultReader(new StringReader("?- table(sq/2). sq(X,Y) :- Y is X*X."));
+
+      assertEquals("[1,4,9,16]", findAll("concurrent_findall(Y, member(X,[1,2,3,4]), sq(X,Y), L)"));
+   }
+
+   /**
+    * Confirm that goals are evaluated by the calling thread when it is evaluating a tabled predicate, which avoids a
+    * deadlock if the goals call the tables being evaluated.
+    */
+   @Test(timeout = 10000)
+   public void testCalledByTabledPredicate() {
+      Set<Thread> threads = recordThreads();
+      projog.consultReader(new StringReader("?- table(sq/2). sq(X,Y) :- Y is X*X."
+                                            + "?- table(t/1). t(L) :- concurrent_findall(Y, member(X,[1,2,3,4]), (record_thread, sq(X,Y)), L)."
+                                            + "?- table(u/1). u(L) :- concurrent_findall(X, member(X,[1,2,3,4]), (record_thread, once(u(_))), L)."
+                                            + "u([])."));
+
+      assertEquals("[1,4,9,16]", findAll("t(L)"));
+      assertEquals("[1,2,3,4]", findAll("findall(X, u(X), [_,L])"));
+      assertEquals(1, threads.size());
+      assertTrue(threads.contains(Thread.currentThread()));
+   }
+
+   @Test(timeout = 10000)
+   public void testTimeoutAppliesToWorkers() {
+      projog.consultReader(new StringReader("loop(N, N). loop(N, M) :- N1 is N+1, loop(N1, M)."));
+
+      QueryStatement s = projog.createStatement("true, concurrent_findall(X, member(X,[1,2,3,4]), loop(0,-1), L).");
+      s.setTimeout(200, TimeUnit.MILLISECONDS);
+      assertLimitExceeded(s.executeQuery(), QueryLimitException.Reason.TIMEOUT);
+   }
+
+   @Test(timeout = 10000)
+   public void testCancelAppliesToWorkers() throws InterruptedException {
+      projog.consultReader(new StringReader("loop(N, N). loop(N, M) :- N1 is N+1, loop(N1, M)."));
+
+      QueryResult r = projog.executeQuery("true, concurrent_findall(X, member(X,[1,2,3,4]), loop(0,-1), L).");
+      Thread t = new Thread(() -> {
+         try {
+            Thread.sleep(200);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+         r.cancel();
+      });
+      t.start();
+      assertLimitExceeded(r, QueryLimitException.Reason.CANCELLED);
+      t.join();
+   }
+
+   @Test(timeout = 10000)
+   public void testMaxInferencesAppliesToWorkers() {
+      QueryStatement s = projog.createStatement("true, concurrent_findall(X, member(X,[1,2,3,4]), (repeat, fail), L).");
+      s.setMaxInferences(100000);
+      assertLimitExceeded(s.executeQuery(), QueryLimitException.Reason.INFERENCES);
+   }
+
+   @Test
+   public void testInferencesOfWorkersCounted() {
+      QueryResult r = projog.executeQuery("concurrent_findall(X, member(X,[1,2,3,4]), \\+ (between(1, 1000, Y), Y > 1000), L).");
+      assertTrue(r.next());
+      assertTrue(Long.toString(r.getInferenceCount()), r.getInferenceCount() > 4000);
+   }
+
+   private static void assertLimitExceeded(QueryResult r, QueryLimitException.Reason expected) {
+      try {
+         r.next();
+         fail();
+      } catch (QueryLimitException e) {
+         assertEquals(expected, e.getReason());
+      }
+   }
+
+   private Set<Thread> recordThreads() {
+      Set<Thread> threads = ConcurrentHashMap.newKeySet();
+      projog.addPredicateFactory(new PredicateKey("record_thread", 0), new AbstractSingleResultPredicate() {
+         @Override
+         protected boolean evaluate() {
+            threads.add(Thread.currentThread());
+            return true;
+         }
+      });
+      return threads;
+   }
+
+   private String findAll(String query) {
+      QueryResult r = projog.executeQuery(query + ".");
+      assertTrue(r.next());
+      return projog.formatTerm(r.getTerm("L"));
+   }
+}
@@ -17,6 +17,7 @@ package org.projog.core.predicate.builtin.compound;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.projog.TestUtils.createKnowledgeBase;
@@ -48,7 +49,7 @@ public class ConjunctionTest {
       Conjunction c = (Conjunction) kb.getPredicates().getPredicateFactory(term);
       PredicateFactory optimised = c.preprocess(term);
 
-      assertSame(c, optimised);
+      assertVariableConjunction(c, term, optimised);
    }
 
    @Test
@@ -58,7 +59,7 @@ public class ConjunctionTest {
       Conjunction c = (Conjunction) kb.getPredicates().getPredicateFactory(term);
       PredicateFactory optimised = c.preprocess(term);
 
-      assertSame(c, optimised);
+      assertVariableConjunction(c, term, optimised);
    }
 
    @Test
@@ -68,7 +69,14 @@ public class ConjunctionTest {
       Conjunction c = (Conjunction) kb.getPredicates().getPredicateFactory(term);
       PredicateFactory optimised = c.preprocess(term);
 
-      assertSame(c, optimised);
+      assertVariableConjunction(c, term, optimised);
+   }
+
+   private static void assertVariableConjunction(Conjunction c, Term term, PredicateFactory optimised) {
+      assertEquals("org.projog.core.predicate.builtin.compound.Conjunction$VariableConjunction", optimised.getClass().getName());
+      assertTrue(optimised.isRetryable());
+      // each call site has its own cache of predicate factories
+      assertNotSame(optimised, c.preprocess(term));
    }
 
    @Test
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.time;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.projog.SimpleProjogListener;
+import org.projog.api.Projog;
+
+public class TimeTest {
+   @Test
+   public void testFormat() {
+      assertEquals("% 1,000,001 inferences, 0.094 CPU in 0.095 seconds (99% CPU, 10638308 Lips), 1,048,576 bytes allocated",
+                  Time.format(1000001, 94000000, 95000000, 1048576));
+   }
+
+   @Test
+   public void testFormatAllocatedBytesUnknown() {
+      assertEquals("% 5 inferences, 0.001 CPU in 0.002 seconds (50% CPU, 5000 Lips)", Time.format(5, 1000000, 2000000, -1));
+   }
+
+   @Test
+   public void testFormatZeroDuration() {
+      assertEquals("% 0 inferences, 0.000 CPU in 0.000 seconds (0% CPU, Infinite Lips)", Time.format(0, 0, 0, -1));
+   }
+
+   @Test
+   public void testReportedToListeners() {
+      final List<String> messages = new ArrayList<>();
+      Projog projog = new Projog(new SimpleProjogListener() {
+         @Override
+         public void onInfo(String message) {
+            if (message.startsWith("% ")) {
+               messages.add(message);
+            }
+         }
+      });
+      projog.consultReader(new StringReader("p(1). p(2)."));
+
+      projog.createPlan("time(p(X)).").findAllAsLong();
+
+      // one message per solution - no attempt is made to retry after the second as there are no more clauses
+      assertEquals(2, messages.size());
+      for (String message : messages) {
+         assertTrue(message, message.matches("% [\\d,]+ inferences, \\d+\\.\\d{3} CPU in \\d+\\.\\d{3} seconds \\(\\d+% CPU, (\\d+|Infinite) Lips\\).*"));
+      }
+      assertTrue(messages.get(0), messages.get(0).startsWith("% 1 inferences,"));
+   }
+}
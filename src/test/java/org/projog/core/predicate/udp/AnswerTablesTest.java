@@ -0,0 +1,258 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+import static org.projog.TermFactory.atom;
+import static org.projog.TestUtils.parseTerm;
+import static org.projog.core.kb.KnowledgeBaseServiceLocator.getServiceLocator;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.projog.TestUtils;
+import org.projog.api.Projog;
+import org.projog.api.QueryResult;
+import org.projog.core.ProjogException;
+import org.projog.core.kb.ProjogDefaultProperties;
+import org.projog.core.kb.ProjogProperties;
+import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.predicate.PredicateKey;
+import org.projog.core.predicate.udp.PredicateUtils;
+import org.projog.core.predicate.udp.AnswerTables.VariantKey;
+import org.projog.core.predicate.Predicate;
+import org.projog.core.term.Term;
+
+public class AnswerTablesTest {
+   private static final int MAX_ANSWERS = 10;
+
+   private final Projog projog = new Projog(new ProjogDefaultProperties() {
+      @Override
+      public long getMaxTabledAnswers() {
+         return MAX_ANSWERS;
+      }
+   });
+   private final AnswerTables tables = getServiceLocator(projog.getKnowledgeBase()).getInstance(AnswerTables.class);
+
+   @Test
+   public void testDefaultMaxAnswers() {
+      assertEquals(ProjogProperties.DEFAULT_MAX_TABLED_ANSWERS, new AnswerTables(TestUtils.createKnowledgeBase()).getMaxAnswers());
+      assertEquals(MAX_ANSWERS, tables.getMaxAnswers());
+   }
+
+   @Test
+   public void testVariantKey() {
+      VariantKey key = createKey("p(X, f(X, Y), [a,b|Y], 1, 1.0)");
+      assertEquals(key, createKey("p(A, f(A, B), [a,b|B], 1, 1.0)"));
+      assertEquals(key.hashCode(), createKey("p(A, f(A, B), [a,b|B], 1, 1.0)").hashCode());
+      assertNotEquals(key, createKey("p(A, f(B, A), [a,b|B], 1, 1.0)"));
+      assertNotEquals(key, createKey("p(A, f(A, A), [a,b|A], 1, 1.0)"));
+      assertNotEquals(key, createKey("p(A, f(A, b), [a,b|b], 1, 1.0)"));
+      assertNotEquals(key, createKey("p(A, f(A, B), [a,b,B], 1, 1.0)"));
+      assertNotEquals(key, createKey("p(A, f(A, B), [a,b|B], 1.0, 1)"));
+      assertNotEquals(key, createKey("p(A, g(A, B), [a,b|B], 1, 1.0)"));
+      assertNotEquals(key, VariantKey.create(new PredicateKey("q", 5), parseTerm("p(A, f(A, B), [a,b|B], 1, 1.0)").getArgs()));
+   }
+
+   @Test
+   public void testVariantKeyOfBoundVariable() {
+      Term[] args = parseTerm("p(X, Y)").getArgs();
+      args[0].unify(atom("a"));
+      assertEquals(createKey("p(a, Y)"), VariantKey.create(new PredicateKey("p", 5), args));
+   }
+
+   @Test
+   public void testAnswersStoredOncePerCallPattern() {
+      consult(":- table(p/1). p(X) :- member(X, [a,b,a,c]).");
+
+      assertEquals("[a,b,c]", findAll("X", "p(X)"));
+      assertEquals(1, tables.getTableCount());
+      assertEquals(3, tables.getAnswerCount());
+
+      assertEquals("[a,b,c]", findAll("Y", "p(Y)"));
+      assertEquals(1, tables.getTableCount());
+
+      assertEquals("[b]", findAll("X", "p(b), X = b"));
+      assertEquals(2, tables.getTableCount());
+      assertEquals(4, tables.getAnswerCount());
+   }
+
+   @Test
+   public void testCompleteTablesDiscardedWhenLimitExceeded() {
+      consult(":- table(p/1). p(X) :- between(1, 6, X). :- table(q/1). q(X) :- between(1, 6, X).");
+
+      assertEquals("[1,2,3,4,5,6]", findAll("X", "p(X)"));
+      assertEquals(6, tables.getAnswerCount());
+
+      assertEquals("[1,2,3,4,5,6]", findAll("X", "q(X)"));
+      assertEquals(1, tables.getTableCount());
+      assertEquals(6, tables.getAnswerCount());
+   }
+
+   @Test
+   public void testLimitExceeded() {
+      consult(":- table(p/1). p(X) :- between(1, 11, X).");
+
+      try {
+         findAll("X", "p(X)");
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Exceeded the maximum number of tabled answers: 10", e.getMessage());
+      }
+      // the partial answers of the failed call are discarded
+      assertEquals(0, tables.getTableCount());
+      assertEquals(0, tables.getAnswerCount());
+   }
+
+   @Test
+   public void testAbolishAll() {
+      consult(":- table(p/1). p(X) :- member(X, [a,b]).");
+      findAll("X", "p(X)");
+      assertEquals(1, tables.getTableCount());
+
+      tables.abolishAll();
+      assertEquals(0, tables.getTableCount());
+      assertEquals(0, tables.getAnswerCount());
+      assertEquals("[a,b]", findAll("X", "p(X)"));
+   }
+
+   @Test
+   public void testTablesDiscardedWhenDynamicPredicateChanges() {
+      consult(":- dynamic(e/1). e(a). :- table(p/1). p(X) :- e(X).");
+      assertEquals("[a]", findAll("X", "p(X)"));
+
+      projog.executeOnce("assertz(e(b)).");
+      assertEquals(0, tables.getTableCount());
+      assertEquals("[a,b]", findAll("X", "p(X)"));
+
+      projog.executeOnce("retract(e(a)).");
+      assertEquals("[b]", findAll("X", "p(X)"));
+   }
+
+   @Test
+   public void testOnlyDependentTablesDiscarded() {
+      consult(":- dynamic(e/1). e(a). :- dynamic(f/1). f(x). "
+              + ":- table(p/1). p(X) :- e(X). "
+              + ":- table(q/1). q(X) :- f(X). "
+              + ":- table(r/1). r(X) :- p(X).");
+      assertEquals("[a]", findAll("X", "r(X)"));
+      assertEquals("[x]", findAll("X", "q(X)"));
+      assertEquals(3, tables.getTableCount());
+
+      // q depends on f
+      projog.executeOnce("assertz(f(y)).");
+      assertEquals(2, tables.getTableCount());
+      assertEquals("[x,y]", findAll("X", "q(X)"));
+      assertEquals(3, tables.getTableCount());
+
+      // p depends on e, and r depends on p
+      projog.executeOnce("retract(e(a)), assertz(e(b)).");
+      assertEquals(1, tables.getTableCount());
+      assertEquals("[b]", findAll("X", "r(X)"));
+      assertEquals("[x,y]", findAll("X", "q(X)"));
+      assertEquals(3, tables.getTableCount());
+   }
+
+   @Test(timeout = 10000)
+   public void testConcurrentCallsOfSameTable() throws Exception {
+      consult(":- table(p/1). p(X) :- between(1, 5, X).");
+
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+         List<Future<String>> futures = new ArrayList<>();
+         for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> findAll("X", "p(X)")));
+         }
+         for (Future<String> f : futures) {
+            assertEquals("[1,2,3,4,5]", f.get());
+         }
+      } finally {
+         executor.shutdown();
+      }
+      assertEquals(1, tables.getTableCount());
+      assertEquals(5, tables.getAnswerCount());
+   }
+
+   /**
+    * Confirm that threads evaluating tables that depend on each other do not deadlock.
+    * <p>
+    * The first thread to call {@code barrier} waits for the second, so the first thread owns the table of {@code p(X)}
+    * while the second thread owns the table of {@code q(X)}. Each then calls the table owned by the other.
+    */
+   @Test(timeout = 10000)
+   public void testMutuallyDependentTablesEvaluatedByDifferentThreads() throws Exception {
+      CountDownLatch latch = new CountDownLatch(2);
+      projog.getKnowledgeBase().getPredicates().addPredicateFactory(new PredicateKey("barrier", 0), new PredicateFactory() {
+         @Override
+         public Predicate getPredicate(Term[] args) {
+            latch.countDown();
+            try {
+               latch.await();
+            } catch (InterruptedException e) {
+               throw new RuntimeException(e);
+            }
+            return PredicateUtils.TRUE;
+         }
+
+         @Override
+         public boolean isRetryable() {
+            return false;
+         }
+      });
+      consult(":- table(p/1). :- table(q/1). p(X) :- barrier, q(X). p(a). q(X) :- barrier, p(X). q(b).");
+
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try {
+         Future<String> p = executor.submit(() -> findAll("X", "p(X)"));
+         Future<String> q = executor.submit(() -> findAll("X", "q(X)"));
+         assertEquals("[a,b]", sort(p.get(5, TimeUnit.SECONDS)));
+         assertEquals("[a,b]", sort(q.get(5, TimeUnit.SECONDS)));
+      } finally {
+         executor.shutdown();
+      }
+      assertEquals("[a,b]", sort(findAll("X", "p(X)")));
+      assertEquals("[a,b]", sort(findAll("X", "q(X)")));
+   }
+
+   private String sort(String list) {
+      QueryResult r = projog.executeQuery("msort(" + list + ", L).");
+      r.next();
+      return projog.formatTerm(r.getTerm("L"));
+   }
+
+   private static VariantKey createKey(String query) {
+      return VariantKey.create(new PredicateKey("p", 5), parseTerm(query).getArgs());
+   }
+
+   private void consult(String source) {
+      projog.consultReader(new StringReader(source));
+   }
+
+   private String findAll(String template, String goal) {
+      QueryResult r = projog.executeQuery("findall(" + template + ", (" + goal + "), L).");
+      r.next();
+      return projog.formatTerm(r.getTerm("L"));
+   }
+}
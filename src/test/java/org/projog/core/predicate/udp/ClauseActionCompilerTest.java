@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.projog.TermFactory.atom;
+import static org.projog.TermFactory.integerNumber;
+import static org.projog.TermFactory.structure;
+import static org.projog.TestUtils.array;
+import static org.projog.TestUtils.createClauseModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.projog.TestUtils;
+import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.predicate.PredicateKey;
+import org.projog.core.predicate.udp.ClauseActionCompiler.CountingClauseAction;
+import org.projog.core.predicate.udp.ClauseActionFactory.ImmutableFact;
+import org.projog.core.predicate.udp.ClauseActionFactory.VariableAntecedantClauseAction;
+import org.projog.core.term.ListFactory;
+import org.projog.core.term.Term;
+import org.projog.core.term.Variable;
+
+public class ClauseActionCompilerTest {
+   private final KnowledgeBase kb = TestUtils.createKnowledgeBase();
+
+   @Test
+   public void testOnlyClausesThatBenefitAreCompiled() {
+      ClauseAction[] actions = compile("p(X, Y) :- X > 1, Y is X * 2.", "p(a, b).", "p(X, f(X)).", "p(X, Y) :- X.");
+
+      assertTrue(actions[0] instanceof CompiledClauseAction);
+      assertTrue(actions[1] instanceof ImmutableFact);
+      assertTrue(actions[2] instanceof CompiledClauseAction);
+      assertTrue(actions[3] instanceof VariableAntecedantClauseAction);
+   }
+
+   @Test
+   public void testRule() {
+      ClauseAction action = compile("p(X, Y) :- X > 1, Y is X * 2.")[0];
+
+      Variable y = new Variable("Y");
+      assertTrue(action.getPredicate(array(integerNumber(3), y)).evaluate());
+      assertEquals(integerNumber(6), y.getTerm());
+
+      assertSame(PredicateUtils.FALSE, action.getPredicate(array(integerNumber(1), new Variable("Y"))));
+   }
+
+   @Test
+   public void testMutableFact() {
+      ClauseAction action = compile("p(X, f(X)).")[0];
+
+      Variable y = new Variable("Y");
+      assertSame(PredicateUtils.TRUE, action.getPredicate(array(atom("a"), y)));
+      assertEquals(structure("f", atom("a")), y.getTerm());
+
+      assertSame(PredicateUtils.FALSE, action.getPredicate(array(atom("a"), structure("f", atom("b")))));
+   }
+
+   @Test
+   public void testVariableInHeadUsedMoreThanOnce() {
+      ClauseAction action = compile("p(X, X, [X|T], T) :- true.")[0];
+
+      Variable t = new Variable("T");
+      assertTrue(action.getPredicate(array(atom("a"), atom("a"), ListFactory.createList(atom("a"), atom("b")), t)).evaluate());
+      assertEquals(atom("b"), t.getTerm());
+
+      assertSame(PredicateUtils.FALSE, action.getPredicate(array(atom("a"), atom("b"), new Variable("L"), new Variable("T"))));
+   }
+
+   @Test
+   public void testSameRetryableAndCutBehaviourAsInterpreted() {
+      assertSameBehaviourAsInterpreted("p(X) :- X > 1.");
+      assertSameBehaviourAsInterpreted("p(X) :- X > 1, !.");
+      assertSameBehaviourAsInterpreted("p(X) :- !, X > 1.");
+      assertSameBehaviourAsInterpreted("p(X) :- member(X, [a,b,c]).");
+      assertSameBehaviourAsInterpreted("p(X) :- !, member(X, [a,b,c]).");
+      assertSameBehaviourAsInterpreted("p(X) :- member(X, [a,b,c]), !.");
+      assertSameBehaviourAsInterpreted("p(X) :- member(X, [a,b,c]), X > 1.");
+      assertSameBehaviourAsInterpreted("p(X, Y) :- (X > 1 -> Y = a ; Y = b).");
+   }
+
+   @Test
+   public void testCompiledOnceThresholdReached() {
+      List<ClauseModel> models = new ArrayList<>();
+      models.add(createClauseModel("p(X, Y) :- Y is X * 2."));
+      models.add(createClauseModel("p(a, b)."));
+      Clauses interpreted = Clauses.createFromModels(kb, models);
+      ClauseAction[] actions = ClauseActionCompiler.compileWhenCalled(kb, PredicateKey.createForTerm(models.get(0).getConsequent()), interpreted, 3).getClauseActions();
+
+      CountingClauseAction rule = (CountingClauseAction) actions[0];
+      assertTrue(actions[1] instanceof ImmutableFact);
+      assertSame(interpreted.getClauseActions()[0], rule.getDelegate());
+
+      for (int i = 1; i < 4; i++) {
+         Variable y = new Variable("Y");
+         assertTrue(rule.getPredicate(array(integerNumber(i), y)).evaluate());
+         assertEquals(integerNumber(i * 2), y.getTerm());
+         assertEquals(i > 2, rule.getDelegate() instanceof CompiledClauseAction);
+      }
+   }
+
+   @Test
+   public void testCompiledImmediatelyIfThresholdLessThanTwo() {
+      ClauseModel model = createClauseModel("p(X, Y) :- Y is X * 2.");
+      Clauses interpreted = Clauses.createFromModels(kb, Collections.singletonList(model));
+
+      ClauseAction[] actions = ClauseActionCompiler.compileWhenCalled(kb, PredicateKey.createForTerm(model.getConsequent()), interpreted, 1).getClauseActions();
+
+      assertTrue(actions[0] instanceof CompiledClauseAction);
+   }
+
+   @Test
+   public void testNameThatEndsJavaComment() {
+      // the name of the predicate must not be able to alter the structure of the generated source code
+      ClauseAction action = compile("'a*/'(X, Y) :- Y is X * 2.")[0];
+
+      assertTrue(action instanceof CompiledClauseAction);
+      Variable y = new Variable("Y");
+      assertTrue(action.getPredicate(array(integerNumber(3), y)).evaluate());
+      assertEquals(integerNumber(6), y.getTerm());
+   }
+
+   @Test
+   public void testEscape() {
+      assertEquals("abc", ClauseActionCompiler.escape("abc"));
+      assertEquals("a\\\"b\\\\c", ClauseActionCompiler.escape("a\"b\\c"));
+      assertEquals("a\\012b\\011", ClauseActionCompiler.escape("a\nb\t"));
+      assertEquals("\\u00e9\\u20ac", ClauseActionCompiler.escape("\u00e9\u20ac"));
+   }
+
+   private void assertSameBehaviourAsInterpreted(String clause) {
+      ClauseAction interpreted = ClauseActionFactory.createClauseAction(kb, createClauseModel(clause));
+      ClauseAction compiled = compile(clause)[0];
+
+      assertTrue(compiled instanceof CompiledClauseAction);
+      assertEquals(clause, interpreted.isRetryable(), compiled.isRetryable());
+      assertEquals(clause, interpreted.isAlwaysCutOnBacktrack(), compiled.isAlwaysCutOnBacktrack());
+   }
+
+   private ClauseAction[] compile(String... clauses) {
+      List<ClauseModel> models = new ArrayList<>();
+      for (String clause : clauses) {
+         models.add(createClauseModel(clause));
+      }
+      Term consequent = models.get(0).getConsequent();
+      Clauses interpreted = Clauses.createFromModels(kb, models);
+      Clauses compiled = ClauseActionCompiler.compile(kb, PredicateKey.createForTerm(consequent), interpreted);
+      assertFalse(interpreted == compiled);
+      return compiled.getClauseActions();
+   }
+}
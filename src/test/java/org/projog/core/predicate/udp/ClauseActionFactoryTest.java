@@ -31,6 +31,7 @@ import static org.mockito.Mockito.when;
 import static org.projog.TestUtils.array;
 import static org.projog.TestUtils.assertClass;
 import static org.projog.TermFactory.atom;
+import static org.projog.TermFactory.structure;
 import static org.projog.TestUtils.createClauseModel;
 import static org.projog.core.term.TermUtils.EMPTY_ARRAY;
 
@@ -44,17 +45,20 @@ import org.mockito.ArgumentCaptor;
 import org.projog.core.ProjogException;
 import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.kb.KnowledgeBaseUtils;
+import org.projog.core.predicate.CutException;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
 import org.projog.core.predicate.PredicateKey;
 import org.projog.core.predicate.udp.ClauseActionFactory.AlwaysMatchedFact;
 import org.projog.core.predicate.udp.ClauseActionFactory.ImmutableConsequentRule;
 import org.projog.core.predicate.udp.ClauseActionFactory.ImmutableFact;
+import org.projog.core.predicate.udp.ClauseActionFactory.LastCallRule;
 import org.projog.core.predicate.udp.ClauseActionFactory.MutableFact;
 import org.projog.core.predicate.udp.ClauseActionFactory.MutableRule;
 import org.projog.core.predicate.udp.ClauseActionFactory.VariableAntecedantClauseAction;
 import org.projog.core.predicate.udp.ClauseActionFactory.ZeroArgConsequentRule;
 import org.projog.core.term.Atom;
+import org.projog.core.term.IntegerNumber;
 import org.projog.core.term.Term;
 import org.projog.core.term.TermType;
 import org.projog.core.term.Variable;
@@ -674,6 +678,106 @@ public class ClauseActionFactoryTest {
       verify(mockPredicateFactory).getPredicate(EMPTY_ARRAY);
    }
 
+   @Test
+   public void testLastCallRule_antecedent_single_call() {
+      createUserDefinedPredicate("q(a).");
+      LastCallRule a = create(LastCallRule.class, "p(X) :- q(X).");
+      assertFalse(a.isRetryable());
+      assertFalse(a.isAlwaysCutOnBacktrack());
+   }
+
+   @Test
+   public void testLastCallRule_antecedent_conjunction() {
+      createUserDefinedPredicate("q(a).");
+      LastCallRule a = create(LastCallRule.class, "p(X) :- X > 1, Y is X-1, q(Y).");
+      assertFalse(a.isRetryable());
+      assertFalse(a.isAlwaysCutOnBacktrack());
+   }
+
+   @Test
+   public void testLastCallRule_antecedent_contains_cut() {
+      createUserDefinedPredicate("q(a).");
+      LastCallRule a = create(LastCallRule.class, "p(X) :- X > 1, !, Y is X-1, q(Y).");
+      assertTrue(a.isRetryable());
+      assertTrue(a.isAlwaysCutOnBacktrack());
+   }
+
+   @Test
+   public void testLastCallRule_not_created_when_last_element_not_user_defined_predicate() {
+      create(MutableRule.class, "p(X) :- X > 1, Y is X-1, write(Y).");
+   }
+
+   @Test
+   public void testLastCallRule_not_created_when_prior_element_retryable() {
+      createUserDefinedPredicate("q(a).");
+      create(MutableRule.class, "p(X) :- repeat, q(X).");
+   }
+
+   @Test
+   public void testLastCallRule_getPredicate() {
+      createUserDefinedPredicate("q(a,b).");
+      LastCallRule a = create(LastCallRule.class, "p(X,Z) :- Y is X-1, q(Y,Z).");
+      Variable z = new Variable("Z");
+
+      LastCallPredicate p = (LastCallPredicate) a.getPredicate(array(new IntegerNumber(7), z));
+
+      assertFalse(p.isCut());
+      assertEquals(new IntegerNumber(6), p.getArgs()[0]);
+      // assert query variable is reused rather than unified with a new variable
+      assertSame(z, p.getArgs()[1]);
+      assertSame(z, z.getTerm());
+   }
+
+   @Test
+   public void testLastCallRule_getPredicate_variable_in_more_than_one_argument() {
+      createUserDefinedPredicate("q(a,b).");
+      LastCallRule a = create(LastCallRule.class, "p(X,X,f(Y)) :- q(X,Y).");
+      Variable x1 = new Variable("X1");
+      Variable x2 = new Variable("X2");
+      Variable y = new Variable("Y");
+
+      LastCallPredicate p = (LastCallPredicate) a.getPredicate(array(x1, x2, structure("f", y)));
+
+      // first occurrence of X reused, second occurrence unified with it
+      assertSame(x1, p.getArgs()[0]);
+      assertSame(x1, x2.getTerm());
+      assertSame(y.getTerm(), p.getArgs()[1].getTerm());
+   }
+
+   @Test
+   public void testLastCallRule_getPredicate_query_args_dont_unify_with_clause() {
+      createUserDefinedPredicate("q(a).");
+      LastCallRule a = create(LastCallRule.class, "p(a,X) :- q(X).");
+      assertSame(PredicateUtils.FALSE, a.getPredicate(array(atom("b"), atom("c"))));
+   }
+
+   @Test
+   public void testLastCallRule_getPredicate_fails_before_cut() {
+      createUserDefinedPredicate("q(a).");
+      LastCallRule a = create(LastCallRule.class, "p(X) :- X > 1, !, q(X).");
+      assertSame(PredicateUtils.FALSE, a.getPredicate(array(new IntegerNumber(0))));
+   }
+
+   @Test
+   public void testLastCallRule_getPredicate_fails_after_cut() {
+      createUserDefinedPredicate("q(a).");
+      LastCallRule a = create(LastCallRule.class, "p(X) :- !, X > 1, q(X).");
+      try {
+         a.getPredicate(array(new IntegerNumber(0)));
+         fail();
+      } catch (CutException e) {
+         assertSame(CutException.CUT_EXCEPTION, e);
+      }
+   }
+
+   @Test
+   public void testLastCallRule_getPredicate_succeeds_after_cut() {
+      createUserDefinedPredicate("q(a).");
+      LastCallRule a = create(LastCallRule.class, "p(X) :- !, X > 1, q(X).");
+      LastCallPredicate p = (LastCallPredicate) a.getPredicate(array(new IntegerNumber(2)));
+      assertTrue(p.isCut());
+   }
+
    @Test
    public void testIsMatch() {
       MutableFact a = create(MutableFact.class, "p(X,b,Y).");
@@ -690,6 +794,13 @@ public class ClauseActionFactoryTest {
       assertTrue(ClauseActionFactory.isMatch(a, new Term[] {new Atom("c"), new Atom("b"), new Atom("a")}));
    }
 
+   private void createUserDefinedPredicate(String syntax) {
+      ClauseModel clause = createClauseModel(syntax);
+      StaticUserDefinedPredicateFactory udp = new StaticUserDefinedPredicateFactory(kb, PredicateKey.createForTerm(clause.getConsequent()));
+      udp.addLast(clause);
+      kb.getPredicates().addUserDefinedPredicate(udp);
+   }
+
    @SuppressWarnings("unchecked")
    private <T extends ClauseAction> T create(Class<?> type, String syntax) {
       ClauseModel model = createClauseModel(syntax);
@@ -38,6 +38,13 @@ public class ClausesTest {
       assertEquals(0, c.getImmutableColumns().length); // TODO use assertEmpty
    }
 
+   @Test
+   public void testColumnCardinalities() {
+      Clauses c = createClauses("p(a,X,1,f(x)).", "p(b,y,1,f(x)).", "p(a,z,2,f(y)).", "p(c,z,1,f(x)).");
+      assertArrayEquals(new int[] {0, 2, 3}, c.getImmutableColumns());
+      assertArrayEquals(new int[] {3, 2, 2}, c.getColumnCardinalities());
+   }
+
    @Test
    public void testSingleNoArgClause() {
       Clauses c = createClauses("p.");
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.projog.TestUtils.createClauseModel;
+import static org.projog.TestUtils.parseTerm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.projog.TestUtils;
+import org.projog.core.kb.KnowledgeBase;
+
+public class DeepIndexesTest {
+   private final KnowledgeBase kb = TestUtils.createKnowledgeBase();
+
+   @Test
+   public void testNotIndexable() {
+      // single clause
+      assertNull(DeepIndexes.create(createClauses("p(f(X)).")));
+      // argument immutable in every clause
+      assertNull(DeepIndexes.create(createClauses("p(a).", "p(f(b)).")));
+      // every argument is the same atom or a variable
+      assertNull(DeepIndexes.create(createClauses("p(a).", "p(a).", "p(Y).")));
+      // every argument is a variable
+      assertNull(DeepIndexes.create(createClauses("p(X, Y).", "p(Y, X).")));
+   }
+
+   @Test
+   public void testIndexableArgs() {
+      DeepIndexes deepIndexes = DeepIndexes.create(createClauses("p(a, f(X), Y, x).", "p(b, g(X), Y, [X]).", "p(a, f(Y), Y, [])."));
+      assertArrayEquals(new int[] {1, 3}, deepIndexes.getIndexableArgs());
+   }
+
+   @Test
+   public void testPrincipalFunctor() {
+      ClauseAction[] clauses = createClauses("p(f(X)).", "p(g(X)).", "p(f(X, Y)).", "p(a).", "p(1).", "p(X).", "p(g(Y)).");
+      DeepIndexes deepIndexes = DeepIndexes.create(clauses);
+
+      assertMatches(deepIndexes, "p(f(z))", clauses[0], clauses[5]);
+      assertMatches(deepIndexes, "p(g(Z))", clauses[1], clauses[5], clauses[6]);
+      assertMatches(deepIndexes, "p(f(z, z))", clauses[2], clauses[5]);
+      assertMatches(deepIndexes, "p(a)", clauses[3], clauses[5]);
+      assertMatches(deepIndexes, "p(1)", clauses[4], clauses[5]);
+      assertMatches(deepIndexes, "p(h(z))", clauses[5]);
+      assertMatches(deepIndexes, "p(b)", clauses[5]);
+      assertSame(clauses, deepIndexes.index(parseTerm("p(Z)").getArgs()));
+   }
+
+   @Test
+   public void testNestedIndex() {
+      ClauseAction[] clauses = createClauses("handle(msg(login, X), a).", "handle(msg(logout, X), b).", "handle(ping, c).", "handle(msg(X, Y), d).", "handle(msg(login, x), e).");
+      DeepIndexes deepIndexes = DeepIndexes.create(clauses);
+
+      assertMatches(deepIndexes, "handle(msg(login, y), Z)", clauses[0], clauses[3], clauses[4]);
+      assertMatches(deepIndexes, "handle(msg(logout, y), Z)", clauses[1], clauses[3]);
+      assertMatches(deepIndexes, "handle(msg(other, y), Z)", clauses[3]);
+      assertMatches(deepIndexes, "handle(msg(Q, y), Z)", clauses[0], clauses[1], clauses[3], clauses[4]);
+      assertMatches(deepIndexes, "handle(ping, Z)", clauses[2]);
+   }
+
+   @Test
+   public void testNestedIndexChoosesMostSelectiveArgument() {
+      ClauseAction[] clauses = createClauses("p(f(x, a)).", "p(f(x, b)).", "p(f(y, c)).", "p(X).");
+      DeepIndexes deepIndexes = DeepIndexes.create(clauses);
+
+      assertMatches(deepIndexes, "p(f(x, b))", clauses[1], clauses[3]);
+      // the first argument of f is not indexed, as the second argument distinguishes between more clauses
+      assertMatches(deepIndexes, "p(f(y, Z))", clauses[0], clauses[1], clauses[2], clauses[3]);
+   }
+
+   @Test
+   public void testFirstElementOfList() {
+      ClauseAction[] clauses = createClauses("route([a|T], 1).", "route([b|T], 2).", "route([], 3).", "route([X,c], 4).", "route(x, 5).");
+      DeepIndexes deepIndexes = DeepIndexes.create(clauses);
+
+      assertMatches(deepIndexes, "route([a,b,c], Z)", clauses[0], clauses[3]);
+      assertMatches(deepIndexes, "route([b], Z)", clauses[1], clauses[3]);
+      assertMatches(deepIndexes, "route([z], Z)", clauses[3]);
+      assertMatches(deepIndexes, "route([], Z)", clauses[2]);
+   }
+
+   @Test
+   public void testNestedIndexOfArgumentWithSamePrincipalFunctor() {
+      ClauseAction[] clauses = createClauses("p(f(g(a))).", "p(f(g(b))).", "p(f(g(X))).", "p(x).");
+      DeepIndexes deepIndexes = DeepIndexes.create(clauses);
+
+      assertMatches(deepIndexes, "p(f(g(b)))", clauses[1], clauses[2]);
+      assertMatches(deepIndexes, "p(f(g(c)))", clauses[2]);
+   }
+
+   @Test
+   public void testMaxDepth() {
+      List<String> clauses = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+         String term = Integer.toString(i);
+         for (int d = 0; d < DeepIndexes.MAX_DEPTH + 2; d++) {
+            term = "f(" + term + ")";
+         }
+         clauses.add("p(" + term + ").");
+      }
+      clauses.add("p(X).");
+      ClauseAction[] actions = createClauses(clauses.toArray(new String[clauses.size()]));
+      DeepIndexes deepIndexes = DeepIndexes.create(actions);
+
+      // terms nested deeper than the maximum depth are not indexed
+      ClauseAction[] matches = deepIndexes.index(parseTerm(clauses.get(0).replace(".", "")).getArgs());
+      assertEquals(4, matches.length);
+      assertMatches(deepIndexes, "p(f(f(y)))", actions[3]);
+   }
+
+   private void assertMatches(DeepIndexes deepIndexes, String query, ClauseAction... expected) {
+      ClauseAction[] actual = deepIndexes.index(parseTerm(query).getArgs());
+      assertSame(actual, deepIndexes.index(parseTerm(query).getArgs())); // assert same object gets returned for multiple calls
+      assertArrayEquals(expected, actual);
+   }
+
+   private ClauseAction[] createClauses(String... clauses) {
+      List<ClauseModel> models = new ArrayList<>();
+      for (String clause : clauses) {
+         models.add(createClauseModel(clause));
+      }
+      return Clauses.createFromModels(kb, models).getClauseActions();
+   }
+}
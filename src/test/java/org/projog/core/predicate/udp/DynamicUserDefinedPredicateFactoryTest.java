@@ -21,7 +21,10 @@ import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.projog.TermFactory.atom;
+import static org.projog.TermFactory.integerNumber;
+import static org.projog.TermFactory.structure;
 import static org.projog.TermFactory.variable;
 
 import java.util.Iterator;
@@ -35,6 +38,7 @@ import org.projog.core.predicate.udp.ClauseModel;
 import org.projog.core.predicate.udp.DynamicUserDefinedPredicateFactory;
 import org.projog.core.term.Term;
 import org.projog.core.term.TermType;
+import org.projog.core.term.Variable;
 
 public class DynamicUserDefinedPredicateFactoryTest {
    private static final String TEST_PREDICATE_NAME = "test";
@@ -105,11 +109,12 @@ public class DynamicUserDefinedPredicateFactoryTest {
       itr5.next();
       itr5.remove();
 
+      // iterators created before the changes are unaffected by them (logical update view)
       assertIterator(dp, "a", "d");
-      assertIterator(itr1, "a", "d");
-      assertIterator(itr2, "d");
-      assertIterator(itr3, "c", "d");
-      assertIterator(itr4, "d");
+      assertIterator(itr1, "a", "b", "c");
+      assertIterator(itr2, "b", "c");
+      assertIterator(itr3, "c");
+      assertIterator(itr4);
    }
 
    @Test
@@ -191,6 +196,24 @@ public class DynamicUserDefinedPredicateFactoryTest {
       assertNull(dp.getClauseModel(7));
    }
 
+   @Test
+   public void testGetImplicationsWithoutCopying() {
+      DynamicUserDefinedPredicateFactory dp = createDynamicPredicate();
+      addLast(dp, "X");
+      addLast(dp, "f(Y)");
+      assertIterator(dp.getImplicationsWithoutCopying(), "X", "f(Y)");
+
+      Iterator<ClauseModel> itr1 = dp.getImplicationsWithoutCopying();
+      Iterator<ClauseModel> itr2 = dp.getImplicationsWithoutCopying();
+      Iterator<ClauseModel> copies = dp.getImplications();
+      while (itr1.hasNext()) {
+         ClauseModel original = itr1.next();
+         assertSame(original, itr2.next());
+         assertNotSame(original, copies.next());
+      }
+      assertFalse(itr2.hasNext());
+   }
+
    private void assertClauseModel(DynamicUserDefinedPredicateFactory dp, int index, ClauseModel original) {
       ClauseModel actual = dp.getClauseModel(index);
       assertNotSame(original, actual);
@@ -230,9 +253,283 @@ public class DynamicUserDefinedPredicateFactoryTest {
       assertSame(inputArg, args[0].getTerm());
    }
 
+   @Test
+   public void testGetPredicateDuplicateKeys() {
+      DynamicUserDefinedPredicateFactory dp = createDynamicPredicate();
+      addLast(dp, "a");
+      addLast(dp, "b");
+      addLast(dp, "a");
+      addFirst(dp, "a");
+      addLast(dp, "c");
+
+      Predicate e = dp.getPredicate(new Term[] {atom("a")});
+      assertTrue(e.couldReevaluationSucceed());
+      assertTrue(e.evaluate());
+      assertTrue(e.evaluate());
+      assertTrue(e.evaluate());
+      assertFalse(e.evaluate());
+
+      Predicate b = dp.getPredicate(new Term[] {atom("b")});
+      assertFalse(b.couldReevaluationSucceed());
+      assertTrue(b.evaluate());
+
+      assertFalse(dp.getPredicate(new Term[] {atom("z")}).evaluate());
+   }
+
+   @Test
+   public void testGetPredicateMergesClausesWithVariableArguments() {
+      DynamicUserDefinedPredicateFactory dp = createDynamicPredicate(2);
+      dp.addLast(TestUtils.createClauseModel("test(a, 1)."));
+      dp.addLast(TestUtils.createClauseModel("test(X, 2)."));
+      dp.addLast(TestUtils.createClauseModel("test(b, 3)."));
+      dp.addLast(TestUtils.createClauseModel("test(a, 4)."));
+      dp.addFirst(TestUtils.createClauseModel("test(Y, 5)."));
+
+      assertResults(dp, atom("a"), "5", "1", "2", "4");
+      assertResults(dp, atom("b"), "5", "2", "3");
+      assertResults(dp, atom("z"), "5", "2");
+   }
+
+   @Test
+   public void testGetPredicateUsesIndexOfOtherArgument() {
+      DynamicUserDefinedPredicateFactory dp = createDynamicPredicate(2);
+      dp.addLast(TestUtils.createClauseModel("test(a, 1)."));
+      dp.addLast(TestUtils.createClauseModel("test(a, 2)."));
+      dp.addLast(TestUtils.createClauseModel("test(a, 3)."));
+
+      Predicate p = dp.getPredicate(new Term[] {atom("a"), integerNumber(2)});
+      assertFalse(p.couldReevaluationSucceed());
+      assertTrue(p.evaluate());
+
+      // index of second argument is maintained after being created
+      dp.addFirst(TestUtils.createClauseModel("test(b, 2)."));
+      Variable x = variable("X");
+      p = dp.getPredicate(new Term[] {x, integerNumber(2)});
+      assertTrue(p.evaluate());
+      assertEquals(atom("b"), x.getTerm());
+      assertTrue(p.evaluate());
+      assertEquals(atom("a"), x.getTerm());
+      assertFalse(p.evaluate());
+
+      Iterator<ClauseModel> itr = dp.getImplications();
+      itr.next();
+      itr.remove();
+      assertFalse(dp.getPredicate(new Term[] {atom("b"), integerNumber(2)}).evaluate());
+      assertTrue(dp.getPredicate(new Term[] {atom("a"), integerNumber(2)}).evaluate());
+   }
+
+   @Test
+   public void testGetImplicationsUsingIndex() {
+      DynamicUserDefinedPredicateFactory dp = createDynamicPredicate(2);
+      dp.addLast(TestUtils.createClauseModel("test(a, 1)."));
+      dp.addLast(TestUtils.createClauseModel("test(b, 2)."));
+      dp.addLast(TestUtils.createClauseModel("test(X, 3)."));
+      dp.addLast(TestUtils.createClauseModel("test(a, 4)."));
+
+      assertIterator(dp.getImplications(structure(TEST_PREDICATE_NAME, atom("a"), variable())), "a, 1", "X, 3", "a, 4");
+      assertIterator(dp.getImplications(structure(TEST_PREDICATE_NAME, atom("z"), variable())), "X, 3");
+      assertIterator(dp.getImplications(structure(TEST_PREDICATE_NAME, variable(), integerNumber(2))), "b, 2");
+      assertIterator(dp.getImplications(structure(TEST_PREDICATE_NAME, variable(), variable())), "a, 1", "b, 2", "X, 3", "a, 4");
+
+      // remove using index
+      Iterator<ClauseModel> itr = dp.getImplications(structure(TEST_PREDICATE_NAME, atom("a"), variable()));
+      itr.next();
+      itr.remove();
+      itr.next();
+      itr.next();
+      itr.remove();
+      assertFalse(itr.hasNext());
+      assertIterator(dp, "b, 2", "X, 3");
+      assertIterator(dp.getImplications(structure(TEST_PREDICATE_NAME, atom("a"), variable())), "X, 3");
+   }
+
+   @Test
+   public void testImmutableClausesNotCopied() {
+      DynamicUserDefinedPredicateFactory dp = createDynamicPredicate();
+      ClauseModel immutable = createClauseModel("a");
+      ClauseModel mutable = createClauseModel("X");
+      dp.addLast(immutable);
+      dp.addLast(mutable);
+
+      Iterator<ClauseModel> itr = dp.getImplications();
+      assertSame(immutable, itr.next());
+      assertNotSame(mutable, itr.next());
+   }
+
+   @Test
+   public void testLogicalUpdateView() {
+      DynamicUserDefinedPredicateFactory dp = createDynamicPredicate();
+      addLast(dp, "a");
+      addLast(dp, "b");
+      addLast(dp, "c");
+
+      Variable x = variable("X");
+      Predicate p = dp.getPredicate(new Term[] {x});
+      assertTrue(p.evaluate());
+      assertEquals(atom("a"), x.getTerm());
+
+      // changes made after the call do not alter the clauses considered by it
+      addFirst(dp, "y");
+      addLast(dp, "z");
+      Iterator<ClauseModel> itr = dp.getImplications(structure(TEST_PREDICATE_NAME, atom("b")));
+      itr.next();
+      itr.remove();
+
+      assertTrue(p.evaluate());
+      assertEquals(atom("b"), x.getTerm());
+      assertTrue(p.evaluate());
+      assertEquals(atom("c"), x.getTerm());
+      assertFalse(p.evaluate());
+
+      assertIterator(dp, "y", "a", "c", "z");
+   }
+
+   @Test
+   public void testRemoveAlreadyRemoved() {
+      DynamicUserDefinedPredicateFactory dp = createDynamicPredicate();
+      addLast(dp, "a");
+
+      Iterator<ClauseModel> itr1 = dp.getImplications();
+      Iterator<ClauseModel> itr2 = dp.getImplications();
+      itr1.next();
+      itr2.next();
+      itr1.remove();
+      try {
+         itr2.remove();
+         fail();
+      } catch (IllegalStateException e) {
+         assertEquals("Clause has already been removed: test(a)", e.getMessage());
+      }
+      assertIterator(dp);
+   }
+
+   @Test
+   public void testErasedClausesCompacted() {
+      DynamicUserDefinedPredicateFactory dp = createDynamicPredicate(2);
+      int numClauses = 100;
+      for (int i = 0; i < numClauses; i++) {
+         dp.addLast(TestUtils.createClauseModel("test(" + (i % 2 == 0 ? "even" : "odd") + ", " + i + ")."));
+      }
+      Iterator<ClauseModel> before = dp.getImplications();
+
+      // remove all but the last ten clauses - enough for the erased clauses to be compacted
+      Iterator<ClauseModel> itr = dp.getImplications();
+      for (int i = 0; i < numClauses - 10; i++) {
+         itr.next();
+         itr.remove();
+      }
+      dp.addLast(TestUtils.createClauseModel("test(even, 100)."));
+
+      // iterator created before the clauses were removed still returns them
+      for (int i = 0; i < numClauses; i++) {
+         assertEquals(integerNumber(i), before.next().getConsequent().getArgument(1));
+      }
+      assertFalse(before.hasNext());
+
+      assertResults(dp, atom("even"), "90", "92", "94", "96", "98", "100");
+      assertResults(dp, atom("odd"), "91", "93", "95", "97", "99");
+   }
+
+   @Test(timeout = 30000)
+   public void testConcurrentUpdatesWhileCompacting() throws Exception {
+      DynamicUserDefinedPredicateFactory dp = createDynamicPredicate();
+      addLast(dp, "a");
+
+      // repeatedly add and retract a clause - so the erased clauses are repeatedly compacted
+      Thread writer = new Thread(() -> {
+         for (int i = 0; i < 10000; i++) {
+            addLast(dp, "b");
+            Iterator<ClauseModel> itr = dp.getImplications(structure(TEST_PREDICATE_NAME, atom("b")));
+            itr.next();
+            itr.remove();
+         }
+      });
+      writer.start();
+
+      // every call sees the first clause, and at most one of the clauses added by the writer
+      while (writer.isAlive()) {
+         Iterator<ClauseModel> itr = dp.getImplications();
+         assertEquals("test(a)", itr.next().getOriginal().toString());
+         if (itr.hasNext()) {
+            assertEquals("test(b)", itr.next().getOriginal().toString());
+         }
+         assertFalse(itr.hasNext());
+      }
+      writer.join();
+
+      assertIterator(dp, "a");
+   }
+
+   @Test
+   public void testCopySharesFactsUntilAltered() {
+      DynamicUserDefinedPredicateFactory original = createDynamicPredicate();
+      addLast(original, "a");
+      addLast(original, "b");
+      addLast(original, "c");
+
+      DynamicUserDefinedPredicateFactory copy = new DynamicUserDefinedPredicateFactory(TestUtils.createKnowledgeBase(), original);
+      Iterator<ClauseModel> before = copy.getImplications();
+      assertIterator(copy, "a", "b", "c");
+
+      // changes made to the original are not visible to the copy
+      addLast(original, "d");
+      Iterator<ClauseModel> itr = original.getImplications(structure(TEST_PREDICATE_NAME, atom("a")));
+      itr.next();
+      itr.remove();
+      assertIterator(original, "b", "c", "d");
+      assertIterator(copy, "a", "b", "c");
+
+      // removing a clause returned before the copy was altered removes the clause from the copy, not the original
+      addFirst(copy, "x");
+      assertEquals("test(a)", before.next().getOriginal().toString());
+      before.remove();
+      assertIterator(copy, "x", "b", "c");
+      assertIterator(original, "b", "c", "d");
+      assertTrue(copy.getPredicate(new Term[] {atom("c")}).evaluate());
+      assertFalse(copy.getPredicate(new Term[] {atom("a")}).evaluate());
+      try {
+         before.remove();
+         fail();
+      } catch (IllegalStateException e) {
+         assertEquals("Clause has already been removed: test(a)", e.getMessage());
+      }
+   }
+
+   @Test
+   public void testCopyOfRules() {
+      DynamicUserDefinedPredicateFactory original = createDynamicPredicate();
+      addLast(original, "a");
+      original.addLast(TestUtils.createClauseModel("test(X) :- X = b."));
+
+      KnowledgeBase kb = TestUtils.createKnowledgeBase();
+      DynamicUserDefinedPredicateFactory copy = new DynamicUserDefinedPredicateFactory(kb, original);
+      addLast(original, "c");
+
+      Iterator<ClauseModel> itr = copy.getImplications();
+      assertEquals("test(a)", itr.next().getOriginal().toString());
+      assertFalse(itr.next().isFact());
+      assertFalse(itr.hasNext());
+      assertTrue(copy.getPredicate(new Term[] {atom("b")}).evaluate());
+      assertFalse(copy.getPredicate(new Term[] {atom("c")}).evaluate());
+   }
+
+   private void assertResults(DynamicUserDefinedPredicateFactory dp, Term firstArg, String... expected) {
+      Variable x = variable("X");
+      Predicate p = dp.getPredicate(new Term[] {firstArg, x});
+      for (String e : expected) {
+         assertTrue(p.evaluate());
+         assertEquals(e, x.getTerm().toString());
+      }
+      assertFalse(p.evaluate());
+   }
+
    private DynamicUserDefinedPredicateFactory createDynamicPredicate() {
+      return createDynamicPredicate(1);
+   }
+
+   private DynamicUserDefinedPredicateFactory createDynamicPredicate(int numArgs) {
       KnowledgeBase kb = TestUtils.createKnowledgeBase();
-      PredicateKey key = new PredicateKey(TEST_PREDICATE_NAME, 1);
+      PredicateKey key = new PredicateKey(TEST_PREDICATE_NAME, numArgs);
       DynamicUserDefinedPredicateFactory dp = new DynamicUserDefinedPredicateFactory(kb, key);
       assertEquals(key, dp.getPredicateKey());
       assertTrue(dp.isDynamic());
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.projog.TestUtils.parseTerm;
+
+import java.io.StringReader;
+
+import org.junit.Test;
+import org.projog.api.Projog;
+import org.projog.api.QueryResult;
+import org.projog.core.ProjogException;
+import org.projog.core.kb.ProjogDefaultProperties;
+import org.projog.core.predicate.PredicateKey;
+import org.projog.core.predicate.udp.GoalStackClauses.GoalStackClause;
+import org.projog.core.term.Term;
+
+public class GoalStackMachineTest {
+   private final Projog projog = new Projog(new ProjogDefaultProperties() {
+      @Override
+      public boolean isGoalStackEngineEnabled() {
+         return true;
+      }
+   });
+
+   @Test(timeout = 10000)
+   public void testDeepNonTailRecursion() {
+      // renaming the clause must not traverse the partially constructed list, else this takes quadratic time
+      consult("len([], 0). len([_|T], N) :- len(T, N0), N is N0+1.");
+
+      assertEquals(100000, execute("length(L, 100000), len(L, N).").getLong("N"));
+   }
+
+   @Test(timeout = 10000)
+   public void testDeepNonTailRecursionWhenProfiling() {
+      projog.getKnowledgeBase().getSpyPoints().getProfiler().setEnabled(true);
+      consult("len([], 0). len([_|T], N) :- len(T, N0), N is N0+1.");
+
+      assertEquals(100000, execute("length(L, 100000), len(L, N).").getLong("N"));
+   }
+
+   @Test
+   public void testDeepRecursionWithChoicePoints() {
+      consult("count(N, N). count(I, N) :- I < N, I1 is I+1, count(I1, N), true.");
+
+      assertEquals(100000, execute("count(0, 100000), X = 100000.").getLong("X"));
+   }
+
+   @Test
+   public void testDeepRecursionViaCall() {
+      consult("down(0) :- !. down(N) :- N1 is N-1, call(down, N1), true.");
+
+      execute("down(100000).");
+   }
+
+   @Test
+   public void testBacktracking() {
+      consult("p(a). p(b). p(c). q(X, Y) :- p(X), p(Y), X \\== Y.");
+
+      assertEquals("[a - b,a - c,b - a,b - c,c - a,c - b]", findAll("X-Y", "q(X, Y)"));
+   }
+
+   @Test
+   public void testCut() {
+      consult("p(1). p(2). p(3). first(X) :- p(X), !. q(X) :- p(X), X > 1, !. q(0).");
+
+      assertEquals("[1]", findAll("X", "first(X)"));
+      assertEquals("[2]", findAll("X", "q(X)"));
+      assertEquals("[1,2,3]", findAll("X", "p(X)"));
+   }
+
+   @Test
+   public void testCutIsLocalToCall() {
+      consult("p(1). p(2). p(3). r(X) :- call((p(X), !)). r(4). s(X) :- G = !, p(X), G.");
+
+      assertEquals("[1,4]", findAll("X", "r(X)"));
+      assertEquals("[1,2,3]", findAll("X", "s(X)"));
+   }
+
+   @Test
+   public void testIfThenElse() {
+      consult("p(1). p(2). t(X, Y) :- (p(X) -> Y = yes ; Y = no). u(X) :- (p(X) ; X = 3).");
+
+      assertEquals("[1 - yes]", findAll("X-Y", "t(X, Y)"));
+      assertEquals("[no]", findAll("Y", "t(9, Y)"));
+      assertEquals("[1,2,3]", findAll("X", "u(X)"));
+      assertEquals("[1]", findAll("X", "(p(X) -> true)"));
+   }
+
+   @Test
+   public void testNegation() {
+      consult("p(1). p(2).");
+
+      assertEquals("[3]", findAll("X", "member(X, [1,2,3]), \\+ p(X)"));
+      assertEquals("[x]", findAll("X", "X = x, not(p(X))"));
+      // bindings made while evaluating the negated goal are undone
+      assertEquals("[Y]", findAll("Y", "\\+ \\+ Y = 1"));
+   }
+
+   @Test
+   public void testRetryableBuiltIn() {
+      assertEquals("[b,c]", findAll("X", "member(X, [a,b,c]), X \\== a"));
+      assertEquals("[3,4,5]", findAll("X", "between(1, 5, X), X > 2"));
+   }
+
+   @Test
+   public void testBacktrackingThroughRetryableBuiltInManyTimes() {
+      // each retry must not leave a choice point on the trail, else this runs out of memory
+      QueryResult r = projog.executeQuery("between(1, 3000000, _), fail.");
+      assertFalse(r.next());
+   }
+
+   @Test
+   public void testOnce() {
+      assertEquals("[a]", findAll("X", "once(member(X, [a,b,c]))"));
+   }
+
+   @Test
+   public void testNestedFindAll() {
+      assertEquals("[[a,b],[a,b]]", findAll("L", "member(_, [x,y]), findall(X, member(X, [a,b]), L)"));
+   }
+
+   @Test
+   public void testIndexedStaticPredicate() {
+      consult("colour(red, 1). colour(green, 2). colour(blue, 3). colour(green, 4). shade(N, C) :- colour(C, N).");
+
+      assertEquals("[2,4]", findAll("N", "colour(green, N)"));
+      assertEquals("[blue]", findAll("C", "shade(3, C)"));
+      assertEquals("[]", findAll("C", "shade(5, C)"));
+
+      GoalStackClauses clauses = getStaticUserDefinedPredicate("colour", 2).getGoalStackClauses();
+      assertEquals(2, clauses.getCandidates(parseTerm("colour(green, X)").getArgs()).length);
+      assertEquals(1, clauses.getCandidates(parseTerm("colour(X, 3)").getArgs()).length);
+      assertEquals(4, clauses.getCandidates(parseTerm("colour(X, Y)").getArgs()).length);
+      assertSame(clauses, getStaticUserDefinedPredicate("colour", 2).getGoalStackClauses());
+   }
+
+   @Test
+   public void testDeepIndexedStaticPredicate() {
+      consult("handle(msg(login, U), in(U)). handle(msg(logout, U), out(U)). handle(ping, pong).");
+
+      assertEquals("[out(bob)]", findAll("R", "handle(msg(logout, bob), R)"));
+      assertEquals("[pong]", findAll("R", "handle(ping, R)"));
+
+      GoalStackClauses clauses = getStaticUserDefinedPredicate("handle", 2).getGoalStackClauses();
+      assertEquals(1, clauses.getCandidates(parseTerm("handle(ping, R)").getArgs()).length);
+      assertEquals(3, clauses.getCandidates(parseTerm("handle(M, R)").getArgs()).length);
+   }
+
+   @Test
+   public void testCallSites() {
+      consult("p(X) :- a(X), (b(X) ; c(X)), !, G = d(X), G, once(e(X)). a(1). b(1). c(1). d(1). e(1).");
+
+      GoalStackClause clause = (GoalStackClause) getStaticUserDefinedPredicate("p", 1).getGoalStackClauses().getCandidates(parseTerm("p(X)").getArgs())[0];
+      assertEquals(6, clause.getNumberOfGoals());
+      assertNotNull(clause.getCallSite(0));
+      assertNull(clause.getCallSite(1));
+      assertNull(clause.getCallSite(2));
+      assertNotNull(clause.getCallSite(3));
+      assertNull(clause.getCallSite(4));
+      assertNull(clause.getCallSite(5));
+      assertEquals("[1]", findAll("X", "p(X)"));
+   }
+
+   @Test
+   public void testGoalStackClauseEvaluatedByClauseAction() {
+      consult("double(X, Y) :- Y is X * 2. double(x, y).");
+
+      ClauseAction[] clauses = getStaticUserDefinedPredicate("double", 2).getGoalStackClauses().getCandidates(parseTerm("double(X, Y)").getArgs());
+      assertEquals(2, clauses.length);
+      // the body of the rule is not retryable, so neither is the clause
+      assertFalse(clauses[0].isRetryable());
+      assertFalse(clauses[1].isRetryable());
+
+      Term[] args = parseTerm("double(3, Y)").getArgs();
+      assertTrue(clauses[0].getPredicate(args).evaluate());
+      assertEquals("6", args[1].getBound().toString());
+   }
+
+   @Test
+   public void testCallSiteOfPredicateDefinedLater() {
+      consult("p :- q.");
+      assertEquals("[]", findAll("x", "p"));
+
+      consult("q.");
+      assertEquals("[x]", findAll("x", "p"));
+   }
+
+   @Test
+   public void testStaticPredicateWithSharedVariables() {
+      consult("same(X, X). pair(X, Y, f(X, Y, Z), Z) :- Z = g(X). always(_, _).");
+
+      assertEquals("[a]", findAll("X", "same(a, X)"));
+      assertEquals("[]", findAll("X", "same(a, b)"));
+      assertEquals("[f(1, 2, g(1)) - g(1)]", findAll("F-Z", "pair(1, 2, F, Z)"));
+      assertEquals("[]", findAll("Z", "pair(1, 2, f(1, 3, Z), Z)"));
+      assertEquals("[x]", findAll("X", "always(X, y), X = x"));
+   }
+
+   @Test
+   public void testDynamicPredicate() {
+      consult(":- dynamic(d/1). d(1). d(2).");
+
+      // uses the "logical update view" - clauses added during the call are not considered
+      assertEquals("[1,2]", findAll("X", "d(X), Y is X + 10, assertz(d(Y))"));
+      assertEquals("[1,2,11,12]", findAll("X", "d(X)"));
+   }
+
+   @Test
+   public void testException() {
+      try {
+         projog.executeOnce("X is foo + 1.");
+         fail();
+      } catch (ProjogException e) {
+         // expected
+      }
+   }
+
+   @Test
+   public void testReevaluation() {
+      consult("p(a). p(b).");
+
+      QueryResult r = projog.executeQuery("p(X).");
+      assertTrue(r.next());
+      assertEquals("a", r.getAtomName("X"));
+      assertFalse(r.isExhausted());
+      assertTrue(r.next());
+      assertEquals("b", r.getAtomName("X"));
+      assertTrue(r.isExhausted());
+   }
+
+   @Test
+   public void testCouldUnify() {
+      assertCouldUnify("p(a, b)", "p(a, b)", true);
+      assertCouldUnify("p(X, b)", "p(a, b)", true);
+      assertCouldUnify("p(a, b)", "p(X, Y)", true);
+      assertCouldUnify("p(a, b)", "p(a, c)", false);
+      assertCouldUnify("p(1)", "p(1.0)", false);
+      assertCouldUnify("p(f(a))", "p(f(X))", true);
+      assertCouldUnify("p(f(a))", "p(g(X))", false);
+      assertCouldUnify("p(f(a, X))", "p(f(b, Y))", false);
+      assertCouldUnify("p([a|T])", "p([a,b])", true);
+      assertCouldUnify("p([a|T])", "p([b|X])", false);
+      assertCouldUnify("p([])", "p([a])", false);
+   }
+
+   private static void assertCouldUnify(String goal, String head, boolean expected) {
+      Term g = parseTerm(goal);
+      Term h = parseTerm(head);
+      assertEquals(expected, GoalStackMachine.couldUnify(g.getArgs(), h));
+   }
+
+   private StaticUserDefinedPredicateFactory getStaticUserDefinedPredicate(String name, int numArgs) {
+      PredicateKey key = new PredicateKey(name, numArgs);
+      return (StaticUserDefinedPredicateFactory) projog.getKnowledgeBase().getPredicates().getPredicateFactory(key);
+   }
+
+   private void consult(String source) {
+      projog.consultReader(new StringReader(source));
+   }
+
+   private QueryResult execute(String query) {
+      QueryResult r = projog.executeQuery(query);
+      assertTrue(r.next());
+      return r;
+   }
+
+   private String findAll(String template, String goal) {
+      return projog.formatTerm(execute("findall(" + template + ", (" + goal + "), L).").getTerm("L"));
+   }
+}
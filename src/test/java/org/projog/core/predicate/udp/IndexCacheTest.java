@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.projog.TermFactory.atom;
+import static org.projog.TermFactory.variable;
+import static org.projog.TestUtils.array;
+import static org.projog.TestUtils.createClauseModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.projog.TestUtils;
+import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.kb.ProjogProperties;
+import org.projog.core.predicate.PredicateKey;
+import org.projog.core.term.Term;
+
+public class IndexCacheTest {
+   private final KnowledgeBase kb = TestUtils.createKnowledgeBase();
+   private final Clauses clauses = createClauses("p(a,b,c).", "p(b,c,a).", "p(c,a,b).");
+   private final Term[] firstArg = array(atom("a"), variable(), variable());
+   private final Term[] secondArg = array(variable(), atom("a"), variable());
+   private final Term[] thirdArg = array(variable(), variable(), atom("a"));
+
+   @Test
+   public void testDefaultMemoryLimit() {
+      assertEquals(ProjogProperties.DEFAULT_INDEX_CACHE_MEMORY_LIMIT, new IndexCache(kb).getMemoryLimit());
+   }
+
+   @Test
+   public void testPin() {
+      IndexCache cache = new IndexCache(kb);
+      PredicateKey key = new PredicateKey("p", 3);
+      assertFalse(cache.isPinned(key));
+      cache.pin(key);
+      assertTrue(cache.isPinned(key));
+      assertFalse(cache.isPinned(new PredicateKey("p", 2)));
+   }
+
+   @Test
+   public void testStatistics() {
+      IndexCache cache = new IndexCache(Long.MAX_VALUE);
+      Indexes indexes = new Indexes(clauses, cache, false);
+      assertEquals(0, cache.getIndexCount());
+      assertEquals(0, cache.getMemoryUsage());
+      assertEquals(0, cache.getHitRate(), 0);
+
+      indexes.index(firstArg);
+      assertEquals(1, cache.getIndexCount());
+      assertEquals(1, cache.getBuildCount());
+      assertEquals(1, cache.getMissCount());
+      assertEquals(0, cache.getHitCount());
+      assertTrue(cache.getBuildTime() > 0);
+      long memory = cache.getMemoryUsage();
+      assertTrue(memory > 0);
+
+      indexes.index(firstArg);
+      indexes.index(firstArg);
+      indexes.index(secondArg);
+      assertEquals(2, cache.getIndexCount());
+      assertEquals(2, cache.getBuildCount());
+      assertEquals(2, cache.getMissCount());
+      assertEquals(2, cache.getHitCount());
+      assertEquals(.5, cache.getHitRate(), 0);
+      assertEquals(memory * 2, cache.getMemoryUsage());
+      assertEquals(0, cache.getEvictionCount());
+   }
+
+   @Test
+   public void testLeastRecentlyUsedDiscarded() {
+      long size = new Indexes(clauses).getOrCreateIndex(1).estimateSize();
+      IndexCache cache = new IndexCache(size * 2);
+      Indexes indexes = new Indexes(clauses, cache, false);
+
+      ClauseAction[] first = indexes.index(firstArg);
+      ClauseAction[] second = indexes.index(secondArg);
+      assertEquals(0, cache.getEvictionCount());
+
+      // creating a third index exceeds the limit, so the index of the first argument is discarded
+      ClauseAction[] third = indexes.index(thirdArg);
+      assertEquals(1, cache.getEvictionCount());
+      assertEquals(2, cache.getIndexCount());
+      assertEquals(size * 2, cache.getMemoryUsage());
+      assertEquals(2, indexes.countReferences());
+      assertSame(second, indexes.index(secondArg));
+      assertSame(third, indexes.index(thirdArg));
+
+      // the index of the first argument is recreated, and the least recently used index is discarded
+      indexes.index(secondArg);
+      ClauseAction[] recreated = indexes.index(firstArg);
+      assertEquals(first.length, recreated.length);
+      assertSame(first[0], recreated[0]);
+      assertEquals(2, cache.getEvictionCount());
+      assertEquals(4, cache.getBuildCount());
+      assertEquals(2, indexes.countReferences());
+   }
+
+   @Test
+   public void testPinnedIndexesCreatedImmediatelyAndNeverDiscarded() {
+      IndexCache cache = new IndexCache(0);
+      Indexes indexes = new Indexes(clauses, cache, true);
+      assertEquals(3, cache.getBuildCount());
+      assertEquals(3, cache.getIndexCount());
+      assertEquals(3, indexes.countReferences());
+
+      indexes.index(firstArg);
+      indexes.index(secondArg);
+      indexes.index(thirdArg);
+      assertEquals(3, cache.getHitCount());
+      assertEquals(0, cache.getEvictionCount());
+      assertEquals(3, indexes.countReferences());
+   }
+
+   private Clauses createClauses(String... clauses) {
+      List<ClauseModel> models = new ArrayList<>();
+      for (String clause : clauses) {
+         models.add(createClauseModel(clause));
+      }
+      return Clauses.createFromModels(kb, models);
+   }
+}
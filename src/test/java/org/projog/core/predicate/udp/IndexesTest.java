@@ -76,11 +76,12 @@ public class IndexesTest {
       assertMatches(indexes, array(a, d, c),fourth);
       assertNoMatches(indexes, array(c, a, b));
 
-      assertEquals(7, indexes.countReferences());
+      // as the 2nd and 3rd args are more selective than the 1st, the 3 arg queries only required an index of the 2nd and 3rd args
+      assertEquals(6, indexes.countReferences());
    }
 
    @Test
-   public void testMaxThreeArgsPerIndex() {
+   public void testArgsChosenBySelectivity() {
       Atom a = atom("a");
       Atom b = atom("b");
       Atom c = atom("c");
@@ -90,17 +91,60 @@ public class IndexesTest {
       ClauseAction first = clauses.getClauseActions()[0];
       ClauseAction second = clauses.getClauseActions()[1];
       ClauseAction third = clauses.getClauseActions()[2];
+      ClauseAction fourth = clauses.getClauseActions()[3];
 
       Indexes indexes = new Indexes(clauses);
 
-      // a maximum of the first 3 immutable args will be used in the index
-      assertMatches(indexes, array(a, b, c, d, e), first, second, third);
-      assertMatches(indexes, array(v(), b, c, d, e), first, second);
+      // the 5th arg has a different value in every clause, so is the only arg used in the index
+      assertMatches(indexes, array(a, b, c, d, e), first);
+      assertMatches(indexes, array(v(), b, c, d, e), first);
       assertMatches(indexes, array(v(), v(), c, d, e), first);
+      assertEquals(1, indexes.countReferences());
+      // the 4th arg has 3 distinct values, so the 3rd arg is also used in the index
+      assertMatches(indexes, array(a, b, c, d, v()), first, second);
+      assertEquals(2, indexes.countReferences());
+      // the 1st and 2nd args have the same value in every clause, so the 1st arg is only used when no other arg can be
+      assertMatches(indexes, array(a, b, v(), v(), v()), first, second, third, fourth);
+      assertNoMatches(indexes, array(v(), e, v(), v(), v()));
+   }
+
+   @Test
+   public void testMoreThanThreeArgsPerIndex() {
+      // every combination of the values 0 and 1 for the last 4 args of a 6 arg predicate
+      List<ClauseModel> models = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+         Term[] args = new Term[6];
+         args[0] = integerNumber(i);
+         args[1] = atom("x");
+         for (int b = 0; b < 4; b++) {
+            args[2 + b] = integerNumber((i >> b) & 1);
+         }
+         models.add(ClauseModel.createClauseModel(structure("p", args)));
+      }
+      Clauses clauses = Clauses.createFromModels(TestUtils.createKnowledgeBase(), models);
+
+      Indexes indexes = new Indexes(clauses);
+
+      for (int i = 0; i < 16; i++) {
+         Term[] args = array(v(), v(), v(), v(), v(), v());
+         for (int b = 0; b < 4; b++) {
+            args[2 + b] = integerNumber((i >> b) & 1);
+         }
+         ClauseAction[] matches = indexes.index(args);
+         assertEquals(1, matches.length);
+         assertSame(models.get(i), matches[0].getModel());
+      }
+      assertEquals(1, indexes.countReferences());
+
+      // when only 3 of the args are specified then 2 clauses match
+      ClauseAction[] matches = indexes.index(array(v(), v(), v(), integerNumber(1), integerNumber(0), integerNumber(1)));
+      assertEquals(2, matches.length);
+      assertSame(models.get(10), matches[0].getModel());
+      assertSame(models.get(11), matches[1].getModel());
    }
 
    @Test
-   public void testMaxNineArgsIndexable() {
+   public void testMoreThanNineArgsIndexable() {
       Atom a = atom("a");
       Atom b = atom("b");
       Atom c = atom("c");
@@ -118,7 +162,7 @@ public class IndexesTest {
 
       Indexes indexes = new Indexes(clauses);
 
-      // a maximum of the first 9 immutable args will be considered for use in the index
+      // all immutable args will be considered for use in the index
       assertMatches(indexes, array(a, v(), v(), v(), v(), v(), v(), v(), v(), v()), first);
       assertMatches(indexes, array(v(), b, v(), v(), v(), v(), v(), v(), v(), v()), first);
       assertMatches(indexes, array(v(), v(), c, v(), v(), v(), v(), v(), v(), v()), first);
@@ -128,13 +172,12 @@ public class IndexesTest {
       assertMatches(indexes, array(v(), v(), v(), v(), v(), v(), g, v(), v(), v()), first);
       assertMatches(indexes, array(v(), v(), v(), v(), v(), v(), v(), h, v(), v()), first);
       assertMatches(indexes, array(v(), v(), v(), v(), v(), v(), v(), v(), i, v()), first);
-      // expect all three clauses to be returned as final argument will not be used in the index
-      assertMatches(indexes, array(v(), v(), v(), v(), v(), v(), v(), v(), v(), j), first, second, third);
-      assertMatches(indexes, array(v(), v(), v(), v(), v(), v(), v(), v(), v(), integerNumber(9)), first, second, third);
+      assertMatches(indexes, array(v(), v(), v(), v(), v(), v(), v(), v(), v(), j), first);
+      assertNoMatches(indexes, array(v(), v(), v(), v(), v(), v(), v(), v(), v(), integerNumber(9)));
    }
 
    @Test
-   public void testMuttableArgsNotIncludeInMaxLimits() {
+   public void testMuttableArgsNotIndexed() {
       Atom a = atom("a");
       Atom b = atom("b");
       Atom c = atom("c");
@@ -151,23 +194,46 @@ public class IndexesTest {
       ClauseAction third = clauses.getClauseActions()[2];
 
       Indexes indexes = new Indexes(clauses);
-      // 4th argument ("d") will be included in composite index.
-      // This is dispite there being a 3 arg max limit in the number of args per index.
-      // This is because the third argument is not considered for indexing as one of the clauses has
+      // The third argument is not considered for indexing as one of the clauses has
       // a mutable term (a variable named "X") in that position.
       assertMatches(indexes, array(a, b, c, d, v(), v(), v(), v(), v(), v(), v(), v()), second);
       assertMatches(indexes, array(a, b, q, d, v(), v(), v(), v(), v(), v(), v(), v()), second);
       assertMatches(indexes, array(a, b, c, z, v(), v(), v(), v(), v(), v(), v(), v()), third);
       assertMatches(indexes, array(a, b, q, z, v(), v(), v(), v(), v(), v(), v(), v()), third);
       // 3rd and 8th args not indexed as a clause has a mutable term in that position.
-      assertMatches(indexes, array(v(), v(), c, v(), v(), v(), v(), v(), v(), v(), v()), first, second, third);
-      assertMatches(indexes, array(v(), v(), v(), v(), v(), v(), v(), z, v(), v(), v(), v()), first, second, third);
-      // 10th and 11th arg considered for indexing as within max of 9 mutable terms considered for indexing.
+      assertMatches(indexes, array(v(), v(), c, v(), v(), v(), v(), v(), v(), v(), v(), v()), first, second, third);
+      // 8th arg is used by the deep indexes, as it is the only indexable argument that has been specified
+      assertNoMatches(indexes, array(v(), v(), v(), v(), v(), v(), v(), z, v(), v(), v(), v()));
+      assertMatches(indexes, array(v(), v(), v(), v(), v(), v(), v(), atom("h"), v(), v(), v(), v()), first, third);
+      // 10th, 11th and 12th args considered for indexing as immutable in every clause.
       assertMatches(indexes, array(v(), v(), v(), v(), v(), v(), v(), v(), v(), j, v(), v()), second, third);
       assertMatches(indexes, array(v(), v(), v(), v(), v(), v(), v(), v(), v(), v(), k, v()), second);
       assertMatches(indexes, array(v(), v(), v(), v(), v(), v(), v(), v(), v(), v(), x, v()), third);
-      // 12th arg not used in index as only max of 9 mutable terms considered for indexing.
-      assertMatches(indexes, array(v(), v(), v(), v(), v(), v(), v(), v(), v(), v(), v(), z), first, second, third);
+      assertNoMatches(indexes, array(v(), v(), v(), v(), v(), v(), v(), v(), v(), v(), v(), z));
+   }
+
+   @Test
+   public void testImmutableArgumentsCombinedWithDeepIndexes() {
+      Atom a = atom("a");
+      Atom b = atom("b");
+      Clauses clauses = createClauses("p(a, f(x)).", "p(a, g(x)).", "p(b, f(x)).", "p(a, f(y)).", "p(a, X).");
+      ClauseAction first = clauses.getClauseActions()[0];
+      ClauseAction second = clauses.getClauseActions()[1];
+      ClauseAction third = clauses.getClauseActions()[2];
+      ClauseAction fourth = clauses.getClauseActions()[3];
+      ClauseAction fifth = clauses.getClauseActions()[4];
+
+      Indexes indexes = new Indexes(clauses);
+      // only the immutable 1st arg is specified
+      assertMatches(indexes, array(a, v()), first, second, fourth, fifth);
+      // the clauses that match the 1st arg are narrowed using the 2nd arg
+      assertMatches(indexes, array(a, structure("g", v())), second, fifth);
+      assertMatches(indexes, array(a, structure("f", atom("y"))), fourth, fifth);
+      assertMatches(indexes, array(a, structure("h", v())), fifth);
+      assertMatches(indexes, array(b, structure("g", v())), third);
+      // only the 2nd arg is specified
+      assertMatches(indexes, array(v(), structure("g", v())), second, fifth);
+      assertEquals(1, indexes.countReferences());
    }
 
    @Test
@@ -225,9 +291,8 @@ public class IndexesTest {
          }
       }
 
-      assertEquals(129, indexes.countReferences());
-      // TODO set numClauses to a larger number (e.g. 100,000) to verify that some indexes have been garbage collected
-      // TODO assertTrue(indexes.countClearedReferences() > 0);
+      // as every arg has a different value in every clause, an index of a single arg is always sufficient
+      assertEquals(9, indexes.countReferences());
    }
 
    private void assertMatches(Indexes indexes, Term[] input, ClauseAction... expected) {
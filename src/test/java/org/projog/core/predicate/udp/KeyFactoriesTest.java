@@ -35,11 +35,6 @@ public class KeyFactoriesTest {
    private static final Atom D = atom("d");
    private static final Atom E = atom("e");
 
-   @Test
-   public void testLimit() {
-      assertEquals(3, KeyFactories.MAX_ARGUMENTS_PER_INDEX);
-   }
-
    @Test
    public void testOne() {
       Term[] args = new Term[] {A, B, C};
@@ -80,6 +75,21 @@ public class KeyFactoriesTest {
       assertEqualsHashCode(k, kf.createKey(new int[] {0, 1, 2}, new Term[] {A, B, C, E}));
    }
 
+   @Test
+   public void testMoreThanThree() {
+      Term[] args = new Term[] {A, B, C, D, E};
+      KeyFactory kf = KeyFactories.getKeyFactory(5);
+
+      Object k = kf.createKey(new int[] {0, 1, 2, 3, 4}, args);
+
+      assertNotEqualsHashCode(k, kf.createKey(new int[] {4, 3, 2, 1, 0}, args));
+      assertNotEqualsHashCode(k, kf.createKey(new int[] {0, 1, 2, 3, 4}, new Term[] {A, B, C, E, D}));
+
+      assertEqualsHashCode(k, kf.createKey(new int[] {0, 1, 2, 3, 4}, args));
+      assertEqualsHashCode(k, kf.createKey(new int[] {1, 2, 3, 4, 5}, new Term[] {E, A, B, C, D, E}));
+      assertEquals(k.hashCode(), KeyFactories.hashCode(new int[] {0, 1, 2, 3, 4}, args));
+   }
+
    private void assertNotEqualsHashCode(Object o1, Object o2) { // TODO move to TestUtils
       assertFalse(o1.equals(o2));
       assertFalse(o2.equals(o1));
@@ -69,6 +69,7 @@ public class SingleNonRetryableRulePredicateFactoryTest {
 
    @After
    public void after() {
+      verify(mockAction).isLastCall();
       verify(mockAction).getPredicate(queryArgs);
       verify(mockPredicate).evaluate();
       verifyNoMoreInteractions(mockAction, mockPredicate);
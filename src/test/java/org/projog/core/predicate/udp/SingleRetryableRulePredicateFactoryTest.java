@@ -42,7 +42,6 @@ import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateKey;
 import org.projog.core.predicate.udp.ClauseAction;
 import org.projog.core.predicate.udp.SingleRetryableRulePredicateFactory;
-import org.projog.core.predicate.udp.SingleRetryableRulePredicateFactory.RetryableRulePredicate;
 import org.projog.core.term.Term;
 
 public class SingleRetryableRulePredicateFactoryTest {
@@ -71,6 +70,7 @@ public class SingleRetryableRulePredicateFactoryTest {
 
    @After
    public void after() {
+      verify(mockAction).isLastCall();
       verify(mockAction).getPredicate(queryArgs);
       verifyNoMoreInteractions(mockAction, mockPredicate);
    }
@@ -80,7 +80,7 @@ public class SingleRetryableRulePredicateFactoryTest {
       spyPoints.setTraceEnabled(false);
       when(mockPredicate.evaluate()).thenReturn(true, true, true, false);
 
-      RetryableRulePredicate result = testObject.getPredicate(queryArgs);
+      Predicate result = testObject.getPredicate(queryArgs);
 
       assertTrue(result.evaluate());
       assertTrue(result.evaluate());
@@ -96,7 +96,7 @@ public class SingleRetryableRulePredicateFactoryTest {
       spyPoints.setTraceEnabled(false);
       when(mockPredicate.evaluate()).thenReturn(false);
 
-      RetryableRulePredicate result = testObject.getPredicate(queryArgs);
+      Predicate result = testObject.getPredicate(queryArgs);
 
       assertFalse(result.evaluate());
       assertEquals("", listener.result());
@@ -108,7 +108,7 @@ public class SingleRetryableRulePredicateFactoryTest {
       spyPoints.setTraceEnabled(false);
       when(mockPredicate.evaluate()).thenThrow(CutException.CUT_EXCEPTION);
 
-      RetryableRulePredicate result = testObject.getPredicate(queryArgs);
+      Predicate result = testObject.getPredicate(queryArgs);
 
       assertFalse(result.evaluate());
       assertEquals("", listener.result());
@@ -121,7 +121,7 @@ public class SingleRetryableRulePredicateFactoryTest {
       RuntimeException exception = new RuntimeException();
       when(mockPredicate.evaluate()).thenThrow(exception);
 
-      RetryableRulePredicate result = testObject.getPredicate(queryArgs);
+      Predicate result = testObject.getPredicate(queryArgs);
       try {
          result.evaluate();
          fail();
@@ -140,7 +140,7 @@ public class SingleRetryableRulePredicateFactoryTest {
       spyPoints.setTraceEnabled(true);
       when(mockPredicate.evaluate()).thenReturn(true, true, true, false);
 
-      RetryableRulePredicate result = testObject.getPredicate(queryArgs);
+      Predicate result = testObject.getPredicate(queryArgs);
 
       assertTrue(result.evaluate());
       assertTrue(result.evaluate());
@@ -156,7 +156,7 @@ public class SingleRetryableRulePredicateFactoryTest {
       spyPoints.setTraceEnabled(true);
       when(mockPredicate.evaluate()).thenReturn(false);
 
-      RetryableRulePredicate result = testObject.getPredicate(queryArgs);
+      Predicate result = testObject.getPredicate(queryArgs);
 
       assertFalse(result.evaluate());
       assertEquals("CALLtest(a, b, c)FAILtest(a, b, c)", listener.result());
@@ -168,7 +168,7 @@ public class SingleRetryableRulePredicateFactoryTest {
       spyPoints.setTraceEnabled(true);
       when(mockPredicate.evaluate()).thenThrow(CutException.CUT_EXCEPTION);
 
-      RetryableRulePredicate result = testObject.getPredicate(queryArgs);
+      Predicate result = testObject.getPredicate(queryArgs);
 
       assertFalse(result.evaluate());
       assertEquals("CALLtest(a, b, c)FAILtest(a, b, c)", listener.result());
@@ -181,7 +181,7 @@ public class SingleRetryableRulePredicateFactoryTest {
       RuntimeException exception = new RuntimeException();
       when(mockPredicate.evaluate()).thenThrow(exception);
 
-      RetryableRulePredicate result = testObject.getPredicate(queryArgs);
+      Predicate result = testObject.getPredicate(queryArgs);
       try {
          result.evaluate();
          fail();
@@ -200,7 +200,7 @@ public class SingleRetryableRulePredicateFactoryTest {
       when(mockPredicate.evaluate()).thenReturn(true);
       when(mockPredicate.couldReevaluationSucceed()).thenReturn(true, false);
 
-      RetryableRulePredicate result = testObject.getPredicate(queryArgs);
+      Predicate result = testObject.getPredicate(queryArgs);
 
       // couldReevaluationSucceed will always return true until evaluate is called
       assertTrue(result.couldReevaluationSucceed());
@@ -23,6 +23,7 @@ import static org.projog.TermFactory.atom;
 import static org.projog.TermFactory.structure;
 
 import java.util.Arrays;
+import java.util.Iterator;
 
 import org.junit.Test;
 import org.projog.TestUtils;
@@ -181,9 +182,17 @@ public class StaticUserDefinedPredicateFactoryTest {
    }
 
    @Test
-   public void testNotIndexablePredicate() {
-      // not args are indexable as none are always immutable
+   public void testDeepIndexablePredicate() {
+      // no args are always immutable, but the values of the immutable args can be used in a deep index
       PredicateFactory pf = getActualPredicateFactory("p(a,b,c).", "p(1,2,3).", "p(X,Y,Z).");
+      assertEquals("org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$DeepIndexablePredicateFactory", pf.getClass().getName());
+      assertTrue(pf.isRetryable());
+   }
+
+   @Test
+   public void testNotIndexablePredicate() {
+      // not args are indexable as none are always immutable, and none have more than one distinct immutable value
+      PredicateFactory pf = getActualPredicateFactory("p(a,X).", "p(Y,b).", "p(Z,Z).");
       assertEquals("org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$NotIndexablePredicateFactory", pf.getClass().getName());
       assertTrue(pf.isRetryable());
    }
@@ -267,6 +276,37 @@ public class StaticUserDefinedPredicateFactoryTest {
       }
    }
 
+   @Test
+   public void testCopyOfCompiledFacts() {
+      KnowledgeBase kb = TestUtils.createKnowledgeBase(TestUtils.PROJOG_DEFAULT_PROPERTIES);
+      PredicateKey key = new PredicateKey("test", 1);
+      StaticUserDefinedPredicateFactory original = new StaticUserDefinedPredicateFactory(kb, key);
+      original.addLast(ClauseModel.createClauseModel(TestUtils.parseSentence("test(a).")));
+      original.addLast(ClauseModel.createClauseModel(TestUtils.parseSentence("test(b).")));
+      original.compile();
+
+      KnowledgeBase copyKb = TestUtils.createKnowledgeBase(TestUtils.PROJOG_DEFAULT_PROPERTIES);
+      StaticUserDefinedPredicateFactory copy = new StaticUserDefinedPredicateFactory(copyKb, original);
+      assertTrue(copy.getPredicate(new Term[] {atom("b")}).evaluate());
+      assertFalse(copy.getPredicate(new Term[] {atom("c")}).evaluate());
+
+      // as the copy has not been compiled it can be added to, without altering the original
+      StaticUserDefinedPredicateFactory other = new StaticUserDefinedPredicateFactory(copyKb, original);
+      other.addLast(ClauseModel.createClauseModel(TestUtils.parseSentence("test(c).")));
+      assertTrue(other.getPredicate(new Term[] {atom("c")}).evaluate());
+      assertFalse(original.getPredicate(new Term[] {atom("c")}).evaluate());
+      assertEquals(2, countImplications(original));
+      assertEquals(3, countImplications(other));
+   }
+
+   private static int countImplications(StaticUserDefinedPredicateFactory f) {
+      int ctr = 0;
+      for (Iterator<ClauseModel> itr = f.getImplications(); itr.hasNext(); itr.next()) {
+         ctr++;
+      }
+      return ctr;
+   }
+
    private static void assertSingleRetryableRulePredicateFactory(PredicateFactory p) {
       assertSame(SingleRetryableRulePredicateFactory.class, p.getClass());
    }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.projog.TermFactory.atom;
+import static org.projog.TestUtils.parseTerm;
+import static org.projog.TestUtils.write;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.projog.core.term.Term;
+import org.projog.core.term.TermType;
+import org.projog.core.term.Variable;
+
+public class TermTemplateTest {
+   @Test
+   public void testSlotsAssignedInOrderOfFirstOccurrence() {
+      Map<Variable, Integer> slots = new HashMap<>();
+      TermTemplate.create(parseTerm("p(X, f(Y, X), [Z|Y])").getArgs(), slots);
+      assertEquals(3, slots.size());
+   }
+
+   @Test
+   public void testVariableAssignedArgumentWithoutCreatingNewVariable() {
+      TermTemplate template = create("X");
+      Term[] frame = new Term[1];
+      Term input = parseTerm("f(a, b)");
+
+      assertTrue(template.unify(input, frame));
+      assertSame(input, frame[0]);
+   }
+
+   @Test
+   public void testVariableBoundToUninstantiatedArgument() {
+      TermTemplate template = create("X");
+      Term[] frame = new Term[1];
+      Variable input = new Variable("Q");
+
+      assertTrue(template.unify(input, frame));
+      assertEquals(TermType.VARIABLE, input.getType());
+      assertSame(frame[0], input.getTerm());
+      assertEquals("X", ((Variable) frame[0]).getId());
+   }
+
+   @Test
+   public void testSharedVariable() {
+      TermTemplate[] templates = TermTemplate.create(parseTerm("p(X, X)").getArgs(), new HashMap<>());
+      Term[] frame = new Term[1];
+      assertTrue(templates[0].unify(atom("a"), frame));
+      assertTrue(templates[1].unify(atom("a"), frame));
+
+      frame = new Term[1];
+      assertTrue(templates[0].unify(atom("a"), frame));
+      assertFalse(templates[1].unify(atom("b"), frame));
+   }
+
+   @Test
+   public void testStructure() {
+      TermTemplate template = create("f(X, g(Y), c)");
+      Term[] frame = new Term[2];
+      assertTrue(template.unify(parseTerm("f(a, g(b), c)"), frame));
+      assertEquals(atom("a"), frame[0]);
+      assertEquals(atom("b"), frame[1]);
+
+      assertFalse(template.unify(parseTerm("f(a, g(b), d)"), new Term[2]));
+      assertFalse(template.unify(parseTerm("f(a, h(b), c)"), new Term[2]));
+      assertFalse(template.unify(parseTerm("f(a, g(b))"), new Term[2]));
+      assertFalse(template.unify(atom("f"), new Term[2]));
+   }
+
+   @Test
+   public void testStructureUnifiedWithVariable() {
+      TermTemplate template = create("f(X, g(Y), c)");
+      Term[] frame = new Term[2];
+      Variable input = new Variable("Q");
+
+      assertTrue(template.unify(input, frame));
+      assertEquals("f(X, g(Y), c)", write(input));
+      assertTrue(frame[0] instanceof Variable);
+      assertTrue(frame[1] instanceof Variable);
+   }
+
+   @Test
+   public void testList() {
+      TermTemplate template = create("[X,Y|T]");
+      Term[] frame = new Term[3];
+      assertTrue(template.unify(parseTerm("[a,b,c,d]"), frame));
+      assertEquals(atom("a"), frame[0]);
+      assertEquals(atom("b"), frame[1]);
+      assertEquals("[c,d]", write(frame[2]));
+
+      assertFalse(template.unify(parseTerm("[a]"), new Term[3]));
+      assertFalse(template.unify(atom("a"), new Term[3]));
+   }
+
+   @Test
+   public void testListUnifiedWithPartialList() {
+      TermTemplate template = create("[X,Y,c]");
+      Term[] frame = new Term[2];
+      Term input = parseTerm("[a|T]");
+
+      assertTrue(template.unify(input, frame));
+      assertEquals("[a,Y,c]", write(input));
+   }
+
+   @Test
+   public void testCopy() {
+      TermTemplate[] templates = TermTemplate.create(parseTerm("p(X, f(X, Y))").getArgs(), new HashMap<>());
+      Term[] frame = new Term[2];
+      assertTrue(templates[0].unify(atom("a"), frame));
+      assertNull(frame[1]);
+
+      Term copy = templates[1].copy(frame);
+      assertEquals("f(a, Y)", write(copy));
+      assertSame(frame[1], copy.getArgument(1));
+   }
+
+   @Test
+   public void testCopyOfBoundVariableIsNotVariable() {
+      TermTemplate[] templates = TermTemplate.create(parseTerm("p(X, X)").getArgs(), new HashMap<>());
+      Term[] frame = new Term[1];
+      Variable input = new Variable("Q");
+      assertTrue(templates[0].unify(input, frame));
+      input.unify(atom("a"));
+
+      assertSame(atom("a").getClass(), templates[1].copy(frame).getClass());
+   }
+
+   private static TermTemplate create(String syntax) {
+      return TermTemplate.create(new Term[] {parseTerm(syntax)}, new HashMap<>())[0];
+   }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.term;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.projog.TestUtils;
+
+public class AtomCacheTest {
+   @Test
+   public void testSameInstance() {
+      Atom a = AtomCache.valueOf("atom_cache_test");
+      assertEquals("atom_cache_test", a.getName());
+      assertSame(a, AtomCache.valueOf(new String("atom_cache_test")));
+      assertSame("atom_cache_test", a.getName());
+   }
+
+   @Test
+   public void testDifferentNames() {
+      assertNotEquals(AtomCache.valueOf("atom_cache_x"), AtomCache.valueOf("atom_cache_y"));
+   }
+
+   @Test
+   public void testParsedAtomsShared() {
+      Atom a = AtomCache.valueOf("atom_cache_parsed");
+      assertSame(a, TestUtils.parseTerm("atom_cache_parsed"));
+      assertSame(a, TestUtils.parseTerm("f(atom_cache_parsed)").getArgument(0));
+   }
+
+   @Test(timeout = 10000)
+   public void testConcurrentRequests() throws Exception {
+      int numThreads = 4;
+      int numNames = 1000;
+      ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+      try {
+         List<Future<Atom[]>> futures = new ArrayList<>();
+         for (int t = 0; t < numThreads; t++) {
+            futures.add(executor.submit(() -> {
+               Atom[] atoms = new Atom[numNames];
+               for (int i = 0; i < numNames; i++) {
+                  atoms[i] = AtomCache.valueOf("atom_cache_concurrent_" + i);
+               }
+               return atoms;
+            }));
+         }
+
+         // every thread is given the same instance for each name
+         Atom[] expected = futures.get(0).get();
+         for (Future<Atom[]> f : futures) {
+            Atom[] actual = f.get();
+            for (int i = 0; i < numNames; i++) {
+               assertEquals("atom_cache_concurrent_" + i, actual[i].getName());
+               assertSame(expected[i], actual[i]);
+            }
+         }
+      } finally {
+         executor.shutdown();
+      }
+   }
+}
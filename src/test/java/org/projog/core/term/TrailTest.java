@@ -0,0 +1,162 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.term;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.projog.TermFactory.atom;
+import static org.projog.TermFactory.structure;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TrailTest {
+   private Trail trail;
+   private Trail previous;
+
+   @Before
+   public void activate() {
+      trail = new Trail();
+      previous = trail.activate();
+      assertNull(previous);
+      assertSame(trail, Trail.getActive());
+   }
+
+   @After
+   public void deactivate() {
+      trail.deactivate(previous);
+      assertNull(Trail.getActive());
+   }
+
+   @Test
+   public void testNoBindingsRecordedWhenNoChoicePoint() {
+      Variable x = new Variable("X");
+      assertTrue(x.unify(atom("a")));
+      assertEquals(0, trail.size());
+   }
+
+   @Test
+   public void testUndo() {
+      Variable x = new Variable("X");
+      Variable y = new Variable("Y");
+      long choicePoint = trail.mark();
+      assertTrue(x.unify(atom("a")));
+      assertTrue(y.unify(x));
+      assertEquals(2, trail.size());
+
+      assertTrue(trail.undo(choicePoint));
+      assertSame(x, x.getTerm());
+      assertSame(y, y.getTerm());
+      assertEquals(0, trail.size());
+
+      // choice point is retained after undo, so can be undone again
+      assertTrue(x.unify(atom("b")));
+      assertTrue(trail.undo(choicePoint));
+      assertSame(x, x.getTerm());
+   }
+
+   @Test
+   public void testOnlyUndoesBindingsMadeAfterChoicePoint() {
+      Variable x = new Variable("X");
+      Variable y = new Variable("Y");
+      long choicePoint1 = trail.mark();
+      assertTrue(x.unify(atom("a")));
+      long choicePoint2 = trail.mark();
+      assertTrue(y.unify(atom("b")));
+
+      assertTrue(trail.undo(choicePoint2));
+      assertEquals(atom("a"), x.getTerm());
+      assertSame(y, y.getTerm());
+
+      assertTrue(trail.undo(choicePoint1));
+      assertSame(x, x.getTerm());
+   }
+
+   @Test
+   public void testVariablesCreatedAfterChoicePointNotRecorded() {
+      Variable x = new Variable("X");
+      long choicePoint = trail.mark();
+      Variable y = new Variable("Y");
+      Term s = structure("p", y);
+      assertTrue(y.unify(atom("a")));
+      assertEquals(0, trail.size());
+      assertTrue(x.unify(s));
+      assertEquals(1, trail.size());
+
+      assertTrue(trail.undo(choicePoint));
+      assertSame(x, x.getTerm());
+   }
+
+   @Test
+   public void testUndoingEarlierChoicePointDiscardsLaterChoicePoints() {
+      Variable x = new Variable("X");
+      long choicePoint1 = trail.mark();
+      long choicePoint2 = trail.mark();
+      assertTrue(x.unify(atom("a")));
+
+      assertTrue(trail.undo(choicePoint1));
+      assertSame(x, x.getTerm());
+      assertFalse(trail.undo(choicePoint2));
+   }
+
+   @Test
+   public void testRelease() {
+      Variable x = new Variable("X");
+      long choicePoint1 = trail.mark();
+      Variable y = new Variable("Y");
+      long choicePoint2 = trail.mark();
+      assertTrue(x.unify(atom("a")));
+      assertTrue(y.unify(atom("b")));
+      assertEquals(2, trail.size());
+
+      // binding of Y no longer needs to be recorded, as Y was created after choicePoint1
+      trail.release(choicePoint2);
+      assertEquals(1, trail.size());
+      assertFalse(trail.undo(choicePoint2));
+      assertEquals(atom("a"), x.getTerm());
+      assertEquals(atom("b"), y.getTerm());
+
+      assertTrue(trail.undo(choicePoint1));
+      assertSame(x, x.getTerm());
+
+      trail.release(choicePoint1);
+      assertTrue(x.unify(atom("c")));
+      assertEquals(0, trail.size());
+   }
+
+   @Test
+   public void testNestedTrails() {
+      Variable x = new Variable("X");
+      long choicePoint = trail.mark();
+
+      Trail nested = new Trail();
+      assertSame(trail, nested.activate());
+      Variable y = new Variable("Y");
+      nested.deactivate(trail);
+      assertSame(trail, Trail.getActive());
+
+      // Y was created after the choice point, so its binding does not need to be recorded
+      assertTrue(y.unify(atom("a")));
+      assertTrue(x.unify(atom("b")));
+      assertEquals(1, trail.size());
+      assertTrue(trail.undo(choicePoint));
+      assertSame(x, x.getTerm());
+   }
+}
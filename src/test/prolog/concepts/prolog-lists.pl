@@ -128,28 +128,25 @@ reverse_list([X|Xs],Acc,Ys) :- reverse_list(Xs,[X|Acc],Ys).
 reverse_list([],Ys,Ys).
 
 %TRUE reverse_list([],[])
-%TRUE_NO reverse_list([a],[a])
+%TRUE reverse_list([a],[a])
 %FAIL reverse_list([a],[b])
-%TRUE_NO reverse_list([a,b],[b,a])
+%TRUE reverse_list([a,b],[b,a])
 %FAIL reverse_list([a,b],[a,b])
 %FAIL reverse_list([a,b],[a,a])
 %FAIL reverse_list([a,b],[b,b])
 %FAIL reverse_list([a,b],[a])
 %FAIL reverse_list([a,b],[b])
 %FAIL reverse_list([a,b],[c,b,a])
-%TRUE_NO reverse_list([a,b,c,d,e,f],[f,e,d,c,b,a])
+%TRUE reverse_list([a,b,c,d,e,f],[f,e,d,c,b,a])
 %FAIL reverse_list([a,b,c,d,e,f],[f,e,d,c,a,b])
 %?- reverse_list([a,b,c,X,e,Y],[f,Z,d,c,b,a])
 % X=d
 % Y=f
 % Z=e
-%NO
 %?- reverse_list([a,b,c,d,e,f],X)
 % X=[f,e,d,c,b,a]
-%NO
 %?- reverse_list([a,b,c,[1,2,3]],X)
 % X=[[1,2,3],c,b,a]
-%NO
 
 % Determine if elements are next to each other in a list.
 adjacent(X,Y,Zs) :- append_to_list(As,[X,Y|Ys],Zs).
@@ -207,14 +204,11 @@ list_length([X|Xs],A) :- list_length(Xs,B), A is B+1.
 % X=0
 %?- list_length([a],X)
 % X=1
-%NO
 %?- list_length([a,b],X)
 % X=2
-%NO
 %?- list_length([a,b,c,d,e,f],X)
 % X=6
-%NO
-%TRUE_NO list_length([a,b,c,d,e,f],6)
+%TRUE list_length([a,b,c,d,e,f],6)
 %FAIL list_length([a,b,c,d,e,f],5)
 
 % Delete elements from a list.
@@ -227,7 +221,6 @@ delete_from_list([],X,[]).
 %TRUE_NO delete_from_list([a,z,c],z,[a,c])
 %?- delete_from_list([a,z,c],y,X)
 % X=[a,z,c]
-%NO
 %TRUE_NO delete_from_list([z,a,z,z,b,c,z,d,e,f,z],z,[a,b,c,d,e,f])
 %?- delete_from_list([z,a,z,z,b,c,z,d,e,f,z],X,[a,b,c,d,e,f])
 % X=z
@@ -255,7 +248,7 @@ ordered([]).
 ordered([X]).
 ordered([X,Y|Ys]) :- X @=< Y, ordered([Y|Ys]).
 
-%TRUE_NO ordered([a,b,c,d,e,f])
+%TRUE ordered([a,b,c,d,e,f])
 %FAIL ordered([a,b,c,e,d,f])
 
 % Find permuatations of terms in a list.
@@ -104,7 +104,6 @@ test6(X, Y) :- p(X), p(B), B=A, X = A, B = Y.
 % W=2
 % W=2
 % W=2
-%NO
 
 %?- test5(W,1)
 % W=1
@@ -118,7 +117,6 @@ test6(X, Y) :- p(X), p(B), B=A, X = A, B = Y.
 % W=2
 % W=2
 % W=2
-%NO
 
 %?- test6(W,1)
 % W=1
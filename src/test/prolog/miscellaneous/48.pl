@@ -7,7 +7,6 @@ y([X,Y|Ys],[X|Zs]) :- X \= Y, y([Y|Ys],Zs).
 
 %?- x([a,b], X)
 % X=[a,b]
-%NO
 
 %?- y([a,b], X)
 % X=[a,b]
@@ -340,7 +340,6 @@ z3(X,Y,Z) :- assert(b3(1,2,3)), assert(b3(4,5,6)), assert(b3(7,8,9)), repeat(3),
 % Z=e
 % X=q
 % Z=e
-%NO
 
 %?- 1=1, x2(X,Y,Z)
 % X=x
@@ -612,7 +611,6 @@ z3(X,Y,Z) :- assert(b3(1,2,3)), assert(b3(4,5,6)), assert(b3(7,8,9)), repeat(3),
 % Z=e
 % X=q
 % Z=e
-%NO
 
 %?- 1=1, x3(X,Y,Z)
 % X=x
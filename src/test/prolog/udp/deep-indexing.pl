@@ -0,0 +1,64 @@
+% Clauses whose arguments are compound terms, lists or variables are indexed by the principal functor of the argument.
+% Where more than one clause has the same principal functor, the clauses are further indexed by the arguments of the
+% compound term. As only the clauses that could match are attempted, no choice point is left after the last answer.
+
+handle(msg(login, User), Result) :- Result = welcome(User).
+handle(msg(logout, User), Result) :- Result = goodbye(User).
+handle(msg(Type, _), Result) :- Type \== login, Type \== logout, Result = unknown(Type).
+handle(ping, pong).
+
+%?- handle(msg(login, bob), X)
+% X=welcome(bob)
+%NO
+
+%?- handle(msg(logout, bob), X)
+% X=goodbye(bob)
+%NO
+
+%?- handle(msg(other, bob), X)
+% X=unknown(other)
+
+%?- handle(ping, X)
+% X=pong
+
+%FAIL handle(msg(login, bob), goodbye(bob))
+%FAIL handle(pong, X)
+
+% lists are indexed by their first element
+route([http|Rest], web(Rest)).
+route([ftp|Rest], files(Rest)).
+route([], none).
+route([X,Y], pair(X,Y)).
+
+%?- route([http,a,b], X)
+% X=web([a,b])
+
+%?- route([ftp,a], X)
+% X=files([a])
+% X=pair(ftp, a)
+
+%?- route([], X)
+% X=none
+
+%?- route([http], X)
+% X=web([])
+
+%?- route([x,y], X)
+% X=pair(x, y)
+
+% the order of clauses is maintained when a clause has a variable as its argument
+order(f(1), a).
+order(X, b) :- X = f(_).
+order(f(2), c).
+order(g(1), d).
+
+%?- order(f(2), X)
+% X=b
+% X=c
+
+%?- order(f(1), X)
+% X=a
+% X=b
+
+%?- order(g(1), X)
+% X=d
@@ -16,7 +16,7 @@
 %TRUE assert(p(x,y,z))
 
 %TRUE p(a,b,c)
-%TRUE_NO retract(p(a,b,c))
+%TRUE retract(p(a,b,c))
 %FAIL p(a,b,c)
 
 %TRUE p(x,y,z)
@@ -81,11 +81,9 @@
 
 %?- p(X,b,c)
 % X=a
-%NO
 
 %?- p(X,2,3)
 % X=1
-%NO
 
 %?- p(X,y,z)
 % X=x
@@ -133,9 +131,9 @@
 % X=q
 % X=UNINSTANTIATED VARIABLE
 
-%TRUE_NO p(a,b,c)
-%TRUE_NO p(1,2,3)
-%TRUE_NO p(x,y,z)
+%TRUE p(a,b,c)
+%TRUE p(1,2,3)
+%TRUE p(x,y,z)
 %TRUE p(w,1,1)
 %FAIL p(q,w,e)
 %FAIL p(q,e,e)
@@ -152,7 +150,7 @@
 
 %TRUE assert(p(d,f,g))
 
-%TRUE_NO p(a,b,c)
+%TRUE p(a,b,c)
 
 %TRUE retract(p(d,f,g))
 %TRUE retract(p(a,b,c))
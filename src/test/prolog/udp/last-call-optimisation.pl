@@ -0,0 +1,90 @@
+% Recursive predicates which, due to last call optimisation, can be evaluated in a constant amount of Java stack.
+
+% three clauses, guards with cut and accumulators with is/2
+count_down(0, Acc, Acc) :- !.
+count_down(N, Acc, Result) :- 0 is N mod 2, !, N1 is N-1, Acc1 is Acc+2, count_down(N1, Acc1, Result).
+count_down(N, Acc, Result) :- N1 is N-1, Acc1 is Acc+1, count_down(N1, Acc1, Result).
+
+%?- count_down(1000000, 0, X)
+% X=1500000
+
+%?- count_down(7, 0, X)
+% X=10
+
+% a single clause
+one(I, N) :- I < N, I1 is I+1, one(I1, N).
+
+%FAIL one(0, 1000000)
+
+count_to(I, N) :- I < N, !, I1 is I+1, count_to(I1, N).
+count_to(N, N).
+
+% a single clause which calls a predicate with more than one clause
+count_up(N) :- integer(N), count_to(0, N).
+
+%TRUE count_up(1000000)
+%FAIL count_up(a)
+
+% building, and then iterating over, a long list
+make_list(0, L, L) :- !.
+make_list(N, L, Result) :- N1 is N-1, make_list(N1, [N|L], Result).
+
+count_even([], Acc, Acc).
+count_even([H|T], Acc, Result) :- 0 is H mod 2, !, Acc1 is Acc+1, count_even(T, Acc1, Result).
+count_even([_|T], Acc, Result) :- count_even(T, Acc, Result).
+
+count_even_up_to(N, Result) :- make_list(N, [], L), count_even(L, 0, Result).
+
+%?- count_even_up_to(1000000, X)
+% X=500000
+%NO
+
+%?- make_list(3, [], X)
+% X=[1,2,3]
+
+% mutual recursion
+is_even(0) :- !.
+is_even(N) :- N > 0, N1 is N-1, is_odd(N1).
+is_odd(N) :- N > 0, N1 is N-1, is_even(N1).
+
+%TRUE is_even(1000000)
+%FAIL is_even(999999)
+%TRUE is_odd(999999)
+%FAIL is_odd(1000000)
+
+% the clauses of the predicate called last can still be backtracked
+digit(1).
+digit(2).
+digit(3).
+digits(X) :- digit(X).
+first_digits(X, Y) :- !, Y = a, digits(X).
+first_digits(_, b).
+
+%?- first_digits(X, Y)
+% X=1
+% Y=a
+% X=2
+% Y=a
+% X=3
+% Y=a
+
+% if the predicate called last fails after a cut then the remaining clauses are not tried
+greater_than_100(X) :- X > 100.
+check(X, Y) :- X > 0, !, Y = positive, greater_than_100(X).
+check(_, other).
+
+%FAIL check(5, Y)
+
+%?- check(500, Y)
+% Y=positive
+
+%?- check(-5, Y)
+% Y=other
+
+% the bindings made before the last call are undone when the last call fails
+last_call_fails(X, Y) :- Y = 1, X = a, greater_than_100(Y).
+last_call_fails(X, Y) :- X = b, Y = 2.
+
+%?- last_call_fails(X, Y)
+% X=b
+% Y=2
@@ -1,16 +1,10 @@
 ?- pj_add_predicate(meta_data/2, 'org.projog.core.predicate.udp.PredicateMetaData').
 
+% not indexable as every clause has either a variable, or the same atom, as its argument
+p(a).
+p(X) :- X = a.
+p(_) :- repeat(2).
 p(a).
-p(b(_)).
-p(c(1)).
-p(c(2)).
-p(c(3)).
-p(d) :- repeat(2).
-p(e(X,X)) :- repeat(2).
-p(f(1)).
-p(f(_)).
-p(f(2)).
-p(g).
 
 %?- meta_data(p(_), X)
 % X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
@@ -25,143 +19,11 @@ p(g).
 
 %?- p(X)
 % X=a
-% X=b(_)
-% X=c(1)
-% X=c(2)
-% X=c(3)
-% X=d
-% X=d
-% X=e(X, X)
-% X=e(X, X)
-% X=f(1)
-% X=f(_)
-% X=f(2)
-% X=g
-
-%?- meta_data(p(a), X)
-% X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
-% X=factory_isRetryable : true
-% X=factory_isAlwaysCutOnBacktrack : false
-% X=actual_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$NotIndexablePredicateFactory
-% X=actual_isRetryable : true
-% X=actual_isAlwaysCutOnBacktrack : false
-% X=processed_class : org.projog.core.predicate.udp.SingleNonRetryableRulePredicateFactory
-% X=processed_isRetryable : false
-% X=processed_isAlwaysCutOnBacktrack : false
-
-%TRUE p(a)
-
-%?- meta_data(p(d), X)
-% X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
-% X=factory_isRetryable : true
-% X=factory_isAlwaysCutOnBacktrack : false
-% X=actual_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$NotIndexablePredicateFactory
-% X=actual_isRetryable : true
-% X=actual_isAlwaysCutOnBacktrack : false
-% X=processed_class : org.projog.core.predicate.udp.SingleRetryableRulePredicateFactory
-% X=processed_isRetryable : true
-% X=processed_isAlwaysCutOnBacktrack : false
-
-%?- p(d)
-%YES
-%YES
-
-%?- meta_data(p(b(z)), X)
-% X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
-% X=factory_isRetryable : true
-% X=factory_isAlwaysCutOnBacktrack : false
-% X=actual_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$NotIndexablePredicateFactory
-% X=actual_isRetryable : true
-% X=actual_isAlwaysCutOnBacktrack : false
-% X=processed_class : org.projog.core.predicate.udp.SingleNonRetryableRulePredicateFactory
-% X=processed_isRetryable : false
-% X=processed_isAlwaysCutOnBacktrack : false
-
-%TRUE p(b(z))
-
-%?- meta_data(p(c(_)), X)
-% X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
-% X=factory_isRetryable : true
-% X=factory_isAlwaysCutOnBacktrack : false
-% X=actual_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$NotIndexablePredicateFactory
-% X=actual_isRetryable : true
-% X=actual_isAlwaysCutOnBacktrack : false
-% X=processed_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$LinkedHashMapPredicateFactory
-% X=processed_isRetryable : true
-% X=processed_isAlwaysCutOnBacktrack : false
-
-%?- p(c(X))
-% X=1
-% X=2
-% X=3
-
-%?- meta_data(p(e(1,1)), X)
-% X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
-% X=factory_isRetryable : true
-% X=factory_isAlwaysCutOnBacktrack : false
-% X=actual_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$NotIndexablePredicateFactory
-% X=actual_isRetryable : true
-% X=actual_isAlwaysCutOnBacktrack : false
-% X=processed_class : org.projog.core.predicate.udp.SingleRetryableRulePredicateFactory
-% X=processed_isRetryable : true
-% X=processed_isAlwaysCutOnBacktrack : false
+% X=a
+% X=UNINSTANTIATED VARIABLE
+% X=UNINSTANTIATED VARIABLE
+% X=a
 
-%?- p(e(1,1))
+%?- p(b)
 %YES
 %YES
-
-%?- meta_data(p(e(1,2)), X)
-% X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
-% X=factory_isRetryable : true
-% X=factory_isAlwaysCutOnBacktrack : false
-% X=actual_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$NotIndexablePredicateFactory
-% X=actual_isRetryable : true
-% X=actual_isAlwaysCutOnBacktrack : false
-% X=processed_class : org.projog.core.predicate.udp.NeverSucceedsPredicateFactory
-% X=processed_isRetryable : false
-% X=processed_isAlwaysCutOnBacktrack : false
-
-%FAIL p(e(1,2))
-
-%?- meta_data(p(f(3)), X)
-% X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
-% X=factory_isRetryable : true
-% X=factory_isAlwaysCutOnBacktrack : false
-% X=actual_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$NotIndexablePredicateFactory
-% X=actual_isRetryable : true
-% X=actual_isAlwaysCutOnBacktrack : false
-% X=processed_class : org.projog.core.predicate.udp.SingleNonRetryableRulePredicateFactory
-% X=processed_isRetryable : false
-% X=processed_isAlwaysCutOnBacktrack : false
-
-%TRUE p(f(3))
-
-%?- meta_data(p(f(_)), X)
-% X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
-% X=factory_isRetryable : true
-% X=factory_isAlwaysCutOnBacktrack : false
-% X=actual_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$NotIndexablePredicateFactory
-% X=actual_isRetryable : true
-% X=actual_isAlwaysCutOnBacktrack : false
-% X=processed_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$NotIndexablePredicateFactory
-% X=processed_isRetryable : true
-% X=processed_isAlwaysCutOnBacktrack : false
-
-%?- p(f(X))
-% X=1
-% X=UNINSTANTIATED VARIABLE
-% X=2
-
-%?- meta_data(p(z), X)
-% X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
-% X=factory_isRetryable : true
-% X=factory_isAlwaysCutOnBacktrack : false
-% X=actual_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$NotIndexablePredicateFactory
-% X=actual_isRetryable : true
-% X=actual_isAlwaysCutOnBacktrack : false
-% X=processed_class : org.projog.core.predicate.udp.NeverSucceedsPredicateFactory
-% X=processed_isRetryable : false
-% X=processed_isAlwaysCutOnBacktrack : false
-
-%FAIL p(z)
-
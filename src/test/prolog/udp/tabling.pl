@@ -0,0 +1,88 @@
+% Tabled predicates store the answers of each call, so left recursive predicates terminate and each answer is only
+% returned once - even when the graph contains a cycle.
+
+?- dynamic(edge/2).
+edge(a,b).
+edge(b,c).
+edge(c,a).
+edge(c,d).
+
+?- table(path/2).
+path(X,Y) :- path(X,Z), edge(Z,Y).
+path(X,Y) :- edge(X,Y).
+
+%?- path(a,X)
+% X=b
+% X=c
+% X=a
+% X=d
+
+%?- path(X,a)
+% X=b
+% X=a
+% X=c
+
+%TRUE path(a,a)
+%FAIL path(d,X)
+
+%?- findall(X-Y, path(X,Y), L), length(L, N)
+% L=[a - b,b - c,c - a,c - d,a - c,b - a,b - d,c - b,a - a,a - d,b - b,c - c]
+% N=12
+% X=UNINSTANTIATED VARIABLE
+% Y=UNINSTANTIATED VARIABLE
+
+% tables are discarded when the clauses of a dynamic predicate they depend on change
+%TRUE assertz(edge(d,e))
+
+%?- path(a,X)
+% X=b
+% X=c
+% X=a
+% X=d
+% X=e
+
+%TRUE retract(edge(c,d))
+
+%?- path(a,X)
+% X=b
+% X=c
+% X=a
+
+% right recursion also terminates
+?- table(reachable/2).
+reachable(X,Y) :- edge(X,Y).
+reachable(X,Y) :- edge(X,Z), reachable(Z,Y).
+
+%?- reachable(b,X)
+% X=c
+% X=a
+% X=b
+
+% repeated subgoals are answered from the table, rather than being recomputed
+?- table(fib/2).
+fib(0, 0).
+fib(1, 1).
+fib(N, F) :- N > 1, N1 is N-1, N2 is N-2, fib(N1, F1), fib(N2, F2), F is F1+F2.
+
+%?- fib(90, F)
+% F=2880067194370816120
+
+%TRUE abolish_all_tables
+
+%?- fib(30, F)
+% F=832040
+
+% mutually recursive tabled predicates
+?- table(even/1).
+?- table(odd/1).
+even(0).
+even(X) :- odd(Y), X is Y+1, X < 10.
+odd(X) :- even(Y), X is Y+1, X < 10.
+
+%?- findall(X, even(X), L)
+% L=[0,2,4,6,8]
+% X=UNINSTANTIATED VARIABLE
+
+%?- findall(X, odd(X), L)
+% L=[1,3,5,7,9]
+% X=UNINSTANTIATED VARIABLE